@@ -3,4 +3,6 @@ package thirdparty.seatbooking;
 public interface SeatReservationService {
 
     void reserveSeat(long accountId, int totalSeatsToAllocate);
+
+    void releaseSeat(long accountId, int totalSeatsToRelease);
 }
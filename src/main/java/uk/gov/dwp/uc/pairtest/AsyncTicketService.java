@@ -0,0 +1,350 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.history.PurchaseHistory;
+import uk.gov.dwp.uc.pairtest.seatbooking.SeatHolds;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Purchases tickets without blocking the caller. The discount lookup runs alongside the seat reservation and
+ * payment is taken once both have completed.
+ * <p>
+ * A stage that times out fails the purchase but is not interrupted, so the thirdparty call may still complete.
+ * Seats are reserved as {@link SeatHolds.Hold}s: a purchase that fails before payment cancels its hold, one whose
+ * payment fails releases it, and a hold whose reservation completes after its stage timed out is cancelled as soon
+ * as it is placed. Holds also time out, in case a cancellation cannot release the seats.
+ * <p>
+ * Tickets count against their account's {@link PurchaseHistory} from validation, as in {@link TicketServiceImpl}. They
+ * are taken back if the purchase fails before payment starts or its payment fails. A purchase whose payment stage
+ * timed out is not paid for unless payment had already started, in which case its tickets still count.
+ * <p>
+ * An executor that rejects a stage fails the purchase with its {@link RejectedExecutionException}, cancelling any
+ * hold already placed.
+ */
+public class AsyncTicketService implements AutoCloseable {
+
+    static final String TOO_MANY_PURCHASES_ERROR = "Too many purchases in flight: %d.";
+    static final String HOLD_EXPIRED_ERROR = "Seat hold expired before payment.";
+    static final String PURCHASE_ABANDONED_ERROR = "Purchase failed before payment.";
+
+    private static final int HOLD_TICKS = 64;
+    private static final Duration MINIMUM_HOLD_TICK = Duration.ofMillis(1);
+
+    private final TicketPaymentService ticketPaymentService;
+    private final SeatHolds seatHolds;
+    private final DiscountService discountService;
+    private final Executor executor;
+    private final StageTimeouts stageTimeouts;
+    private final ValidationPolicies validationPolicies;
+    private final PurchaseHistory purchaseHistory;
+    private final int maxConcurrentPurchases;
+    private final Semaphore purchasePermits;
+    private final boolean ownsSeatHolds;
+
+    /**
+     * Holds seats for as long as all three stages may take, which a hold is confirmed or cancelled well within. Close
+     * the service to stop their expiry thread.
+     */
+    public AsyncTicketService(TicketPaymentService ticketPaymentService,
+                              SeatReservationService seatReservationService,
+                              DiscountService discountService,
+                              Executor executor,
+                              int maxConcurrentPurchases,
+                              StageTimeouts stageTimeouts) {
+        this(ticketPaymentService,
+             seatHolds(seatReservationService, stageTimeouts),
+             discountService,
+             executor,
+             maxConcurrentPurchases,
+             stageTimeouts,
+             ValidationPolicies.DEFAULT,
+             PurchaseHistory.NONE,
+             true);
+    }
+
+    public AsyncTicketService(TicketPaymentService ticketPaymentService,
+                              SeatHolds seatHolds,
+                              DiscountService discountService,
+                              Executor executor,
+                              int maxConcurrentPurchases,
+                              StageTimeouts stageTimeouts) {
+        this(ticketPaymentService,
+             seatHolds,
+             discountService,
+             executor,
+             maxConcurrentPurchases,
+             stageTimeouts,
+             ValidationPolicies.DEFAULT);
+    }
+
+    public AsyncTicketService(TicketPaymentService ticketPaymentService,
+                              SeatHolds seatHolds,
+                              DiscountService discountService,
+                              Executor executor,
+                              int maxConcurrentPurchases,
+                              StageTimeouts stageTimeouts,
+                              ValidationPolicies validationPolicies) {
+        this(ticketPaymentService,
+             seatHolds,
+             discountService,
+             executor,
+             maxConcurrentPurchases,
+             stageTimeouts,
+             validationPolicies,
+             PurchaseHistory.NONE);
+    }
+
+    public AsyncTicketService(TicketPaymentService ticketPaymentService,
+                              SeatHolds seatHolds,
+                              DiscountService discountService,
+                              Executor executor,
+                              int maxConcurrentPurchases,
+                              StageTimeouts stageTimeouts,
+                              ValidationPolicies validationPolicies,
+                              PurchaseHistory purchaseHistory) {
+        this(ticketPaymentService,
+             seatHolds,
+             discountService,
+             executor,
+             maxConcurrentPurchases,
+             stageTimeouts,
+             validationPolicies,
+             purchaseHistory,
+             false);
+    }
+
+    private AsyncTicketService(TicketPaymentService ticketPaymentService,
+                               SeatHolds seatHolds,
+                               DiscountService discountService,
+                               Executor executor,
+                               int maxConcurrentPurchases,
+                               StageTimeouts stageTimeouts,
+                               ValidationPolicies validationPolicies,
+                               PurchaseHistory purchaseHistory,
+                               boolean ownsSeatHolds) {
+        this.ticketPaymentService = ticketPaymentService;
+        this.validationPolicies = validationPolicies;
+        this.purchaseHistory = purchaseHistory;
+        this.seatHolds = seatHolds;
+        this.discountService = discountService;
+        this.executor = executor;
+        this.stageTimeouts = stageTimeouts;
+        this.maxConcurrentPurchases = maxConcurrentPurchases;
+        this.purchasePermits = new Semaphore(maxConcurrentPurchases);
+        this.ownsSeatHolds = ownsSeatHolds;
+    }
+
+    /**
+     * Completes exceptionally with {@link InvalidPurchaseException} for an invalid request, with
+     * {@link RejectedExecutionException} when too many purchases are in flight or the history is full, and with
+     * {@link java.util.concurrent.TimeoutException} when a stage exceeds its timeout.
+     */
+    public CompletableFuture<PurchaseResult> purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) {
+        InvalidPurchaseException.Reason reason = ticketPurchaseRequest.check(validationPolicies.current());
+        if (Objects.nonNull(reason)) {
+            return CompletableFuture.failedFuture(ticketPurchaseRequest.invalidPurchase(reason));
+        }
+
+        if (!purchasePermits.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                new RejectedExecutionException(String.format(TOO_MANY_PURCHASES_ERROR, maxConcurrentPurchases)));
+        }
+
+        HistoryClaim historyClaim;
+        try {
+            historyClaim = new HistoryClaim(ticketPurchaseRequest, purchaseHistory.claim(ticketPurchaseRequest));
+        } catch (RuntimeException exception) {
+            purchasePermits.release();
+            return CompletableFuture.failedFuture(exception);
+        }
+        if (historyClaim.claim == PurchaseHistory.REJECTED) {
+            purchasePermits.release();
+            return CompletableFuture.failedFuture(
+                ticketPurchaseRequest.invalidPurchase(InvalidPurchaseException.Reason.TOO_MANY_TICKETS_FOR_ACCOUNT));
+        }
+
+        long accountId = ticketPurchaseRequest.getAccountId();
+        int numberOfSeats = ticketPurchaseRequest.numberOfSeats();
+
+        CompletableFuture<SeatHolds.Hold> seatHold;
+        try {
+            seatHold = holdStage(accountId, numberOfSeats);
+        } catch (RuntimeException exception) {
+            return abandoned(historyClaim, exception);
+        }
+
+        CompletableFuture<Integer> cost;
+        try {
+            cost = stage(stageTimeouts.discountLookup(), () -> discountService.getDiscountPercentage(
+                accountId, ticketPurchaseRequest.getDiscountCode().orElse(null)))
+                .thenApply(ticketPurchaseRequest::cost)
+                .exceptionally(failure -> {
+                    if (unwrap(failure) instanceof InvalidDiscountCodeException) {
+                        return ticketPurchaseRequest.cost();
+                    }
+                    throw new CompletionException(unwrap(failure));
+                });
+        } catch (RuntimeException exception) {
+            seatHold.thenAccept(SeatHolds.Hold::cancel);
+            return abandoned(historyClaim, exception);
+        }
+
+        CompletableFuture<PurchaseResult> purchase = seatHold
+            .thenCombine(cost, HeldSeats::new)
+            .thenCompose(heldSeats -> stage(stageTimeouts.payment(), () -> pay(heldSeats, historyClaim)));
+
+        return purchase.whenComplete((result, failure) -> {
+            if (Objects.nonNull(failure)) {
+                seatHold.thenAccept(SeatHolds.Hold::cancel);
+                historyClaim.abandon();
+            }
+            purchasePermits.release();
+        });
+    }
+
+    /**
+     * Fails a purchase whose stages could not all be started, such as when the executor rejects one.
+     */
+    private CompletableFuture<PurchaseResult> abandoned(HistoryClaim historyClaim, RuntimeException exception) {
+        historyClaim.abandon();
+        purchasePermits.release();
+        return CompletableFuture.failedFuture(exception);
+    }
+
+    private PurchaseResult pay(HeldSeats heldSeats, HistoryClaim historyClaim) {
+        if (!historyClaim.startPayment()) {
+            throw new IllegalStateException(PURCHASE_ABANDONED_ERROR);
+        }
+        SeatHolds.Hold hold = heldSeats.hold();
+        if (!hold.confirm()) {
+            historyClaim.paymentFailed();
+            throw new IllegalStateException(HOLD_EXPIRED_ERROR);
+        }
+
+        try {
+            ticketPaymentService.makePayment(hold.getAccountId(), heldSeats.amount());
+        } catch (RuntimeException exception) {
+            hold.release();
+            historyClaim.paymentFailed();
+            throw exception;
+        }
+        return PurchaseResult.success(hold.getAccountId(), hold.getNumberOfSeats(), heldSeats.amount());
+    }
+
+    /**
+     * Cancels a hold placed after its stage has timed out, as nothing else will.
+     */
+    private CompletableFuture<SeatHolds.Hold> holdStage(long accountId, int numberOfSeats) {
+        CompletableFuture<SeatHolds.Hold> seatHold = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                SeatHolds.Hold hold = seatHolds.hold(accountId, numberOfSeats);
+                if (!seatHold.complete(hold)) {
+                    hold.cancel();
+                }
+            } catch (RuntimeException exception) {
+                seatHold.completeExceptionally(exception);
+            }
+        });
+        return seatHold.orTimeout(stageTimeouts.seatReservation().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Closes the seat holds made by the convenience constructor; holds passed in are left to their owner.
+     */
+    @Override
+    public void close() {
+        if (ownsSeatHolds) {
+            seatHolds.close();
+        }
+    }
+
+    private static SeatHolds seatHolds(SeatReservationService seatReservationService, StageTimeouts stageTimeouts) {
+        Duration holdTimeout = stageTimeouts.seatReservation()
+            .plus(stageTimeouts.discountLookup())
+            .plus(stageTimeouts.payment());
+        Duration tick = holdTimeout.dividedBy(HOLD_TICKS);
+        return new SeatHolds(seatReservationService,
+                             holdTimeout,
+                             tick.compareTo(MINIMUM_HOLD_TICK) < 0 ? MINIMUM_HOLD_TICK : tick);
+    }
+
+    private <T> CompletableFuture<T> stage(Duration timeout, Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && Objects.nonNull(failure.getCause()) ? failure.getCause() : failure;
+    }
+
+    private record HeldSeats(SeatHolds.Hold hold, int amount) {
+    }
+
+    /**
+     * A purchase's claim on its account's history, released at most once and never once payment may have been taken.
+     */
+    private final class HistoryClaim {
+
+        private static final int CLAIMED = 0;
+        private static final int PAYING = 1;
+        private static final int RELEASED = 2;
+
+        private final TicketPurchaseRequest ticketPurchaseRequest;
+        private final long claim;
+        private final AtomicInteger state = new AtomicInteger(CLAIMED);
+
+        private HistoryClaim(TicketPurchaseRequest ticketPurchaseRequest, long claim) {
+            this.ticketPurchaseRequest = ticketPurchaseRequest;
+            this.claim = claim;
+        }
+
+        /**
+         * @return false if the purchase has already failed, so payment must not be taken
+         */
+        private boolean startPayment() {
+            return state.compareAndSet(CLAIMED, PAYING);
+        }
+
+        private void paymentFailed() {
+            release(PAYING);
+        }
+
+        /**
+         * Releases the claim of a failed purchase, unless payment has started.
+         */
+        private void abandon() {
+            release(CLAIMED);
+        }
+
+        private void release(int from) {
+            if (state.compareAndSet(from, RELEASED)) {
+                purchaseHistory.release(ticketPurchaseRequest, claim);
+            }
+        }
+    }
+
+    public record StageTimeouts(Duration seatReservation, Duration discountLookup, Duration payment) {
+
+        public static StageTimeouts of(Duration timeout) {
+            return new StageTimeouts(timeout, timeout, timeout);
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package uk.gov.dwp.uc.pairtest;
 
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
 import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 
+import java.util.List;
+
 public interface TicketService {
 
     void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) throws InvalidPurchaseException;
 
+    /**
+     * Purchases every request in the batch, returning a result for each request in the same order.
+     * Invalid requests fail individually rather than failing the batch.
+     */
+    List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests);
+
 }
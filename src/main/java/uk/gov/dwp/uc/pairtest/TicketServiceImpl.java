@@ -1,7 +1,25 @@
 package uk.gov.dwp.uc.pairtest;
 
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
 import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.history.PurchaseHistory;
+import uk.gov.dwp.uc.pairtest.idempotency.IdempotencyIndex;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.MetricsRegistry;
+import uk.gov.dwp.uc.pairtest.sales.SalesRecorder;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import thirdparty.discount.Discount;
 import thirdparty.discount.DiscountService;
@@ -15,29 +33,346 @@ public class TicketServiceImpl implements TicketService {
     private final TicketPaymentService ticketPaymentService;
     private final SeatReservationService seatReservationService;
     private final DiscountService discountService;
+    private final PurchaseJournal purchaseJournal;
+    private final IdempotencyIndex idempotencyIndex;
+    private final ValidationPolicies validationPolicies;
+    private final SalesRecorder salesRecorder;
+    private final PurchaseHistory purchaseHistory;
+    private final MetricsRegistry.Timer validationTimer;
 
     public TicketServiceImpl(TicketPaymentService ticketPaymentService,
                              SeatReservationService seatReservationService,
                              DiscountService discountService) {
+        this(ticketPaymentService, seatReservationService, discountService, PurchaseJournal.NONE);
+    }
+
+    /**
+     * Journals each purchase from just before its seats are reserved until it is paid or fails and its seats are
+     * released.
+     */
+    public TicketServiceImpl(TicketPaymentService ticketPaymentService,
+                             SeatReservationService seatReservationService,
+                             DiscountService discountService,
+                             PurchaseJournal purchaseJournal) {
+        this(ticketPaymentService, seatReservationService, discountService, purchaseJournal, IdempotencyIndex.NONE);
+    }
+
+    /**
+     * Also makes a purchase with an idempotency key only once, returning the original outcome to any retry.
+     */
+    public TicketServiceImpl(TicketPaymentService ticketPaymentService,
+                             SeatReservationService seatReservationService,
+                             DiscountService discountService,
+                             PurchaseJournal purchaseJournal,
+                             IdempotencyIndex idempotencyIndex) {
+        this(ticketPaymentService,
+             seatReservationService,
+             discountService,
+             purchaseJournal,
+             idempotencyIndex,
+             ValidationPolicies.DEFAULT);
+    }
+
+    /**
+     * Also validates each purchase against the current policy, such as one reloaded from a {@link
+     * uk.gov.dwp.uc.pairtest.validation.ValidationPolicyFile}.
+     */
+    public TicketServiceImpl(TicketPaymentService ticketPaymentService,
+                             SeatReservationService seatReservationService,
+                             DiscountService discountService,
+                             PurchaseJournal purchaseJournal,
+                             IdempotencyIndex idempotencyIndex,
+                             ValidationPolicies validationPolicies) {
+        this(ticketPaymentService,
+             seatReservationService,
+             discountService,
+             purchaseJournal,
+             idempotencyIndex,
+             validationPolicies,
+             SalesRecorder.NONE);
+    }
+
+    /**
+     * Also records every purchase once paid for, such as in the {@link uk.gov.dwp.uc.pairtest.sales.ScreeningSales}
+     * of the screening the service sells.
+     */
+    public TicketServiceImpl(TicketPaymentService ticketPaymentService,
+                             SeatReservationService seatReservationService,
+                             DiscountService discountService,
+                             PurchaseJournal purchaseJournal,
+                             IdempotencyIndex idempotencyIndex,
+                             ValidationPolicies validationPolicies,
+                             SalesRecorder salesRecorder) {
+        this(ticketPaymentService,
+             seatReservationService,
+             discountService,
+             purchaseJournal,
+             idempotencyIndex,
+             validationPolicies,
+             salesRecorder,
+             PurchaseHistory.NONE);
+    }
+
+    /**
+     * Also limits the tickets each account may buy across purchases, as kept in the {@link PurchaseHistory}. A
+     * purchase's tickets count against its account from validation, and are taken back if the purchase fails.
+     */
+    public TicketServiceImpl(TicketPaymentService ticketPaymentService,
+                             SeatReservationService seatReservationService,
+                             DiscountService discountService,
+                             PurchaseJournal purchaseJournal,
+                             IdempotencyIndex idempotencyIndex,
+                             ValidationPolicies validationPolicies,
+                             SalesRecorder salesRecorder,
+                             PurchaseHistory purchaseHistory) {
+        this(ticketPaymentService,
+             seatReservationService,
+             discountService,
+             purchaseJournal,
+             idempotencyIndex,
+             validationPolicies,
+             salesRecorder,
+             purchaseHistory,
+             MetricsRegistry.Timer.NONE);
+    }
+
+    /**
+     * Also times the validation of each request, such as with the
+     * {@link uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketService#VALIDATION_TIMER}.
+     */
+    public TicketServiceImpl(TicketPaymentService ticketPaymentService,
+                             SeatReservationService seatReservationService,
+                             DiscountService discountService,
+                             PurchaseJournal purchaseJournal,
+                             IdempotencyIndex idempotencyIndex,
+                             ValidationPolicies validationPolicies,
+                             SalesRecorder salesRecorder,
+                             PurchaseHistory purchaseHistory,
+                             MetricsRegistry.Timer validationTimer) {
         this.ticketPaymentService = ticketPaymentService;
         this.seatReservationService = seatReservationService;
         this.discountService = discountService;
+        this.purchaseJournal = purchaseJournal;
+        this.idempotencyIndex = idempotencyIndex;
+        this.validationPolicies = validationPolicies;
+        this.salesRecorder = salesRecorder;
+        this.purchaseHistory = purchaseHistory;
+        this.validationTimer = validationTimer;
     }
 
     /**
-     * Should only have private methods other than the one below.
+     * Should only have private methods other than the ones below.
      */
     @Override
     public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) throws InvalidPurchaseException {
-        ticketPurchaseRequest.validate();
-        seatReservationService.reserveSeat(ticketPurchaseRequest.getAccountId(), ticketPurchaseRequest.numberOfSeats());
-        
+        long validationStart = System.nanoTime();
+        try {
+            ticketPurchaseRequest.validateAgainst(validationPolicies.current());
+        } finally {
+            validationTimer.record(System.nanoTime() - validationStart);
+        }
+        long accountId = ticketPurchaseRequest.getAccountId();
+        UUID idempotencyKey = ticketPurchaseRequest.getIdempotencyKey().orElse(null);
+        if (Objects.nonNull(idempotencyKey) && Objects.nonNull(idempotencyIndex.claim(accountId, idempotencyKey))) {
+            return;
+        }
+        long historyClaim = claimHistory(ticketPurchaseRequest, idempotencyKey);
+
+        long purchaseId = -1;
+        int seatsToRelease = 0;
+        int cost;
+        try {
+            purchaseId = purchaseJournal.begin(accountId, ticketPurchaseRequest.numberOfSeats());
+            seatReservationService.reserveSeat(accountId, ticketPurchaseRequest.numberOfSeats());
+            seatsToRelease = ticketPurchaseRequest.numberOfSeats();
+            purchaseJournal.seatsReserved(purchaseId);
+
+            cost = cost(ticketPurchaseRequest);
+            purchaseJournal.discountApplied(purchaseId, cost);
+            ticketPaymentService.makePayment(accountId, cost);
+        } catch (RuntimeException exception) {
+            if (purchaseId != -1) {
+                compensate(purchaseId, accountId, seatsToRelease, exception);
+            }
+            purchaseHistory.release(ticketPurchaseRequest, historyClaim);
+            if (Objects.nonNull(idempotencyKey)) {
+                idempotencyIndex.release(accountId, idempotencyKey);
+            }
+            throw exception;
+        }
+        purchaseJournal.paid(purchaseId);
+        if (Objects.nonNull(idempotencyKey)) {
+            idempotencyIndex.complete(accountId, idempotencyKey, ticketPurchaseRequest.numberOfSeats(), cost);
+        }
+        salesRecorder.recordSale(ticketPurchaseRequest, cost);
+    }
+
+    /**
+     * Validates every request up front, including against its account's purchase history, then makes one seat
+     * reservation and one payment per account, looking up each distinct discount code for an account once. A retried
+     * request is given its original outcome.
+     */
+    @Override
+    public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+        PurchaseResult[] results = new PurchaseResult[ticketPurchaseRequests.size()];
+        long[] historyClaims = new long[results.length];
+        Map<Long, List<Integer>> validRequestsByAccount = new LinkedHashMap<>();
+        ValidationPolicy validationPolicy = validationPolicies.current();
+
+        for (int i = 0; i < results.length; i++) {
+            TicketPurchaseRequest ticketPurchaseRequest = ticketPurchaseRequests.get(i);
+            long validationStart = System.nanoTime();
+            InvalidPurchaseException.Reason reason = ticketPurchaseRequest.check(validationPolicy);
+            validationTimer.record(System.nanoTime() - validationStart);
+            if (Objects.nonNull(reason)) {
+                results[i] = PurchaseResult.invalid(ticketPurchaseRequest.getAccountId(),
+                                                    reason,
+                                                    ticketPurchaseRequest.describe(reason));
+                continue;
+            }
+            try {
+                results[i] = claim(ticketPurchaseRequest);
+                if (Objects.isNull(results[i])) {
+                    historyClaims[i] = claimHistory(ticketPurchaseRequest,
+                                                    ticketPurchaseRequest.getIdempotencyKey().orElse(null));
+                    validRequestsByAccount.computeIfAbsent(ticketPurchaseRequest.getAccountId(), accountId -> new ArrayList<>())
+                        .add(i);
+                }
+            } catch (InvalidPurchaseException exception) {
+                results[i] = PurchaseResult.invalid(ticketPurchaseRequest.getAccountId(), exception);
+            } catch (RejectedExecutionException exception) {
+                results[i] = PurchaseResult.failure(ticketPurchaseRequest.getAccountId(), exception.getMessage());
+            }
+        }
+
+        validRequestsByAccount.forEach((accountId, positions) -> purchaseForAccount(
+            accountId, positions, ticketPurchaseRequests, historyClaims, results));
+
+        return Arrays.asList(results);
+    }
+
+    private void purchaseForAccount(long accountId,
+                                    List<Integer> positions,
+                                    List<TicketPurchaseRequest> ticketPurchaseRequests,
+                                    long[] historyClaims,
+                                    PurchaseResult[] results) {
+        Map<String, Double> discountsByCode = new HashMap<>();
+        int[] seats = new int[positions.size()];
+        int[] costs = new int[positions.size()];
+        int totalSeats = 0;
+        int totalCost = 0;
+        long purchaseId = -1;
+        int seatsToRelease = 0;
+
+        try {
+            for (int i = 0; i < positions.size(); i++) {
+                TicketPurchaseRequest ticketPurchaseRequest = ticketPurchaseRequests.get(positions.get(i));
+                double discount = discountsByCode.computeIfAbsent(ticketPurchaseRequest.getDiscountCode().orElse(null),
+                                                                  code -> discountPercentage(accountId, code));
+                seats[i] = ticketPurchaseRequest.numberOfSeats();
+                costs[i] = ticketPurchaseRequest.cost(discount);
+                totalSeats += seats[i];
+                totalCost += costs[i];
+            }
+
+            purchaseId = purchaseJournal.begin(accountId, totalSeats);
+            seatReservationService.reserveSeat(accountId, totalSeats);
+            seatsToRelease = totalSeats;
+            purchaseJournal.seatsReserved(purchaseId);
+            purchaseJournal.discountApplied(purchaseId, totalCost);
+            ticketPaymentService.makePayment(accountId, totalCost);
+        } catch (RuntimeException exception) {
+            if (purchaseId != -1) {
+                compensate(purchaseId, accountId, seatsToRelease, exception);
+            }
+            for (Integer position : positions) {
+                purchaseHistory.release(ticketPurchaseRequests.get(position), historyClaims[position]);
+                ticketPurchaseRequests.get(position).getIdempotencyKey()
+                    .ifPresent(idempotencyKey -> idempotencyIndex.release(accountId, idempotencyKey));
+                results[position] = PurchaseResult.failure(accountId, exception.getMessage());
+            }
+            return;
+        }
+        purchaseJournal.paid(purchaseId);
+
+        for (int i = 0; i < positions.size(); i++) {
+            int seatsReserved = seats[i];
+            int amountPaid = costs[i];
+            TicketPurchaseRequest ticketPurchaseRequest = ticketPurchaseRequests.get(positions.get(i));
+            ticketPurchaseRequest.getIdempotencyKey()
+                .ifPresent(idempotencyKey -> idempotencyIndex.complete(accountId, idempotencyKey, seatsReserved, amountPaid));
+            salesRecorder.recordSale(ticketPurchaseRequest, amountPaid);
+            results[positions.get(i)] = PurchaseResult.success(accountId, seatsReserved, amountPaid);
+        }
+    }
+
+    /**
+     * Releases any seats reserved for a failed purchase. If they cannot be released the purchase is left incomplete
+     * in the journal, to be compensated on recovery.
+     */
+    private void compensate(long purchaseId, long accountId, int seatsToRelease, RuntimeException failure) {
+        if (seatsToRelease > 0) {
+            try {
+                seatReservationService.releaseSeat(accountId, seatsToRelease);
+            } catch (RuntimeException releaseFailure) {
+                failure.addSuppressed(releaseFailure);
+                return;
+            }
+        }
+        purchaseJournal.failed(purchaseId);
+    }
+
+    /**
+     * @return the original outcome of a retried request, or null if the request should be purchased
+     */
+    private PurchaseResult claim(TicketPurchaseRequest ticketPurchaseRequest) {
+        return ticketPurchaseRequest.getIdempotencyKey()
+            .map(idempotencyKey -> idempotencyIndex.claim(ticketPurchaseRequest.getAccountId(), idempotencyKey))
+            .orElse(null);
+    }
+
+    /**
+     * Counts the purchase against its account's history, giving up the claimed idempotency key if the account has
+     * bought too many tickets.
+     *
+     * @return the claim, to release if the purchase fails
+     */
+    private long claimHistory(TicketPurchaseRequest ticketPurchaseRequest, UUID idempotencyKey) {
+        long historyClaim;
+        try {
+            historyClaim = purchaseHistory.claim(ticketPurchaseRequest);
+        } catch (RuntimeException exception) {
+            releaseKey(ticketPurchaseRequest.getAccountId(), idempotencyKey);
+            throw exception;
+        }
+        if (historyClaim == PurchaseHistory.REJECTED) {
+            releaseKey(ticketPurchaseRequest.getAccountId(), idempotencyKey);
+            throw ticketPurchaseRequest.invalidPurchase(InvalidPurchaseException.Reason.TOO_MANY_TICKETS_FOR_ACCOUNT);
+        }
+        return historyClaim;
+    }
+
+    private void releaseKey(long accountId, UUID idempotencyKey) {
+        if (Objects.nonNull(idempotencyKey)) {
+            idempotencyIndex.release(accountId, idempotencyKey);
+        }
+    }
+
+    private int cost(TicketPurchaseRequest ticketPurchaseRequest) {
         try {
             Discount discount = discountService.getDiscountPercentage(ticketPurchaseRequest.getAccountId(),
                                                                       ticketPurchaseRequest.getDiscountCode().orElse(null));
-            ticketPaymentService.makePayment(ticketPurchaseRequest.getAccountId(), ticketPurchaseRequest.cost(discount.percentage()));
+            return ticketPurchaseRequest.cost(discount);
+        } catch (InvalidDiscountCodeException exception) {
+            return ticketPurchaseRequest.cost();
+        }
+    }
+
+    private double discountPercentage(long accountId, String discountCode) {
+        try {
+            return discountService.getDiscountPercentage(accountId, discountCode).percentage();
         } catch (InvalidDiscountCodeException exception) {
-            ticketPaymentService.makePayment(ticketPurchaseRequest.getAccountId(), ticketPurchaseRequest.cost());
+            return 0;
         }
     }
 }
@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.resilience.Bulkhead;
+import uk.gov.dwp.uc.pairtest.resilience.BulkheadDiscountService;
+import uk.gov.dwp.uc.pairtest.resilience.BulkheadSeatReservationService;
+import uk.gov.dwp.uc.pairtest.resilience.BulkheadTicketPaymentService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import thirdparty.discount.DiscountService;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Runs each purchase on its own virtual thread, so a blocking thirdparty call parks the virtual thread rather than
+ * holding a platform thread. Concurrency towards each thirdparty service is capped by its {@link Bulkhead}.
+ */
+public class VirtualThreadPurchaseExecutor implements AutoCloseable {
+
+    private final TicketService ticketService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public VirtualThreadPurchaseExecutor(TicketService ticketService) {
+        this.ticketService = ticketService;
+    }
+
+    public VirtualThreadPurchaseExecutor(TicketPaymentService ticketPaymentService,
+                                         SeatReservationService seatReservationService,
+                                         DiscountService discountService,
+                                         Bulkhead paymentBulkhead,
+                                         Bulkhead seatReservationBulkhead,
+                                         Bulkhead discountBulkhead) {
+        this(new TicketServiceImpl(new BulkheadTicketPaymentService(ticketPaymentService, paymentBulkhead),
+                                   new BulkheadSeatReservationService(seatReservationService, seatReservationBulkhead),
+                                   new BulkheadDiscountService(discountService, discountBulkhead)));
+    }
+
+    /**
+     * Completes exceptionally with whatever {@link TicketService#purchaseTickets(TicketPurchaseRequest)} throws,
+     * including {@link java.util.concurrent.RejectedExecutionException} when a bulkhead turns the call away.
+     */
+    public CompletableFuture<Void> purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) {
+        return CompletableFuture.runAsync(() -> ticketService.purchaseTickets(ticketPurchaseRequest), executor);
+    }
+
+    /**
+     * Stops accepting purchases and waits for those in flight to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
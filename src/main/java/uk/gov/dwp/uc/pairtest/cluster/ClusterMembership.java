@@ -0,0 +1,189 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.NodeUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningNotHeldException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The nodes of the cluster and which of them owns each screening. Routers read the current {@link ConsistentHashRing}
+ * on every call. When a node joins or leaves, the new ring is published first and each screening whose owner changed
+ * is then handed off by the node holding it and added to its new owner. Until it arrives, reservations for it fail as
+ * not held and are retried by the router. A screening is only ever held by one node, so seats cannot be sold twice.
+ * <p>
+ * A node that cannot be reached is skipped, and a hand-off whose new owner cannot be reached is kept here, until
+ * {@link #rebalance()} is called again once the partition has healed. New screenings are added here too, so one is
+ * never created at its owner while a copy is still stranded elsewhere or in transit.
+ */
+public class ClusterMembership {
+
+    static final String LAST_NODE_ERROR = "Cannot remove the last node: %s.";
+
+    private final NodeTransport transport;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<String> leavingNodes = new LinkedHashSet<>();
+    private final Map<Long, ScreeningSeats> inTransit = new HashMap<>();
+    private volatile ConsistentHashRing ring;
+
+    /**
+     * @param transport reaches every node, from whichever node runs the membership changes
+     */
+    public ClusterMembership(int virtualNodes, NodeTransport transport) {
+        this.ring = new ConsistentHashRing(virtualNodes);
+        this.transport = transport;
+    }
+
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+
+    /**
+     * Adds the node to the ring and moves to it the screenings it now owns.
+     *
+     * @return false if some screenings could not be moved yet
+     */
+    public boolean join(String nodeId) {
+        lock.lock();
+        try {
+            ring = ring.withNode(nodeId);
+            leavingNodes.remove(nodeId);
+            return rebalanceLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the node from the ring and moves its screenings to their new owners.
+     *
+     * @return false if some screenings could not be moved yet, so the node must not be stopped
+     */
+    public boolean leave(String nodeId) {
+        lock.lock();
+        try {
+            if (ring.nodes().equals(Set.of(nodeId))) {
+                throw new IllegalStateException(String.format(LAST_NODE_ERROR, nodeId));
+            }
+            ring = ring.withoutNode(nodeId);
+            leavingNodes.add(nodeId);
+            return rebalanceLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new screening to its owner. Ignored if the screening already exists: if it is held by any node, or handed
+     * off and waiting to be added to its owner. Runs under the membership lock, so no hand-off starts meanwhile.
+     *
+     * @throws NodeUnavailableException if a node that may hold the screening cannot be reached, as the screening could
+     *                                  then be sold twice; nothing is added
+     */
+    public void addScreening(long screeningId, int capacity) {
+        lock.lock();
+        try {
+            if (inTransit.containsKey(screeningId)) {
+                return;
+            }
+            for (String nodeId : holders()) {
+                if (transport.connect(nodeId).heldScreenings().contains(screeningId)) {
+                    return;
+                }
+            }
+            transport.connect(ring.ownerOf(screeningId)).addScreening(ScreeningSeats.unsold(screeningId, capacity));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves every screening not held by its owner, such as those left behind by a partition.
+     *
+     * @return false if some screenings could not be moved yet
+     */
+    public boolean rebalance() {
+        lock.lock();
+        try {
+            return rebalanceLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean rebalanceLocked() {
+        boolean complete = true;
+        Iterator<ScreeningSeats> handedOff = inTransit.values().iterator();
+        while (handedOff.hasNext()) {
+            if (add(handedOff.next())) {
+                handedOff.remove();
+            } else {
+                complete = false;
+            }
+        }
+
+        for (String nodeId : holders()) {
+            if (!rebalanceFrom(nodeId)) {
+                complete = false;
+            } else if (leavingNodes.contains(nodeId)) {
+                leavingNodes.remove(nodeId);
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * @return every node that may hold screenings: those in the ring and those still leaving it
+     */
+    private Set<String> holders() {
+        Set<String> holders = new LinkedHashSet<>(ring.nodes());
+        holders.addAll(leavingNodes);
+        return holders;
+    }
+
+    /**
+     * @return false if the node, or the new owner of one of its screenings, could not be reached
+     */
+    private boolean rebalanceFrom(String nodeId) {
+        InventoryNode node = transport.connect(nodeId);
+        Set<Long> heldScreenings;
+        try {
+            heldScreenings = node.heldScreenings();
+        } catch (NodeUnavailableException exception) {
+            return false;
+        }
+
+        boolean complete = true;
+        for (long screeningId : heldScreenings) {
+            if (ring.ownerOf(screeningId).equals(nodeId)) {
+                continue;
+            }
+            ScreeningSeats screeningSeats;
+            try {
+                screeningSeats = node.handOff(screeningId);
+            } catch (ScreeningNotHeldException exception) {
+                continue;
+            } catch (NodeUnavailableException exception) {
+                return false;
+            }
+            if (!add(screeningSeats)) {
+                inTransit.put(screeningId, screeningSeats);
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    private boolean add(ScreeningSeats screeningSeats) {
+        try {
+            transport.connect(ring.ownerOf(screeningSeats.screeningId())).addScreening(screeningSeats);
+            return true;
+        } catch (NodeUnavailableException exception) {
+            return false;
+        }
+    }
+}
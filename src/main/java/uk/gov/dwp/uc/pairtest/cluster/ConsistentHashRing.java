@@ -0,0 +1,104 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Assigns each screening to a node by hashing both onto a ring: a screening belongs to the first node point at or
+ * after its own. Each node is placed at many points, its virtual nodes, so screenings spread evenly and a node joining
+ * or leaving moves only its share of them. Immutable, so a ring can be read by any thread while membership changes
+ * build a new one.
+ */
+public final class ConsistentHashRing {
+
+    static final String EMPTY_RING_ERROR = "No nodes in the ring.";
+    static final String INVALID_VIRTUAL_NODES_ERROR = "Virtual nodes must be positive: %d.";
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final int virtualNodes;
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(int virtualNodes) {
+        this(virtualNodes, Set.of());
+    }
+
+    private ConsistentHashRing(int virtualNodes, Set<String> nodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException(String.format(INVALID_VIRTUAL_NODES_ERROR, virtualNodes));
+        }
+        this.virtualNodes = virtualNodes;
+        this.nodes = Set.copyOf(nodes);
+
+        Point[] ring = new Point[nodes.size() * virtualNodes];
+        int next = 0;
+        for (String nodeId : nodes) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                ring[next++] = new Point(point(nodeId, replica), nodeId);
+            }
+        }
+        Arrays.sort(ring, Comparator.comparingLong(Point::hash).thenComparing(Point::nodeId));
+
+        this.points = new long[ring.length];
+        this.owners = new String[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i].hash();
+            owners[i] = ring[i].nodeId();
+        }
+    }
+
+    public ConsistentHashRing withNode(String nodeId) {
+        Set<String> withNode = new HashSet<>(nodes);
+        withNode.add(nodeId);
+        return new ConsistentHashRing(virtualNodes, withNode);
+    }
+
+    public ConsistentHashRing withoutNode(String nodeId) {
+        Set<String> withoutNode = new HashSet<>(nodes);
+        withoutNode.remove(nodeId);
+        return new ConsistentHashRing(virtualNodes, withoutNode);
+    }
+
+    /**
+     * @throws IllegalStateException if the ring has no nodes
+     */
+    public String ownerOf(long screeningId) {
+        if (points.length == 0) {
+            throw new IllegalStateException(EMPTY_RING_ERROR);
+        }
+        int index = Arrays.binarySearch(points, mix(screeningId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * FNV-1a of the node id, mixed with the replica so each virtual node lands somewhere unrelated.
+     */
+    private static long point(String nodeId, int replica) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < nodeId.length(); i++) {
+            hash = (hash ^ nodeId.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash ^ (replica * 0x9E3779B97F4A7C15L));
+    }
+
+    private static long mix(long value) {
+        long hash = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private record Point(long hash, String nodeId) {
+    }
+}
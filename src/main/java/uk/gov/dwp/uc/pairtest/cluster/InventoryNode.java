@@ -0,0 +1,38 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.ScreeningNotHeldException;
+
+import java.util.Set;
+
+/**
+ * The calls a node of the cluster answers, for the screenings it holds. Other nodes reach it through a
+ * {@link NodeTransport}.
+ */
+public interface InventoryNode {
+
+    /**
+     * @throws ScreeningNotHeldException if the node does not hold the screening
+     */
+    void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate);
+
+    /**
+     * @throws ScreeningNotHeldException if the node does not hold the screening
+     */
+    void releaseSeat(long screeningId, long accountId, int totalSeatsToRelease);
+
+    /**
+     * Starts holding a screening, new or handed off by another node. Ignored if the node already holds it, so a
+     * retried call is harmless. A new screening is only added through {@link ClusterMembership#addScreening}, which
+     * makes sure no other copy of it exists.
+     */
+    void addScreening(ScreeningSeats screeningSeats);
+
+    /**
+     * Stops holding the screening, waiting for reservations in progress, so it can be added to another node.
+     *
+     * @throws ScreeningNotHeldException if the node does not hold the screening
+     */
+    ScreeningSeats handOff(long screeningId);
+
+    Set<Long> heldScreenings();
+}
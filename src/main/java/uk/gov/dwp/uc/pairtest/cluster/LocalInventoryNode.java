@@ -0,0 +1,121 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.ScreeningNotHeldException;
+import uk.gov.dwp.uc.pairtest.seatbooking.ScreeningSeatInventory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * The screenings held by this node, each in its own {@link ScreeningSeatInventory}. Reservations share a screening's
+ * read lock, so they run concurrently as before; a hand-off takes the write lock, so no reservation lands after the
+ * seats have been copied. A reservation that finds the screening being handed off fails as not held, for the caller
+ * to retry at the new owner.
+ */
+public class LocalInventoryNode implements InventoryNode {
+
+    static final String NOT_HELD_ERROR = "Screening %d is not held by node %s.";
+
+    private final String nodeId;
+    private final Map<Long, HeldScreening> screenings = new ConcurrentHashMap<>();
+
+    public LocalInventoryNode(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+        withScreening(screeningId, inventory -> inventory.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void releaseSeat(long screeningId, long accountId, int totalSeatsToRelease) {
+        withScreening(screeningId, inventory -> inventory.releaseSeat(accountId, totalSeatsToRelease));
+    }
+
+    @Override
+    public void addScreening(ScreeningSeats screeningSeats) {
+        screenings.computeIfAbsent(screeningSeats.screeningId(), screeningId -> new HeldScreening(
+            new ScreeningSeatInventory(screeningSeats.capacity(), screeningSeats.seatsHeldByAccount())));
+    }
+
+    @Override
+    public ScreeningSeats handOff(long screeningId) {
+        HeldScreening screening = held(screeningId);
+        Lock lock = screening.lock.writeLock();
+        lock.lock();
+        try {
+            if (screening.handedOff) {
+                throw notHeld(screeningId);
+            }
+            screening.handedOff = true;
+            screenings.remove(screeningId, screening);
+            return new ScreeningSeats(screeningId,
+                                      screening.inventory.getCapacity(),
+                                      screening.inventory.seatsHeldByAccount());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> heldScreenings() {
+        return Set.copyOf(screenings.keySet());
+    }
+
+    /**
+     * @return the remaining seats of a screening the node holds
+     * @throws ScreeningNotHeldException if the node does not hold the screening
+     */
+    public int remainingSeats(long screeningId) {
+        return held(screeningId).inventory.remainingSeats();
+    }
+
+    private void withScreening(long screeningId, Consumer<ScreeningSeatInventory> call) {
+        HeldScreening screening = held(screeningId);
+        Lock lock = screening.lock.readLock();
+        if (!lock.tryLock()) {
+            throw notHeld(screeningId);
+        }
+        try {
+            if (screening.handedOff) {
+                throw notHeld(screeningId);
+            }
+            call.accept(screening.inventory);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private HeldScreening held(long screeningId) {
+        HeldScreening screening = screenings.get(screeningId);
+        if (Objects.isNull(screening)) {
+            throw notHeld(screeningId);
+        }
+        return screening;
+    }
+
+    private ScreeningNotHeldException notHeld(long screeningId) {
+        return new ScreeningNotHeldException(String.format(NOT_HELD_ERROR, screeningId, nodeId));
+    }
+
+    private static final class HeldScreening {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ScreeningSeatInventory inventory;
+        private boolean handedOff;
+
+        private HeldScreening(ScreeningSeatInventory inventory) {
+            this.inventory = inventory;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.NodeUnavailableException;
+
+/**
+ * Carries calls to the other nodes of the cluster. A call that cannot be delivered throws
+ * {@link NodeUnavailableException} without having taken effect; moving screenings between nodes relies on it.
+ */
+public interface NodeTransport {
+
+    /**
+     * @return a stub forwarding each call to the node
+     */
+    InventoryNode connect(String nodeId);
+}
@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.NodeUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningNotHeldException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Seat capacity for every screening across the cluster, as seen from one node. Each call is forwarded to the node
+ * that owns the screening in the current ring, which may be this one. A call that reaches a node no longer, or not
+ * yet, holding the screening is retried with backoff while the screening moves, up to a limit.
+ * <p>
+ * A node that cannot be reached fails the call with {@link NodeUnavailableException}; seats are never reserved
+ * anywhere but at the one node holding the screening.
+ */
+public class PartitionedSeatInventory {
+
+    private static final int MAXIMUM_ATTEMPTS = 8;
+    private static final long INITIAL_BACKOFF_NANOS = Duration.ofMillis(1).toNanos();
+
+    private final ClusterMembership membership;
+    private final NodeTransport transport;
+
+    /**
+     * @param transport reaches every node from this one
+     */
+    public PartitionedSeatInventory(ClusterMembership membership, NodeTransport transport) {
+        this.membership = membership;
+        this.transport = transport;
+    }
+
+    /**
+     * @see ClusterMembership#addScreening
+     */
+    public void addScreening(long screeningId, int capacity) {
+        membership.addScreening(screeningId, capacity);
+    }
+
+    /**
+     * @return the screening's seats, for the ticket service selling it
+     */
+    public SeatReservationService forScreening(long screeningId) {
+        return new SeatReservationService() {
+            @Override
+            public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+                forward(screeningId, node -> node.reserveSeat(screeningId, accountId, totalSeatsToAllocate));
+            }
+
+            @Override
+            public void releaseSeat(long accountId, int totalSeatsToRelease) {
+                forward(screeningId, node -> node.releaseSeat(screeningId, accountId, totalSeatsToRelease));
+            }
+        };
+    }
+
+    private void forward(long screeningId, Consumer<InventoryNode> call) {
+        long backoffNanos = INITIAL_BACKOFF_NANOS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                call.accept(transport.connect(membership.ring().ownerOf(screeningId)));
+                return;
+            } catch (ScreeningNotHeldException exception) {
+                if (attempt == MAXIMUM_ATTEMPTS) {
+                    throw exception;
+                }
+            }
+            LockSupport.parkNanos(this, backoffNanos);
+            backoffNanos *= 2;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import java.util.Map;
+
+/**
+ * Everything a node needs to take over a screening: its capacity and the seats each account holds.
+ */
+public record ScreeningSeats(long screeningId, int capacity, Map<Long, Integer> seatsHeldByAccount) {
+
+    public ScreeningSeats {
+        seatsHeldByAccount = Map.copyOf(seatsHeldByAccount);
+    }
+
+    public static ScreeningSeats unsold(long screeningId, int capacity) {
+        return new ScreeningSeats(screeningId, capacity, Map.of());
+    }
+}
@@ -0,0 +1,122 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Compact binary form of a {@link TicketPurchaseRequest}:
+ * <ol>
+ *     <li>accountId as an unsigned varint</li>
+ *     <li>the ticket count for each {@link TicketRequest.Type}, in ordinal order, as zig-zag varints</li>
+ *     <li>a varint holding the discount code's UTF-8 length plus one, zero when there is no code, shifted left by one
+ *     with the low bit set when there is an idempotency key, then the code's UTF-8 bytes</li>
+ *     <li>the idempotency key, when there is one, as its most then least significant 64 bits</li>
+ * </ol>
+ * Only the per-type tally is encoded, so a {@link TicketRequest} without a type does not survive a round trip.
+ */
+public final class TicketPurchaseRequestCodec {
+
+    static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+
+    private TicketPurchaseRequestCodec() {
+    }
+
+    /**
+     * Writes the request at the buffer's position and advances it.
+     *
+     * @return the number of bytes written
+     * @throws BufferOverflowException when the buffer has too little space remaining
+     */
+    public static int encode(TicketPurchaseRequest ticketPurchaseRequest, ByteBuffer buffer) {
+        int start = buffer.position();
+        writeVarLong(buffer, ticketPurchaseRequest.getAccountId());
+        for (TicketRequest.Type type : TYPES) {
+            writeVarLong(buffer, zigZag(ticketPurchaseRequest.numberOfTicketsForType(type)));
+        }
+
+        String discountCode = ticketPurchaseRequest.getDiscountCode().orElse(null);
+        UUID idempotencyKey = ticketPurchaseRequest.getIdempotencyKey().orElse(null);
+        long hasIdempotencyKey = Objects.isNull(idempotencyKey) ? 0 : 1;
+        if (Objects.isNull(discountCode)) {
+            writeVarLong(buffer, hasIdempotencyKey);
+        } else {
+            writeVarLong(buffer, (utf8Length(discountCode) + 1L) << 1 | hasIdempotencyKey);
+            writeUtf8(buffer, discountCode);
+        }
+        if (Objects.nonNull(idempotencyKey)) {
+            buffer.putLong(idempotencyKey.getMostSignificantBits());
+            buffer.putLong(idempotencyKey.getLeastSignificantBits());
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * Reads a request from the buffer's position and advances past it.
+     */
+    public static TicketPurchaseRequest decode(ByteBuffer buffer) {
+        TicketPurchaseRequestFlyweight flyweight = new TicketPurchaseRequestFlyweight().wrap(buffer, buffer.position());
+        buffer.position(buffer.position() + flyweight.encodedLength());
+        return flyweight.toTicketPurchaseRequest();
+    }
+
+    static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long zigZag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static int unZigZag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character < 0x80) {
+                length += 1;
+            } else if (character < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(character) && i + 1 < value.length()) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void writeUtf8(ByteBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character < 0x80) {
+                buffer.put((byte) character);
+            } else if (character < 0x800) {
+                buffer.put((byte) (0xC0 | character >> 6));
+                buffer.put((byte) (0x80 | character & 0x3F));
+            } else if (Character.isHighSurrogate(character) && i + 1 < value.length()) {
+                int codePoint = Character.toCodePoint(character, value.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | character >> 12));
+                buffer.put((byte) (0x80 | character >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | character & 0x3F));
+            }
+        }
+    }
+}
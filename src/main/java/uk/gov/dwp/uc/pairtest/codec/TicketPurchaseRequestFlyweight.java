@@ -0,0 +1,139 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static uk.gov.dwp.uc.pairtest.codec.TicketPurchaseRequestCodec.TYPES;
+import static uk.gov.dwp.uc.pairtest.codec.TicketPurchaseRequestCodec.unZigZag;
+
+/**
+ * Reads an encoded {@link TicketPurchaseRequest} in place. Wrapping reads the header into reused primitive fields,
+ * so one flyweight can validate and price a stream of requests without allocating. Reads are absolute and leave the
+ * buffer's position alone.
+ * <p>
+ * Not thread safe; use one flyweight per thread.
+ */
+public class TicketPurchaseRequestFlyweight {
+
+    static final String MALFORMED_VARINT_ERROR = "Malformed varint at offset %d.";
+
+    private final int[] ticketCounts = new int[TYPES.length];
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int cursor;
+    private long accountId;
+    private int discountCodeOffset;
+    private int discountCodeLength;
+    private boolean hasIdempotencyKey;
+    private int idempotencyKeyOffset;
+    private int encodedLength;
+
+    public TicketPurchaseRequestFlyweight wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.cursor = offset;
+
+        accountId = readVarLong();
+        for (TicketRequest.Type type : TYPES) {
+            ticketCounts[type.ordinal()] = unZigZag(readVarLong());
+        }
+
+        long discountCodeHeader = readVarLong();
+        hasIdempotencyKey = (discountCodeHeader & 1) != 0;
+        discountCodeLength = (int) (discountCodeHeader >>> 1) - 1;
+        discountCodeOffset = cursor;
+        idempotencyKeyOffset = discountCodeOffset + Math.max(0, discountCodeLength);
+        encodedLength = idempotencyKeyOffset + (hasIdempotencyKey ? 2 * Long.BYTES : 0) - offset;
+        return this;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int numberOfTicketsForType(TicketRequest.Type type) {
+        return ticketCounts[type.ordinal()];
+    }
+
+    public boolean hasDiscountCode() {
+        return discountCodeLength >= 0;
+    }
+
+    /**
+     * Allocates the discount code; prefer {@link #hasDiscountCode()} on paths that only need to know if there is one.
+     */
+    public String getDiscountCode() {
+        if (!hasDiscountCode()) {
+            return null;
+        }
+        byte[] bytes = new byte[discountCodeLength];
+        buffer.get(discountCodeOffset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public boolean hasIdempotencyKey() {
+        return hasIdempotencyKey;
+    }
+
+    /**
+     * Allocates the key; prefer {@link #hasIdempotencyKey()} on paths that only need to know if there is one.
+     */
+    public UUID getIdempotencyKey() {
+        if (!hasIdempotencyKey) {
+            return null;
+        }
+        return new UUID(buffer.getLong(idempotencyKeyOffset), buffer.getLong(idempotencyKeyOffset + Long.BYTES));
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int encodedLength() {
+        return encodedLength;
+    }
+
+    /**
+     * Applies the rules of {@link TicketPurchaseRequest#validateCounts(long, int[], ValidationPolicy)} to the encoded
+     * counts.
+     *
+     * @param validationPolicy the current policy, so limits reloaded at runtime apply here too
+     */
+    public void validateAgainst(ValidationPolicy validationPolicy) {
+        TicketPurchaseRequest.validateCounts(accountId, ticketCounts, validationPolicy);
+    }
+
+    public int numberOfSeats() {
+        return TicketPurchaseRequest.numberOfSeats(ticketCounts);
+    }
+
+    public int cost(double discount) {
+        return TicketPurchaseRequest.cost(ticketCounts, discount);
+    }
+
+    public TicketPurchaseRequest toTicketPurchaseRequest() {
+        TicketRequest[] ticketRequests = new TicketRequest[TYPES.length];
+        for (TicketRequest.Type type : TYPES) {
+            ticketRequests[type.ordinal()] = new TicketRequest(type, ticketCounts[type.ordinal()]);
+        }
+        return new TicketPurchaseRequest(accountId, ticketRequests, getDiscountCode(), getIdempotencyKey());
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = buffer.get(cursor++);
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(String.format(MALFORMED_VARINT_ERROR, offset));
+    }
+}
@@ -0,0 +1,199 @@
+package uk.gov.dwp.uc.pairtest.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Hashed wheels of timeouts, one per level, where each bucket of a level spans a whole turn of the level below.
+ * Scheduling and cancelling link and unlink a timeout in its bucket, so both are O(1) however many are pending.
+ * A timeout starts in the lowest level whose turn covers its deadline and cascades down a level each time the
+ * wheel reaches its bucket, expiring from the lowest level, up to one tick late.
+ * <p>
+ * Not thread safe: callers must serialise scheduling, cancelling and advancing.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    static final String INVALID_WHEEL_SIZE_ERROR = "Wheel size must be a power of two greater than one: %d.";
+    static final String INVALID_LEVELS_ERROR = "Levels must be between 1 and %d: %d.";
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Timeout<T>[][] wheels;
+    private final long startNanos;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tick       resolution of the wheel
+     * @param wheelSize  buckets per level
+     * @param levels     levels of buckets; deadlines beyond {@code tick * wheelSize^levels} wait in the top level
+     *                   until they are in range
+     * @param startNanos time of tick zero
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(Duration tick, int wheelSize, int levels, long startNanos) {
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException(String.format(INVALID_WHEEL_SIZE_ERROR, wheelSize));
+        }
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        int maximumLevels = (Long.SIZE - 1) / bits;
+        if (levels < 1 || levels > maximumLevels) {
+            throw new IllegalArgumentException(String.format(INVALID_LEVELS_ERROR, maximumLevels, levels));
+        }
+
+        this.tickNanos = tick.toNanos();
+        this.mask = wheelSize - 1;
+        this.startNanos = startNanos;
+        this.wheels = new Timeout[levels][wheelSize];
+        for (Timeout<T>[] wheel : wheels) {
+            for (int bucket = 0; bucket < wheelSize; bucket++) {
+                wheel[bucket] = Timeout.bucket();
+            }
+        }
+    }
+
+    /**
+     * @return a handle to cancel the timeout; {@code task} is handed to {@link #advance(long, Consumer)} once
+     * {@code deadlineNanos} has passed
+     */
+    public Timeout<T> schedule(T task, long deadlineNanos) {
+        long deadlineTick = Math.max(ceilDiv(deadlineNanos - startNanos, tickNanos), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(task, deadlineTick);
+        link(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @return false if the timeout had already expired or been cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel on to {@code nowNanos}, handing each expired task to {@code expired}.
+     *
+     * @return the number of tasks expired
+     */
+    public int advance(long nowNanos, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+        int expiredTasks = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(1);
+
+            Timeout<T> bucket = wheels[0][(int) (currentTick & mask)];
+            while (bucket.next != bucket) {
+                Timeout<T> timeout = bucket.next;
+                timeout.unlink();
+                if (timeout.deadlineTick > currentTick) {
+                    link(timeout);
+                    continue;
+                }
+                size--;
+                expiredTasks++;
+                expired.accept(timeout.task);
+            }
+        }
+        return expiredTasks;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Re-links the bucket that the wheel has just reached on each level from {@code level} up, highest first, once
+     * every level below has turned over.
+     */
+    private void cascade(int level) {
+        if (level == wheels.length || (currentTick & ((1L << (bits * level)) - 1)) != 0) {
+            return;
+        }
+        cascade(level + 1);
+
+        Timeout<T> bucket = wheels[level][(int) ((currentTick >>> (bits * level)) & mask)];
+        while (bucket.next != bucket) {
+            Timeout<T> timeout = bucket.next;
+            timeout.unlink();
+            link(timeout);
+        }
+    }
+
+    /**
+     * Links the timeout into the lowest level whose current turn covers its deadline. Deadlines beyond the top
+     * level's turn wait in the furthest bucket of the top level, and are linked again when it is reached.
+     */
+    private void link(Timeout<T> timeout) {
+        int top = wheels.length - 1;
+        for (int level = 0; level < top; level++) {
+            int turnBits = bits * (level + 1);
+            if (timeout.deadlineTick >>> turnBits == currentTick >>> turnBits) {
+                wheels[level][(int) ((timeout.deadlineTick >>> (bits * level)) & mask)].append(timeout);
+                return;
+            }
+        }
+
+        long currentBucket = currentTick >>> (bits * top);
+        long deadlineBucket = Math.min(timeout.deadlineTick >>> (bits * top), currentBucket + mask);
+        wheels[top][(int) (deadlineBucket & mask)].append(timeout);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * A scheduled task, linked into the bucket it is waiting in. A bucket is itself an empty timeout heading a
+     * circular list.
+     */
+    public static final class Timeout<T> {
+
+        private final T task;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <T> Timeout<T> bucket() {
+            Timeout<T> bucket = new Timeout<>(null, 0);
+            bucket.previous = bucket;
+            bucket.next = bucket;
+            return bucket;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public boolean isPending() {
+            return Objects.nonNull(next);
+        }
+
+        private void append(Timeout<T> timeout) {
+            timeout.previous = previous;
+            timeout.next = this;
+            previous.next = timeout;
+            previous = timeout;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+}
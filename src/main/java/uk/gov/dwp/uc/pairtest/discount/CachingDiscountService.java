@@ -0,0 +1,218 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+
+/**
+ * Caches discounts, and invalid discount codes, per accountId and code for a fixed time to live. Once full the least
+ * recently used entry is evicted. Concurrent misses on the same key share a single call to the wrapped service.
+ * <p>
+ * A hit is a read of a {@link ConcurrentHashMap} and takes no lock. Recency is kept in access-ordered maps striped by
+ * key, each evicting on its own share of the maximum size; a hit only moves its key when its stripe is free, so under
+ * contention eviction is close to, rather than exactly, least recently used.
+ */
+public class CachingDiscountService implements DiscountService {
+
+    private final DiscountService discountService;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoTime;
+
+    private static final int MAXIMUM_STRIPES = 16;
+    private static final int MINIMUM_STRIPE_SIZE = 64;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Stripe[] stripes;
+    private final Map<Key, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingDiscountService(DiscountService discountService, Duration timeToLive, int maximumSize) {
+        this(discountService, timeToLive, maximumSize, System::nanoTime);
+    }
+
+    CachingDiscountService(DiscountService discountService, Duration timeToLive, int maximumSize, LongSupplier nanoTime) {
+        this.discountService = discountService;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoTime = nanoTime;
+        int stripeCount = Integer.highestOneBit(
+            Math.max(1, Math.min(MAXIMUM_STRIPES, maximumSize / MINIMUM_STRIPE_SIZE)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe((maximumSize + stripeCount - 1) / stripeCount);
+        }
+    }
+
+    @Override
+    public Discount getDiscountPercentage(long accountId, String discountCode) throws InvalidDiscountCodeException {
+        Key key = new Key(accountId, discountCode);
+        Entry cached = cached(key);
+        if (Objects.nonNull(cached)) {
+            hits.increment();
+            return cached.resolve();
+        }
+        misses.increment();
+
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = loading.putIfAbsent(key, load);
+        if (Objects.nonNull(inFlight)) {
+            return await(inFlight).resolve();
+        }
+
+        try {
+            Entry loaded = cached(key);
+            if (Objects.nonNull(loaded)) {
+                load.complete(loaded);
+                return loaded.resolve();
+            }
+
+            loaded = load(key);
+            stripe(key).put(key, loaded);
+            load.complete(loaded);
+            return loaded.resolve();
+        } catch (RuntimeException exception) {
+            load.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Entry cached(Key key) {
+        Entry entry = entries.get(key);
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        Stripe stripe = stripe(key);
+        if (nanoTime.getAsLong() - entry.loadedAt() >= timeToLiveNanos) {
+            stripe.remove(key, entry);
+            return null;
+        }
+        stripe.touch(key);
+        return entry;
+    }
+
+    private Stripe stripe(Key key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private Entry load(Key key) {
+        long loadedAt = nanoTime.getAsLong();
+        try {
+            return new Entry(discountService.getDiscountPercentage(key.accountId(), key.discountCode()), null, loadedAt);
+        } catch (InvalidDiscountCodeException exception) {
+            return new Entry(null, exception.getMessage(), loadedAt);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private record Key(long accountId, String discountCode) {
+    }
+
+    /**
+     * The recency order of the keys in one stripe. Entries are added to and removed from the shared map only under the
+     * stripe's lock, so the two always agree.
+     */
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, Entry> recency;
+
+        private Stripe(int maximumSize) {
+            this.recency = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() > maximumSize) {
+                        entries.remove(eldest.getKey(), eldest.getValue());
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private void put(Key key, Entry entry) {
+            lock.lock();
+            try {
+                recency.put(key, entry);
+                entries.put(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Key key, Entry entry) {
+            lock.lock();
+            try {
+                if (recency.remove(key, entry)) {
+                    entries.remove(key, entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Marks the key as just used, unless another thread holds the stripe, as a hit never waits.
+         */
+        private void touch(Key key) {
+            if (lock.tryLock()) {
+                try {
+                    recency.get(key);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Either a discount or the message of the {@link InvalidDiscountCodeException} the code was rejected with.
+     */
+    private record Entry(Discount discount, String invalidCodeMessage, long loadedAt) {
+
+        Discount resolve() {
+            if (Objects.isNull(discount)) {
+                throw new InvalidDiscountCodeException(invalidCodeMessage);
+            }
+            return discount;
+        }
+    }
+
+    public record CacheStats(long hits, long misses, long evictions) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+}
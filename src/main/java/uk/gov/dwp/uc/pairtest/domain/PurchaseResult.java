@@ -0,0 +1,36 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Objects;
+
+/**
+ * Outcome of a single purchase, successful when there is no failure reason. A purchase that broke a rule also carries
+ * the {@link InvalidPurchaseException.Reason} it would have been thrown with.
+ */
+public record PurchaseResult(long accountId,
+                             int seatsReserved,
+                             int amountPaid,
+                             String failureReason,
+                             InvalidPurchaseException.Reason invalidReason) {
+
+    public static PurchaseResult success(long accountId, int seatsReserved, int amountPaid) {
+        return new PurchaseResult(accountId, seatsReserved, amountPaid, null, null);
+    }
+
+    public static PurchaseResult failure(long accountId, String failureReason) {
+        return new PurchaseResult(accountId, 0, 0, failureReason, null);
+    }
+
+    public static PurchaseResult invalid(long accountId, InvalidPurchaseException.Reason reason, String failureReason) {
+        return new PurchaseResult(accountId, 0, 0, failureReason, reason);
+    }
+
+    public static PurchaseResult invalid(long accountId, InvalidPurchaseException exception) {
+        return invalid(accountId, exception.getReason(), exception.getMessage());
+    }
+
+    public boolean isSuccessful() {
+        return Objects.isNull(failureReason);
+    }
+}
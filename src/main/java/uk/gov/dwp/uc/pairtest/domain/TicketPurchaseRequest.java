@@ -1,23 +1,42 @@
 package uk.gov.dwp.uc.pairtest.domain;
 
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
 
-import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+
+import thirdparty.discount.Discount;
 
-import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
 import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.INVALID_ACCOUNT_ID;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NEGATIVE_QUANTITY_OF_TICKETS;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NULL_TYPE;
 
 /**
  * Should be an Immutable Object
  */
 public class TicketPurchaseRequest {
 
+    public static final long BASIS_POINTS = 10_000L;
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+
     private final long accountId;
     private final TicketRequest[] ticketRequests;
-    private final String discountCode; 
+    private final String discountCode;
+    private final UUID idempotencyKey;
+
+    /**
+     * Tallied in a single pass on construction so validation, seat count and cost do not revisit the requests.
+     */
+    private final int[] ticketCounts = new int[TYPES.length];
+    private final int numberOfTickets;
+    private final int numberOfSeats;
+    private final int baseCost;
+    private final TicketRequest firstInvalidTicketRequest;
 
     static final String INVALID_ACCOUNT_ID_ERROR = "Invalid accountId: %d.";
     static final String TOO_MANY_TICKETS_ERROR = "Too many tickets were requested: %d.";
@@ -25,77 +44,215 @@ public class TicketPurchaseRequest {
     static final String NO_ADULTS_WERE_PRESENT_ERROR = "No adults were present in request.";
     static final String TOO_MANY_INFANTS_TO_ADULTS_ERROR = "Too many infants compared to adults.";
     static final String NO_TICKET_REQUEST_RECEIVED = "No ticket request received.";
+    static final String TOO_MANY_TICKETS_FOR_ACCOUNT_ERROR = "Too many tickets were bought recently by accountId: %d.";
+    static final String INVALID_DISCOUNT_ERROR = "Discount must be between 0 and 10000 basis points: %d.";
+
+    public TicketPurchaseRequest(long accountId, TicketRequest[] ticketRequests) {
+        this(accountId, ticketRequests, null);
+    }
 
     public TicketPurchaseRequest(long accountId, TicketRequest[] ticketRequests, String discountCode) {
+        this(accountId, ticketRequests, discountCode, null);
+    }
+
+    /**
+     * @param idempotencyKey chosen by the client and sent again on a retry, so the purchase is only made once
+     */
+    public TicketPurchaseRequest(long accountId, TicketRequest[] ticketRequests, String discountCode, UUID idempotencyKey) {
         this.accountId = accountId;
         this.ticketRequests = ticketRequests;
         this.discountCode = discountCode;
+        this.idempotencyKey = idempotencyKey;
+
+        TicketRequest firstInvalid = null;
+        if (Objects.nonNull(ticketRequests)) {
+            for (TicketRequest ticketRequest : ticketRequests) {
+                if (Objects.isNull(firstInvalid) && !ticketRequest.isValid()) {
+                    firstInvalid = ticketRequest;
+                }
+                if (Objects.nonNull(ticketRequest.getTicketType())) {
+                    ticketCounts[ticketRequest.getTicketType().ordinal()] += ticketRequest.getNoOfTickets();
+                }
+            }
+        }
+        this.firstInvalidTicketRequest = firstInvalid;
+
+        this.numberOfTickets = numberOfTickets(ticketCounts);
+        this.numberOfSeats = numberOfSeats(ticketCounts);
+        this.baseCost = baseCost(ticketCounts);
     }
 
     public long getAccountId() {
         return accountId;
     }
-    
+
     public Optional<String> getDiscountCode() {
         return Optional.ofNullable(discountCode);
     }
 
+    public Optional<UUID> getIdempotencyKey() {
+        return Optional.ofNullable(idempotencyKey);
+    }
+
     public void validate() {
+        validateAgainst(ValidationPolicy.DEFAULT);
+    }
+
+    public void validateAgainst(ValidationPolicy validationPolicy) {
+        Reason reason = check(validationPolicy);
+        if (Objects.nonNull(reason)) {
+            throw invalidPurchase(reason);
+        }
+    }
+
+    /**
+     * Validates without throwing, for callers that report invalid purchases some other way.
+     *
+     * @return the first rule broken, or null if the request is valid
+     */
+    public Reason check(ValidationPolicy validationPolicy) {
         if (accountId < 1L) {
-            throw new InvalidPurchaseException(String.format(INVALID_ACCOUNT_ID_ERROR, accountId));
+            return INVALID_ACCOUNT_ID;
         }
 
         if (Objects.isNull(ticketRequests) || ticketRequests.length == 0) {
-            throw new InvalidPurchaseException(NO_TICKET_REQUEST_RECEIVED);
+            return Reason.NO_TICKET_REQUEST_RECEIVED;
         }
 
-        Arrays.stream(ticketRequests).forEach(TicketRequest::validateRequest);
+        if (Objects.nonNull(firstInvalidTicketRequest)) {
+            return firstInvalidTicketRequest.getNoOfTickets() < 0 ? NEGATIVE_QUANTITY_OF_TICKETS : NULL_TYPE;
+        }
+
+        return validationPolicy.check(ticketCounts, numberOfTickets);
+    }
+
+    public InvalidPurchaseException invalidPurchase(Reason reason) {
+        return new InvalidPurchaseException(reason, describe(reason));
+    }
+
+    /**
+     * Describes why the request broke a rule, as found by {@link #check(ValidationPolicy)}.
+     */
+    public String describe(Reason reason) {
+        return message(reason, accountId, numberOfTickets);
+    }
 
-        int numberOfTickets = numberOfTickets();
+    /**
+     * Validates a purchase held as per-type ticket counts, indexed by {@link TicketRequest.Type#ordinal()}, applying
+     * the same rules as {@link #validateAgainst(ValidationPolicy)}.
+     */
+    public static void validateCounts(long accountId, int[] ticketCounts, ValidationPolicy validationPolicy) {
+        Reason reason = checkCounts(accountId, ticketCounts, validationPolicy);
+        if (Objects.nonNull(reason)) {
+            throw new InvalidPurchaseException(reason, describeCounts(reason, accountId, ticketCounts));
+        }
+    }
 
-        if (numberOfTickets > 20) {
-            throw new InvalidPurchaseException(String.format(TOO_MANY_TICKETS_ERROR, numberOfTickets));
-        } else if (numberOfTickets == 0) {
-            throw new InvalidPurchaseException(NO_TICKETS_ERROR);
+    /**
+     * Counterpart of {@link #check(ValidationPolicy)} for per-type ticket counts.
+     */
+    public static Reason checkCounts(long accountId, int[] ticketCounts, ValidationPolicy validationPolicy) {
+        if (accountId < 1L) {
+            return INVALID_ACCOUNT_ID;
         }
 
-        int numberOfAdults = numberOfTicketsForType(ADULT);
-        if (numberOfAdults == 0) {
-            throw new InvalidPurchaseException(NO_ADULTS_WERE_PRESENT_ERROR);
-        } else if (2 * numberOfAdults < numberOfTicketsForType(INFANT)) {
-            throw new InvalidPurchaseException(TOO_MANY_INFANTS_TO_ADULTS_ERROR);
+        for (int count : ticketCounts) {
+            if (count < 0) {
+                return NEGATIVE_QUANTITY_OF_TICKETS;
+            }
         }
+
+        return validationPolicy.check(ticketCounts, numberOfTickets(ticketCounts));
+    }
+
+    /**
+     * Describes why per-type ticket counts broke a rule, as found by {@link #checkCounts(long, int[], ValidationPolicy)}.
+     */
+    public static String describeCounts(Reason reason, long accountId, int[] ticketCounts) {
+        return message(reason, accountId, numberOfTickets(ticketCounts));
     }
 
     public int numberOfSeats() {
-        return Arrays.stream(ticketRequests)
-            .filter(request -> !request.getTicketType().equals(INFANT))
-            .mapToInt(TicketRequest::getNoOfTickets)
-            .sum();
+        return numberOfSeats;
     }
 
     public int cost() {
         return cost(0);
     }
 
+    public int cost(Discount discount) {
+        return cost(discount.percentage());
+    }
+
     public int cost(double discount) {
+        return cost(baseCost, discount);
+    }
 
-        return (int) (Arrays.stream(ticketRequests)
-                          .map(TicketRequest::getRequestCost)
-                          .reduce(0, Integer::sum)
-                      * (1 - discount));
+    public int numberOfTicketsForType(TicketRequest.Type type) {
+        return ticketCounts[type.ordinal()];
     }
 
-    private int numberOfTicketsForType(TicketRequest.Type type) {
-        return Arrays.stream(ticketRequests)
-            .filter(request -> request.getTicketType().equals(type))
-            .map(TicketRequest::getNoOfTickets)
-            .reduce(0, Integer::sum);
+    public static int numberOfSeats(int[] ticketCounts) {
+        return numberOfTickets(ticketCounts) - ticketCounts[INFANT.ordinal()];
+    }
+
+    public static int cost(int[] ticketCounts, double discount) {
+        return cost(baseCost(ticketCounts), discount);
+    }
+
+    /**
+     * Rounds the discount to basis points so the truncation is exact: {@code 10 * (1 - 0.9)} is just under 1 in
+     * floating point.
+     */
+    public static long discountBasisPoints(double discount) {
+        return Math.round(discount * BASIS_POINTS);
+    }
+
+    /**
+     * Takes the discount off the amount, rounding down. Every price in pence or pounds is discounted here, so all of
+     * them agree.
+     *
+     * @throws IllegalArgumentException if the discount is not between 0 and {@link #BASIS_POINTS}
+     */
+    public static int discounted(int amount, long discountBasisPoints) {
+        if (discountBasisPoints < 0 || discountBasisPoints > BASIS_POINTS) {
+            throw new IllegalArgumentException(String.format(INVALID_DISCOUNT_ERROR, discountBasisPoints));
+        }
+        return (int) (amount * (BASIS_POINTS - discountBasisPoints) / BASIS_POINTS);
+    }
+
+    private static String message(Reason reason, long accountId, int numberOfTickets) {
+        return switch (reason) {
+            case INVALID_ACCOUNT_ID -> String.format(INVALID_ACCOUNT_ID_ERROR, accountId);
+            case NO_TICKET_REQUEST_RECEIVED -> NO_TICKET_REQUEST_RECEIVED;
+            case NEGATIVE_QUANTITY_OF_TICKETS -> TicketRequest.NEGATIVE_QUANTITY_OF_TICKETS_ERROR;
+            case NULL_TYPE -> TicketRequest.NULL_TYPE_ERROR;
+            case TOO_MANY_TICKETS -> String.format(TOO_MANY_TICKETS_ERROR, numberOfTickets);
+            case NO_TICKETS -> NO_TICKETS_ERROR;
+            case NO_ADULTS_WERE_PRESENT -> NO_ADULTS_WERE_PRESENT_ERROR;
+            case TOO_MANY_INFANTS_TO_ADULTS -> TOO_MANY_INFANTS_TO_ADULTS_ERROR;
+            case TOO_MANY_TICKETS_FOR_ACCOUNT -> String.format(TOO_MANY_TICKETS_FOR_ACCOUNT_ERROR, accountId);
+            default -> reason.name();
+        };
+    }
+
+    private static int numberOfTickets(int[] ticketCounts) {
+        int tickets = 0;
+        for (int count : ticketCounts) {
+            tickets += count;
+        }
+        return tickets;
+    }
+
+    private static int baseCost(int[] ticketCounts) {
+        int cost = 0;
+        for (TicketRequest.Type type : TYPES) {
+            cost += ticketCounts[type.ordinal()] * type.getCost();
+        }
+        return cost;
     }
 
-    private int numberOfTickets() {
-        return EnumSet.allOf(TicketRequest.Type.class).stream()
-            .map(this::numberOfTicketsForType)
-            .reduce(0, Integer::sum);
+    private static int cost(int baseCost, double discount) {
+        return discounted(baseCost, discountBasisPoints(discount));
     }
 }
@@ -4,6 +4,9 @@ import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 
 import java.util.Objects;
 
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NEGATIVE_QUANTITY_OF_TICKETS;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NULL_TYPE;
+
 /**
  * Should be an Immutable Object
  */
@@ -29,14 +32,18 @@ public class TicketRequest {
 
     public void validateRequest() {
         if (noOfTickets < 0) {
-            throw new InvalidPurchaseException(NEGATIVE_QUANTITY_OF_TICKETS_ERROR);
+            throw new InvalidPurchaseException(NEGATIVE_QUANTITY_OF_TICKETS, NEGATIVE_QUANTITY_OF_TICKETS_ERROR);
         }
 
         if (Objects.isNull(type)) {
-            throw new InvalidPurchaseException(NULL_TYPE_ERROR);
+            throw new InvalidPurchaseException(NULL_TYPE, NULL_TYPE_ERROR);
         }
     }
 
+    boolean isValid() {
+        return noOfTickets >= 0 && Objects.nonNull(type);
+    }
+
     public int getRequestCost() {
         return noOfTickets * type.getCost();
     }
@@ -52,7 +59,7 @@ public class TicketRequest {
             this.cost = cost;
         }
 
-        int getCost() {
+        public int getCost() {
             return cost;
         }
     }
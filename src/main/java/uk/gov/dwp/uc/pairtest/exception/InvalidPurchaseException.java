@@ -2,7 +2,32 @@ package uk.gov.dwp.uc.pairtest.exception;
 
 public class InvalidPurchaseException extends RuntimeException {
 
+    private final Reason reason;
+
     public InvalidPurchaseException(String message) {
+        this(Reason.UNSPECIFIED, message);
+    }
+
+    public InvalidPurchaseException(Reason reason, String message) {
         super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public enum Reason {
+        INVALID_ACCOUNT_ID,
+        NO_TICKET_REQUEST_RECEIVED,
+        NEGATIVE_QUANTITY_OF_TICKETS,
+        NULL_TYPE,
+        TOO_MANY_TICKETS,
+        NO_TICKETS,
+        NO_ADULTS_WERE_PRESENT,
+        TOO_MANY_INFANTS_TO_ADULTS,
+        TOO_MANY_TICKETS_FOR_ACCOUNT,
+        RATE_LIMITED,
+        UNSPECIFIED
     }
 }
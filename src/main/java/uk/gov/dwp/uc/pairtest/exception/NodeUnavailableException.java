@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown when a node of the cluster cannot be reached. The call it carried was not delivered.
+ */
+public class NodeUnavailableException extends RuntimeException {
+
+    public NodeUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown by a node asked about a screening it does not hold, usually because the screening is moving between
+ * nodes. Thrown while callers retry during a move, so no stack trace is captured.
+ */
+public class ScreeningNotHeldException extends RuntimeException {
+
+    public ScreeningNotHeldException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown when a screening cannot seat a reservation. Thrown at high rates for sold-out shows, so no stack trace is
+ * captured.
+ */
+public class SeatsUnavailableException extends RuntimeException {
+
+    public SeatsUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,469 @@
+package uk.gov.dwp.uc.pairtest.history;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Open-addressing hash tables of fixed size slots outside the heap, one slot per account, so tens of millions of
+ * accounts cost the garbage collector nothing. The tables are in direct memory, or mapped from a file so that history
+ * survives a restart and may be larger than memory. Accounts are split across segments, each with its own lock.
+ * <p>
+ * A slot packs the account's tickets of each type into {@value #BUCKETS} buckets, each a third of the window wide,
+ * and the window's total is the sum of the buckets. A purchase therefore counts against its account for at least
+ * the window and at most a third longer. An account whose buckets have all expired keeps its slot until a new
+ * account reuses it, or until its segment fills and expired accounts are purged.
+ * <p>
+ * A claim is the epoch of the bucket it added to, so a failed purchase takes its tickets back from that bucket and
+ * not from a later one holding another purchase. The limit can be changed while the history is in use, as the layout
+ * depends only on the window.
+ */
+public class OffHeapPurchaseHistory implements PurchaseHistory, AutoCloseable {
+
+    static final String FULL_ERROR = "Purchase history is full.";
+    static final String TOO_MANY_ACCOUNTS_ERROR = "Too many accounts for a purchase history: %d.";
+    static final String INVALID_MAXIMUM_TICKETS_ERROR = "Maximum tickets per account must be between 1 and %d: %d.";
+    static final String INVALID_WINDOW_ERROR = "Window must be at least a millisecond: %s.";
+    static final String FILE_MISMATCH_ERROR = "Purchase history %s does not match %d slots per segment and %d ms buckets.";
+
+    static final int SLOT_SIZE = 48;
+    static final int BUCKETS = 4;
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MINIMUM_SLOTS = 16;
+
+    private static final int ACCOUNT_ID_OFFSET = 0;
+    private static final int NEWEST_EPOCH_OFFSET = 8;
+    private static final int BUCKETS_OFFSET = 16;
+
+    private static final int HEADER_SIZE = 64;
+    private static final long MAGIC = 0x5055524348495354L;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SLOTS_OFFSET = 8;
+    private static final int BUCKET_MILLIS_OFFSET = 16;
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+    private static final int COUNT_BITS = Long.SIZE / TYPES.length;
+    static final int MAXIMUM_COUNT = (1 << COUNT_BITS) - 1;
+
+    /**
+     * Held in the account id of an empty slot. Valid account ids are positive.
+     */
+    private static final long EMPTY = 0L;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int slotMask;
+    private final int maximumAccountsPerSegment;
+    private volatile int maximumTickets;
+    private final long bucketMillis;
+    private final LongSupplier currentTimeMillis;
+    private final FileChannel file;
+
+    /**
+     * @param maximumAccounts accounts that may have bought tickets in one window before purchases are rejected
+     * @param maximumTickets  tickets, including infants, an account may buy in one window
+     * @param window          how long a purchase counts against its account, at least
+     */
+    public OffHeapPurchaseHistory(int maximumAccounts, int maximumTickets, Duration window) {
+        this(maximumAccounts, maximumTickets, window, null, System::currentTimeMillis);
+    }
+
+    /**
+     * Maps the history from {@code file}, created if it does not exist, which must have been created for the same
+     * number of accounts and window.
+     */
+    public OffHeapPurchaseHistory(int maximumAccounts, int maximumTickets, Duration window, Path file) {
+        this(maximumAccounts, maximumTickets, window, file, System::currentTimeMillis);
+    }
+
+    OffHeapPurchaseHistory(int maximumAccounts,
+                           int maximumTickets,
+                           Duration window,
+                           Path file,
+                           LongSupplier currentTimeMillis) {
+        checkMaximumTickets(maximumTickets);
+        if (window.toMillis() < 1) {
+            throw new IllegalArgumentException(String.format(INVALID_WINDOW_ERROR, window));
+        }
+        long accountsPerSegment = Math.max(1, ((long) maximumAccounts + SEGMENTS - 1) / SEGMENTS);
+        long slots = Math.max(MINIMUM_SLOTS, Long.highestOneBit(accountsPerSegment * 4 / 3 - 1) << 1);
+        if (slots * SLOT_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(TOO_MANY_ACCOUNTS_ERROR, maximumAccounts));
+        }
+
+        this.slotMask = (int) slots - 1;
+        this.maximumAccountsPerSegment = (int) (slots - slots / 8);
+        this.maximumTickets = maximumTickets;
+        this.bucketMillis = Math.max(1, -Math.floorDiv(-window.toMillis(), BUCKETS - 1));
+        this.currentTimeMillis = currentTimeMillis;
+        this.file = Objects.isNull(file) ? null : open(file);
+
+        int segmentSize = (int) slots * SLOT_SIZE;
+        for (int i = 0; i < SEGMENTS; i++) {
+            ByteBuffer table = Objects.isNull(this.file)
+                ? ByteBuffer.allocateDirect(segmentSize)
+                : map(HEADER_SIZE + (long) i * segmentSize, segmentSize);
+            segments[i] = new Segment(table, occupiedSlots(table));
+        }
+    }
+
+    /**
+     * Changes the tickets an account may buy in one window from the next claim. An account already over a lowered
+     * limit can buy nothing more until enough of its tickets leave the window.
+     */
+    public void setMaximumTickets(int maximumTickets) {
+        checkMaximumTickets(maximumTickets);
+        this.maximumTickets = maximumTickets;
+    }
+
+    @Override
+    public long claim(TicketPurchaseRequest ticketPurchaseRequest) {
+        long accountId = ticketPurchaseRequest.getAccountId();
+        long tickets = pack(ticketPurchaseRequest);
+        long hash = hash(accountId);
+        Segment segment = segment(hash);
+        long epoch = epoch();
+
+        segment.lock.lock();
+        try {
+            ByteBuffer table = segment.table;
+            int slot = probe(table, hash, accountId, epoch);
+            if (slot < 0) {
+                slot = insert(segment, hash, accountId, -slot - 1, epoch);
+            }
+
+            long newestEpoch = advance(table, slot, epoch);
+            if (total(window(table, slot, epoch)) + total(tickets) > maximumTickets) {
+                return REJECTED;
+            }
+            int bucket = bucket(slot, newestEpoch);
+            table.putLong(bucket, table.getLong(bucket) + tickets);
+            return newestEpoch;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the tickets back from the bucket they were claimed in, unless it has since left the window.
+     */
+    @Override
+    public void release(TicketPurchaseRequest ticketPurchaseRequest, long claim) {
+        long accountId = ticketPurchaseRequest.getAccountId();
+        long hash = hash(accountId);
+        Segment segment = segment(hash);
+        long epoch = epoch();
+
+        segment.lock.lock();
+        try {
+            ByteBuffer table = segment.table;
+            int slot = probe(table, hash, accountId, epoch);
+            if (slot < 0) {
+                return;
+            }
+
+            long newestEpoch = table.getLong(slot + NEWEST_EPOCH_OFFSET);
+            if (claim > newestEpoch || claim <= Math.max(newestEpoch, epoch) - BUCKETS) {
+                return;
+            }
+            int bucket = bucket(slot, claim);
+            long counts = table.getLong(bucket);
+            for (TicketRequest.Type type : TYPES) {
+                int released = Math.min(ticketPurchaseRequest.numberOfTicketsForType(type), count(counts, type));
+                counts -= (long) released << shift(type);
+            }
+            table.putLong(bucket, counts);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * @return tickets of every type the account has bought in the window
+     */
+    public int ticketsInWindow(long accountId) {
+        return total(window(accountId));
+    }
+
+    public int ticketsInWindow(long accountId, TicketRequest.Type type) {
+        return count(window(accountId), type);
+    }
+
+    /**
+     * Forces a mapped history to disk. The history must not be used once closed.
+     */
+    @Override
+    public void close() {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                ((MappedByteBuffer) segment.table).force();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        try {
+            file.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private long window(long accountId) {
+        long hash = hash(accountId);
+        Segment segment = segment(hash);
+        long epoch = epoch();
+
+        segment.lock.lock();
+        try {
+            int slot = probe(segment.table, hash, accountId, epoch);
+            return slot < 0 ? 0L : window(segment.table, slot, epoch);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Sums the buckets still in the window. Counts of each type never exceed {@link #MAXIMUM_COUNT} over a window,
+     * so the packed counts can be added as they are.
+     */
+    private long window(ByteBuffer table, int slot, long epoch) {
+        long newestEpoch = table.getLong(slot + NEWEST_EPOCH_OFFSET);
+        long oldestEpoch = Math.max(newestEpoch, epoch) - BUCKETS;
+        long counts = 0L;
+        for (long bucketEpoch = newestEpoch; bucketEpoch > oldestEpoch && newestEpoch - bucketEpoch < BUCKETS; bucketEpoch--) {
+            counts += table.getLong(bucket(slot, bucketEpoch));
+        }
+        return counts;
+    }
+
+    /**
+     * Clears the buckets the window has moved past since the account last bought tickets. A clock that has gone
+     * backwards leaves the buckets as they are.
+     *
+     * @return the epoch of the newest bucket
+     */
+    private long advance(ByteBuffer table, int slot, long epoch) {
+        long newestEpoch = table.getLong(slot + NEWEST_EPOCH_OFFSET);
+        if (epoch <= newestEpoch) {
+            return newestEpoch;
+        }
+        for (long bucketEpoch = Math.max(newestEpoch + 1, epoch - BUCKETS + 1); bucketEpoch <= epoch; bucketEpoch++) {
+            table.putLong(bucket(slot, bucketEpoch), 0L);
+        }
+        table.putLong(slot + NEWEST_EPOCH_OFFSET, epoch);
+        return epoch;
+    }
+
+    /**
+     * Linear probe for the account from its home slot.
+     *
+     * @return the offset of the account's slot, or {@code -offset - 1} of the slot it should be inserted in: the
+     * first expired slot on the way, or else the empty slot that ended the probe
+     */
+    private int probe(ByteBuffer table, long hash, long accountId, long epoch) {
+        int index = (int) hash & slotMask;
+        int expiredSlot = -1;
+        while (true) {
+            int slot = index * SLOT_SIZE;
+            long slotAccountId = table.getLong(slot + ACCOUNT_ID_OFFSET);
+            if (slotAccountId == EMPTY) {
+                return -(expiredSlot >= 0 ? expiredSlot : slot) - 1;
+            }
+            if (slotAccountId == accountId) {
+                return slot;
+            }
+            if (expiredSlot < 0 && isExpired(table, slot, epoch)) {
+                expiredSlot = slot;
+            }
+            index = (index + 1) & slotMask;
+        }
+    }
+
+    /**
+     * Called with the segment's lock held.
+     *
+     * @return the offset of the account's new slot
+     */
+    private int insert(Segment segment, long hash, long accountId, int slot, long epoch) {
+        ByteBuffer table = segment.table;
+        if (table.getLong(slot + ACCOUNT_ID_OFFSET) == EMPTY) {
+            if (segment.accounts == maximumAccountsPerSegment) {
+                purge(segment, epoch);
+                if (segment.accounts == maximumAccountsPerSegment) {
+                    throw new RejectedExecutionException(FULL_ERROR);
+                }
+                slot = -probe(table, hash, accountId, epoch) - 1;
+            }
+            segment.accounts++;
+        }
+
+        table.putLong(slot + ACCOUNT_ID_OFFSET, accountId);
+        table.putLong(slot + NEWEST_EPOCH_OFFSET, epoch);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            table.putLong(slot + BUCKETS_OFFSET + bucket * Long.BYTES, 0L);
+        }
+        return slot;
+    }
+
+    /**
+     * Removes every expired account from the segment, shifting back the accounts that probed past it so no probe
+     * ends early.
+     */
+    private void purge(Segment segment, long epoch) {
+        ByteBuffer table = segment.table;
+        for (int index = 0; index <= slotMask; index++) {
+            while (isExpired(table, index * SLOT_SIZE, epoch)) {
+                remove(table, index);
+                segment.accounts--;
+            }
+        }
+    }
+
+    private void remove(ByteBuffer table, int index) {
+        int hole = index;
+        int next = index;
+        while (true) {
+            next = (next + 1) & slotMask;
+            long accountId = table.getLong(next * SLOT_SIZE + ACCOUNT_ID_OFFSET);
+            if (accountId == EMPTY) {
+                break;
+            }
+            int home = (int) hash(accountId) & slotMask;
+            if (((next - home) & slotMask) < ((next - hole) & slotMask)) {
+                continue;
+            }
+            for (int offset = 0; offset < SLOT_SIZE; offset += Long.BYTES) {
+                table.putLong(hole * SLOT_SIZE + offset, table.getLong(next * SLOT_SIZE + offset));
+            }
+            hole = next;
+        }
+        for (int offset = 0; offset < SLOT_SIZE; offset += Long.BYTES) {
+            table.putLong(hole * SLOT_SIZE + offset, 0L);
+        }
+    }
+
+    private static void checkMaximumTickets(int maximumTickets) {
+        if (maximumTickets < 1 || maximumTickets > MAXIMUM_COUNT) {
+            throw new IllegalArgumentException(String.format(INVALID_MAXIMUM_TICKETS_ERROR, MAXIMUM_COUNT, maximumTickets));
+        }
+    }
+
+    private static boolean isExpired(ByteBuffer table, int slot, long epoch) {
+        return table.getLong(slot + ACCOUNT_ID_OFFSET) != EMPTY
+            && table.getLong(slot + NEWEST_EPOCH_OFFSET) <= epoch - BUCKETS;
+    }
+
+    private long epoch() {
+        return Math.floorDiv(currentTimeMillis.getAsLong(), bucketMillis);
+    }
+
+    private static int bucket(int slot, long epoch) {
+        return slot + BUCKETS_OFFSET + (int) (epoch & (BUCKETS - 1)) * Long.BYTES;
+    }
+
+    private static long pack(TicketPurchaseRequest ticketPurchaseRequest) {
+        long counts = 0L;
+        for (TicketRequest.Type type : TYPES) {
+            int count = Math.min(ticketPurchaseRequest.numberOfTicketsForType(type), MAXIMUM_COUNT);
+            counts |= (long) count << shift(type);
+        }
+        return counts;
+    }
+
+    private static int count(long counts, TicketRequest.Type type) {
+        return (int) (counts >>> shift(type)) & MAXIMUM_COUNT;
+    }
+
+    private static int total(long counts) {
+        int total = 0;
+        for (TicketRequest.Type type : TYPES) {
+            total += count(counts, type);
+        }
+        return total;
+    }
+
+    private static int shift(TicketRequest.Type type) {
+        return type.ordinal() * COUNT_BITS;
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long hash(long accountId) {
+        long hash = (accountId ^ (accountId >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static int occupiedSlots(ByteBuffer table) {
+        int occupied = 0;
+        for (int slot = 0; slot < table.capacity(); slot += SLOT_SIZE) {
+            if (table.getLong(slot + ACCOUNT_ID_OFFSET) != EMPTY) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Writes the header of a new file, or checks that of an existing one.
+     */
+    private FileChannel open(Path path) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                   StandardOpenOption.WRITE);
+            boolean created = channel.size() == 0;
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                header.putLong(MAGIC_OFFSET, MAGIC);
+                header.putLong(SLOTS_OFFSET, slotMask + 1);
+                header.putLong(BUCKET_MILLIS_OFFSET, bucketMillis);
+            } else if (header.getLong(MAGIC_OFFSET) != MAGIC
+                || header.getLong(SLOTS_OFFSET) != slotMask + 1
+                || header.getLong(BUCKET_MILLIS_OFFSET) != bucketMillis) {
+                channel.close();
+                throw new IllegalArgumentException(String.format(FILE_MISMATCH_ERROR, path, slotMask + 1, bucketMillis));
+            }
+            return channel;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private MappedByteBuffer map(long position, int size) {
+        try {
+            return file.map(FileChannel.MapMode.READ_WRITE, position, size);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ByteBuffer table;
+        private int accounts;
+
+        private Segment(ByteBuffer table, int accounts) {
+            this.table = table;
+            this.accounts = accounts;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package uk.gov.dwp.uc.pairtest.history;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+
+/**
+ * Tickets bought by each account over a rolling window, so limits apply across purchases and not only to each one.
+ */
+public interface PurchaseHistory {
+
+    /**
+     * Returned by {@link #claim} when the tickets would take the account over its limit.
+     */
+    long REJECTED = Long.MIN_VALUE;
+
+    /**
+     * Remembers nothing, so no account is ever over its limit.
+     */
+    PurchaseHistory NONE = new PurchaseHistory() {
+        @Override
+        public long claim(TicketPurchaseRequest ticketPurchaseRequest) {
+            return 0L;
+        }
+
+        @Override
+        public void release(TicketPurchaseRequest ticketPurchaseRequest, long claim) {
+        }
+    };
+
+    /**
+     * Adds the tickets of a valid request to its account's history, unless that would take the account over its
+     * limit.
+     *
+     * @return where the tickets were added, to pass to {@link #release} if the purchase then fails, or
+     * {@link #REJECTED} if they were not
+     */
+    long claim(TicketPurchaseRequest ticketPurchaseRequest);
+
+    /**
+     * Takes back the tickets of a claimed purchase that then failed, from where {@link #claim} added them.
+     */
+    void release(TicketPurchaseRequest ticketPurchaseRequest, long claim);
+}
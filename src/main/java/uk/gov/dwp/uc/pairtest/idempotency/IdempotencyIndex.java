@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Remembers the outcome of purchases by their idempotency key, scoped to the account, so a retried purchase returns
+ * the original outcome instead of reserving seats and paying again.
+ */
+public interface IdempotencyIndex {
+
+    /**
+     * Remembers nothing, so every purchase goes ahead.
+     */
+    IdempotencyIndex NONE = new IdempotencyIndex() {
+        @Override
+        public PurchaseResult claim(long accountId, UUID idempotencyKey) {
+            return null;
+        }
+
+        @Override
+        public void complete(long accountId, UUID idempotencyKey, int seatsReserved, int amountPaid) {
+        }
+
+        @Override
+        public void release(long accountId, UUID idempotencyKey) {
+        }
+    };
+
+    /**
+     * Claims the key for a new purchase, unless a purchase with the key has already completed.
+     *
+     * @return null if the caller now holds the key and should go ahead with the purchase, otherwise the outcome of
+     * the completed purchase
+     * @throws RejectedExecutionException if a purchase with the key is still in progress
+     */
+    PurchaseResult claim(long accountId, UUID idempotencyKey) throws RejectedExecutionException;
+
+    /**
+     * Records the outcome of a claimed purchase, to be returned to retries.
+     */
+    void complete(long accountId, UUID idempotencyKey, int seatsReserved, int amountPaid);
+
+    /**
+     * Gives up a claimed key after the purchase failed, so that a retry goes ahead.
+     */
+    void release(long accountId, UUID idempotencyKey);
+}
@@ -0,0 +1,247 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Open-addressing hash tables in direct memory, so tens of millions of keys cost the garbage collector nothing.
+ * Keys are split across segments, each with its own lock and a current and previous table of fixed size slots. New
+ * keys go in the current table; once a window has passed the previous table becomes the current one, so a key is
+ * remembered for between one and two windows. Each slot is stamped with the epoch of the table it was written in, and
+ * a table is cleared by giving it a new epoch, so rotating never touches the table's memory.
+ */
+public class OffHeapIdempotencyIndex implements IdempotencyIndex {
+
+    static final String IN_PROGRESS_ERROR = "Purchase %s is already in progress.";
+    static final String FULL_ERROR = "Idempotency index is full.";
+    static final String TOO_MANY_KEYS_ERROR = "Too many keys for an idempotency index: %d.";
+
+    static final int SLOT_SIZE = 40;
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MINIMUM_SLOTS = 16;
+
+    private static final int MOST_SIGNIFICANT_BITS_OFFSET = 0;
+    private static final int LEAST_SIGNIFICANT_BITS_OFFSET = 8;
+    private static final int ACCOUNT_ID_OFFSET = 16;
+    private static final int SEATS_OFFSET = 24;
+    private static final int AMOUNT_OFFSET = 28;
+    private static final int EPOCH_OFFSET = 32;
+
+    /**
+     * Held in the seats of a slot that does not hold a completed purchase. A completed purchase always has a seat.
+     */
+    private static final int IN_PROGRESS = -1;
+    private static final int RELEASED = -2;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int slotMask;
+    private final int maximumKeysPerSegment;
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+
+    /**
+     * @param maximumKeys keys that may be claimed in one window before claims are rejected
+     * @param window      how long keys are remembered for, at least
+     */
+    public OffHeapIdempotencyIndex(int maximumKeys, Duration window) {
+        this(maximumKeys, window, System::nanoTime);
+    }
+
+    OffHeapIdempotencyIndex(int maximumKeys, Duration window, LongSupplier nanoTime) {
+        long keysPerSegment = Math.max(1, ((long) maximumKeys + SEGMENTS - 1) / SEGMENTS);
+        long slots = Math.max(MINIMUM_SLOTS, Long.highestOneBit(keysPerSegment * 4 / 3 - 1) << 1);
+        if (slots * SLOT_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(TOO_MANY_KEYS_ERROR, maximumKeys));
+        }
+
+        this.slotMask = (int) slots - 1;
+        this.maximumKeysPerSegment = (int) (slots - slots / 8);
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        long now = nanoTime.getAsLong();
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment((int) slots * SLOT_SIZE, now);
+        }
+    }
+
+    @Override
+    public PurchaseResult claim(long accountId, UUID idempotencyKey) {
+        long mostSignificantBits = idempotencyKey.getMostSignificantBits();
+        long leastSignificantBits = idempotencyKey.getLeastSignificantBits();
+        long hash = hash(accountId, mostSignificantBits, leastSignificantBits);
+        Segment segment = segment(hash);
+
+        segment.lock.lock();
+        try {
+            segment.rotate(nanoTime.getAsLong(), windowNanos);
+
+            int slot = probe(segment.current, segment.currentEpoch, hash, accountId, mostSignificantBits, leastSignificantBits);
+            if (slot >= 0) {
+                int seats = segment.current.getInt(slot + SEATS_OFFSET);
+                if (seats != RELEASED) {
+                    return outcome(segment.current, slot, accountId, idempotencyKey);
+                }
+                segment.current.putInt(slot + SEATS_OFFSET, IN_PROGRESS);
+                return null;
+            }
+
+            int previousSlot = probe(
+                segment.previous, segment.previousEpoch, hash, accountId, mostSignificantBits, leastSignificantBits);
+            if (previousSlot >= 0 && segment.previous.getInt(previousSlot + SEATS_OFFSET) != RELEASED) {
+                return outcome(segment.previous, previousSlot, accountId, idempotencyKey);
+            }
+
+            if (segment.currentKeys == maximumKeysPerSegment) {
+                throw new RejectedExecutionException(FULL_ERROR);
+            }
+            int emptySlot = -slot - 1;
+            segment.current.putLong(emptySlot + MOST_SIGNIFICANT_BITS_OFFSET, mostSignificantBits);
+            segment.current.putLong(emptySlot + LEAST_SIGNIFICANT_BITS_OFFSET, leastSignificantBits);
+            segment.current.putLong(emptySlot + ACCOUNT_ID_OFFSET, accountId);
+            segment.current.putInt(emptySlot + SEATS_OFFSET, IN_PROGRESS);
+            segment.current.putInt(emptySlot + EPOCH_OFFSET, segment.currentEpoch);
+            segment.currentKeys++;
+            return null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void complete(long accountId, UUID idempotencyKey, int seatsReserved, int amountPaid) {
+        update(accountId, idempotencyKey, seatsReserved, amountPaid);
+    }
+
+    @Override
+    public void release(long accountId, UUID idempotencyKey) {
+        update(accountId, idempotencyKey, RELEASED, 0);
+    }
+
+    /**
+     * Updates the claimed slot for the key, which is in the current table unless the window has passed since.
+     */
+    private void update(long accountId, UUID idempotencyKey, int seats, int amount) {
+        long mostSignificantBits = idempotencyKey.getMostSignificantBits();
+        long leastSignificantBits = idempotencyKey.getLeastSignificantBits();
+        long hash = hash(accountId, mostSignificantBits, leastSignificantBits);
+        Segment segment = segment(hash);
+
+        segment.lock.lock();
+        try {
+            if (!update(segment.current, segment.currentEpoch, hash, accountId, mostSignificantBits, leastSignificantBits,
+                        seats, amount)) {
+                update(segment.previous, segment.previousEpoch, hash, accountId, mostSignificantBits, leastSignificantBits,
+                       seats, amount);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private boolean update(ByteBuffer table,
+                           int epoch,
+                           long hash,
+                           long accountId,
+                           long mostSignificantBits,
+                           long leastSignificantBits,
+                           int seats,
+                           int amount) {
+        int slot = probe(table, epoch, hash, accountId, mostSignificantBits, leastSignificantBits);
+        if (slot < 0 || table.getInt(slot + SEATS_OFFSET) != IN_PROGRESS) {
+            return false;
+        }
+        table.putInt(slot + SEATS_OFFSET, seats);
+        table.putInt(slot + AMOUNT_OFFSET, amount);
+        return true;
+    }
+
+    /**
+     * Linear probe for the key from its home slot. A slot stamped with an older epoch than the table's is empty.
+     *
+     * @return the offset of the key's slot, or {@code -offset - 1} of the empty slot that ended the probe
+     */
+    private int probe(ByteBuffer table,
+                      int epoch,
+                      long hash,
+                      long accountId,
+                      long mostSignificantBits,
+                      long leastSignificantBits) {
+        int index = (int) hash & slotMask;
+        while (true) {
+            int slot = index * SLOT_SIZE;
+            if (table.getInt(slot + EPOCH_OFFSET) != epoch) {
+                return -slot - 1;
+            }
+            if (table.getLong(slot + MOST_SIGNIFICANT_BITS_OFFSET) == mostSignificantBits
+                && table.getLong(slot + LEAST_SIGNIFICANT_BITS_OFFSET) == leastSignificantBits
+                && table.getLong(slot + ACCOUNT_ID_OFFSET) == accountId) {
+                return slot;
+            }
+            index = (index + 1) & slotMask;
+        }
+    }
+
+    private static PurchaseResult outcome(ByteBuffer table, int slot, long accountId, UUID idempotencyKey) {
+        int seats = table.getInt(slot + SEATS_OFFSET);
+        if (seats == IN_PROGRESS) {
+            throw new RejectedExecutionException(String.format(IN_PROGRESS_ERROR, idempotencyKey));
+        }
+        return PurchaseResult.success(accountId, seats, table.getInt(slot + AMOUNT_OFFSET));
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long hash(long accountId, long mostSignificantBits, long leastSignificantBits) {
+        long hash = (mostSignificantBits ^ accountId) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ leastSignificantBits ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private ByteBuffer current;
+        private ByteBuffer previous;
+        private int currentKeys;
+        private long currentSince;
+        /**
+         * Slots are zeroed when allocated, so epochs start at one. An int of epochs lasts far longer than any window.
+         */
+        private int lastEpoch = 2;
+        private int currentEpoch = 1;
+        private int previousEpoch = 2;
+
+        private Segment(int bytes, long now) {
+            this.current = ByteBuffer.allocateDirect(bytes);
+            this.previous = ByteBuffer.allocateDirect(bytes);
+            this.currentSince = now;
+        }
+
+        /**
+         * Called with the lock held.
+         */
+        private void rotate(long now, long windowNanos) {
+            long elapsed = now - currentSince;
+            if (elapsed < windowNanos) {
+                return;
+            }
+
+            ByteBuffer expired = previous;
+            previous = current;
+            previousEpoch = elapsed >= 2 * windowNanos ? ++lastEpoch : currentEpoch;
+            current = expired;
+            currentEpoch = ++lastEpoch;
+            currentKeys = 0;
+            currentSince = now;
+        }
+    }
+}
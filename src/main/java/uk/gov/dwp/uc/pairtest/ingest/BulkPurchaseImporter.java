@@ -0,0 +1,326 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Imports a file of purchases, one per line in a {@link RecordFormat}, through a {@link TicketService}. The file is
+ * memory-mapped a window at a time and each window is split at line boundaries into chunks that are parsed and
+ * validated in parallel, straight from the mapped bytes. Valid purchases are then made in batches, in file order,
+ * so memory stays bounded by the window size however large the file is.
+ * <p>
+ * The outcome of every record is written to a results file as {@code line,status,seatsReserved,amountPaid,
+ * failureReason}, and a checkpoint is written after each window. Importing again with the same checkpoint resumes
+ * after the last window checkpointed, first truncating the results written since. Each purchase carries an
+ * idempotency key made from an import id and its line number, so a service with an
+ * {@link uk.gov.dwp.uc.pairtest.idempotency.IdempotencyIndex} does not make a purchase twice when a window is
+ * imported again after a crash. The import id is a digest of the file's first window, size and modification time,
+ * so a different file later written to the same path gets different keys, and cannot resume the old checkpoint.
+ */
+public class BulkPurchaseImporter {
+
+    static final String LINE_TOO_LONG_ERROR = "Line at offset %d is longer than %d bytes.";
+    static final String MALFORMED_RECORD_ERROR = "Malformed record.";
+    static final String RESULTS_HEADER = "line,status,seatsReserved,amountPaid,failureReason\n";
+    static final String SUCCEEDED = "SUCCEEDED";
+    static final String FAILED = "FAILED";
+
+    private static final int DEFAULT_WINDOW_BYTES = 16 << 20;
+    private static final int DEFAULT_BATCH_SIZE = 512;
+    private static final String IMPORT_ID_DIGEST = "SHA-256";
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+
+    private final TicketService ticketService;
+    private final Executor executor;
+    private final int parallelism;
+    private final ValidationPolicies validationPolicies;
+    private final int windowBytes;
+    private final int batchSize;
+
+    /**
+     * @param executor    parses and validates chunks of each window
+     * @param parallelism chunks each window is split into
+     */
+    public BulkPurchaseImporter(TicketService ticketService, Executor executor, int parallelism) {
+        this(ticketService, executor, parallelism, ValidationPolicies.DEFAULT);
+    }
+
+    public BulkPurchaseImporter(TicketService ticketService,
+                                Executor executor,
+                                int parallelism,
+                                ValidationPolicies validationPolicies) {
+        this(ticketService, executor, parallelism, validationPolicies, DEFAULT_WINDOW_BYTES, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param windowBytes bytes of the file mapped at a time, which is also the longest line that can be read
+     * @param batchSize   records passed to {@link TicketService#purchaseTickets(List)} at a time
+     */
+    BulkPurchaseImporter(TicketService ticketService,
+                         Executor executor,
+                         int parallelism,
+                         ValidationPolicies validationPolicies,
+                         int windowBytes,
+                         int batchSize) {
+        this.ticketService = ticketService;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.validationPolicies = validationPolicies;
+        this.windowBytes = windowBytes;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports {@code input}, or the rest of it if {@code checkpoint} records an earlier import that did not finish.
+     *
+     * @return the outcomes of every record imported, including those imported before resuming
+     */
+    public Summary importFile(Path input, Path results, Path checkpoint) throws IOException {
+        RecordFormat format = RecordFormat.forPath(input);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(results, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long inputSize = in.size();
+            long importId = importId(in, input, inputSize);
+            ImportCheckpoint progress = ImportCheckpoint.read(checkpoint, importId, inputSize);
+            out.truncate(progress.resultsLength());
+            out.position(progress.resultsLength());
+            Writer writer = new BufferedWriter(Channels.newWriter(out, StandardCharsets.UTF_8));
+            if (progress.resultsLength() == 0) {
+                writer.write(RESULTS_HEADER);
+            }
+
+            while (progress.offset() < inputSize) {
+                long offset = progress.offset();
+                int length = (int) Math.min(windowBytes, inputSize - offset);
+                ByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                int end = offset + length == inputSize ? length : afterLastNewline(window, length);
+                if (end == 0) {
+                    throw new IllegalStateException(String.format(LINE_TOO_LONG_ERROR, offset, windowBytes));
+                }
+
+                Outcomes outcomes = new Outcomes(writer, importId, progress);
+                for (ParsedChunk chunk : parse(format, window, end, offset == 0)) {
+                    outcomes.addAll(chunk, window);
+                }
+                outcomes.flush();
+                writer.flush();
+                out.force(false);
+
+                progress = new ImportCheckpoint(importId,
+                                                inputSize,
+                                                offset + end,
+                                                outcomes.lines,
+                                                out.size(),
+                                                outcomes.succeeded,
+                                                outcomes.failed);
+                progress.write(checkpoint);
+            }
+            writer.flush();
+            return new Summary(progress.succeeded(), progress.failed());
+        }
+    }
+
+    /**
+     * Splits the window at line boundaries into up to {@code parallelism} chunks and parses them in parallel.
+     */
+    private List<ParsedChunk> parse(RecordFormat format, ByteBuffer window, int end, boolean startOfFile) {
+        ValidationPolicy validationPolicy = validationPolicies.current();
+        List<CompletableFuture<ParsedChunk>> chunks = new ArrayList<>(parallelism);
+        int from = 0;
+        for (int chunk = 1; chunk <= parallelism && from < end; chunk++) {
+            int to = chunk == parallelism ? end : Math.max(from + 1, (int) ((long) end * chunk / parallelism));
+            while (to < end && window.get(to - 1) != '\n') {
+                to++;
+            }
+
+            int chunkFrom = from;
+            int chunkTo = to;
+            boolean firstLineOfFile = startOfFile && chunkFrom == 0;
+            ByteBuffer view = window.duplicate();
+            chunks.add(CompletableFuture.supplyAsync(
+                () -> ParsedChunk.parse(format, view, chunkFrom, chunkTo, firstLineOfFile, validationPolicy), executor));
+            from = to;
+        }
+        return chunks.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static int afterLastNewline(ByteBuffer window, int length) {
+        for (int position = length - 1; position >= 0; position--) {
+            if (window.get(position) == '\n') {
+                return position + 1;
+            }
+        }
+        return 0;
+    }
+
+    private long importId(FileChannel in, Path input, long inputSize) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(IMPORT_ID_DIGEST);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+        digest.update(in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(windowBytes, inputSize)));
+        digest.update(ByteBuffer.allocate(2 * Long.BYTES)
+                          .putLong(inputSize)
+                          .putLong(Files.getLastModifiedTime(input).toMillis())
+                          .flip());
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static TicketRequest[] ticketRequests(int[] ticketCounts) {
+        int requested = 0;
+        for (int count : ticketCounts) {
+            requested += count > 0 ? 1 : 0;
+        }
+        TicketRequest[] ticketRequests = new TicketRequest[requested];
+        int next = 0;
+        for (TicketRequest.Type type : TYPES) {
+            if (ticketCounts[type.ordinal()] > 0) {
+                ticketRequests[next++] = new TicketRequest(type, ticketCounts[type.ordinal()]);
+            }
+        }
+        return ticketRequests;
+    }
+
+    private static String discountCode(ByteBuffer window, ParsedChunk chunk, int record) {
+        int length = chunk.discountCodeLength(record);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        window.get(chunk.discountCodeOffset(record), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String quoted(String failureReason) {
+        if (failureReason.indexOf(',') < 0 && failureReason.indexOf('"') < 0 && failureReason.indexOf('\n') < 0) {
+            return failureReason;
+        }
+        return '"' + failureReason.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Collects the outcomes of a window's records in file order, making the valid purchases a batch at a time and
+     * writing every outcome once its batch is made.
+     */
+    private final class Outcomes {
+
+        private final Writer writer;
+        private final long importId;
+        private final long[] lineNumbers = new long[batchSize];
+        private final PurchaseResult[] results = new PurchaseResult[batchSize];
+        private final int[] purchasePositions = new int[batchSize];
+        private final int[] ticketCounts = new int[TYPES.length];
+        private List<TicketPurchaseRequest> purchases = new ArrayList<>(batchSize);
+        private int size;
+        private long lines;
+        private long succeeded;
+        private long failed;
+
+        private Outcomes(Writer writer, long importId, ImportCheckpoint progress) {
+            this.writer = writer;
+            this.importId = importId;
+            this.lines = progress.lines();
+            this.succeeded = progress.succeeded();
+            this.failed = progress.failed();
+        }
+
+        private void addAll(ParsedChunk chunk, ByteBuffer window) throws IOException {
+            for (int record = 0; record < chunk.size(); record++) {
+                long lineNumber = lines + chunk.lineIndex(record) + 1;
+                long accountId = chunk.accountId(record);
+                lineNumbers[size] = lineNumber;
+
+                Reason reason = chunk.reason(record);
+                if (chunk.isMalformed(record)) {
+                    results[size] = PurchaseResult.failure(accountId, MALFORMED_RECORD_ERROR);
+                } else if (Objects.nonNull(reason)) {
+                    chunk.ticketCounts(record, ticketCounts);
+                    results[size] = PurchaseResult.invalid(
+                        accountId, reason, TicketPurchaseRequest.describeCounts(reason, accountId, ticketCounts));
+                } else {
+                    chunk.ticketCounts(record, ticketCounts);
+                    purchasePositions[purchases.size()] = size;
+                    purchases.add(new TicketPurchaseRequest(accountId,
+                                                            ticketRequests(ticketCounts),
+                                                            discountCode(window, chunk, record),
+                                                            new UUID(importId, lineNumber)));
+                }
+
+                if (++size == batchSize) {
+                    flush();
+                }
+            }
+            lines += chunk.lines();
+        }
+
+        private void flush() throws IOException {
+            if (!purchases.isEmpty()) {
+                List<PurchaseResult> made = ticketService.purchaseTickets(purchases);
+                for (int i = 0; i < made.size(); i++) {
+                    results[purchasePositions[i]] = made.get(i);
+                }
+                purchases = new ArrayList<>(batchSize);
+            }
+
+            for (int i = 0; i < size; i++) {
+                write(lineNumbers[i], results[i]);
+                results[i] = null;
+            }
+            size = 0;
+        }
+
+        private void write(long lineNumber, PurchaseResult result) throws IOException {
+            writer.write(Long.toString(lineNumber));
+            if (result.isSuccessful()) {
+                succeeded++;
+                writer.write(',');
+                writer.write(SUCCEEDED);
+                writer.write(',');
+                writer.write(Integer.toString(result.seatsReserved()));
+                writer.write(',');
+                writer.write(Integer.toString(result.amountPaid()));
+                writer.write(",\n");
+            } else {
+                failed++;
+                writer.write(',');
+                writer.write(FAILED);
+                writer.write(",,,");
+                writer.write(quoted(result.failureReason()));
+                writer.write('\n');
+            }
+        }
+    }
+
+    public record Summary(long succeeded, long failed) {
+
+        public long records() {
+            return succeeded + failed;
+        }
+    }
+}
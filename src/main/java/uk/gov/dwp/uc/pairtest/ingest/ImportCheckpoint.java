@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * How far an import has got: the input consumed, as a byte offset and a count of lines, and the results written for
+ * it. Written to a temporary file and moved into place, so a crash leaves either the old checkpoint or the new one.
+ *
+ * @param importId identifies the file imported, so a checkpoint is never resumed against another file
+ */
+record ImportCheckpoint(long importId, long inputSize, long offset, long lines, long resultsLength, long succeeded, long failed) {
+
+    static final String CHECKPOINT_MISMATCH_ERROR = "Checkpoint %s is for import %016x of a %d byte file, not import %016x of %d bytes.";
+
+    private static final String IMPORT_ID = "importId";
+    private static final String INPUT_SIZE = "inputSize";
+    private static final String OFFSET = "offset";
+    private static final String LINES = "lines";
+    private static final String RESULTS_LENGTH = "resultsLength";
+    private static final String SUCCEEDED = "succeeded";
+    private static final String FAILED = "failed";
+
+    /**
+     * @return the checkpoint, or the start of the file if there is none yet
+     */
+    static ImportCheckpoint read(Path checkpoint, long importId, long inputSize) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return new ImportCheckpoint(importId, inputSize, 0, 0, 0, 0, 0);
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint)) {
+            properties.load(reader);
+        }
+        long checkpointImportId = Long.parseUnsignedLong(properties.getProperty(IMPORT_ID, "0"), 16);
+        long checkpointInputSize = Long.parseLong(properties.getProperty(INPUT_SIZE));
+        if (checkpointImportId != importId || checkpointInputSize != inputSize) {
+            throw new IllegalStateException(String.format(
+                CHECKPOINT_MISMATCH_ERROR, checkpoint, checkpointImportId, checkpointInputSize, importId, inputSize));
+        }
+        return new ImportCheckpoint(importId,
+                                    inputSize,
+                                    Long.parseLong(properties.getProperty(OFFSET)),
+                                    Long.parseLong(properties.getProperty(LINES)),
+                                    Long.parseLong(properties.getProperty(RESULTS_LENGTH)),
+                                    Long.parseLong(properties.getProperty(SUCCEEDED)),
+                                    Long.parseLong(properties.getProperty(FAILED)));
+    }
+
+    void write(Path checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(IMPORT_ID, Long.toHexString(importId));
+        properties.setProperty(INPUT_SIZE, Long.toString(inputSize));
+        properties.setProperty(OFFSET, Long.toString(offset));
+        properties.setProperty(LINES, Long.toString(lines));
+        properties.setProperty(RESULTS_LENGTH, Long.toString(resultsLength));
+        properties.setProperty(SUCCEEDED, Long.toString(succeeded));
+        properties.setProperty(FAILED, Long.toString(failed));
+
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary)) {
+            properties.store(writer, null);
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,138 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The purchases parsed and validated from a run of whole lines, held column by column in primitive arrays so a
+ * chunk costs a handful of allocations however many lines it has.
+ */
+final class ParsedChunk {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int types;
+    private int size;
+    private int lines;
+    private int[] lineIndexes = new int[INITIAL_CAPACITY];
+    private long[] accountIds = new long[INITIAL_CAPACITY];
+    private int[] ticketCounts;
+    private int[] discountCodeOffsets = new int[INITIAL_CAPACITY];
+    private int[] discountCodeLengths = new int[INITIAL_CAPACITY];
+    private boolean[] malformed = new boolean[INITIAL_CAPACITY];
+    private Reason[] reasons = new Reason[INITIAL_CAPACITY];
+
+    private ParsedChunk(int types) {
+        this.types = types;
+        this.ticketCounts = new int[INITIAL_CAPACITY * types];
+    }
+
+    /**
+     * Parses and validates every line between {@code from} and {@code to}, skipping blank lines, and the first line
+     * too if {@code firstLineOfFile} and it is a header.
+     */
+    static ParsedChunk parse(RecordFormat format,
+                             ByteBuffer buffer,
+                             int from,
+                             int to,
+                             boolean firstLineOfFile,
+                             ValidationPolicy validationPolicy) {
+        RecordFields fields = new RecordFields();
+        ParsedChunk chunk = new ParsedChunk(fields.ticketCounts.length);
+
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            int lineIndex = chunk.lines++;
+
+            boolean blank = RecordFormat.skipBlanks(buffer, lineStart, contentEnd) == contentEnd;
+            boolean header = firstLineOfFile && lineIndex == 0 && format.isHeader(buffer, lineStart, contentEnd);
+            if (!blank && !header) {
+                boolean parsed = format.parse(buffer, lineStart, contentEnd, fields);
+                Reason reason = parsed
+                    ? TicketPurchaseRequest.checkCounts(fields.accountId, fields.ticketCounts, validationPolicy)
+                    : null;
+                chunk.add(lineIndex, fields, !parsed, reason);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Lines in the chunk, counting blank and header lines.
+     */
+    int lines() {
+        return lines;
+    }
+
+    int lineIndex(int record) {
+        return lineIndexes[record];
+    }
+
+    long accountId(int record) {
+        return accountIds[record];
+    }
+
+    /**
+     * Copies the record's ticket counts into {@code into}, indexed by type ordinal.
+     */
+    void ticketCounts(int record, int[] into) {
+        System.arraycopy(ticketCounts, record * types, into, 0, types);
+    }
+
+    int discountCodeOffset(int record) {
+        return discountCodeOffsets[record];
+    }
+
+    /**
+     * @return -1 if the record has no discount code
+     */
+    int discountCodeLength(int record) {
+        return discountCodeLengths[record];
+    }
+
+    boolean isMalformed(int record) {
+        return malformed[record];
+    }
+
+    /**
+     * @return the first rule the record broke, or null if it is valid or malformed
+     */
+    Reason reason(int record) {
+        return reasons[record];
+    }
+
+    private void add(int lineIndex, RecordFields fields, boolean isMalformed, Reason reason) {
+        if (size == accountIds.length) {
+            int capacity = size * 2;
+            lineIndexes = Arrays.copyOf(lineIndexes, capacity);
+            accountIds = Arrays.copyOf(accountIds, capacity);
+            ticketCounts = Arrays.copyOf(ticketCounts, capacity * types);
+            discountCodeOffsets = Arrays.copyOf(discountCodeOffsets, capacity);
+            discountCodeLengths = Arrays.copyOf(discountCodeLengths, capacity);
+            malformed = Arrays.copyOf(malformed, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+        }
+        lineIndexes[size] = lineIndex;
+        accountIds[size] = fields.accountId;
+        System.arraycopy(fields.ticketCounts, 0, ticketCounts, size * types, types);
+        discountCodeOffsets[size] = fields.discountCodeOffset;
+        discountCodeLengths[size] = fields.discountCodeLength;
+        malformed[size] = isMalformed;
+        reasons[size] = reason;
+        size++;
+    }
+}
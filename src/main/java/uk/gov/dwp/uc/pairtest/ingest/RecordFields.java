@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.Arrays;
+
+/**
+ * The fields of the line being parsed, reused from line to line by one parsing thread.
+ */
+final class RecordFields {
+
+    final int[] ticketCounts = new int[TicketRequest.Type.values().length];
+    long accountId;
+    int discountCodeOffset;
+    int discountCodeLength;
+
+    int position;
+    long number;
+    int stringOffset;
+    int stringLength;
+
+    void reset(int start) {
+        Arrays.fill(ticketCounts, 0);
+        accountId = 0;
+        discountCodeOffset = 0;
+        discountCodeLength = -1;
+        position = start;
+    }
+}
@@ -0,0 +1,275 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+/**
+ * Layouts of a purchase file, one purchase per line, parsed straight from the bytes of the line into
+ * {@link RecordFields}. Parsing never allocates; the discount code is left in place as an offset and length.
+ */
+public enum RecordFormat {
+
+    /**
+     * {@code accountId,adult,child,infant[,discountCode]}, optionally after a header line.
+     */
+    CSV {
+        @Override
+        boolean isHeader(ByteBuffer buffer, int start, int end) {
+            int position = skipBlanks(buffer, start, end);
+            return position < end && buffer.get(position) != '-' && !isDigit(buffer.get(position));
+        }
+
+        @Override
+        boolean parse(ByteBuffer buffer, int start, int end, RecordFields fields) {
+            fields.reset(start);
+            if (!readNumber(buffer, end, fields)) {
+                return false;
+            }
+            fields.accountId = fields.number;
+
+            for (TicketRequest.Type type : CSV_COLUMNS) {
+                if (!expect(buffer, end, fields, (byte) ',') || !readNumber(buffer, end, fields) || !isInt(fields.number)) {
+                    return false;
+                }
+                fields.ticketCounts[type.ordinal()] = (int) fields.number;
+            }
+
+            if (fields.position == end) {
+                return true;
+            }
+            if (!expect(buffer, end, fields, (byte) ',')) {
+                return false;
+            }
+            int codeStart = skipBlanks(buffer, fields.position, end);
+            int codeEnd = end;
+            while (codeEnd > codeStart && isBlank(buffer.get(codeEnd - 1))) {
+                codeEnd--;
+            }
+            for (int position = codeStart; position < codeEnd; position++) {
+                if (buffer.get(position) == ',') {
+                    return false;
+                }
+            }
+            if (codeEnd > codeStart) {
+                fields.discountCodeOffset = codeStart;
+                fields.discountCodeLength = codeEnd - codeStart;
+            }
+            return true;
+        }
+    },
+
+    /**
+     * One flat JSON object per line, with a numeric {@code accountId}, optional numeric {@code adult}, {@code child}
+     * and {@code infant} counts, and an optional string {@code discountCode}. Strings may not contain escapes.
+     */
+    NDJSON {
+        @Override
+        boolean isHeader(ByteBuffer buffer, int start, int end) {
+            return false;
+        }
+
+        @Override
+        boolean parse(ByteBuffer buffer, int start, int end, RecordFields fields) {
+            fields.reset(start);
+            if (!expect(buffer, end, fields, (byte) '{')) {
+                return false;
+            }
+            fields.position = skipBlanks(buffer, fields.position, end);
+            boolean accountIdSeen = false;
+            boolean more = fields.position < end && buffer.get(fields.position) != '}';
+
+            while (more) {
+                if (!readString(buffer, end, fields) || !expect(buffer, end, fields, (byte) ':')) {
+                    return false;
+                }
+                int keyOffset = fields.stringOffset;
+                int keyLength = fields.stringLength;
+                fields.position = skipBlanks(buffer, fields.position, end);
+
+                if (matches(buffer, keyOffset, keyLength, DISCOUNT_CODE_KEY)) {
+                    if (!readNullableString(buffer, end, fields)) {
+                        return false;
+                    }
+                    fields.discountCodeOffset = fields.stringOffset;
+                    fields.discountCodeLength = fields.stringLength;
+                } else {
+                    if (!readNumber(buffer, end, fields)) {
+                        return false;
+                    }
+                    if (matches(buffer, keyOffset, keyLength, ACCOUNT_ID_KEY)) {
+                        fields.accountId = fields.number;
+                        accountIdSeen = true;
+                    } else {
+                        TicketRequest.Type type = typeForKey(buffer, keyOffset, keyLength);
+                        if (Objects.isNull(type) || !isInt(fields.number)) {
+                            return false;
+                        }
+                        fields.ticketCounts[type.ordinal()] = (int) fields.number;
+                    }
+                }
+
+                fields.position = skipBlanks(buffer, fields.position, end);
+                more = fields.position < end && buffer.get(fields.position) == ',';
+                fields.position += more ? 1 : 0;
+                fields.position = skipBlanks(buffer, fields.position, end);
+            }
+
+            return accountIdSeen && expect(buffer, end, fields, (byte) '}') && fields.position == end;
+        }
+    };
+
+    static final String UNKNOWN_FORMAT_ERROR = "Cannot tell the format of %s from its extension.";
+
+    private static final TicketRequest.Type[] CSV_COLUMNS = {ADULT, CHILD, INFANT};
+    private static final byte[] ACCOUNT_ID_KEY = "accountId".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DISCOUNT_CODE_KEY = "discountCode".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+    private static final byte[][] TYPE_KEYS = new byte[TYPES.length][];
+
+    static {
+        for (TicketRequest.Type type : TYPES) {
+            TYPE_KEYS[type.ordinal()] = type.name().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * {@code .csv} files are {@link #CSV}; {@code .ndjson} and {@code .jsonl} files are {@link #NDJSON}.
+     */
+    public static RecordFormat forPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException(String.format(UNKNOWN_FORMAT_ERROR, path));
+    }
+
+    /**
+     * Whether the line is a header to skip, asked only of the first line of a file.
+     */
+    abstract boolean isHeader(ByteBuffer buffer, int start, int end);
+
+    /**
+     * Parses the line between {@code start} and {@code end}, without its line terminator.
+     *
+     * @return false if the line is malformed, leaving {@code fields} undefined
+     */
+    abstract boolean parse(ByteBuffer buffer, int start, int end, RecordFields fields);
+
+    private static boolean expect(ByteBuffer buffer, int end, RecordFields fields, byte expected) {
+        int position = skipBlanks(buffer, fields.position, end);
+        if (position == end || buffer.get(position) != expected) {
+            return false;
+        }
+        fields.position = position + 1;
+        return true;
+    }
+
+    /**
+     * Reads an optionally negative decimal, with blanks either side, into {@link RecordFields#number}.
+     */
+    private static boolean readNumber(ByteBuffer buffer, int end, RecordFields fields) {
+        int position = skipBlanks(buffer, fields.position, end);
+        boolean negative = position < end && buffer.get(position) == '-';
+        position += negative ? 1 : 0;
+
+        int digitsStart = position;
+        long number = 0;
+        while (position < end && isDigit(buffer.get(position))) {
+            int digit = buffer.get(position) - '0';
+            if (number > (Long.MAX_VALUE - digit) / 10) {
+                return false;
+            }
+            number = number * 10 + digit;
+            position++;
+        }
+        if (position == digitsStart) {
+            return false;
+        }
+        fields.number = negative ? -number : number;
+        fields.position = skipBlanks(buffer, position, end);
+        return true;
+    }
+
+    private static boolean readString(ByteBuffer buffer, int end, RecordFields fields) {
+        if (!expect(buffer, end, fields, (byte) '"')) {
+            return false;
+        }
+        int start = fields.position;
+        for (int position = start; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b == '\\') {
+                return false;
+            }
+            if (b == '"') {
+                fields.stringOffset = start;
+                fields.stringLength = position - start;
+                fields.position = position + 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean readNullableString(ByteBuffer buffer, int end, RecordFields fields) {
+        if (fields.position + NULL.length <= end && matches(buffer, fields.position, NULL.length, NULL)) {
+            fields.position += NULL.length;
+            fields.stringOffset = 0;
+            fields.stringLength = -1;
+            return true;
+        }
+        return readString(buffer, end, fields);
+    }
+
+    private static TicketRequest.Type typeForKey(ByteBuffer buffer, int offset, int length) {
+        for (TicketRequest.Type type : TYPES) {
+            if (matches(buffer, offset, length, TYPE_KEYS[type.ordinal()])) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int offset, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int skipBlanks(ByteBuffer buffer, int position, int end) {
+        while (position < end && isBlank(buffer.get(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isInt(long number) {
+        return number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,20 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * A purchase that was begun but neither paid nor failed when the journal was last closed.
+ * <p>
+ * A purchase with a discount applied may have been paid just before the process died, as payment is journalled
+ * after the gateway accepts it.
+ *
+ * @param amount the amount to pay, or -1 if the discount had not been applied
+ */
+public record IncompletePurchase(long purchaseId,
+                                 long accountId,
+                                 int numberOfSeats,
+                                 boolean seatsReserved,
+                                 int amount) {
+
+    public boolean discountApplied() {
+        return amount >= 0;
+    }
+}
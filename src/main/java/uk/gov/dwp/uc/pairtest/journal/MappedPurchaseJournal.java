@@ -0,0 +1,427 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Appends fixed size purchase records to a log of memory-mapped segment files. Records reach the page cache as soon
+ * as they are appended, so they survive the process dying; a flusher thread forces them to disk every
+ * {@code flushInterval}, so at most that much is lost if the machine fails. {@link #sync()} waits for the next force,
+ * sharing it with any other caller waiting at the same time.
+ * <p>
+ * Opening a journal replays its segments and keeps the purchases that were neither paid nor failed, to be handed to
+ * {@link #recover(Consumer)}. Replay stops at the first torn record, which is overwritten by the next append.
+ * <p>
+ * Segments older than the oldest open purchase are deleted once they are on disk, so the journal only grows while
+ * purchases stay open. The newest segment is always kept.
+ */
+public class MappedPurchaseJournal implements PurchaseJournal, AutoCloseable {
+
+    static final int RECORD_SIZE = 32;
+    static final String SEGMENT_SIZE_ERROR = "Segment size must be a positive multiple of " + RECORD_SIZE + ": %d.";
+    static final String SEGMENT_SIZE_MISMATCH_ERROR = "Segment %s is %d bytes, expected %d.";
+    static final String CLOSED_ERROR = "Purchase journal is closed.";
+
+    private static final String SEGMENT_PREFIX = "purchases-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int PURCHASE_ID_OFFSET = 0;
+    private static final int ACCOUNT_ID_OFFSET = 8;
+    private static final int ENTRY_OFFSET = 16;
+    private static final int VALUE_OFFSET = 20;
+    private static final int CHECKSUM_OFFSET = 24;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Long, IncompletePurchase> incompletePurchases = new LinkedHashMap<>();
+    /**
+     * Segment holding each open purchase's first record, oldest purchase first.
+     */
+    private final Map<Long, Integer> openPurchaseSegments = new LinkedHashMap<>();
+    private int firstSegment;
+    private long nextPurchaseId = 1;
+    private volatile long writePosition;
+
+    private final Object durableMonitor = new Object();
+    private volatile long durablePosition;
+    private volatile boolean open = true;
+    private final Thread flusher;
+
+    public MappedPurchaseJournal(Path directory, int segmentSize, Duration flushInterval) {
+        if (segmentSize <= 0 || segmentSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException(String.format(SEGMENT_SIZE_ERROR, segmentSize));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        replay();
+        this.durablePosition = writePosition;
+        reclaim();
+        this.flusher = Thread.ofPlatform().name("purchase-journal-flusher").daemon().start(this::flushUntilClosed);
+    }
+
+    @Override
+    public long begin(long accountId, int numberOfSeats) {
+        lock.lock();
+        try {
+            long purchaseId = nextPurchaseId++;
+            append(purchaseId, accountId, Entry.BEGUN, numberOfSeats);
+            openPurchaseSegments.put(purchaseId, (int) ((writePosition - 1) / segmentSize));
+            return purchaseId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void seatsReserved(long purchaseId) {
+        appendLocked(purchaseId, Entry.SEATS_RESERVED, 0);
+    }
+
+    @Override
+    public void discountApplied(long purchaseId, int amount) {
+        appendLocked(purchaseId, Entry.DISCOUNT_APPLIED, amount);
+    }
+
+    @Override
+    public void paid(long purchaseId) {
+        end(purchaseId, Entry.PAID);
+    }
+
+    @Override
+    public void failed(long purchaseId) {
+        end(purchaseId, Entry.FAILED);
+    }
+
+    /**
+     * Purchases found incomplete when the journal was opened and not yet recovered, oldest first.
+     */
+    public List<IncompletePurchase> incompletePurchases() {
+        lock.lock();
+        try {
+            return List.copyOf(incompletePurchases.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands each incomplete purchase to {@code compensation}, oldest first, and journals it as failed once
+     * compensated. Stops at the first compensation that throws, leaving that purchase and later ones incomplete.
+     *
+     * @return the number of purchases compensated
+     */
+    public int recover(Consumer<IncompletePurchase> compensation) {
+        int recovered = 0;
+        for (IncompletePurchase incompletePurchase : incompletePurchases()) {
+            compensation.accept(incompletePurchase);
+            failed(incompletePurchase.purchaseId());
+            lock.lock();
+            try {
+                incompletePurchases.remove(incompletePurchase.purchaseId());
+            } finally {
+                lock.unlock();
+            }
+            recovered++;
+        }
+        return recovered;
+    }
+
+    /**
+     * Blocks until every record appended so far has been forced to disk.
+     */
+    public void sync() {
+        long position = writePosition;
+        if (durablePosition >= position) {
+            return;
+        }
+        LockSupport.unpark(flusher);
+
+        boolean interrupted = false;
+        synchronized (durableMonitor) {
+            while (durablePosition < position && open) {
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException exception) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (durablePosition < position) {
+            throw new IllegalStateException(CLOSED_ERROR);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+
+        lock.lock();
+        try {
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void appendLocked(long purchaseId, Entry entry, int value) {
+        lock.lock();
+        try {
+            append(purchaseId, 0L, entry, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void end(long purchaseId, Entry entry) {
+        lock.lock();
+        try {
+            append(purchaseId, 0L, entry, 0);
+            if (Objects.nonNull(openPurchaseSegments.remove(purchaseId))) {
+                reclaim();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(long purchaseId, long accountId, Entry entry, int value) {
+        if (!open) {
+            throw new IllegalStateException(CLOSED_ERROR);
+        }
+        long position = writePosition;
+        int segmentIndex = (int) (position / segmentSize);
+        if (segmentIndex == firstSegment + segments.size()) {
+            segments.add(map(segmentIndex));
+        }
+        MappedByteBuffer segment = segments.get(segmentIndex - firstSegment);
+        int offset = (int) (position % segmentSize);
+
+        segment.putLong(offset + PURCHASE_ID_OFFSET, purchaseId);
+        segment.putLong(offset + ACCOUNT_ID_OFFSET, accountId);
+        segment.putInt(offset + ENTRY_OFFSET, entry.code());
+        segment.putInt(offset + VALUE_OFFSET, value);
+        segment.putLong(offset + CHECKSUM_OFFSET, checksum(purchaseId, accountId, entry.code(), value));
+        writePosition = position + RECORD_SIZE;
+    }
+
+    private void flushUntilClosed() {
+        while (open) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            force();
+        }
+    }
+
+    /**
+     * Only called by the flusher, or by {@link #close()} once the flusher has stopped.
+     */
+    private void force() {
+        long from = durablePosition;
+        long to = writePosition;
+        if (to <= from) {
+            return;
+        }
+
+        int firstSegment = (int) (from / segmentSize);
+        int lastSegment = (int) ((to - 1) / segmentSize);
+        for (int segmentIndex = firstSegment; segmentIndex <= lastSegment; segmentIndex++) {
+            int start = segmentIndex == firstSegment ? (int) (from % segmentSize) : 0;
+            int end = segmentIndex == lastSegment ? (int) ((to - 1) % segmentSize) + 1 : segmentSize;
+            segment(segmentIndex).force(start, end - start);
+        }
+
+        synchronized (durableMonitor) {
+            durablePosition = to;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private MappedByteBuffer segment(int segmentIndex) {
+        lock.lock();
+        try {
+            return segments.get(segmentIndex - firstSegment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments before both the oldest open purchase and the newest segment, once they are on disk. The
+     * flusher only forces segments from the durable position on, so never one being deleted. Dropping a segment's
+     * buffer leaves it to be unmapped when collected.
+     */
+    private void reclaim() {
+        int lastSegment = (int) ((writePosition - 1) / segmentSize);
+        int keepFrom = Math.min(lastSegment, (int) (durablePosition / segmentSize));
+        if (!openPurchaseSegments.isEmpty()) {
+            keepFrom = Math.min(keepFrom, openPurchaseSegments.values().iterator().next());
+        }
+        while (firstSegment < keepFrom) {
+            try {
+                Files.deleteIfExists(segmentPath(firstSegment));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            segments.remove(0);
+            firstSegment++;
+        }
+    }
+
+    private void replay() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        firstSegment = oldestSegment();
+        writePosition = (long) firstSegment * segmentSize;
+        for (int segmentIndex = firstSegment; Files.exists(segmentPath(segmentIndex)); segmentIndex++) {
+            MappedByteBuffer segment = map(segmentIndex);
+            segments.add(segment);
+            for (int offset = 0; offset < segmentSize; offset += RECORD_SIZE) {
+                if (!replay(segment, offset, segmentIndex)) {
+                    truncate(segment, offset, segmentIndex);
+                    return;
+                }
+                writePosition += RECORD_SIZE;
+            }
+        }
+    }
+
+    /**
+     * @return the index of the oldest segment not yet reclaimed, or zero for a new journal
+     */
+    private int oldestSegment() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .mapToInt(name -> Integer.parseInt(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .min()
+                .orElse(0);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private boolean replay(MappedByteBuffer segment, int offset, int segmentIndex) {
+        long purchaseId = segment.getLong(offset + PURCHASE_ID_OFFSET);
+        long accountId = segment.getLong(offset + ACCOUNT_ID_OFFSET);
+        int code = segment.getInt(offset + ENTRY_OFFSET);
+        int value = segment.getInt(offset + VALUE_OFFSET);
+        if (code < 1 || code > Entry.VALUES.length
+            || segment.getLong(offset + CHECKSUM_OFFSET) != checksum(purchaseId, accountId, code, value)) {
+            return false;
+        }
+
+        nextPurchaseId = Math.max(nextPurchaseId, purchaseId + 1);
+        switch (Entry.VALUES[code - 1]) {
+            case BEGUN -> {
+                incompletePurchases.put(purchaseId, new IncompletePurchase(purchaseId, accountId, value, false, -1));
+                openPurchaseSegments.put(purchaseId, segmentIndex);
+            }
+            case SEATS_RESERVED -> incompletePurchases.computeIfPresent(purchaseId, (id, purchase) -> new IncompletePurchase(
+                id, purchase.accountId(), purchase.numberOfSeats(), true, purchase.amount()));
+            case DISCOUNT_APPLIED -> incompletePurchases.computeIfPresent(purchaseId, (id, purchase) -> new IncompletePurchase(
+                id, purchase.accountId(), purchase.numberOfSeats(), purchase.seatsReserved(), value));
+            case PAID, FAILED -> {
+                incompletePurchases.remove(purchaseId);
+                openPurchaseSegments.remove(purchaseId);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears everything after the last whole record, so nothing written before a crash is replayed after later appends.
+     */
+    private void truncate(MappedByteBuffer segment, int offset, int segmentIndex) {
+        for (int position = offset; position < segmentSize; position += Long.BYTES) {
+            segment.putLong(position, 0L);
+        }
+        try {
+            for (int laterIndex = segmentIndex + 1; Files.deleteIfExists(segmentPath(laterIndex)); laterIndex++) {
+                // deleted
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private MappedByteBuffer map(int segmentIndex) {
+        Path path = segmentPath(segmentIndex);
+        try (FileChannel channel = FileChannel.open(path,
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size != 0 && size != segmentSize) {
+                throw new IllegalStateException(String.format(SEGMENT_SIZE_MISMATCH_ERROR, path, size, segmentSize));
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private Path segmentPath(int segmentIndex) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Detects torn records; never zero for a record that was written.
+     */
+    private static long checksum(long purchaseId, long accountId, int code, int value) {
+        long hash = purchaseId * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ accountId) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ ((long) code << 32 | (value & 0xFFFFFFFFL))) * 0x94D049BB133111EBL;
+        return (hash ^ (hash >>> 31)) | 1L;
+    }
+
+    private enum Entry {
+        BEGUN, SEATS_RESERVED, DISCOUNT_APPLIED, PAID, FAILED;
+
+        private static final Entry[] VALUES = values();
+
+        int code() {
+            return ordinal() + 1;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * Write-ahead record of each purchase, so one interrupted between reserving seats and taking payment can be found
+ * and compensated after a restart. A purchase is begun before any thirdparty call and ends paid or failed.
+ */
+public interface PurchaseJournal {
+
+    /**
+     * Journals nothing, for when recovery is not needed.
+     */
+    PurchaseJournal NONE = new PurchaseJournal() {
+        @Override
+        public long begin(long accountId, int numberOfSeats) {
+            return 0;
+        }
+
+        @Override
+        public void seatsReserved(long purchaseId) {
+        }
+
+        @Override
+        public void discountApplied(long purchaseId, int amount) {
+        }
+
+        @Override
+        public void paid(long purchaseId) {
+        }
+
+        @Override
+        public void failed(long purchaseId) {
+        }
+    };
+
+    /**
+     * @return the id to journal the rest of the purchase against
+     */
+    long begin(long accountId, int numberOfSeats);
+
+    void seatsReserved(long purchaseId);
+
+    void discountApplied(long purchaseId, int amount);
+
+    void paid(long purchaseId);
+
+    void failed(long purchaseId);
+}
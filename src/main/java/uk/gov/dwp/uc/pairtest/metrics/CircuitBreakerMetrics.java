@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.resilience.CircuitBreaker;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts a circuit breaker's transitions into each state, and the calls it rejected. The breaker has opened more
+ * times than it has closed while it is open or half open.
+ */
+public class CircuitBreakerMetrics implements CircuitBreaker.Listener {
+
+    public static final String CIRCUIT_BREAKER_PREFIX = "circuit-breaker.";
+
+    private final Map<CircuitBreaker.State, MetricsRegistry.Counter> transitionCounters =
+        new EnumMap<>(CircuitBreaker.State.class);
+    private final MetricsRegistry.Counter rejectedCounter;
+
+    public CircuitBreakerMetrics(String name, MetricsRegistry metricsRegistry) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            transitionCounters.put(state, metricsRegistry.counter(transitionCounterName(name, state)));
+        }
+        this.rejectedCounter = metricsRegistry.counter(rejectedCounterName(name));
+    }
+
+    public static String transitionCounterName(String name, CircuitBreaker.State state) {
+        return CIRCUIT_BREAKER_PREFIX + name + "." + state.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public static String rejectedCounterName(String name) {
+        return CIRCUIT_BREAKER_PREFIX + name + ".rejected";
+    }
+
+    @Override
+    public void onStateChange(CircuitBreaker.State from, CircuitBreaker.State to) {
+        transitionCounters.get(to).increment();
+    }
+
+    @Override
+    public void onRejected() {
+        rejectedCounter.increment();
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps each timer in a wait-free {@link ConcurrentHistogram} and each counter in a {@link LongAdder}, so recording
+ * never blocks the purchase path.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, HistogramTimer> timers = new ConcurrentHashMap<>();
+    private final Map<String, AdderCounter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, ignored -> new HistogramTimer());
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, ignored -> new AdderCounter());
+    }
+
+    /**
+     * A copy of the named timer's recorded durations in nanoseconds, empty if nothing has been recorded.
+     */
+    public Histogram timerSnapshot(String name) {
+        HistogramTimer timer = timers.get(name);
+        return Objects.isNull(timer) ? new Histogram(SIGNIFICANT_DIGITS) : timer.histogram.copy();
+    }
+
+    public long counterValue(String name) {
+        AdderCounter counter = counters.get(name);
+        return Objects.isNull(counter) ? 0 : counter.adder.sum();
+    }
+
+    private static final class HistogramTimer implements Timer {
+
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+        @Override
+        public void record(long durationNanos) {
+            histogram.recordValue(Math.max(0, durationNanos));
+        }
+    }
+
+    private static final class AdderCounter implements Counter {
+
+        private final LongAdder adder = new LongAdder();
+
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+    }
+}
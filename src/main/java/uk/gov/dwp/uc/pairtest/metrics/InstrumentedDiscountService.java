@@ -0,0 +1,38 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+
+/**
+ * Times discount lookups and counts those rejected with {@link InvalidDiscountCodeException}, which the ticket
+ * service falls back to full price for. The fallback rate is the fallback count over the lookup timer's count.
+ */
+public class InstrumentedDiscountService implements DiscountService {
+
+    public static final String DISCOUNT_LOOKUP_TIMER = "ticket.discount-lookup";
+    public static final String DISCOUNT_FALLBACK_COUNTER = "ticket.discount-fallback";
+
+    private final DiscountService discountService;
+    private final MetricsRegistry.Timer discountLookupTimer;
+    private final MetricsRegistry.Counter discountFallbackCounter;
+
+    public InstrumentedDiscountService(DiscountService discountService, MetricsRegistry metricsRegistry) {
+        this.discountService = discountService;
+        this.discountLookupTimer = metricsRegistry.timer(DISCOUNT_LOOKUP_TIMER);
+        this.discountFallbackCounter = metricsRegistry.counter(DISCOUNT_FALLBACK_COUNTER);
+    }
+
+    @Override
+    public Discount getDiscountPercentage(long accountId, String discountCode) throws InvalidDiscountCodeException {
+        long start = System.nanoTime();
+        try {
+            return discountService.getDiscountPercentage(accountId, discountCode);
+        } catch (InvalidDiscountCodeException exception) {
+            discountFallbackCounter.increment();
+            throw exception;
+        } finally {
+            discountLookupTimer.record(System.nanoTime() - start);
+        }
+    }
+}
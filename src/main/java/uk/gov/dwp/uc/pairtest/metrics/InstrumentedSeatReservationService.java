@@ -0,0 +1,39 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+public class InstrumentedSeatReservationService implements SeatReservationService {
+
+    public static final String SEAT_RESERVATION_TIMER = "ticket.seat-reservation";
+    public static final String SEAT_RELEASE_TIMER = "ticket.seat-release";
+
+    private final SeatReservationService seatReservationService;
+    private final MetricsRegistry.Timer seatReservationTimer;
+    private final MetricsRegistry.Timer seatReleaseTimer;
+
+    public InstrumentedSeatReservationService(SeatReservationService seatReservationService, MetricsRegistry metricsRegistry) {
+        this.seatReservationService = seatReservationService;
+        this.seatReservationTimer = metricsRegistry.timer(SEAT_RESERVATION_TIMER);
+        this.seatReleaseTimer = metricsRegistry.timer(SEAT_RELEASE_TIMER);
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        long start = System.nanoTime();
+        try {
+            seatReservationService.reserveSeat(accountId, totalSeatsToAllocate);
+        } finally {
+            seatReservationTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        long start = System.nanoTime();
+        try {
+            seatReservationService.releaseSeat(accountId, totalSeatsToRelease);
+        } finally {
+            seatReleaseTimer.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+public class InstrumentedTicketPaymentService implements TicketPaymentService {
+
+    public static final String PAYMENT_TIMER = "ticket.payment";
+
+    private final TicketPaymentService ticketPaymentService;
+    private final MetricsRegistry.Timer paymentTimer;
+
+    public InstrumentedTicketPaymentService(TicketPaymentService ticketPaymentService, MetricsRegistry metricsRegistry) {
+        this.ticketPaymentService = ticketPaymentService;
+        this.paymentTimer = metricsRegistry.timer(PAYMENT_TIMER);
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        long start = System.nanoTime();
+        try {
+            ticketPaymentService.makePayment(accountId, totalAmountToPay);
+        } finally {
+            paymentTimer.record(System.nanoTime() - start);
+        }
+    }
+}
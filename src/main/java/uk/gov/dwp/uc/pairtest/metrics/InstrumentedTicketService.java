@@ -0,0 +1,73 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Times the whole purchase, and counts invalid purchases by {@link InvalidPurchaseException.Reason} as reported by the
+ * wrapped service, so rules applied anywhere downstream are counted. Pair with the instrumented thirdparty services
+ * for per-stage timings, and give {@link uk.gov.dwp.uc.pairtest.TicketServiceImpl} the {@link #VALIDATION_TIMER} to
+ * time validation where it happens, once.
+ */
+public class InstrumentedTicketService implements TicketService {
+
+    public static final String VALIDATION_TIMER = "ticket.validation";
+    public static final String PURCHASE_TIMER = "ticket.purchase";
+    public static final String BATCH_PURCHASE_TIMER = "ticket.batch-purchase";
+    public static final String INVALID_PURCHASE_COUNTER_PREFIX = "ticket.invalid.";
+
+    private final TicketService ticketService;
+    private final MetricsRegistry.Timer purchaseTimer;
+    private final MetricsRegistry.Timer batchPurchaseTimer;
+    private final Map<InvalidPurchaseException.Reason, MetricsRegistry.Counter> invalidPurchaseCounters =
+        new EnumMap<>(InvalidPurchaseException.Reason.class);
+
+    public InstrumentedTicketService(TicketService ticketService, MetricsRegistry metricsRegistry) {
+        this.ticketService = ticketService;
+        this.purchaseTimer = metricsRegistry.timer(PURCHASE_TIMER);
+        this.batchPurchaseTimer = metricsRegistry.timer(BATCH_PURCHASE_TIMER);
+        for (InvalidPurchaseException.Reason reason : InvalidPurchaseException.Reason.values()) {
+            invalidPurchaseCounters.put(reason, metricsRegistry.counter(invalidPurchaseCounterName(reason)));
+        }
+    }
+
+    public static String invalidPurchaseCounterName(InvalidPurchaseException.Reason reason) {
+        return INVALID_PURCHASE_COUNTER_PREFIX + reason.name();
+    }
+
+    @Override
+    public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) throws InvalidPurchaseException {
+        long start = System.nanoTime();
+        try {
+            ticketService.purchaseTickets(ticketPurchaseRequest);
+        } catch (InvalidPurchaseException exception) {
+            invalidPurchaseCounters.get(exception.getReason()).increment();
+            throw exception;
+        } finally {
+            purchaseTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+        long start = System.nanoTime();
+        try {
+            List<PurchaseResult> results = ticketService.purchaseTickets(ticketPurchaseRequests);
+            for (PurchaseResult result : results) {
+                if (Objects.nonNull(result.invalidReason())) {
+                    invalidPurchaseCounters.get(result.invalidReason()).increment();
+                }
+            }
+            return results;
+        } finally {
+            batchPurchaseTimer.record(System.nanoTime() - start);
+        }
+    }
+}
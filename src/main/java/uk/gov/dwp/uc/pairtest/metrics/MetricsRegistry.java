@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+/**
+ * Hands out named timers and counters. Look them up once and keep hold of them, as lookups are not free.
+ */
+public interface MetricsRegistry {
+
+    Timer timer(String name);
+
+    Counter counter(String name);
+
+    interface Timer {
+
+        /**
+         * Records nothing.
+         */
+        Timer NONE = durationNanos -> {
+        };
+
+        void record(long durationNanos);
+    }
+
+    interface Counter {
+
+        void increment();
+    }
+}
@@ -0,0 +1,254 @@
+package uk.gov.dwp.uc.pairtest.partition;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.concurrent.MpscRingBuffer;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Splits purchases across single-threaded partitions by a key, the accountId unless given another. Each partition has
+ * its own {@link TicketService}, built by the factory with its own seat inventory, dedup state and so on, and a
+ * thread that alone calls it, taking purchases from an {@link MpscRingBuffer}. Nothing is shared between partitions,
+ * so they scale across cores without locks or contended writes.
+ * <p>
+ * A purchase is queued to its partition and the caller waits for it to be made. A full partition rejects purchases
+ * with {@link RejectedExecutionException} rather than blocking the caller. A batch a partition fails to make fails
+ * only that partition's share.
+ */
+public class PartitionedTicketService implements TicketService, AutoCloseable {
+
+    static final String PARTITION_FULL_ERROR = "Purchase partition %d is full.";
+    static final String CLOSED_ERROR = "Purchase partitions are closed.";
+
+    private static final int DRAIN_LIMIT = 256;
+    private static final int IDLE_SPINS = 100;
+    private static final int CLOSED = 1;
+    private static final int SUBMITTER = 2;
+
+    private final Partition[] partitions;
+    private final ToLongFunction<TicketPurchaseRequest> partitionKey;
+    /**
+     * {@link #CLOSED} once closing, plus {@link #SUBMITTER} for each purchase being queued, so that closing can wait
+     * for every purchase it did not reject to be queued before the partitions' final drain.
+     */
+    private final AtomicInteger submitState = new AtomicInteger();
+    private volatile boolean running = true;
+
+    public PartitionedTicketService(int partitionCount, int queueCapacity, IntFunction<TicketService> partitionServices) {
+        this(partitionCount, queueCapacity, partitionServices, TicketPurchaseRequest::getAccountId);
+    }
+
+    /**
+     * @param partitionServices builds the service for each partition, by index, from the calling thread
+     * @param partitionKey      purchases with the same key are always made by the same partition
+     */
+    public PartitionedTicketService(int partitionCount,
+                                    int queueCapacity,
+                                    IntFunction<TicketService> partitionServices,
+                                    ToLongFunction<TicketPurchaseRequest> partitionKey) {
+        this.partitionKey = partitionKey;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, partitionServices.apply(i), queueCapacity);
+        }
+    }
+
+    @Override
+    public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) throws InvalidPurchaseException {
+        Purchase purchase = new Purchase(ticketPurchaseRequest);
+        partitionFor(ticketPurchaseRequest).submit(purchase);
+        try {
+            purchase.completed.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Splits the batch by partition, so each partition makes its share as one batch, all in parallel.
+     */
+    @Override
+    public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+        List<List<Integer>> positionsByPartition = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            positionsByPartition.add(new ArrayList<>());
+        }
+        for (int i = 0; i < ticketPurchaseRequests.size(); i++) {
+            positionsByPartition.get(partitionIndex(ticketPurchaseRequests.get(i))).add(i);
+        }
+
+        PurchaseResult[] results = new PurchaseResult[ticketPurchaseRequests.size()];
+        List<BatchPurchase> batches = new ArrayList<>();
+        for (int p = 0; p < partitions.length; p++) {
+            List<Integer> positions = positionsByPartition.get(p);
+            if (positions.isEmpty()) {
+                continue;
+            }
+            List<TicketPurchaseRequest> batch = new ArrayList<>(positions.size());
+            positions.forEach(position -> batch.add(ticketPurchaseRequests.get(position)));
+            BatchPurchase batchPurchase = new BatchPurchase(batch, positions);
+            try {
+                partitions[p].submit(batchPurchase);
+                batches.add(batchPurchase);
+            } catch (RejectedExecutionException exception) {
+                positions.forEach(position -> results[position] =
+                    PurchaseResult.failure(ticketPurchaseRequests.get(position).getAccountId(), exception.getMessage()));
+            }
+        }
+
+        for (BatchPurchase batchPurchase : batches) {
+            try {
+                List<PurchaseResult> batchResults = batchPurchase.completed.join();
+                for (int i = 0; i < batchResults.size(); i++) {
+                    results[batchPurchase.positions.get(i)] = batchResults.get(i);
+                }
+            } catch (CompletionException exception) {
+                batchPurchase.positions.forEach(position -> results[position] = PurchaseResult.failure(
+                    ticketPurchaseRequests.get(position).getAccountId(), exception.getCause().getMessage()));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Stops taking purchases, makes those already queued and waits for every partition to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        submitState.getAndUpdate(state -> state | CLOSED);
+        while (submitState.get() != CLOSED) {
+            Thread.onSpinWait();
+        }
+        running = false;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.thread);
+        }
+        for (Partition partition : partitions) {
+            partition.thread.join();
+        }
+    }
+
+    private Partition partitionFor(TicketPurchaseRequest ticketPurchaseRequest) {
+        return partitions[partitionIndex(ticketPurchaseRequest)];
+    }
+
+    private int partitionIndex(TicketPurchaseRequest ticketPurchaseRequest) {
+        long hash = partitionKey.applyAsLong(ticketPurchaseRequest) * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) partitions.length);
+    }
+
+    private final class Partition {
+
+        private final int index;
+        private final TicketService ticketService;
+        private final MpscRingBuffer<Command> queue;
+        private final Thread thread;
+        private volatile boolean parked;
+
+        private Partition(int index, TicketService ticketService, int queueCapacity) {
+            this.index = index;
+            this.ticketService = ticketService;
+            this.queue = new MpscRingBuffer<>(queueCapacity);
+            this.thread = Thread.ofPlatform().name("purchase-partition-" + index).daemon().start(this::run);
+        }
+
+        private void submit(Command command) {
+            if ((submitState.getAndAdd(SUBMITTER) & CLOSED) != 0) {
+                submitState.getAndAdd(-SUBMITTER);
+                throw new RejectedExecutionException(CLOSED_ERROR);
+            }
+            try {
+                if (!queue.offer(command)) {
+                    throw new RejectedExecutionException(String.format(PARTITION_FULL_ERROR, index));
+                }
+                if (parked) {
+                    LockSupport.unpark(thread);
+                }
+            } finally {
+                submitState.getAndAdd(-SUBMITTER);
+            }
+        }
+
+        private void run() {
+            int idle = 0;
+            while (running || !queue.isEmpty()) {
+                if (queue.drain(command -> command.execute(ticketService), DRAIN_LIMIT) > 0) {
+                    idle = 0;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    parkUnlessQueued();
+                }
+            }
+        }
+
+        private void parkUnlessQueued() {
+            parked = true;
+            if (queue.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+    }
+
+    private interface Command {
+
+        void execute(TicketService ticketService);
+    }
+
+    private static final class Purchase implements Command {
+
+        private final TicketPurchaseRequest ticketPurchaseRequest;
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        private Purchase(TicketPurchaseRequest ticketPurchaseRequest) {
+            this.ticketPurchaseRequest = ticketPurchaseRequest;
+        }
+
+        @Override
+        public void execute(TicketService ticketService) {
+            try {
+                ticketService.purchaseTickets(ticketPurchaseRequest);
+                completed.complete(null);
+            } catch (RuntimeException exception) {
+                completed.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final class BatchPurchase implements Command {
+
+        private final List<TicketPurchaseRequest> ticketPurchaseRequests;
+        private final List<Integer> positions;
+        private final CompletableFuture<List<PurchaseResult>> completed = new CompletableFuture<>();
+
+        private BatchPurchase(List<TicketPurchaseRequest> ticketPurchaseRequests, List<Integer> positions) {
+            this.ticketPurchaseRequests = ticketPurchaseRequests;
+            this.positions = positions;
+        }
+
+        @Override
+        public void execute(TicketService ticketService) {
+            try {
+                completed.complete(ticketService.purchaseTickets(ticketPurchaseRequests));
+            } catch (RuntimeException exception) {
+                completed.completeExceptionally(exception);
+            }
+        }
+    }
+}
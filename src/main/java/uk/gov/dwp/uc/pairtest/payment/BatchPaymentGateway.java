@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment gateway that takes payments in batches and acknowledges each batch asynchronously, so several batches
+ * can be in flight at once.
+ */
+public interface BatchPaymentGateway {
+
+    /**
+     * Completes once every payment in the batch has been taken, or exceptionally if the batch was refused.
+     */
+    CompletableFuture<Void> submitBatch(List<Payment> payments);
+
+    record Payment(long accountId, int totalAmountToPay) {
+    }
+}
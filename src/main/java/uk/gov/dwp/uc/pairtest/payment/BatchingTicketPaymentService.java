@@ -0,0 +1,171 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import uk.gov.dwp.uc.pairtest.concurrent.MpscRingBuffer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Queues payments in a lock-free ring buffer and sends them to the gateway in batches, once a batch is full or its
+ * first payment has waited {@code maxBatchDelay}. Up to {@code maxBatchesInFlight} batches are sent before the first
+ * is acknowledged. {@link #makePayment(long, int)} blocks until the caller's batch is acknowledged, so failures still
+ * reach the ticket service; {@link #submitPayment(long, int)} does not block.
+ */
+public class BatchingTicketPaymentService implements TicketPaymentService, AutoCloseable {
+
+    static final String QUEUE_FULL_ERROR = "Payment queue is full.";
+    static final String CLOSED_ERROR = "Payment service is closed.";
+
+    private static final int CLOSED = 1;
+    private static final int SUBMITTER = 2;
+
+    private final BatchPaymentGateway batchPaymentGateway;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final Semaphore batchesInFlight;
+    private final MpscRingBuffer<PendingPayment> queue;
+    private final Thread flusher;
+
+    /**
+     * {@link #CLOSED} once closing, plus {@link #SUBMITTER} for each payment being queued, so that closing can wait
+     * for every payment it did not reject to be queued before the flusher's final drain.
+     */
+    private final AtomicInteger submitState = new AtomicInteger();
+    private volatile boolean running = true;
+    private volatile boolean flusherParked;
+
+    public BatchingTicketPaymentService(BatchPaymentGateway batchPaymentGateway,
+                                        int maxBatchSize,
+                                        Duration maxBatchDelay,
+                                        int maxBatchesInFlight,
+                                        int queueCapacity) {
+        this.batchPaymentGateway = batchPaymentGateway;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.batchesInFlight = new Semaphore(maxBatchesInFlight);
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.flusher = Thread.ofPlatform().name("payment-batch-flusher").daemon().start(this::flushUntilClosed);
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        try {
+            submitPayment(accountId, totalAmountToPay).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Completes when the batch holding this payment is acknowledged. Completes exceptionally with
+     * {@link RejectedExecutionException} when the queue is full or the service is closed.
+     */
+    public CompletableFuture<Void> submitPayment(long accountId, int totalAmountToPay) {
+        if ((submitState.getAndAdd(SUBMITTER) & CLOSED) != 0) {
+            submitState.getAndAdd(-SUBMITTER);
+            return CompletableFuture.failedFuture(new RejectedExecutionException(CLOSED_ERROR));
+        }
+        try {
+            PendingPayment pendingPayment = new PendingPayment(
+                new BatchPaymentGateway.Payment(accountId, totalAmountToPay), new CompletableFuture<>());
+            if (!queue.offer(pendingPayment)) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(QUEUE_FULL_ERROR));
+            }
+            if (flusherParked) {
+                LockSupport.unpark(flusher);
+            }
+            return pendingPayment.acknowledged();
+        } finally {
+            submitState.getAndAdd(-SUBMITTER);
+        }
+    }
+
+    /**
+     * Stops taking payments, waits for payments already being queued, sends everything queued and waits for the
+     * flusher to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        submitState.getAndUpdate(state -> state | CLOSED);
+        while (submitState.get() != CLOSED) {
+            Thread.onSpinWait();
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join();
+    }
+
+    private void flushUntilClosed() {
+        while (running || !queue.isEmpty()) {
+            List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+            if (queue.drain(batch::add, maxBatchSize) == 0) {
+                parkUnlessQueued(maxBatchDelayNanos);
+                continue;
+            }
+
+            long deadline = System.nanoTime() + maxBatchDelayNanos;
+            while (running && batch.size() < maxBatchSize) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                if (queue.drain(batch::add, maxBatchSize - batch.size()) == 0) {
+                    parkUnlessQueued(remaining);
+                }
+            }
+            send(batch);
+        }
+    }
+
+    private void parkUnlessQueued(long nanos) {
+        flusherParked = true;
+        if (queue.isEmpty() && running) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        flusherParked = false;
+    }
+
+    private void send(List<PendingPayment> batch) {
+        batchesInFlight.acquireUninterruptibly();
+        List<BatchPaymentGateway.Payment> payments = new ArrayList<>(batch.size());
+        batch.forEach(pendingPayment -> payments.add(pendingPayment.payment()));
+
+        CompletableFuture<Void> acknowledgement;
+        try {
+            acknowledgement = batchPaymentGateway.submitBatch(payments);
+        } catch (RuntimeException exception) {
+            acknowledgement = CompletableFuture.failedFuture(exception);
+        }
+
+        acknowledgement.whenComplete((ignored, failure) -> {
+            batchesInFlight.release();
+            for (PendingPayment pendingPayment : batch) {
+                if (Objects.isNull(failure)) {
+                    pendingPayment.acknowledged().complete(null);
+                } else {
+                    pendingPayment.acknowledged().completeExceptionally(unwrap(failure));
+                }
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && Objects.nonNull(failure.getCause()) ? failure.getCause() : failure;
+    }
+
+    private record PendingPayment(BatchPaymentGateway.Payment payment, CompletableFuture<Void> acknowledged) {
+    }
+}
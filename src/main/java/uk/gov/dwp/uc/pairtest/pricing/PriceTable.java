@@ -0,0 +1,191 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link PricingRules} flattened into arrays, so a price is a lookup of the screening's slot, the start minute's
+ * band and one load per ticket type. Slot 0 holds the base prices and band 0 is unadjusted.
+ */
+final class PriceTable {
+
+    static final String MISSING_BASE_PRICE_ERROR = "No base price for ticket type: %s.";
+    static final String NEGATIVE_PRICE_ERROR = "Price cannot be negative: %d.";
+    static final String INVALID_ADJUSTMENT_ERROR = "Adjustment must be more than -10000 basis points: %d.";
+    static final String TOO_MANY_ADJUSTMENTS_ERROR = "Cannot compile more than %d time-of-day adjustments: %d.";
+    static final String INVALID_GROUP_DISCOUNT_ERROR = "Group discount must be between 0 and 10000 basis points for at least one ticket: %s.";
+
+    static final long BASIS_POINTS = TicketPurchaseRequest.BASIS_POINTS;
+    static final int MAXIMUM_ADJUSTMENTS = Short.MAX_VALUE - 1;
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final long[] screeningIds;
+    private final int[] screeningSlots;
+    private final int screeningMask;
+    private final short[] bandByMinute = new short[MINUTES_PER_DAY];
+    private final int bands;
+    private final int[] prices;
+    private final int[] groupDiscountBasisPoints;
+
+    private PriceTable(long[] screeningIds, int[] screeningSlots, int bands, int[] prices, int[] groupDiscountBasisPoints) {
+        this.screeningIds = screeningIds;
+        this.screeningSlots = screeningSlots;
+        this.screeningMask = screeningIds.length - 1;
+        this.bands = bands;
+        this.prices = prices;
+        this.groupDiscountBasisPoints = groupDiscountBasisPoints;
+    }
+
+    static PriceTable compile(PricingRules rules) {
+        Map<Long, int[]> screenings = new LinkedHashMap<>();
+        screenings.put(null, basePrices(rules.basePrices()));
+        for (PricingRules.ScreeningPrice screeningPrice : rules.screeningPrices()) {
+            int[] screeningPrices = screenings.computeIfAbsent(screeningPrice.screeningId(),
+                                                               id -> screenings.get(null).clone());
+            screeningPrices[screeningPrice.type().ordinal()] = checkPrice(screeningPrice.pence());
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(screenings.size(), 1) * 2 - 1) * 2;
+        long[] screeningIds = new long[capacity];
+        int[] screeningSlots = new int[capacity];
+        List<int[]> slotPrices = List.copyOf(screenings.values());
+        int slot = 0;
+        for (Long screeningId : screenings.keySet()) {
+            if (Objects.nonNull(screeningId)) {
+                int index = (int) mix(screeningId) & (capacity - 1);
+                while (screeningSlots[index] != 0) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                screeningIds[index] = screeningId;
+                screeningSlots[index] = slot;
+            }
+            slot++;
+        }
+
+        List<PricingRules.TimeOfDayAdjustment> adjustments = rules.timeOfDayAdjustments();
+        if (adjustments.size() > MAXIMUM_ADJUSTMENTS) {
+            throw new IllegalArgumentException(String.format(TOO_MANY_ADJUSTMENTS_ERROR, MAXIMUM_ADJUSTMENTS, adjustments.size()));
+        }
+        int bands = adjustments.size() + 1;
+        int[] bandBasisPoints = new int[bands];
+        for (int band = 1; band < bands; band++) {
+            bandBasisPoints[band] = adjustments.get(band - 1).basisPoints();
+            if (bandBasisPoints[band] <= -BASIS_POINTS) {
+                throw new IllegalArgumentException(String.format(INVALID_ADJUSTMENT_ERROR, bandBasisPoints[band]));
+            }
+        }
+
+        int[] prices = new int[slotPrices.size() * bands * TYPES.length];
+        for (int s = 0; s < slotPrices.size(); s++) {
+            for (int band = 0; band < bands; band++) {
+                for (TicketRequest.Type type : TYPES) {
+                    long price = slotPrices.get(s)[type.ordinal()];
+                    prices[(s * bands + band) * TYPES.length + type.ordinal()] =
+                        Math.toIntExact(Math.floorDiv(price * (BASIS_POINTS + bandBasisPoints[band]), BASIS_POINTS));
+                }
+            }
+        }
+
+        PriceTable table = new PriceTable(screeningIds, screeningSlots, bands, prices, groupDiscounts(rules.groupDiscounts()));
+        for (int band = 1; band < bands; band++) {
+            table.mark(adjustments.get(band - 1), band);
+        }
+        return table;
+    }
+
+    /**
+     * @param ticketCounts indexed by {@link TicketRequest.Type#ordinal()}
+     */
+    int price(long screeningId, int minuteOfDay, int[] ticketCounts) {
+        int offset = (slot(screeningId) * bands + bandByMinute[minuteOfDay]) * TYPES.length;
+        long total = 0;
+        int tickets = 0;
+        for (int type = 0; type < TYPES.length; type++) {
+            total += (long) ticketCounts[type] * prices[offset + type];
+            tickets += ticketCounts[type];
+        }
+        int groupDiscount = groupDiscountBasisPoints[Math.min(tickets, groupDiscountBasisPoints.length - 1)];
+        return Math.toIntExact(total * (BASIS_POINTS - groupDiscount) / BASIS_POINTS);
+    }
+
+    private int slot(long screeningId) {
+        int index = (int) mix(screeningId) & screeningMask;
+        while (screeningSlots[index] != 0) {
+            if (screeningIds[index] == screeningId) {
+                return screeningSlots[index];
+            }
+            index = (index + 1) & screeningMask;
+        }
+        return 0;
+    }
+
+    private void mark(PricingRules.TimeOfDayAdjustment adjustment, int band) {
+        int from = minuteOfDay(adjustment.from());
+        int until = minuteOfDay(adjustment.until());
+        for (int minute = from; minute != until; minute = (minute + 1) % MINUTES_PER_DAY) {
+            bandByMinute[minute] = (short) band;
+        }
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int[] basePrices(Map<TicketRequest.Type, Integer> basePrices) {
+        int[] prices = new int[TYPES.length];
+        for (TicketRequest.Type type : TYPES) {
+            Integer price = basePrices.get(type);
+            if (Objects.isNull(price)) {
+                throw new IllegalArgumentException(String.format(MISSING_BASE_PRICE_ERROR, type));
+            }
+            prices[type.ordinal()] = checkPrice(price);
+        }
+        return prices;
+    }
+
+    /**
+     * Indexed by number of tickets, with the last entry covering every larger purchase.
+     */
+    private static int[] groupDiscounts(List<PricingRules.GroupDiscount> groupDiscounts) {
+        int largestMinimum = 0;
+        for (PricingRules.GroupDiscount groupDiscount : groupDiscounts) {
+            if (groupDiscount.minimumTickets() < 1 || groupDiscount.basisPoints() < 0 || groupDiscount.basisPoints() > BASIS_POINTS) {
+                throw new IllegalArgumentException(String.format(INVALID_GROUP_DISCOUNT_ERROR, groupDiscount));
+            }
+            largestMinimum = Math.max(largestMinimum, groupDiscount.minimumTickets());
+        }
+
+        boolean[] minimums = new boolean[largestMinimum + 1];
+        int[] basisPoints = new int[largestMinimum + 1];
+        for (PricingRules.GroupDiscount groupDiscount : groupDiscounts) {
+            minimums[groupDiscount.minimumTickets()] = true;
+            basisPoints[groupDiscount.minimumTickets()] = groupDiscount.basisPoints();
+        }
+        for (int tickets = 1; tickets <= largestMinimum; tickets++) {
+            if (!minimums[tickets]) {
+                basisPoints[tickets] = basisPoints[tickets - 1];
+            }
+        }
+        return basisPoints;
+    }
+
+    private static int checkPrice(int pence) {
+        if (pence < 0) {
+            throw new IllegalArgumentException(String.format(NEGATIVE_PRICE_ERROR, pence));
+        }
+        return pence;
+    }
+
+    private static long mix(long screeningId) {
+        long hash = screeningId * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.time.LocalTime;
+
+import thirdparty.discount.Discount;
+
+/**
+ * Prices purchases in pence from {@link PricingRules} compiled once into flat lookup tables. New rules are compiled
+ * off to the side and swapped in atomically, so each price comes entirely from either the old rules or the new.
+ */
+public class PricingEngine {
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+
+    private volatile PriceTable priceTable;
+
+    public PricingEngine(PricingRules pricingRules) {
+        this.priceTable = PriceTable.compile(pricingRules);
+    }
+
+    /**
+     * Replaces the rules for every later price. Invalid rules are rejected with an
+     * {@link IllegalArgumentException}, leaving the current rules in place.
+     */
+    public void swap(PricingRules pricingRules) {
+        priceTable = PriceTable.compile(pricingRules);
+    }
+
+    /**
+     * @param ticketCounts indexed by {@link TicketRequest.Type#ordinal()}
+     */
+    public int price(long screeningId, LocalTime startTime, int[] ticketCounts) {
+        return priceTable.price(screeningId, PriceTable.minuteOfDay(startTime), ticketCounts);
+    }
+
+    public int price(long screeningId, LocalTime startTime, TicketPurchaseRequest ticketPurchaseRequest) {
+        int[] ticketCounts = new int[TYPES.length];
+        for (TicketRequest.Type type : TYPES) {
+            ticketCounts[type.ordinal()] = ticketPurchaseRequest.numberOfTicketsForType(type);
+        }
+        return price(screeningId, startTime, ticketCounts);
+    }
+
+    /**
+     * Takes the discount off in whole basis points, rounding the price down to the penny, exactly as
+     * {@link TicketPurchaseRequest#cost(Discount)} does.
+     *
+     * @throws IllegalArgumentException if the discount is not between 0 and 1
+     */
+    public static int discount(int pence, Discount discount) {
+        return TicketPurchaseRequest.discounted(pence, TicketPurchaseRequest.discountBasisPoints(discount.percentage()));
+    }
+}
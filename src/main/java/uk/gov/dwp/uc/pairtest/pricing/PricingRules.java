@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ticket prices in pence, compiled into a {@link PricingEngine}. Each ticket costs its screening's price for its type,
+ * or the base price, adjusted by the time-of-day rule covering the start time. The purchase is then reduced by the
+ * group discount for the largest minimum it reaches.
+ *
+ * @param basePrices           pence per ticket, for every type
+ * @param screeningPrices      overrides of the base price for a screening
+ * @param timeOfDayAdjustments later adjustments win where they overlap
+ * @param groupDiscounts       by number of tickets, including infants
+ */
+public record PricingRules(Map<TicketRequest.Type, Integer> basePrices,
+                           List<ScreeningPrice> screeningPrices,
+                           List<TimeOfDayAdjustment> timeOfDayAdjustments,
+                           List<GroupDiscount> groupDiscounts) {
+
+    public PricingRules {
+        basePrices = Map.copyOf(basePrices);
+        screeningPrices = List.copyOf(screeningPrices);
+        timeOfDayAdjustments = List.copyOf(timeOfDayAdjustments);
+        groupDiscounts = List.copyOf(groupDiscounts);
+    }
+
+    /**
+     * The fixed cost of each {@link TicketRequest.Type}, with no other rules.
+     */
+    public static PricingRules standard() {
+        Map<TicketRequest.Type, Integer> basePrices = new EnumMap<>(TicketRequest.Type.class);
+        for (TicketRequest.Type type : TicketRequest.Type.values()) {
+            basePrices.put(type, type.getCost() * 100);
+        }
+        return new PricingRules(basePrices, List.of(), List.of(), List.of());
+    }
+
+    public record ScreeningPrice(long screeningId, TicketRequest.Type type, int pence) {
+    }
+
+    /**
+     * Adjusts prices for screenings starting from {@code from} up to but excluding {@code until}, wrapping past
+     * midnight when {@code until} is earlier, by {@code basisPoints}: -2500 is a quarter off, 1000 a tenth more.
+     */
+    public record TimeOfDayAdjustment(LocalTime from, LocalTime until, int basisPoints) {
+    }
+
+    public record GroupDiscount(int minimumTickets, int basisPoints) {
+    }
+}
@@ -0,0 +1,142 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.time.LocalTime;
+import java.util.Objects;
+
+import thirdparty.discount.Discount;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+/**
+ * Quotes the seats and price of a ticket mix without reserving or paying, from a {@link QuoteTable} built up front
+ * for the current {@link ValidationPolicies validation policy} and built again whenever it changes. Quotes allocate
+ * nothing and agree exactly with the checks and costs of {@link uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest}.
+ * <p>
+ * Where the policies {@link ValidationPolicies#subscribe publish} their changes, each table is built as its policy is
+ * loaded, on the loading thread, and a policy too large to tabulate is rejected there. The table is only quoted from
+ * once its policy is in force, so a policy rejected elsewhere is never quoted. Otherwise the table is built again by
+ * the first quote to see a changed policy.
+ * Prices for a particular screening and start time come in pence from a {@link PricingEngine}.
+ */
+public class QuoteService {
+
+    /**
+     * Seats and price quoted for a mix that cannot be purchased.
+     */
+    public static final int NOT_PURCHASABLE = -1;
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+
+    private final ValidationPolicies validationPolicies;
+    private final PricingEngine pricingEngine;
+    private final boolean published;
+    private volatile QuoteTable quoteTable;
+
+    public QuoteService() {
+        this(ValidationPolicies.DEFAULT);
+    }
+
+    public QuoteService(ValidationPolicies validationPolicies) {
+        this(validationPolicies, new PricingEngine(PricingRules.standard()));
+    }
+
+    public QuoteService(ValidationPolicies validationPolicies, PricingEngine pricingEngine) {
+        this.validationPolicies = validationPolicies;
+        this.pricingEngine = pricingEngine;
+        this.published = validationPolicies.subscribe(validationPolicy -> {
+            QuoteTable table = QuoteTable.build(validationPolicy);
+            return () -> quoteTable = table;
+        });
+        if (!published) {
+            this.quoteTable = QuoteTable.build(validationPolicies.current());
+        }
+    }
+
+    /**
+     * @return the first rule the mix breaks, or null if it can be purchased
+     */
+    public Reason check(int adults, int children, int infants) {
+        return QuoteTable.reason(table().entry(adults, children, infants), adults, children, infants);
+    }
+
+    /**
+     * @return the seats the mix needs, or {@link #NOT_PURCHASABLE}
+     */
+    public int seats(int adults, int children, int infants) {
+        int entry = purchasable(adults, children, infants);
+        return entry < 0 ? NOT_PURCHASABLE : QuoteTable.seats(entry);
+    }
+
+    /**
+     * @return the undiscounted price, or {@link #NOT_PURCHASABLE}
+     */
+    public int price(int adults, int children, int infants) {
+        int entry = purchasable(adults, children, infants);
+        return entry < 0 ? NOT_PURCHASABLE : QuoteTable.cost(entry);
+    }
+
+    /**
+     * @return the price less the discount, in whole basis points and rounded down, or {@link #NOT_PURCHASABLE}
+     */
+    public int price(int adults, int children, int infants, Discount discount) {
+        return price(adults, children, infants, TicketPurchaseRequest.discountBasisPoints(discount.percentage()));
+    }
+
+    /**
+     * @param discountBasisPoints between 0 and 10000
+     * @throws IllegalArgumentException if the discount is out of range, whether or not the mix can be purchased
+     */
+    public int price(int adults, int children, int infants, long discountBasisPoints) {
+        int entry = purchasable(adults, children, infants);
+        int discounted = TicketPurchaseRequest.discounted(entry < 0 ? 0 : QuoteTable.cost(entry), discountBasisPoints);
+        return entry < 0 ? NOT_PURCHASABLE : discounted;
+    }
+
+    /**
+     * @return the price in pence of the mix for the screening starting at {@code startTime}, or
+     * {@link #NOT_PURCHASABLE}
+     */
+    public int price(int adults, int children, int infants, long screeningId, LocalTime startTime) {
+        if (purchasable(adults, children, infants) < 0) {
+            return NOT_PURCHASABLE;
+        }
+        int[] ticketCounts = new int[TYPES.length];
+        ticketCounts[ADULT.ordinal()] = adults;
+        ticketCounts[CHILD.ordinal()] = children;
+        ticketCounts[INFANT.ordinal()] = infants;
+        return pricingEngine.price(screeningId, startTime, ticketCounts);
+    }
+
+    /**
+     * @return the entry for a mix that can be purchased, otherwise -1
+     */
+    private int purchasable(int adults, int children, int infants) {
+        int entry = table().entry(adults, children, infants);
+        return entry < 0 || Objects.nonNull(QuoteTable.reason(entry, adults, children, infants)) ? -1 : entry;
+    }
+
+    /**
+     * Builds the table again if the policy has changed since it was built, unless it is built as each policy is
+     * published. Racing rebuilds for the same policy build equal tables, so whichever is kept is correct.
+     */
+    private QuoteTable table() {
+        QuoteTable table = quoteTable;
+        if (published) {
+            return table;
+        }
+        ValidationPolicy validationPolicy = validationPolicies.current();
+        if (!table.validationPolicy().equals(validationPolicy)) {
+            table = QuoteTable.build(validationPolicy);
+            quoteTable = table;
+        }
+        return table;
+    }
+}
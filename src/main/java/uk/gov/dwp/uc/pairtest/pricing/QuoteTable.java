@@ -0,0 +1,109 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.util.Objects;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NEGATIVE_QUANTITY_OF_TICKETS;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS;
+
+/**
+ * Every mix of adult, child and infant tickets up to a {@link ValidationPolicy}'s maximum, checked and priced once.
+ * Each entry packs the rule the mix breaks, its seats and its undiscounted cost into one int, indexed by the three
+ * counts, so a quote is a bounds check and a single load.
+ */
+final class QuoteTable {
+
+    static final String TOO_MANY_TICKETS_FOR_TABLE_ERROR = "Cannot tabulate more than %d tickets: %d.";
+    static final int MAXIMUM_TABULATED_TICKETS = 255;
+
+    private static final Reason[] REASONS = Reason.values();
+    private static final int COST_BITS = 18;
+    private static final int SEATS_BITS = 9;
+    private static final int COST_MASK = (1 << COST_BITS) - 1;
+    private static final int SEATS_MASK = (1 << SEATS_BITS) - 1;
+    /**
+     * Leaves four bits for the reason, clear of the sign bit so no entry is negative.
+     */
+    private static final int REASON_SHIFT = COST_BITS + SEATS_BITS;
+
+    private final ValidationPolicy validationPolicy;
+    private final int side;
+    private final int[] entries;
+
+    private QuoteTable(ValidationPolicy validationPolicy, int side, int[] entries) {
+        this.validationPolicy = validationPolicy;
+        this.side = side;
+        this.entries = entries;
+    }
+
+    static QuoteTable build(ValidationPolicy validationPolicy) {
+        int maximumTickets = validationPolicy.maximumTickets();
+        if (maximumTickets > MAXIMUM_TABULATED_TICKETS) {
+            throw new IllegalArgumentException(
+                String.format(TOO_MANY_TICKETS_FOR_TABLE_ERROR, MAXIMUM_TABULATED_TICKETS, maximumTickets));
+        }
+
+        int side = maximumTickets + 1;
+        int[] entries = new int[side * side * side];
+        int[] ticketCounts = new int[TicketRequest.Type.values().length];
+        for (int adults = 0; adults < side; adults++) {
+            for (int children = 0; children < side; children++) {
+                for (int infants = 0; infants < side; infants++) {
+                    ticketCounts[ADULT.ordinal()] = adults;
+                    ticketCounts[CHILD.ordinal()] = children;
+                    ticketCounts[INFANT.ordinal()] = infants;
+                    Reason reason = validationPolicy.check(ticketCounts, adults + children + infants);
+                    entries[(adults * side + children) * side + infants] = pack(
+                        reason, TicketPurchaseRequest.numberOfSeats(ticketCounts), TicketPurchaseRequest.cost(ticketCounts, 0));
+                }
+            }
+        }
+        return new QuoteTable(validationPolicy, side, entries);
+    }
+
+    ValidationPolicy validationPolicy() {
+        return validationPolicy;
+    }
+
+    /**
+     * @return the packed entry, or -1 if a count is negative or over the maximum, as the table does not cover it
+     */
+    int entry(int adults, int children, int infants) {
+        if ((adults | children | infants) < 0 || adults >= side || children >= side || infants >= side) {
+            return -1;
+        }
+        return entries[(adults * side + children) * side + infants];
+    }
+
+    /**
+     * @return the first rule the mix breaks, or null if it is valid; the same as
+     * {@link TicketPurchaseRequest#checkCounts} for a valid account
+     */
+    static Reason reason(int entry, int adults, int children, int infants) {
+        if (entry < 0) {
+            return (adults | children | infants) < 0 ? NEGATIVE_QUANTITY_OF_TICKETS : TOO_MANY_TICKETS;
+        }
+        int reason = entry >>> REASON_SHIFT;
+        return reason == 0 ? null : REASONS[reason - 1];
+    }
+
+    static int seats(int entry) {
+        return (entry >>> COST_BITS) & SEATS_MASK;
+    }
+
+    static int cost(int entry) {
+        return entry & COST_MASK;
+    }
+
+    private static int pack(Reason reason, int seats, int cost) {
+        int reasonCode = Objects.isNull(reason) ? 0 : reason.ordinal() + 1;
+        return reasonCode << REASON_SHIFT | seats << COST_BITS | cost;
+    }
+}
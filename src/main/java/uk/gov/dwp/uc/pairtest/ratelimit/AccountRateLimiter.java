@@ -0,0 +1,208 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per account, allowing {@code burst} purchases at once and one more every {@code refillInterval}.
+ * <p>
+ * Each bucket is a single long, the time at which it will next be full, so taking a token is one compare-and-set
+ * without locking. Buckets live in open-addressing tables of primitive longs, one per stripe of accounts. Adding an
+ * account locks its stripe; when a stripe fills up it is rebuilt without the accounts whose buckets have refilled,
+ * which are no different from accounts never seen, and only grows if that does not free enough space. A purchase
+ * that races the rebuild of its stripe may go uncounted.
+ */
+public class AccountRateLimiter {
+
+    static final String INVALID_BURST_ERROR = "Burst must be positive: %d.";
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long EMPTY = 0L;
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public AccountRateLimiter(int burst, Duration refillInterval) {
+        this(burst, refillInterval, System::nanoTime);
+    }
+
+    AccountRateLimiter(int burst, Duration refillInterval, LongSupplier nanoTime) {
+        if (burst < 1) {
+            throw new IllegalArgumentException(String.format(INVALID_BURST_ERROR, burst));
+        }
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstNanos = burst * refillIntervalNanos;
+        this.nanoTime = nanoTime;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes a token from the account's bucket. Accounts below 1 are never limited, as they are not valid.
+     *
+     * @return false if the bucket is empty
+     */
+    public boolean tryAcquire(long accountId) {
+        if (accountId < 1) {
+            return true;
+        }
+        long now = nanoTime.getAsLong();
+        long hash = hash(accountId);
+        Stripe stripe = stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+
+        Table table = stripe.table;
+        int index = table.find(accountId, hash);
+        if (index < 0) {
+            return stripe.add(accountId, hash, now);
+        }
+
+        long full = table.fullAt(index);
+        while (true) {
+            long nextFull = Math.max(full, now) + refillIntervalNanos;
+            if (nextFull - now > burstNanos) {
+                return false;
+            }
+            long witness = table.slots.compareAndExchange(2 * index + 1, full, nextFull);
+            if (witness == full) {
+                return true;
+            }
+            full = witness;
+        }
+    }
+
+    /**
+     * Accounts currently tracked, including any whose buckets have refilled since their stripe was last rebuilt.
+     */
+    public int trackedAccounts() {
+        int accounts = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                accounts += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return accounts;
+    }
+
+    private static long hash(long accountId) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private int size;
+
+        /**
+         * Adds the account with a token already taken, unless another thread added it first.
+         */
+        private boolean add(long accountId, long hash, long now) {
+            lock.lock();
+            try {
+                int index = table.find(accountId, hash);
+                if (index >= 0) {
+                    return tryAcquire(accountId);
+                }
+                if (size + 1 > table.capacity() / 4 * 3) {
+                    rebuild(now);
+                    index = table.find(accountId, hash);
+                }
+                table.put(-index - 1, accountId, now + refillIntervalNanos);
+                size++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Called with the lock held.
+         */
+        private void rebuild(long now) {
+            Table current = table;
+            int live = 0;
+            for (int i = 0; i < current.capacity(); i++) {
+                if (current.key(i) != EMPTY && current.fullAt(i) - now > 0) {
+                    live++;
+                }
+            }
+
+            int capacity = current.capacity();
+            while (live + 1 > capacity / 2) {
+                capacity *= 2;
+            }
+            Table rebuilt = new Table(capacity);
+            for (int i = 0; i < current.capacity(); i++) {
+                long accountId = current.key(i);
+                long full = current.fullAt(i);
+                if (accountId != EMPTY && full - now > 0) {
+                    rebuilt.put(-rebuilt.find(accountId, hash(accountId)) - 1, accountId, full);
+                }
+            }
+            table = rebuilt;
+            size = live;
+        }
+    }
+
+    /**
+     * Each account's key is followed by its bucket, so a lookup touches a single cache line.
+     */
+    private static final class Table {
+
+        private final AtomicLongArray slots;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.slots = new AtomicLongArray(2 * capacity);
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private long key(int index) {
+            return slots.get(2 * index);
+        }
+
+        private long fullAt(int index) {
+            return slots.get(2 * index + 1);
+        }
+
+        /**
+         * @return the index of the account, or {@code -index - 1} of the empty slot that ended the probe
+         */
+        private int find(long accountId, long hash) {
+            int index = (int) hash & mask;
+            while (true) {
+                long key = key(index);
+                if (key == accountId) {
+                    return index;
+                }
+                if (key == EMPTY) {
+                    return -index - 1;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        /**
+         * Publishes the bucket before the key, so a reader that finds the key sees the bucket.
+         */
+        private void put(int index, long accountId, long full) {
+            slots.set(2 * index + 1, full);
+            slots.set(2 * index, accountId);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.RATE_LIMITED;
+
+/**
+ * Rejects purchases from accounts that have used up their {@link AccountRateLimiter} bucket, before they reach the
+ * wrapped service, so a few busy accounts cannot starve the rest. Each request in a batch takes its own token.
+ */
+public class RateLimitedTicketService implements TicketService {
+
+    static final String RATE_LIMITED_ERROR = "Too many purchases for accountId: %d.";
+
+    private final TicketService ticketService;
+    private final AccountRateLimiter rateLimiter;
+
+    public RateLimitedTicketService(TicketService ticketService, AccountRateLimiter rateLimiter) {
+        this.ticketService = ticketService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) throws InvalidPurchaseException {
+        long accountId = ticketPurchaseRequest.getAccountId();
+        if (!rateLimiter.tryAcquire(accountId)) {
+            throw new InvalidPurchaseException(RATE_LIMITED, String.format(RATE_LIMITED_ERROR, accountId));
+        }
+        ticketService.purchaseTickets(ticketPurchaseRequest);
+    }
+
+    @Override
+    public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+        PurchaseResult[] results = new PurchaseResult[ticketPurchaseRequests.size()];
+        List<TicketPurchaseRequest> admitted = new ArrayList<>(ticketPurchaseRequests.size());
+        for (int i = 0; i < results.length; i++) {
+            long accountId = ticketPurchaseRequests.get(i).getAccountId();
+            if (rateLimiter.tryAcquire(accountId)) {
+                admitted.add(ticketPurchaseRequests.get(i));
+            } else {
+                results[i] = PurchaseResult.invalid(accountId, RATE_LIMITED, String.format(RATE_LIMITED_ERROR, accountId));
+            }
+        }
+        if (admitted.size() == results.length) {
+            return ticketService.purchaseTickets(ticketPurchaseRequests);
+        }
+
+        List<PurchaseResult> admittedResults = admitted.isEmpty() ? List.of() : ticketService.purchaseTickets(admitted);
+        int next = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (Objects.isNull(results[i])) {
+                results[i] = admittedResults.get(next++);
+            }
+        }
+        return List.of(results);
+    }
+}
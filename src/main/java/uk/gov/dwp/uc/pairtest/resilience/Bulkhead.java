@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of calls in flight to a downstream service. Calls over the cap are either rejected straight away
+ * or queued for up to {@code maxQueueWait} before being rejected.
+ */
+public class Bulkhead {
+
+    static final String BULKHEAD_FULL_ERROR = "Bulkhead %s is full.";
+
+    private final String name;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration maxQueueWait;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrentCalls, OverflowPolicy overflowPolicy, Duration maxQueueWait) {
+        this.name = name;
+        this.overflowPolicy = overflowPolicy;
+        this.maxQueueWait = maxQueueWait;
+        this.permits = new Semaphore(maxConcurrentCalls, overflowPolicy == OverflowPolicy.QUEUE);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        boolean acquired;
+        if (overflowPolicy == OverflowPolicy.REJECT) {
+            acquired = permits.tryAcquire();
+        } else {
+            try {
+                acquired = permits.tryAcquire(maxQueueWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        }
+
+        if (!acquired) {
+            throw new RejectedExecutionException(String.format(BULKHEAD_FULL_ERROR, name));
+        }
+    }
+
+    public enum OverflowPolicy {
+        REJECT,
+        QUEUE
+    }
+}
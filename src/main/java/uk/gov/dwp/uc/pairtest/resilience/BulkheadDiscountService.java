@@ -0,0 +1,21 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+
+public class BulkheadDiscountService implements DiscountService {
+
+    private final DiscountService discountService;
+    private final Bulkhead bulkhead;
+
+    public BulkheadDiscountService(DiscountService discountService, Bulkhead bulkhead) {
+        this.discountService = discountService;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Discount getDiscountPercentage(long accountId, String discountCode) throws InvalidDiscountCodeException {
+        return bulkhead.call(() -> discountService.getDiscountPercentage(accountId, discountCode));
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Reservations go through the bulkhead. Releases bypass it: they compensate a failed purchase, and rejecting them when
+ * the bulkhead is saturated would leak the seats.
+ */
+public class BulkheadSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService seatReservationService;
+    private final Bulkhead bulkhead;
+
+    public BulkheadSeatReservationService(SeatReservationService seatReservationService, Bulkhead bulkhead) {
+        this.seatReservationService = seatReservationService;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        bulkhead.run(() -> seatReservationService.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        seatReservationService.releaseSeat(accountId, totalSeatsToRelease);
+    }
+}
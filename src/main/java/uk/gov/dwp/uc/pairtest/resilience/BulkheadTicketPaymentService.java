@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+public class BulkheadTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService ticketPaymentService;
+    private final Bulkhead bulkhead;
+
+    public BulkheadTicketPaymentService(TicketPaymentService ticketPaymentService, Bulkhead bulkhead) {
+        this.ticketPaymentService = ticketPaymentService;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        bulkhead.run(() -> ticketPaymentService.makePayment(accountId, totalAmountToPay));
+    }
+}
@@ -0,0 +1,196 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling a downstream service that keeps failing or answering slowly. After {@code failureThreshold}
+ * consecutive failed or slow calls the breaker opens and rejects calls without making them. Once
+ * {@code openDuration} has passed a single trial call is let through: if it succeeds the breaker closes, otherwise it
+ * opens again.
+ * <p>
+ * The state and the time it was entered share one atomic long, so every transition is a single compare-and-set and
+ * the breaker never blocks.
+ */
+public class CircuitBreaker {
+
+    static final String CIRCUIT_OPEN_ERROR = "Circuit breaker %s is open.";
+
+    private static final int STATE_BITS = 2;
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+    private static final State[] STATES = State.values();
+
+    private final String name;
+    private final Policy policy;
+    private final Listener listener;
+    private final LongSupplier nanoTime;
+
+    private final AtomicLong stateAndSince;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    public CircuitBreaker(String name, Policy policy, Listener listener) {
+        this(name, policy, listener, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, Policy policy, Listener listener, LongSupplier nanoTime) {
+        this.name = name;
+        this.policy = policy;
+        this.listener = listener;
+        this.nanoTime = nanoTime;
+        this.stateAndSince = new AtomicLong(pack(State.CLOSED, nanoTime.getAsLong()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state(stateAndSince.get());
+    }
+
+    /**
+     * A call that throws an {@link Error} counts as a failure too, so a trial call always settles the breaker.
+     *
+     * @throws RejectedExecutionException without making the call while the breaker is open
+     */
+    public <T> T call(Supplier<T> call) {
+        acquirePermission();
+        long start = nanoTime.getAsLong();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error failure) {
+            onFailure();
+            throw failure;
+        }
+        onSuccess(nanoTime.getAsLong() - start);
+        return result;
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * @throws RejectedExecutionException while the breaker is open
+     */
+    public void acquirePermission() {
+        if (!tryAcquirePermission()) {
+            throw new RejectedExecutionException(String.format(CIRCUIT_OPEN_ERROR, name));
+        }
+    }
+
+    /**
+     * For callers that decide for themselves which outcomes are failures: each permitted call must be followed by
+     * {@link #onSuccess(long)} or {@link #onFailure()}.
+     *
+     * @return false while the breaker is open, in which case no call may be made
+     */
+    public boolean tryAcquirePermission() {
+        long current = stateAndSince.get();
+        boolean permitted = switch (state(current)) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> nanosSince(current, nanoTime.getAsLong()) >= policy.openDuration().toNanos()
+                && transition(current, State.HALF_OPEN);
+        };
+        if (!permitted) {
+            listener.onRejected();
+        }
+        return permitted;
+    }
+
+    /**
+     * A call that took longer than the policy's slow call threshold counts as a failure.
+     */
+    public void onSuccess(long durationNanos) {
+        if (durationNanos > policy.slowCallThreshold().toNanos()) {
+            onFailure();
+            return;
+        }
+        consecutiveFailures.set(0);
+        long current = stateAndSince.get();
+        if (state(current) == State.HALF_OPEN) {
+            transition(current, State.CLOSED);
+        }
+    }
+
+    public void onFailure() {
+        long current = stateAndSince.get();
+        switch (state(current)) {
+            case HALF_OPEN -> transition(current, State.OPEN);
+            case CLOSED -> {
+                if (consecutiveFailures.incrementAndGet() >= policy.failureThreshold()) {
+                    transition(current, State.OPEN);
+                }
+            }
+            case OPEN -> {
+                // A call permitted before the breaker opened.
+            }
+        }
+    }
+
+    private boolean transition(long current, State to) {
+        if (!stateAndSince.compareAndSet(current, pack(to, nanoTime.getAsLong()))) {
+            return false;
+        }
+        if (to != State.HALF_OPEN) {
+            consecutiveFailures.set(0);
+        }
+        listener.onStateChange(state(current), to);
+        return true;
+    }
+
+    /**
+     * Drops the top bits of the time, which elapsed times are unaffected by as long as they are under a century.
+     */
+    private static long pack(State state, long nanos) {
+        return nanos << STATE_BITS | state.ordinal();
+    }
+
+    private static State state(long stateAndSince) {
+        return STATES[(int) (stateAndSince & STATE_MASK)];
+    }
+
+    private static long nanosSince(long stateAndSince, long nowNanos) {
+        return (nowNanos << STATE_BITS) - (stateAndSince & ~STATE_MASK) >> STATE_BITS;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * @param failureThreshold  consecutive failed or slow calls that open the breaker
+     * @param openDuration      how long the breaker stays open before a trial call
+     * @param slowCallThreshold calls taking longer count as failures
+     */
+    public record Policy(int failureThreshold, Duration openDuration, Duration slowCallThreshold) {
+    }
+
+    public interface Listener {
+
+        Listener NONE = new Listener() {
+            @Override
+            public void onStateChange(State from, State to) {
+            }
+
+            @Override
+            public void onRejected() {
+            }
+        };
+
+        void onStateChange(State from, State to);
+
+        void onRejected();
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+
+/**
+ * A discount is optional, so while the breaker is open purchases go straight to full price without calling the
+ * wrapped service. An invalid discount code is an answer rather than a failure, and does not count towards opening.
+ */
+public class CircuitBreakerDiscountService implements DiscountService {
+
+    static final Discount FULL_PRICE = new Discount(0);
+
+    private final DiscountService discountService;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerDiscountService(DiscountService discountService, CircuitBreaker circuitBreaker) {
+        this.discountService = discountService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Discount getDiscountPercentage(long accountId, String discountCode) throws InvalidDiscountCodeException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return FULL_PRICE;
+        }
+
+        long start = System.nanoTime();
+        Discount discount;
+        try {
+            discount = discountService.getDiscountPercentage(accountId, discountCode);
+        } catch (InvalidDiscountCodeException exception) {
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            throw exception;
+        } catch (RuntimeException | Error failure) {
+            circuitBreaker.onFailure();
+            throw failure;
+        }
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+        return discount;
+    }
+}
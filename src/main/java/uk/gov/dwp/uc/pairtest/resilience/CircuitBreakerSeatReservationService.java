@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Fails reservations fast while the breaker is open. Releases always go through, as they undo a reservation already
+ * made, and do not count towards opening.
+ */
+public class CircuitBreakerSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService seatReservationService;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerSeatReservationService(SeatReservationService seatReservationService, CircuitBreaker circuitBreaker) {
+        this.seatReservationService = seatReservationService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        circuitBreaker.run(() -> seatReservationService.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        seatReservationService.releaseSeat(accountId, totalSeatsToRelease);
+    }
+}
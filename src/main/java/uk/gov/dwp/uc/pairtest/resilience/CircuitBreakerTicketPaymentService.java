@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+public class CircuitBreakerTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService ticketPaymentService;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerTicketPaymentService(TicketPaymentService ticketPaymentService, CircuitBreaker circuitBreaker) {
+        this.ticketPaymentService = ticketPaymentService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        circuitBreaker.run(() -> ticketPaymentService.makePayment(accountId, totalAmountToPay));
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Sales of every screening, each kept in its own {@link ScreeningSales}, for a dashboard to poll.
+ */
+public class SalesAggregates {
+
+    private final Map<Long, ScreeningSales> screenings = new ConcurrentHashMap<>();
+    private final LongSupplier nanoTime;
+
+    public SalesAggregates() {
+        this(System::nanoTime);
+    }
+
+    SalesAggregates(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @return the recorder for the screening's ticket service, created the first time the screening is asked for
+     */
+    public ScreeningSales forScreening(long screeningId) {
+        return screenings.computeIfAbsent(screeningId, id -> new ScreeningSales(id, nanoTime));
+    }
+
+    /**
+     * @return null if the screening has never been asked for
+     */
+    public ScreeningSalesSnapshot snapshot(long screeningId) {
+        ScreeningSales screeningSales = screenings.get(screeningId);
+        return Objects.isNull(screeningSales) ? null : screeningSales.snapshot();
+    }
+
+    /**
+     * @return a snapshot of every screening, by screening id
+     */
+    public List<ScreeningSalesSnapshot> snapshot() {
+        return screenings.values().stream()
+            .map(ScreeningSales::snapshot)
+            .sorted(Comparator.comparingLong(ScreeningSalesSnapshot::screeningId))
+            .toList();
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+
+/**
+ * Told of every purchase once it has been paid for. Called on the purchase path, so must not block.
+ */
+public interface SalesRecorder {
+
+    /**
+     * Records nothing.
+     */
+    SalesRecorder NONE = (ticketPurchaseRequest, amountPaid) -> {
+    };
+
+    void recordSale(TicketPurchaseRequest ticketPurchaseRequest, int amountPaid);
+}
@@ -0,0 +1,62 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.Arrays;
+
+/**
+ * Sales over some period. Revenue is what was paid, after discounts; revenue by ticket type is at list price, as
+ * a discount applies to the purchase as a whole.
+ */
+public final class SalesTotals {
+
+    static final int PURCHASES = 0;
+    static final int SEATS_HELD = 1;
+    static final int REVENUE = 2;
+    static final int TICKETS_SOLD = 3;
+    static final int LIST_REVENUE = TICKETS_SOLD + TicketRequest.Type.values().length;
+    static final int FIELDS = LIST_REVENUE + TicketRequest.Type.values().length;
+
+    private final long[] values;
+
+    SalesTotals(long[] values) {
+        this.values = values;
+    }
+
+    public long purchases() {
+        return values[PURCHASES];
+    }
+
+    public long seatsHeld() {
+        return values[SEATS_HELD];
+    }
+
+    public long revenue() {
+        return values[REVENUE];
+    }
+
+    public long ticketsSold(TicketRequest.Type type) {
+        return values[TICKETS_SOLD + type.ordinal()];
+    }
+
+    public long listRevenue(TicketRequest.Type type) {
+        return values[LIST_REVENUE + type.ordinal()];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SalesTotals totals && Arrays.equals(values, totals.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "SalesTotals[purchases=" + purchases() + ", seatsHeld=" + seatsHeld() + ", revenue=" + revenue()
+            + ", ticketsSold=" + Arrays.toString(Arrays.copyOfRange(values, TICKETS_SOLD, LIST_REVENUE))
+            + ", listRevenue=" + Arrays.toString(Arrays.copyOfRange(values, LIST_REVENUE, FIELDS)) + "]";
+    }
+}
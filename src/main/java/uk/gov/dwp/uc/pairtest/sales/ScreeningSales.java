@@ -0,0 +1,248 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+import static uk.gov.dwp.uc.pairtest.sales.SalesTotals.FIELDS;
+import static uk.gov.dwp.uc.pairtest.sales.SalesTotals.LIST_REVENUE;
+import static uk.gov.dwp.uc.pairtest.sales.SalesTotals.PURCHASES;
+import static uk.gov.dwp.uc.pairtest.sales.SalesTotals.REVENUE;
+import static uk.gov.dwp.uc.pairtest.sales.SalesTotals.SEATS_HELD;
+import static uk.gov.dwp.uc.pairtest.sales.SalesTotals.TICKETS_SOLD;
+
+/**
+ * Running sales of one screening. Like a {@link java.util.concurrent.atomic.LongAdder}, sales are spread over
+ * stripes, created as they are first used, and summed on read. Each stripe also keeps rolling buckets, a second
+ * wide for the last minute and a minute wide for the last 15 minutes and hour, so windows are up to a bucket
+ * longer than their nominal length.
+ * <p>
+ * A sale takes the write lock of one stripe without waiting, moving on to another stripe if it is taken. A
+ * snapshot reads each stripe optimistically and reads it again if a sale landed meanwhile, falling back to the read
+ * lock only after repeated misses; a sale that finds the stripe read-locked moves on. A sale that finds every stripe
+ * taken doubles the stripes and uses a new one. Only a sale or snapshot in progress holds a stripe, so the stripes
+ * stop growing at about twice the threads using the screening. Every field of a sale is therefore counted in a
+ * snapshot or none is, and reads never hold up the purchase path.
+ */
+public class ScreeningSales implements SalesRecorder {
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+    private static final int MAXIMUM_INITIAL_STRIPES = 64;
+    private static final int OPTIMISTIC_READS = 4;
+    private static final int SECOND_BUCKETS = 60;
+    private static final int MINUTE_BUCKETS = 60;
+    private static final int QUARTER_HOUR_MINUTES = 15;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long screeningId;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final AtomicReference<AtomicReferenceArray<Stripe>> stripes;
+
+    public ScreeningSales(long screeningId) {
+        this(screeningId, System::nanoTime);
+    }
+
+    ScreeningSales(long screeningId, LongSupplier nanoTime) {
+        this.screeningId = screeningId;
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.stripes = new AtomicReference<>(new AtomicReferenceArray<>(
+            Math.min(MAXIMUM_INITIAL_STRIPES, Integer.highestOneBit(processors * 2 - 1) * 2)));
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    @Override
+    public void recordSale(TicketPurchaseRequest ticketPurchaseRequest, int amountPaid) {
+        long second = currentSecond();
+        int probe = probe();
+        while (true) {
+            AtomicReferenceArray<Stripe> table = stripes.get();
+            for (int attempt = 0; attempt < table.length(); attempt++, probe++) {
+                Stripe stripe = stripe(table, probe & (table.length() - 1));
+                long stamp = stripe.lock.tryWriteLock();
+                if (stamp != 0) {
+                    try {
+                        stripe.add(second, ticketPurchaseRequest, amountPaid);
+                    } finally {
+                        stripe.lock.unlockWrite(stamp);
+                    }
+                    return;
+                }
+            }
+            grow(table);
+        }
+    }
+
+    public ScreeningSalesSnapshot snapshot() {
+        long second = currentSecond();
+        long[][] windows = new long[Window.COUNT][FIELDS];
+        long[][] stripeWindows = new long[Window.COUNT][FIELDS];
+        AtomicReferenceArray<Stripe> table = stripes.get();
+        for (int i = 0; i < table.length(); i++) {
+            Stripe stripe = table.get(i);
+            if (Objects.nonNull(stripe)) {
+                stripe.read(second, stripeWindows);
+                for (int window = 0; window < Window.COUNT; window++) {
+                    for (int field = 0; field < FIELDS; field++) {
+                        windows[window][field] += stripeWindows[window][field];
+                    }
+                }
+            }
+        }
+        return new ScreeningSalesSnapshot(screeningId,
+                                          new SalesTotals(windows[Window.TOTAL]),
+                                          new SalesTotals(windows[Window.LAST_MINUTE]),
+                                          new SalesTotals(windows[Window.LAST_15_MINUTES]),
+                                          new SalesTotals(windows[Window.LAST_HOUR]));
+    }
+
+    private long currentSecond() {
+        return (nanoTime.getAsLong() - startNanos) / NANOS_PER_SECOND;
+    }
+
+    int stripeCount() {
+        return stripes.get().length();
+    }
+
+    /**
+     * Doubles the stripes, unless another sale already has. Every stripe of the old table is created first, so no sale
+     * can land in a stripe the new table does not hold.
+     */
+    private void grow(AtomicReferenceArray<Stripe> table) {
+        AtomicReferenceArray<Stripe> grown = new AtomicReferenceArray<>(table.length() * 2);
+        for (int i = 0; i < table.length(); i++) {
+            grown.set(i, stripe(table, i));
+        }
+        stripes.compareAndSet(table, grown);
+    }
+
+    private static Stripe stripe(AtomicReferenceArray<Stripe> table, int index) {
+        Stripe stripe = table.get(index);
+        if (Objects.isNull(stripe)) {
+            table.compareAndSet(index, null, new Stripe());
+            stripe = table.get(index);
+        }
+        return stripe;
+    }
+
+    private static int probe() {
+        long hash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32);
+    }
+
+    private static final class Window {
+
+        private static final int TOTAL = 0;
+        private static final int LAST_MINUTE = 1;
+        private static final int LAST_15_MINUTES = 2;
+        private static final int LAST_HOUR = 3;
+        private static final int COUNT = 4;
+    }
+
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+        private final long[] total = new long[FIELDS];
+        private final long[] secondBuckets = new long[SECOND_BUCKETS * FIELDS];
+        private final long[] secondEpochs = new long[SECOND_BUCKETS];
+        private final long[] minuteBuckets = new long[MINUTE_BUCKETS * FIELDS];
+        private final long[] minuteEpochs = new long[MINUTE_BUCKETS];
+
+        private Stripe() {
+            Arrays.fill(secondEpochs, -1);
+            Arrays.fill(minuteEpochs, -1);
+        }
+
+        /**
+         * Only called with the write lock held.
+         */
+        private void add(long second, TicketPurchaseRequest ticketPurchaseRequest, int amountPaid) {
+            add(total, 0, ticketPurchaseRequest, amountPaid);
+            add(secondBuckets, bucket(secondBuckets, secondEpochs, second), ticketPurchaseRequest, amountPaid);
+            add(minuteBuckets, bucket(minuteBuckets, minuteEpochs, second / SECONDS_PER_MINUTE), ticketPurchaseRequest,
+                amountPaid);
+        }
+
+        /**
+         * Reads the stripe into {@code windows}, consistently as of one instant.
+         */
+        private void read(long second, long[][] windows) {
+            for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+                long stamp = lock.tryOptimisticRead();
+                if (stamp != 0) {
+                    readUnlocked(second, windows);
+                    if (lock.validate(stamp)) {
+                        return;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+
+            long stamp = lock.readLock();
+            try {
+                readUnlocked(second, windows);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void readUnlocked(long second, long[][] windows) {
+            System.arraycopy(total, 0, windows[Window.TOTAL], 0, FIELDS);
+            long minute = second / SECONDS_PER_MINUTE;
+            sum(secondBuckets, secondEpochs, second - SECOND_BUCKETS, second, windows[Window.LAST_MINUTE]);
+            sum(minuteBuckets, minuteEpochs, minute - QUARTER_HOUR_MINUTES, minute, windows[Window.LAST_15_MINUTES]);
+            sum(minuteBuckets, minuteEpochs, minute - MINUTE_BUCKETS, minute, windows[Window.LAST_HOUR]);
+        }
+
+        /**
+         * @return the offset of the bucket for {@code epoch}, cleared if it last held an earlier epoch
+         */
+        private static int bucket(long[] buckets, long[] epochs, long epoch) {
+            int bucket = (int) (epoch % epochs.length);
+            if (epochs[bucket] != epoch) {
+                epochs[bucket] = epoch;
+                Arrays.fill(buckets, bucket * FIELDS, (bucket + 1) * FIELDS, 0L);
+            }
+            return bucket * FIELDS;
+        }
+
+        /**
+         * Sums the buckets for the epochs after {@code after} up to {@code until} into {@code into}.
+         */
+        private static void sum(long[] buckets, long[] epochs, long after, long until, long[] into) {
+            Arrays.fill(into, 0L);
+            for (int bucket = 0; bucket < epochs.length; bucket++) {
+                long epoch = epochs[bucket];
+                if (epoch > after && epoch <= until) {
+                    for (int field = 0; field < FIELDS; field++) {
+                        into[field] += buckets[bucket * FIELDS + field];
+                    }
+                }
+            }
+        }
+
+        private static void add(long[] values, int offset, TicketPurchaseRequest ticketPurchaseRequest, int amountPaid) {
+            values[offset + PURCHASES]++;
+            values[offset + SEATS_HELD] += ticketPurchaseRequest.numberOfSeats();
+            values[offset + REVENUE] += amountPaid;
+            for (TicketRequest.Type type : TYPES) {
+                int tickets = ticketPurchaseRequest.numberOfTicketsForType(type);
+                values[offset + TICKETS_SOLD + type.ordinal()] += tickets;
+                values[offset + LIST_REVENUE + type.ordinal()] += (long) tickets * type.getCost();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+/**
+ * Sales of a screening since it went on sale and over rolling windows ending now. Each purchase is counted whole
+ * or not at all, in every total alike.
+ */
+public record ScreeningSalesSnapshot(long screeningId,
+                                     SalesTotals total,
+                                     SalesTotals lastMinute,
+                                     SalesTotals last15Minutes,
+                                     SalesTotals lastHour) {
+}
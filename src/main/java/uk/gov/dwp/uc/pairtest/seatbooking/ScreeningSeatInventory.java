@@ -0,0 +1,110 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import uk.gov.dwp.uc.pairtest.exception.SeatsUnavailableException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Seat capacity for a single screening. Seats are claimed with a compare-and-set on the remaining count, so a
+ * reservation can never oversell. Once the screening is sold out a reservation is rejected on a plain read,
+ * without writing to shared state, so rejections scale across cores.
+ */
+public class ScreeningSeatInventory implements SeatReservationService {
+
+    static final String NOT_ENOUGH_SEATS_ERROR = "Not enough seats remaining.";
+    static final String NOT_ENOUGH_SEATS_HELD_ERROR = "Account %d does not hold %d seats.";
+    static final String INVALID_SEAT_COUNT_ERROR = "Seat count must be positive: %d.";
+
+    private final int capacity;
+    private final AtomicInteger remaining;
+    private final Map<Long, AtomicInteger> seatsHeldByAccount = new ConcurrentHashMap<>();
+
+    public ScreeningSeatInventory(int capacity) {
+        this.capacity = capacity;
+        this.remaining = new AtomicInteger(capacity);
+    }
+
+    /**
+     * Restores a screening with seats already held, such as one moved from another node.
+     */
+    public ScreeningSeatInventory(int capacity, Map<Long, Integer> seatsHeldByAccount) {
+        this(capacity);
+        seatsHeldByAccount.forEach((accountId, seatsHeld) -> {
+            this.seatsHeldByAccount.put(accountId, new AtomicInteger(seatsHeld));
+            remaining.addAndGet(-seatsHeld);
+        });
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        requirePositive(totalSeatsToAllocate);
+        if (!tryTake(remaining, totalSeatsToAllocate)) {
+            throw new SeatsUnavailableException(NOT_ENOUGH_SEATS_ERROR);
+        }
+        seatsHeldByAccount.computeIfAbsent(accountId, ignored -> new AtomicInteger()).addAndGet(totalSeatsToAllocate);
+    }
+
+    /**
+     * Returns seats the account holds to the screening, for example on refund or when payment fails.
+     */
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        requirePositive(totalSeatsToRelease);
+        AtomicInteger seatsHeld = seatsHeldByAccount.get(accountId);
+        if (Objects.isNull(seatsHeld) || !tryTake(seatsHeld, totalSeatsToRelease)) {
+            throw new IllegalStateException(String.format(NOT_ENOUGH_SEATS_HELD_ERROR, accountId, totalSeatsToRelease));
+        }
+        remaining.addAndGet(totalSeatsToRelease);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int remainingSeats() {
+        return remaining.get();
+    }
+
+    public int seatsHeld(long accountId) {
+        AtomicInteger seatsHeld = seatsHeldByAccount.get(accountId);
+        return Objects.isNull(seatsHeld) ? 0 : seatsHeld.get();
+    }
+
+    /**
+     * @return a copy of the seats held by each account holding any
+     */
+    public Map<Long, Integer> seatsHeldByAccount() {
+        Map<Long, Integer> seatsHeld = new HashMap<>();
+        seatsHeldByAccount.forEach((accountId, seats) -> {
+            int held = seats.get();
+            if (held > 0) {
+                seatsHeld.put(accountId, held);
+            }
+        });
+        return seatsHeld;
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int amount) {
+        int current = counter.get();
+        while (current >= amount) {
+            int witness = counter.compareAndExchange(current, current - amount);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private static void requirePositive(int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException(String.format(INVALID_SEAT_COUNT_ERROR, seats));
+        }
+    }
+}
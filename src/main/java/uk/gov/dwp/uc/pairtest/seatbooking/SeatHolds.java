@@ -0,0 +1,221 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import uk.gov.dwp.uc.pairtest.concurrent.HierarchicalTimingWheel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Reserves seats as holds that are released again unless confirmed, by the time payment is taken, within the hold
+ * timeout. Pending holds wait in a {@link HierarchicalTimingWheel} that a single thread advances every tick, so
+ * holds are O(1) to place and expire however many are pending, and expire up to one tick late.
+ */
+public class SeatHolds implements AutoCloseable {
+
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final SeatReservationService seatReservationService;
+    private final long holdTimeoutNanos;
+    private final long tickNanos;
+    private final LongSupplier nanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final HierarchicalTimingWheel<Hold> pendingHolds;
+    private final Thread expiry;
+    private volatile boolean open = true;
+
+    /**
+     * Holds that never expire, for services that always confirm or release their holds.
+     */
+    public SeatHolds(SeatReservationService seatReservationService) {
+        this(seatReservationService, null, null, System::nanoTime, false);
+    }
+
+    public SeatHolds(SeatReservationService seatReservationService, Duration holdTimeout, Duration tick) {
+        this(seatReservationService, holdTimeout, tick, System::nanoTime, true);
+    }
+
+    /**
+     * Without {@code expireOnTick}, stale holds are only released by {@link #expireStaleHolds()}.
+     */
+    SeatHolds(SeatReservationService seatReservationService,
+              Duration holdTimeout,
+              Duration tick,
+              LongSupplier nanoTime,
+              boolean expireOnTick) {
+        this.seatReservationService = seatReservationService;
+        this.nanoTime = nanoTime;
+        if (Objects.isNull(holdTimeout)) {
+            this.holdTimeoutNanos = 0;
+            this.tickNanos = 0;
+            this.pendingHolds = null;
+            this.expiry = null;
+            return;
+        }
+
+        this.holdTimeoutNanos = holdTimeout.toNanos();
+        this.tickNanos = tick.toNanos();
+        this.pendingHolds = new HierarchicalTimingWheel<>(tick, WHEEL_SIZE, WHEEL_LEVELS, nanoTime.getAsLong());
+        this.expiry = expireOnTick
+            ? Thread.ofPlatform().name("seat-hold-expiry").daemon().start(this::expireUntilClosed)
+            : null;
+    }
+
+    /**
+     * Reserves the seats, holding them until the hold is confirmed or released, or it times out.
+     */
+    public Hold hold(long accountId, int numberOfSeats) {
+        seatReservationService.reserveSeat(accountId, numberOfSeats);
+        Hold hold = new Hold(accountId, numberOfSeats);
+        if (Objects.nonNull(pendingHolds)) {
+            lock.lock();
+            try {
+                hold.timeout = pendingHolds.schedule(hold, nanoTime.getAsLong() + holdTimeoutNanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return hold;
+    }
+
+    public int pendingHolds() {
+        if (Objects.isNull(pendingHolds)) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            return pendingHolds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the seats of every hold that has timed out. Seats that cannot be released are left reserved.
+     *
+     * @return the number of holds that timed out
+     */
+    int expireStaleHolds() {
+        if (Objects.isNull(pendingHolds)) {
+            return 0;
+        }
+        List<Hold> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            pendingHolds.advance(nanoTime.getAsLong(), hold -> {
+                hold.state = State.RELEASED;
+                expired.add(hold);
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        for (Hold hold : expired) {
+            try {
+                seatReservationService.releaseSeat(hold.accountId, hold.numberOfSeats);
+            } catch (RuntimeException exception) {
+                // The seats stay reserved, as they would have without the hold.
+            }
+        }
+        return expired.size();
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        if (Objects.nonNull(expiry)) {
+            LockSupport.unpark(expiry);
+        }
+    }
+
+    private void expireUntilClosed() {
+        while (open) {
+            LockSupport.parkNanos(this, tickNanos);
+            expireStaleHolds();
+        }
+    }
+
+    private enum State {
+        HELD, CONFIRMED, RELEASED
+    }
+
+    public final class Hold {
+
+        private final long accountId;
+        private final int numberOfSeats;
+        private State state = State.HELD;
+        private HierarchicalTimingWheel.Timeout<Hold> timeout;
+
+        private Hold(long accountId, int numberOfSeats) {
+            this.accountId = accountId;
+            this.numberOfSeats = numberOfSeats;
+        }
+
+        public long getAccountId() {
+            return accountId;
+        }
+
+        public int getNumberOfSeats() {
+            return numberOfSeats;
+        }
+
+        /**
+         * Stops the hold timing out, ahead of taking payment.
+         *
+         * @return false if the hold has already timed out or been released, so payment must not be taken
+         */
+        public boolean confirm() {
+            return transition(State.HELD, State.CONFIRMED);
+        }
+
+        /**
+         * Releases the seats unless the hold was confirmed, for a purchase abandoned before payment.
+         *
+         * @return false if the hold was confirmed, timed out or already released
+         */
+        public boolean cancel() {
+            if (!transition(State.HELD, State.RELEASED)) {
+                return false;
+            }
+            seatReservationService.releaseSeat(accountId, numberOfSeats);
+            return true;
+        }
+
+        /**
+         * Releases the seats whether or not the hold was confirmed, for a purchase whose payment failed.
+         *
+         * @return false if the hold had already timed out or been released
+         */
+        public boolean release() {
+            if (!transition(State.HELD, State.RELEASED) && !transition(State.CONFIRMED, State.RELEASED)) {
+                return false;
+            }
+            seatReservationService.releaseSeat(accountId, numberOfSeats);
+            return true;
+        }
+
+        private boolean transition(State from, State to) {
+            lock.lock();
+            try {
+                if (state != from) {
+                    return false;
+                }
+                state = to;
+                if (from == State.HELD && Objects.nonNull(timeout)) {
+                    pendingHolds.cancel(timeout);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
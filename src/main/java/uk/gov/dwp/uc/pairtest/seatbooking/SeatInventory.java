@@ -0,0 +1,32 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seat capacity for every screening, each held in its own {@link ScreeningSeatInventory}.
+ */
+public class SeatInventory {
+
+    static final String UNKNOWN_SCREENING_ERROR = "Unknown screening: %d.";
+    static final String DUPLICATE_SCREENING_ERROR = "Screening already exists: %d.";
+
+    private final Map<Long, ScreeningSeatInventory> screenings = new ConcurrentHashMap<>();
+
+    public ScreeningSeatInventory addScreening(long screeningId, int capacity) {
+        ScreeningSeatInventory screening = new ScreeningSeatInventory(capacity);
+        if (Objects.nonNull(screenings.putIfAbsent(screeningId, screening))) {
+            throw new IllegalStateException(String.format(DUPLICATE_SCREENING_ERROR, screeningId));
+        }
+        return screening;
+    }
+
+    public ScreeningSeatInventory forScreening(long screeningId) {
+        ScreeningSeatInventory screening = screenings.get(screeningId);
+        if (Objects.isNull(screening)) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_SCREENING_ERROR, screeningId));
+        }
+        return screening;
+    }
+}
@@ -0,0 +1,307 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.SeatsUnavailableException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * The seats of a screening, row by row, with one word per row whose set bits are the seats taken. A purchase is
+ * seated together where it can be: the best free block is found with word-wide shifts and masks rather than seat by
+ * seat, and claimed with a compare-and-set on its row. Rows nearer the middle of the auditorium are best, and within
+ * a row the block nearest the centre. A group too large for any free block is split, largest blocks first.
+ * <p>
+ * As in {@link ScreeningSeatInventory}, seats are first claimed from a count of those remaining, so a reservation
+ * never oversells and one that cannot be seated is rejected without touching the rows. The count is claimed before
+ * the bits and given back after them, so there are always enough free bits for every claimed count.
+ */
+public class SeatMap implements SeatReservationService {
+
+    static final String NOT_ENOUGH_SEATS_ERROR = "Not enough seats remaining.";
+    static final String NOT_ENOUGH_SEATS_HELD_ERROR = "Account %d does not hold %d seats.";
+    static final String INVALID_SEAT_COUNT_ERROR = "Seat count must be positive: %d.";
+    static final String INVALID_ROW_LENGTH_ERROR = "Rows must have between 1 and " + Long.SIZE + " seats: %d.";
+
+    private final int[] rowLengths;
+    private final int[] rowsByPreference;
+    private final AtomicLongArray rows;
+    private final AtomicInteger remaining;
+    private final Map<Long, List<SeatBlock>> blocksByAccount = new ConcurrentHashMap<>();
+
+    public SeatMap(int rows, int seatsPerRow) {
+        this(IntStream.generate(() -> seatsPerRow).limit(rows).toArray());
+    }
+
+    /**
+     * @param rowLengths seats in each row, front row first
+     */
+    public SeatMap(int[] rowLengths) {
+        int capacity = 0;
+        for (int rowLength : rowLengths) {
+            if (rowLength < 1 || rowLength > Long.SIZE) {
+                throw new IllegalArgumentException(String.format(INVALID_ROW_LENGTH_ERROR, rowLength));
+            }
+            capacity += rowLength;
+        }
+        this.rowLengths = rowLengths.clone();
+        this.rows = new AtomicLongArray(rowLengths.length);
+        this.remaining = new AtomicInteger(capacity);
+
+        double middle = (rowLengths.length - 1) / 2.0;
+        this.rowsByPreference = IntStream.range(0, rowLengths.length)
+            .boxed()
+            .sorted(Comparator.comparingDouble(row -> Math.abs(row - middle)))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        allocate(accountId, totalSeatsToAllocate);
+    }
+
+    /**
+     * Seats the adults and children of the purchase; infants sit on an adult's lap.
+     */
+    public List<SeatBlock> allocate(TicketPurchaseRequest ticketPurchaseRequest) {
+        return allocate(ticketPurchaseRequest.getAccountId(), ticketPurchaseRequest.numberOfSeats());
+    }
+
+    /**
+     * @return the blocks the seats were taken from, one unless the group had to be split
+     */
+    public List<SeatBlock> allocate(long accountId, int seats) {
+        requirePositive(seats);
+        if (!tryTake(remaining, seats)) {
+            throw new SeatsUnavailableException(NOT_ENOUGH_SEATS_ERROR);
+        }
+
+        List<SeatBlock> blocks = new ArrayList<>(1);
+        SeatBlock together = claimTogether(seats);
+        if (Objects.nonNull(together)) {
+            blocks.add(together);
+        } else {
+            claimSplit(seats, blocks);
+        }
+
+        blocksByAccount.compute(accountId, (id, held) -> {
+            List<SeatBlock> updated = Objects.isNull(held) ? new ArrayList<>(blocks.size()) : held;
+            updated.addAll(blocks);
+            return updated;
+        });
+        return blocks;
+    }
+
+    /**
+     * Frees the seats the account took most recently, for example on refund or when payment fails.
+     */
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        requirePositive(totalSeatsToRelease);
+        blocksByAccount.compute(accountId, (id, held) -> {
+            if (Objects.isNull(held) || seats(held) < totalSeatsToRelease) {
+                throw new IllegalStateException(String.format(NOT_ENOUGH_SEATS_HELD_ERROR, accountId, totalSeatsToRelease));
+            }
+
+            int toRelease = totalSeatsToRelease;
+            while (toRelease > 0) {
+                SeatBlock last = held.remove(held.size() - 1);
+                int released = Math.min(toRelease, last.seats());
+                int kept = last.seats() - released;
+                clear(last.row(), last.firstSeat() + kept, released);
+                if (kept > 0) {
+                    held.add(new SeatBlock(last.row(), last.firstSeat(), kept));
+                }
+                toRelease -= released;
+            }
+            return held.isEmpty() ? null : held;
+        });
+        remaining.addAndGet(totalSeatsToRelease);
+    }
+
+    public int remainingSeats() {
+        return remaining.get();
+    }
+
+    public int seatsHeld(long accountId) {
+        List<SeatBlock> held = blocksByAccount.get(accountId);
+        return Objects.isNull(held) ? 0 : seats(held);
+    }
+
+    public boolean isTaken(int row, int seat) {
+        return (rows.get(row) & (1L << seat)) != 0;
+    }
+
+    /**
+     * Claims the best block of {@code seats} free seats in one row.
+     *
+     * @return null if no row has that many free seats together
+     */
+    private SeatBlock claimTogether(int seats) {
+        while (true) {
+            boolean contended = false;
+            for (int row : rowsByPreference) {
+                if (seats > rowLengths[row]) {
+                    continue;
+                }
+                long taken = rows.get(row);
+                long starts = blockStarts(free(row, taken), seats);
+                if (starts == 0) {
+                    continue;
+                }
+                int firstSeat = nearest(starts, (rowLengths[row] - seats) / 2);
+                if (rows.compareAndSet(row, taken, taken | block(firstSeat, seats))) {
+                    return new SeatBlock(row, firstSeat, seats);
+                }
+                contended = true;
+                break;
+            }
+            if (!contended) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Claims the largest free block, up to the seats still to be taken, until they have all been taken. Always
+     * completes, as the remaining count has already been claimed.
+     */
+    private void claimSplit(int seats, List<SeatBlock> blocks) {
+        int toClaim = seats;
+        while (toClaim > 0) {
+            int bestRow = -1;
+            int bestLength = 0;
+            for (int row : rowsByPreference) {
+                int length = longestRun(free(row, rows.get(row)));
+                if (length > bestLength) {
+                    bestRow = row;
+                    bestLength = length;
+                }
+                if (bestLength >= toClaim) {
+                    break;
+                }
+            }
+            if (bestRow < 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int length = Math.min(bestLength, toClaim);
+            long taken = rows.get(bestRow);
+            long starts = blockStarts(free(bestRow, taken), length);
+            if (starts == 0) {
+                continue;
+            }
+            int firstSeat = nearest(starts, (rowLengths[bestRow] - length) / 2);
+            if (rows.compareAndSet(bestRow, taken, taken | block(firstSeat, length))) {
+                blocks.add(new SeatBlock(bestRow, firstSeat, length));
+                toClaim -= length;
+            }
+        }
+    }
+
+    private void clear(int row, int firstSeat, int seats) {
+        long mask = block(firstSeat, seats);
+        long taken = rows.get(row);
+        while (true) {
+            long witness = rows.compareAndExchange(row, taken, taken & ~mask);
+            if (witness == taken) {
+                return;
+            }
+            taken = witness;
+        }
+    }
+
+    private long free(int row, long taken) {
+        int length = rowLengths[row];
+        long rowMask = length == Long.SIZE ? -1L : (1L << length) - 1;
+        return ~taken & rowMask;
+    }
+
+    /**
+     * @return a bit for each seat that starts a run of at least {@code seats} free seats, found in O(log seats)
+     * shifts by doubling the run length covered each step
+     */
+    static long blockStarts(long free, int seats) {
+        long starts = free;
+        int covered = 1;
+        while (covered * 2 <= seats) {
+            starts &= starts >>> covered;
+            covered *= 2;
+        }
+        if (covered < seats) {
+            starts &= starts >>> (seats - covered);
+        }
+        return starts;
+    }
+
+    /**
+     * @return the length of the longest run of set bits
+     */
+    static int longestRun(long free) {
+        int length = 0;
+        while (free != 0) {
+            free &= free >>> 1;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @return the set bit nearest {@code target}, preferring the lower on a tie
+     */
+    static int nearest(long starts, int target) {
+        long atOrAbove = starts & (-1L << target);
+        long below = starts & ((1L << target) - 1);
+        int above = atOrAbove == 0 ? Integer.MAX_VALUE : Long.numberOfTrailingZeros(atOrAbove);
+        int under = below == 0 ? Integer.MIN_VALUE : Long.SIZE - 1 - Long.numberOfLeadingZeros(below);
+        return (long) above - target < (long) target - under ? above : under;
+    }
+
+    private static long block(int firstSeat, int seats) {
+        long mask = seats == Long.SIZE ? -1L : (1L << seats) - 1;
+        return mask << firstSeat;
+    }
+
+    private static int seats(List<SeatBlock> blocks) {
+        int seats = 0;
+        for (SeatBlock block : blocks) {
+            seats += block.seats();
+        }
+        return seats;
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int amount) {
+        int current = counter.get();
+        while (current >= amount) {
+            int witness = counter.compareAndExchange(current, current - amount);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private static void requirePositive(int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException(String.format(INVALID_SEAT_COUNT_ERROR, seats));
+        }
+    }
+
+    /**
+     * Seats {@code firstSeat} to {@code firstSeat + seats - 1} of a row, counted from zero.
+     */
+    public record SeatBlock(int row, int firstSeat, int seats) {
+    }
+}
@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+/**
+ * Source of the {@link ValidationPolicy} in force, read once per purchase or batch.
+ */
+public interface ValidationPolicies {
+
+    ValidationPolicies DEFAULT = () -> ValidationPolicy.DEFAULT;
+
+    ValidationPolicy current();
+
+    /**
+     * Prepares the subscriber for the current policy and acts on it, then does the same for each new policy on the
+     * thread loading it: every subscriber prepares, the policy comes into force, and only then does each act. A
+     * subscriber throwing {@link IllegalArgumentException} while preparing rejects the new policy, so none acts on it
+     * and the current one stays in force.
+     *
+     * @return false if this source does not publish its changes, in which case the subscriber is never called
+     */
+    default boolean subscribe(Subscriber subscriber) {
+        return false;
+    }
+
+    interface Subscriber {
+
+        /**
+         * Prepares for the policy, such as by building what depends on it, without acting on it yet.
+         *
+         * @return what to do once the policy is in force
+         * @throws IllegalArgumentException to reject the policy
+         */
+        Runnable prepare(ValidationPolicy validationPolicy);
+    }
+}
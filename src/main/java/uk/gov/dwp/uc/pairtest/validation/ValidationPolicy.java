@@ -0,0 +1,52 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NO_ADULTS_WERE_PRESENT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NO_TICKETS;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_INFANTS_TO_ADULTS;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS;
+
+/**
+ * Limits on the tickets in a single purchase.
+ *
+ * @param maximumTickets         including infants
+ * @param minimumAdults          adults needed for any purchase
+ * @param maximumInfantsPerAdult infants sit on an adult's lap
+ */
+public record ValidationPolicy(int maximumTickets, int minimumAdults, int maximumInfantsPerAdult) {
+
+    static final String INVALID_POLICY_ERROR = "Invalid validation policy: maximumTickets %d, minimumAdults %d, maximumInfantsPerAdult %d.";
+
+    public static final ValidationPolicy DEFAULT = new ValidationPolicy(20, 1, 2);
+
+    public ValidationPolicy {
+        if (maximumTickets < 1 || minimumAdults < 0 || maximumInfantsPerAdult < 0) {
+            throw new IllegalArgumentException(
+                String.format(INVALID_POLICY_ERROR, maximumTickets, minimumAdults, maximumInfantsPerAdult));
+        }
+    }
+
+    /**
+     * @param ticketCounts indexed by {@link uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type#ordinal()}, none
+     *                     negative
+     * @return the first rule broken, or null if the tickets are valid
+     */
+    public Reason check(int[] ticketCounts, int numberOfTickets) {
+        if (numberOfTickets > maximumTickets) {
+            return TOO_MANY_TICKETS;
+        } else if (numberOfTickets == 0) {
+            return NO_TICKETS;
+        }
+
+        int numberOfAdults = ticketCounts[ADULT.ordinal()];
+        if (numberOfAdults < minimumAdults) {
+            return NO_ADULTS_WERE_PRESENT;
+        } else if ((long) maximumInfantsPerAdult * numberOfAdults < ticketCounts[INFANT.ordinal()]) {
+            return TOO_MANY_INFANTS_TO_ADULTS;
+        }
+        return null;
+    }
+}
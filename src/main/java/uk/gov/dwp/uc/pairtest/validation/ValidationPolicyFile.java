@@ -0,0 +1,139 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ValidationPolicy} read from a properties file, and read again whenever the file changes. A change that
+ * cannot be read, is not a valid policy or is rejected by a {@link #subscribe subscriber}, leaves the current policy
+ * in force and is counted in {@link #reloadFailures()}; the next change is read as usual.
+ * <p>
+ * The file must hold all of {@code maximumTickets}, {@code minimumAdults} and {@code maximumInfantsPerAdult}, so a
+ * file caught part way through being rewritten is rejected rather than read as a weaker policy.
+ */
+public class ValidationPolicyFile implements ValidationPolicies, AutoCloseable {
+
+    static final String MISSING_PROPERTY_ERROR = "No %s in %s.";
+    static final String INVALID_PROPERTY_ERROR = "Invalid %s in %s: %s.";
+
+    private final Path file;
+    private final WatchService watchService;
+    private final AtomicLong reloadFailures = new AtomicLong();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile ValidationPolicy current;
+
+    /**
+     * Reads the policy, failing if it is missing or invalid, then watches its directory from a daemon thread.
+     */
+    public ValidationPolicyFile(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.current = load(this.file);
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService,
+                                       StandardWatchEventKinds.ENTRY_CREATE,
+                                       StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofPlatform().name("validation-policy-watcher").daemon().start(this::watch);
+    }
+
+    @Override
+    public ValidationPolicy current() {
+        return current;
+    }
+
+    @Override
+    public synchronized boolean subscribe(Subscriber subscriber) {
+        subscriber.prepare(current).run();
+        subscribers.add(subscriber);
+        return true;
+    }
+
+    public long reloadFailures() {
+        return reloadFailures.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * @return false if the file could not be read or is invalid, leaving the current policy in force
+     */
+    synchronized boolean reload() {
+        try {
+            ValidationPolicy policy = load(file);
+            List<Runnable> actions = new ArrayList<>(subscribers.size());
+            for (Subscriber subscriber : subscribers) {
+                actions.add(subscriber.prepare(policy));
+            }
+            current = policy;
+            actions.forEach(Runnable::run);
+            return true;
+        } catch (IOException | IllegalArgumentException exception) {
+            reloadFailures.incrementAndGet();
+            return false;
+        }
+    }
+
+    static ValidationPolicy load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return new ValidationPolicy(property(properties, file, "maximumTickets"),
+                                    property(properties, file, "minimumAdults"),
+                                    property(properties, file, "maximumInfantsPerAdult"));
+    }
+
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context());
+            }
+            if (changed) {
+                reload();
+            }
+            if (!key.reset()) {
+                return;
+            }
+        }
+    }
+
+    private static int property(Properties properties, Path file, String name) {
+        String value = properties.getProperty(name);
+        if (Objects.isNull(value)) {
+            throw new IllegalArgumentException(String.format(MISSING_PROPERTY_ERROR, name, file));
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException(String.format(INVALID_PROPERTY_ERROR, name, file, value), exception);
+        }
+    }
+}
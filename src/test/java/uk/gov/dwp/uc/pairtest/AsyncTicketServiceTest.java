@@ -0,0 +1,364 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.history.OffHeapPurchaseHistory;
+import uk.gov.dwp.uc.pairtest.history.PurchaseHistory;
+import uk.gov.dwp.uc.pairtest.seatbooking.ScreeningSeatInventory;
+import uk.gov.dwp.uc.pairtest.seatbooking.SeatHolds;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS_FOR_ACCOUNT;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncTicketServiceTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final String DISCOUNT_CODE = "DISCOUNT";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final TicketPurchaseRequest TWO_ADULTS = new TicketPurchaseRequest(
+        ACCOUNT_ID, new TicketRequest[]{new TicketRequest(ADULT, 2)}, DISCOUNT_CODE);
+
+    @Mock
+    private TicketPaymentService ticketPaymentService;
+    @Mock
+    private SeatReservationService seatReservationService;
+    @Mock
+    private DiscountService discountService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void purchaseTickets() throws Exception {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0.5));
+
+        PurchaseResult result = underTest(10, AsyncTicketService.StageTimeouts.of(TIMEOUT))
+            .purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS);
+
+        assertThat(result, is(PurchaseResult.success(ACCOUNT_ID, 2, 20)));
+        verify(seatReservationService).reserveSeat(ACCOUNT_ID, 2);
+        verify(ticketPaymentService).makePayment(ACCOUNT_ID, 20);
+    }
+
+    @Test
+    void purchaseTickets_invalidDiscountCodeFallsBackToFullPrice() throws Exception {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenThrow(new InvalidDiscountCodeException("Invalid"));
+
+        PurchaseResult result = underTest(10, AsyncTicketService.StageTimeouts.of(TIMEOUT))
+            .purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.amountPaid(), is(40));
+        verify(ticketPaymentService).makePayment(ACCOUNT_ID, 40);
+    }
+
+    @Test
+    void purchaseTickets_discountLookupRunsAlongsideSeatReservation() throws Exception {
+        CountDownLatch discountRequested = new CountDownLatch(1);
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenAnswer(invocation -> {
+            discountRequested.countDown();
+            return new Discount(0);
+        });
+        doAnswer(invocation -> {
+            assertThat(discountRequested.await(5, TimeUnit.SECONDS), is(true));
+            return null;
+        }).when(seatReservationService).reserveSeat(ACCOUNT_ID, 2);
+
+        PurchaseResult result = underTest(10, AsyncTicketService.StageTimeouts.of(TIMEOUT))
+            .purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.isSuccessful(), is(true));
+    }
+
+    @Test
+    void purchaseTickets_failedPaymentReleasesSeats() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        doThrow(new IllegalStateException("Declined")).when(ticketPaymentService).makePayment(ACCOUNT_ID, 40);
+
+        CompletableFuture<PurchaseResult> result = underTest(10, AsyncTicketService.StageTimeouts.of(TIMEOUT))
+            .purchaseTickets(TWO_ADULTS);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        verify(seatReservationService).releaseSeat(ACCOUNT_ID, 2);
+    }
+
+    @Test
+    void purchaseTickets_failedDiscountLookupReleasesSeats() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenThrow(new IllegalStateException("Down"));
+
+        CompletableFuture<PurchaseResult> result = underTest(10, AsyncTicketService.StageTimeouts.of(TIMEOUT))
+            .purchaseTickets(TWO_ADULTS);
+
+        assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        verify(seatReservationService, timeout(5_000)).releaseSeat(ACCOUNT_ID, 2);
+        verify(ticketPaymentService, never()).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    void purchaseTickets_lateSeatReservationIsCancelled() throws Exception {
+        ScreeningSeatInventory inventory = new ScreeningSeatInventory(10);
+        CountDownLatch reservationTimedOut = new CountDownLatch(1);
+        SeatReservationService slowInventory = new SeatReservationService() {
+            @Override
+            public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+                awaitQuietly(reservationTimedOut);
+                inventory.reserveSeat(accountId, totalSeatsToAllocate);
+            }
+
+            @Override
+            public void releaseSeat(long accountId, int totalSeatsToRelease) {
+                inventory.releaseSeat(accountId, totalSeatsToRelease);
+            }
+        };
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        AsyncTicketService.StageTimeouts timeouts = new AsyncTicketService.StageTimeouts(Duration.ofMillis(10), TIMEOUT, TIMEOUT);
+
+        try (SeatHolds seatHolds = new SeatHolds(slowInventory, Duration.ofMillis(50), Duration.ofMillis(5))) {
+            CompletableFuture<PurchaseResult> result = new AsyncTicketService(
+                ticketPaymentService, seatHolds, discountService, executor, 10, timeouts).purchaseTickets(TWO_ADULTS);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause(), instanceOf(TimeoutException.class));
+            reservationTimedOut.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (inventory.seatsHeld(ACCOUNT_ID) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            while (inventory.seatsHeld(ACCOUNT_ID) != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        assertThat(inventory.remainingSeats(), is(10));
+        verify(ticketPaymentService, never()).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    void purchaseTickets_seatReservationCompletingAfterTimeoutReleasesSeats() throws Exception {
+        ScreeningSeatInventory inventory = new ScreeningSeatInventory(10);
+        CountDownLatch reservationTimedOut = new CountDownLatch(1);
+        SeatReservationService slowInventory = new SeatReservationService() {
+            @Override
+            public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+                awaitQuietly(reservationTimedOut);
+                inventory.reserveSeat(accountId, totalSeatsToAllocate);
+            }
+
+            @Override
+            public void releaseSeat(long accountId, int totalSeatsToRelease) {
+                inventory.releaseSeat(accountId, totalSeatsToRelease);
+            }
+        };
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        AsyncTicketService.StageTimeouts timeouts = new AsyncTicketService.StageTimeouts(Duration.ofMillis(10), TIMEOUT, TIMEOUT);
+
+        try (AsyncTicketService underTest = new AsyncTicketService(
+            ticketPaymentService, slowInventory, discountService, executor, 10, timeouts)) {
+            CompletableFuture<PurchaseResult> result = underTest.purchaseTickets(TWO_ADULTS);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause(), instanceOf(TimeoutException.class));
+            reservationTimedOut.countDown();
+
+            verify(ticketPaymentService, never()).makePayment(anyLong(), anyInt());
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(inventory.remainingSeats(), is(10));
+    }
+
+    @Test
+    void purchaseTickets_invalidRequest() {
+        TicketPurchaseRequest invalid = new TicketPurchaseRequest(ACCOUNT_ID, new TicketRequest[0]);
+
+        CompletableFuture<PurchaseResult> result = underTest(10, AsyncTicketService.StageTimeouts.of(TIMEOUT))
+            .purchaseTickets(invalid);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertThat(exception.getCause(), instanceOf(InvalidPurchaseException.class));
+        verify(seatReservationService, never()).reserveSeat(anyLong(), anyInt());
+    }
+
+    @Test
+    void purchaseTickets_paymentTimeout() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        doAnswer(invocation -> {
+            Thread.sleep(1_000);
+            return null;
+        }).when(ticketPaymentService).makePayment(anyLong(), anyInt());
+        AsyncTicketService.StageTimeouts timeouts = new AsyncTicketService.StageTimeouts(TIMEOUT, TIMEOUT, Duration.ofMillis(10));
+
+        CompletableFuture<PurchaseResult> result = underTest(10, timeouts).purchaseTickets(TWO_ADULTS);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(TimeoutException.class));
+    }
+
+    @Test
+    void purchaseTickets_rejectedWhenTooManyInFlight() throws Exception {
+        CountDownLatch releasePayment = new CountDownLatch(1);
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        doAnswer(invocation -> releasePayment.await(5, TimeUnit.SECONDS))
+            .when(ticketPaymentService).makePayment(anyLong(), anyInt());
+        AsyncTicketService underTest = underTest(1, AsyncTicketService.StageTimeouts.of(TIMEOUT));
+
+        CompletableFuture<PurchaseResult> first = underTest.purchaseTickets(TWO_ADULTS);
+        CompletableFuture<PurchaseResult> second = underTest.purchaseTickets(TWO_ADULTS);
+        releasePayment.countDown();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, second::get);
+        assertThat(exception.getCause(), instanceOf(RejectedExecutionException.class));
+        assertThat(first.get(5, TimeUnit.SECONDS).isSuccessful(), is(true));
+        assertThat(underTest.purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS).isSuccessful(), is(true));
+    }
+
+    @Test
+    void purchaseTickets_accountOverHistoryLimitIsRejected() throws Exception {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        OffHeapPurchaseHistory purchaseHistory = new OffHeapPurchaseHistory(100, 3, Duration.ofHours(1));
+        AsyncTicketService underTest = underTest(purchaseHistory);
+
+        assertThat(underTest.purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS).isSuccessful(), is(true));
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                                                    () -> underTest.purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS));
+
+        assertThat(((InvalidPurchaseException) exception.getCause()).getReason(), is(TOO_MANY_TICKETS_FOR_ACCOUNT));
+        assertThat(purchaseHistory.ticketsInWindow(ACCOUNT_ID), is(2));
+        verify(seatReservationService).reserveSeat(ACCOUNT_ID, 2);
+    }
+
+    @Test
+    void purchaseTickets_failedPaymentReleasesHistory() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+        doThrow(new IllegalStateException("Declined")).when(ticketPaymentService).makePayment(ACCOUNT_ID, 40);
+        OffHeapPurchaseHistory purchaseHistory = new OffHeapPurchaseHistory(100, 3, Duration.ofHours(1));
+
+        CompletableFuture<PurchaseResult> result = underTest(purchaseHistory).purchaseTickets(TWO_ADULTS);
+
+        assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(purchaseHistory.ticketsInWindow(ACCOUNT_ID), is(0));
+    }
+
+    @Test
+    void purchaseTickets_failedDiscountLookupReleasesHistory() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenThrow(new IllegalStateException("Down"));
+        OffHeapPurchaseHistory purchaseHistory = new OffHeapPurchaseHistory(100, 3, Duration.ofHours(1));
+
+        CompletableFuture<PurchaseResult> result = underTest(purchaseHistory).purchaseTickets(TWO_ADULTS);
+
+        assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(purchaseHistory.ticketsInWindow(ACCOUNT_ID), is(0));
+        verify(ticketPaymentService, never()).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    void purchaseTickets_rejectedStageReleasesEverything() throws Exception {
+        OffHeapPurchaseHistory purchaseHistory = new OffHeapPurchaseHistory(100, 3, Duration.ofHours(1));
+        AtomicInteger stagesAccepted = new AtomicInteger();
+        Executor holdOnly = task -> {
+            if (stagesAccepted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("Full");
+            }
+            executor.execute(task);
+        };
+        AsyncTicketService underTest = new AsyncTicketService(ticketPaymentService,
+                                                              new SeatHolds(seatReservationService),
+                                                              discountService,
+                                                              holdOnly,
+                                                              1,
+                                                              AsyncTicketService.StageTimeouts.of(TIMEOUT),
+                                                              ValidationPolicies.DEFAULT,
+                                                              purchaseHistory);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                                                    () -> underTest.purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS));
+        ExecutionException next = assertThrows(ExecutionException.class,
+                                               () -> underTest.purchaseTickets(TWO_ADULTS).get(5, TimeUnit.SECONDS));
+
+        assertThat(exception.getCause().getMessage(), is("Full"));
+        assertThat(next.getCause().getMessage(), is("Full"));
+        verify(seatReservationService, timeout(5000)).releaseSeat(ACCOUNT_ID, 2);
+        assertThat(purchaseHistory.ticketsInWindow(ACCOUNT_ID), is(0));
+        verify(ticketPaymentService, never()).makePayment(anyLong(), anyInt());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AsyncTicketService underTest(int maxConcurrentPurchases, AsyncTicketService.StageTimeouts stageTimeouts) {
+        return new AsyncTicketService(ticketPaymentService,
+                                      seatReservationService,
+                                      discountService,
+                                      executor,
+                                      maxConcurrentPurchases,
+                                      stageTimeouts);
+    }
+
+    private AsyncTicketService underTest(PurchaseHistory purchaseHistory) {
+        return new AsyncTicketService(ticketPaymentService,
+                                      new SeatHolds(seatReservationService),
+                                      discountService,
+                                      executor,
+                                      10,
+                                      AsyncTicketService.StageTimeouts.of(TIMEOUT),
+                                      ValidationPolicies.DEFAULT,
+                                      purchaseHistory);
+    }
+}
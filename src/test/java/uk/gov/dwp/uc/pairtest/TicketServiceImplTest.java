@@ -1,14 +1,30 @@
 package uk.gov.dwp.uc.pairtest;
 
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
 import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.history.PurchaseHistory;
+import uk.gov.dwp.uc.pairtest.idempotency.IdempotencyIndex;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.MetricsRegistry;
+import uk.gov.dwp.uc.pairtest.sales.SalesRecorder;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import thirdparty.discount.Discount;
 import thirdparty.discount.DiscountService;
@@ -16,8 +32,21 @@ import thirdparty.discount.exception.InvalidDiscountCodeException;
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS_FOR_ACCOUNT;
 
 @ExtendWith(MockitoExtension.class)
 public class TicketServiceImplTest {
@@ -39,29 +68,50 @@ public class TicketServiceImplTest {
     private SeatReservationService seatReservationService;
     @Mock
     private DiscountService discountService;
+    @Mock
+    private PurchaseJournal purchaseJournal;
+    @Mock
+    private IdempotencyIndex idempotencyIndex;
+    @Mock
+    private ValidationPolicies validationPolicies;
+    @Mock
+    private SalesRecorder salesRecorder;
+    @Mock
+    private PurchaseHistory purchaseHistory;
+    @Mock
+    private MetricsRegistry.Timer validationTimer;
     @InjectMocks
     private TicketServiceImpl underTest;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(validationPolicies.current()).thenReturn(ValidationPolicy.DEFAULT);
+    }
+
     @Test
     void purchaseTickets() {
         when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+        when(ticketPurchaseRequest.getDiscountCode()).thenReturn(DISCOUNT_CODE);
         when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
         when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE.orElse(null))).thenReturn(DISCOUNT);
         when(ticketPurchaseRequest.cost(DISCOUNT)).thenReturn(DISCOUNTED_COST);
 
-        underTest.purchaseTickets(ticketPurchaseRequest, DISCOUNT_CODE);
+        underTest.purchaseTickets(ticketPurchaseRequest);
 
         verify(seatReservationService).reserveSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
         verify(ticketPaymentService).makePayment(ACCOUNT_ID, DISCOUNTED_COST);
+        verify(salesRecorder).recordSale(ticketPurchaseRequest, DISCOUNTED_COST);
     }
 
     @Test
     void purchaseTickets_invalidDiscountCode() {
         when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+        when(ticketPurchaseRequest.getDiscountCode()).thenReturn(DISCOUNT_CODE);
         when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
         when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE.orElse(null))).thenThrow(new InvalidDiscountCodeException("Invalid"));
         when(ticketPurchaseRequest.cost()).thenReturn(COST);
 
-        underTest.purchaseTickets(ticketPurchaseRequest, DISCOUNT_CODE);
+        underTest.purchaseTickets(ticketPurchaseRequest);
 
         verify(seatReservationService).reserveSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
         verify(ticketPaymentService).makePayment(ACCOUNT_ID, COST);
@@ -70,13 +120,386 @@ public class TicketServiceImplTest {
     @Test
     void purchaseTickets_emptyDiscountCode() {
         when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+        when(ticketPurchaseRequest.getDiscountCode()).thenReturn(Optional.empty());
         when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
         when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenThrow(new InvalidDiscountCodeException("Invalid"));
         when(ticketPurchaseRequest.cost()).thenReturn(COST);
 
-        underTest.purchaseTickets(ticketPurchaseRequest, Optional.empty());
+        underTest.purchaseTickets(ticketPurchaseRequest);
 
         verify(seatReservationService).reserveSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
         verify(ticketPaymentService).makePayment(ACCOUNT_ID, COST);
     }
+
+    @Test
+    void purchaseTickets_timesValidationOnce() {
+        when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+        when(ticketPurchaseRequest.getDiscountCode()).thenReturn(Optional.empty());
+        when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+        when(ticketPurchaseRequest.cost(NO_DISCOUNT)).thenReturn(COST);
+
+        underTest.purchaseTickets(ticketPurchaseRequest);
+
+        verify(ticketPurchaseRequest).validateAgainst(ValidationPolicy.DEFAULT);
+        verify(validationTimer).record(anyLong());
+    }
+
+    @Test
+    void purchaseTickets_timesFailedValidation() {
+        doThrow(new InvalidPurchaseException("Invalid")).when(ticketPurchaseRequest).validateAgainst(ValidationPolicy.DEFAULT);
+
+        assertThrows(InvalidPurchaseException.class, () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+        verify(validationTimer).record(anyLong());
+    }
+
+    @Nested
+    class Journal {
+
+        private static final long PURCHASE_ID = 7L;
+
+        @Test
+        void purchaseTickets_journalsEachStage() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getDiscountCode()).thenReturn(DISCOUNT_CODE);
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE.orElse(null))).thenReturn(DISCOUNT);
+            when(ticketPurchaseRequest.cost(DISCOUNT)).thenReturn(DISCOUNTED_COST);
+            when(purchaseJournal.begin(ACCOUNT_ID, NUMBER_OF_SEATS)).thenReturn(PURCHASE_ID);
+
+            underTest.purchaseTickets(ticketPurchaseRequest);
+
+            InOrder inOrder = inOrder(purchaseJournal, seatReservationService, ticketPaymentService);
+            inOrder.verify(purchaseJournal).begin(ACCOUNT_ID, NUMBER_OF_SEATS);
+            inOrder.verify(seatReservationService).reserveSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
+            inOrder.verify(purchaseJournal).seatsReserved(PURCHASE_ID);
+            inOrder.verify(purchaseJournal).discountApplied(PURCHASE_ID, DISCOUNTED_COST);
+            inOrder.verify(ticketPaymentService).makePayment(ACCOUNT_ID, DISCOUNTED_COST);
+            inOrder.verify(purchaseJournal).paid(PURCHASE_ID);
+        }
+
+        @Test
+        void purchaseTickets_journalsFailedPayment() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getDiscountCode()).thenReturn(Optional.empty());
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+            when(ticketPurchaseRequest.cost(NO_DISCOUNT)).thenReturn(COST);
+            when(purchaseJournal.begin(ACCOUNT_ID, NUMBER_OF_SEATS)).thenReturn(PURCHASE_ID);
+            doThrow(new IllegalStateException("Declined")).when(ticketPaymentService).makePayment(ACCOUNT_ID, COST);
+
+            assertThrows(IllegalStateException.class, () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            verify(seatReservationService).releaseSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
+            verify(purchaseJournal).failed(PURCHASE_ID);
+            verify(purchaseJournal, never()).paid(anyLong());
+        }
+
+        @Test
+        void purchaseTickets_failedReleaseLeavesPurchaseIncomplete() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getDiscountCode()).thenReturn(Optional.empty());
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+            when(ticketPurchaseRequest.cost(NO_DISCOUNT)).thenReturn(COST);
+            when(purchaseJournal.begin(ACCOUNT_ID, NUMBER_OF_SEATS)).thenReturn(PURCHASE_ID);
+            doThrow(new IllegalStateException("Declined")).when(ticketPaymentService).makePayment(ACCOUNT_ID, COST);
+            IllegalStateException releaseFailure = new IllegalStateException("Unavailable");
+            doThrow(releaseFailure).when(seatReservationService).releaseSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                                                           () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            assertThat(exception.getMessage(), is("Declined"));
+            assertThat(exception.getSuppressed()[0], is(releaseFailure));
+            verify(purchaseJournal, never()).failed(anyLong());
+        }
+
+        @Test
+        void purchaseTickets_failedBeginReleasesKeyAndHistory() {
+            UUID idempotencyKey = UUID.fromString("2d8f5a61-4c3b-4e27-9f10-7a6b5c4d3e21");
+            long historyClaim = 42L;
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getIdempotencyKey()).thenReturn(Optional.of(idempotencyKey));
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            when(purchaseHistory.claim(ticketPurchaseRequest)).thenReturn(historyClaim);
+            when(purchaseJournal.begin(ACCOUNT_ID, NUMBER_OF_SEATS)).thenThrow(new IllegalStateException("Closed"));
+
+            assertThrows(IllegalStateException.class, () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            verify(idempotencyIndex).release(ACCOUNT_ID, idempotencyKey);
+            verify(purchaseHistory).release(ticketPurchaseRequest, historyClaim);
+            verify(seatReservationService, never()).reserveSeat(anyLong(), anyInt());
+            verify(purchaseJournal, never()).failed(anyLong());
+        }
+
+        @Test
+        void purchaseTickets_invalidRequestIsNotJournalled() {
+            doThrow(new InvalidPurchaseException("Invalid")).when(ticketPurchaseRequest).validateAgainst(ValidationPolicy.DEFAULT);
+
+            assertThrows(InvalidPurchaseException.class, () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            verify(purchaseJournal, never()).begin(anyLong(), anyInt());
+        }
+    }
+
+    @Nested
+    class Idempotency {
+
+        private static final UUID IDEMPOTENCY_KEY = UUID.fromString("6f1c1b52-3f7e-4b4e-9a0c-8c1f5d2e7a90");
+
+        @Test
+        void purchaseTickets_completesClaimedKey() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getIdempotencyKey()).thenReturn(Optional.of(IDEMPOTENCY_KEY));
+            when(ticketPurchaseRequest.getDiscountCode()).thenReturn(DISCOUNT_CODE);
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE.orElse(null))).thenReturn(DISCOUNT);
+            when(ticketPurchaseRequest.cost(DISCOUNT)).thenReturn(DISCOUNTED_COST);
+
+            underTest.purchaseTickets(ticketPurchaseRequest);
+
+            verify(ticketPaymentService).makePayment(ACCOUNT_ID, DISCOUNTED_COST);
+            verify(idempotencyIndex).complete(ACCOUNT_ID, IDEMPOTENCY_KEY, NUMBER_OF_SEATS, DISCOUNTED_COST);
+        }
+
+        @Test
+        void purchaseTickets_retryIsNotPurchasedAgain() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getIdempotencyKey()).thenReturn(Optional.of(IDEMPOTENCY_KEY));
+            when(idempotencyIndex.claim(ACCOUNT_ID, IDEMPOTENCY_KEY))
+                .thenReturn(PurchaseResult.success(ACCOUNT_ID, NUMBER_OF_SEATS, DISCOUNTED_COST));
+
+            underTest.purchaseTickets(ticketPurchaseRequest);
+
+            verify(seatReservationService, never()).reserveSeat(anyLong(), anyInt());
+            verify(ticketPaymentService, never()).makePayment(anyLong(), anyInt());
+        }
+
+        @Test
+        void purchaseTickets_failureReleasesKey() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getIdempotencyKey()).thenReturn(Optional.of(IDEMPOTENCY_KEY));
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            doThrow(new IllegalStateException("Sold out")).when(seatReservationService).reserveSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
+
+            assertThrows(IllegalStateException.class, () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            verify(idempotencyIndex).release(ACCOUNT_ID, IDEMPOTENCY_KEY);
+            verify(idempotencyIndex, never()).complete(anyLong(), any(), anyInt(), anyInt());
+            verify(salesRecorder, never()).recordSale(any(), anyInt());
+        }
+
+        @Test
+        void purchaseTickets_batchReturnsOriginalOutcomes() {
+            UUID inProgressKey = UUID.randomUUID();
+            UUID newKey = UUID.randomUUID();
+            PurchaseResult original = PurchaseResult.success(ACCOUNT_ID, 2, 36);
+            when(idempotencyIndex.claim(ACCOUNT_ID, IDEMPOTENCY_KEY)).thenReturn(original);
+            when(idempotencyIndex.claim(ACCOUNT_ID, inProgressKey)).thenThrow(new RejectedExecutionException("In progress"));
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(request(IDEMPOTENCY_KEY),
+                                                                             request(inProgressKey),
+                                                                             request(newKey)));
+
+            assertThat(results, contains(original,
+                                         PurchaseResult.failure(ACCOUNT_ID, "In progress"),
+                                         PurchaseResult.success(ACCOUNT_ID, 1, 20)));
+            verify(seatReservationService).reserveSeat(ACCOUNT_ID, 1);
+            verify(ticketPaymentService).makePayment(ACCOUNT_ID, 20);
+            verify(idempotencyIndex).complete(ACCOUNT_ID, newKey, 1, 20);
+        }
+
+        private TicketPurchaseRequest request(UUID idempotencyKey) {
+            return new TicketPurchaseRequest(ACCOUNT_ID,
+                                             new TicketRequest[]{new TicketRequest(TicketRequest.Type.ADULT, 1)},
+                                             null,
+                                             idempotencyKey);
+        }
+    }
+
+    @Nested
+    class History {
+
+        private static final UUID IDEMPOTENCY_KEY = UUID.fromString("0b3e4c1a-7d52-4f0e-8a61-2c9d5e7f1b34");
+        private static final long HISTORY_CLAIM = 42L;
+
+        @Test
+        void purchaseTickets_accountOverLimitIsRejected() {
+            InvalidPurchaseException overLimit = new InvalidPurchaseException(TOO_MANY_TICKETS_FOR_ACCOUNT, "Over limit");
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getIdempotencyKey()).thenReturn(Optional.of(IDEMPOTENCY_KEY));
+            when(purchaseHistory.claim(ticketPurchaseRequest)).thenReturn(PurchaseHistory.REJECTED);
+            when(ticketPurchaseRequest.invalidPurchase(TOO_MANY_TICKETS_FOR_ACCOUNT)).thenReturn(overLimit);
+
+            InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                                                              () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            assertThat(exception, is(overLimit));
+            verify(idempotencyIndex).release(ACCOUNT_ID, IDEMPOTENCY_KEY);
+            verify(seatReservationService, never()).reserveSeat(anyLong(), anyInt());
+            verify(purchaseHistory, never()).release(any(), anyLong());
+        }
+
+        @Test
+        void purchaseTickets_retryIsNotCountedAgain() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(ticketPurchaseRequest.getIdempotencyKey()).thenReturn(Optional.of(IDEMPOTENCY_KEY));
+            when(idempotencyIndex.claim(ACCOUNT_ID, IDEMPOTENCY_KEY))
+                .thenReturn(PurchaseResult.success(ACCOUNT_ID, NUMBER_OF_SEATS, DISCOUNTED_COST));
+
+            underTest.purchaseTickets(ticketPurchaseRequest);
+
+            verify(purchaseHistory, never()).claim(any());
+        }
+
+        @Test
+        void purchaseTickets_failureReleasesHistory() {
+            when(ticketPurchaseRequest.getAccountId()).thenReturn(ACCOUNT_ID);
+            when(purchaseHistory.claim(ticketPurchaseRequest)).thenReturn(HISTORY_CLAIM);
+            when(ticketPurchaseRequest.numberOfSeats()).thenReturn(NUMBER_OF_SEATS);
+            doThrow(new IllegalStateException("Sold out")).when(seatReservationService).reserveSeat(ACCOUNT_ID, NUMBER_OF_SEATS);
+
+            assertThrows(IllegalStateException.class, () -> underTest.purchaseTickets(ticketPurchaseRequest));
+
+            InOrder inOrder = inOrder(purchaseHistory);
+            inOrder.verify(purchaseHistory).claim(ticketPurchaseRequest);
+            inOrder.verify(purchaseHistory).release(ticketPurchaseRequest, HISTORY_CLAIM);
+        }
+
+        @Test
+        void purchaseTickets_batchAccountOverLimitFailsIndividually() {
+            TicketPurchaseRequest allowed = request(1);
+            TicketPurchaseRequest overLimit = request(2);
+            when(purchaseHistory.claim(allowed)).thenReturn(HISTORY_CLAIM);
+            when(purchaseHistory.claim(overLimit)).thenReturn(PurchaseHistory.REJECTED);
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(allowed, overLimit));
+
+            assertThat(results, contains(PurchaseResult.success(ACCOUNT_ID, 1, 20),
+                                         PurchaseResult.invalid(ACCOUNT_ID,
+                                                                TOO_MANY_TICKETS_FOR_ACCOUNT,
+                                                                overLimit.describe(TOO_MANY_TICKETS_FOR_ACCOUNT))));
+            verify(seatReservationService).reserveSeat(ACCOUNT_ID, 1);
+        }
+
+        @Test
+        void purchaseTickets_batchFailureReleasesHistory() {
+            TicketPurchaseRequest request = request(1);
+            when(purchaseHistory.claim(request)).thenReturn(HISTORY_CLAIM);
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+            doThrow(new IllegalStateException("Declined")).when(ticketPaymentService).makePayment(ACCOUNT_ID, 20);
+
+            underTest.purchaseTickets(List.of(request));
+
+            verify(purchaseHistory).release(request, HISTORY_CLAIM);
+        }
+
+        private TicketPurchaseRequest request(int numberOfAdults) {
+            return new TicketPurchaseRequest(ACCOUNT_ID,
+                                             new TicketRequest[]{new TicketRequest(TicketRequest.Type.ADULT, numberOfAdults)});
+        }
+    }
+
+    @Nested
+    class BatchPurchase {
+
+        private static final long OTHER_ACCOUNT_ID = 2L;
+        private static final String DISCOUNT_CODE_VALUE = "DISCOUNT";
+
+        @Test
+        void purchaseTickets_coalescesCallsPerAccount() {
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE_VALUE)).thenReturn(DISCOUNT);
+            when(discountService.getDiscountPercentage(OTHER_ACCOUNT_ID, null)).thenThrow(new InvalidDiscountCodeException("Invalid"));
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(
+                request(ACCOUNT_ID, 1, 1, DISCOUNT_CODE_VALUE),
+                request(OTHER_ACCOUNT_ID, 2, 0, null),
+                request(ACCOUNT_ID, 2, 0, DISCOUNT_CODE_VALUE)));
+
+            assertThat(results, contains(PurchaseResult.success(ACCOUNT_ID, 2, 24),
+                                         PurchaseResult.success(OTHER_ACCOUNT_ID, 2, 40),
+                                         PurchaseResult.success(ACCOUNT_ID, 2, 32)));
+            verify(discountService, times(1)).getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE_VALUE);
+            verify(seatReservationService).reserveSeat(ACCOUNT_ID, 4);
+            verify(seatReservationService).reserveSeat(OTHER_ACCOUNT_ID, 2);
+            verify(ticketPaymentService).makePayment(ACCOUNT_ID, 56);
+            verify(ticketPaymentService).makePayment(OTHER_ACCOUNT_ID, 40);
+            verify(salesRecorder, times(3)).recordSale(any(), anyInt());
+        }
+
+        @Test
+        void purchaseTickets_validatesAgainstCurrentPolicy() {
+            when(validationPolicies.current()).thenReturn(new ValidationPolicy(20, 0, 2));
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(request(ACCOUNT_ID, 0, 2, null)));
+
+            assertThat(results, contains(PurchaseResult.success(ACCOUNT_ID, 2, 20)));
+        }
+
+        @Test
+        void purchaseTickets_invalidRequestFailsIndividually() {
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(
+                request(ACCOUNT_ID, 0, 1, null),
+                request(ACCOUNT_ID, 1, 0, null)));
+
+            assertThat(results.get(0).isSuccessful(), is(false));
+            assertThat(results.get(1), is(PurchaseResult.success(ACCOUNT_ID, 1, 20)));
+            verify(seatReservationService).reserveSeat(ACCOUNT_ID, 1);
+            verify(ticketPaymentService).makePayment(ACCOUNT_ID, 20);
+            verify(validationTimer, times(2)).record(anyLong());
+        }
+
+        @Test
+        void purchaseTickets_downstreamFailureFailsOnlyThatAccount() {
+            when(discountService.getDiscountPercentage(anyLong(), any())).thenReturn(NO_DISCOUNT);
+            doThrow(new IllegalStateException("Sold out")).when(seatReservationService).reserveSeat(ACCOUNT_ID, 1);
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(
+                request(ACCOUNT_ID, 1, 0, null),
+                request(OTHER_ACCOUNT_ID, 1, 0, null)));
+
+            assertThat(results, contains(PurchaseResult.failure(ACCOUNT_ID, "Sold out"),
+                                         PurchaseResult.success(OTHER_ACCOUNT_ID, 1, 20)));
+            verify(ticketPaymentService, never()).makePayment(ACCOUNT_ID, 20);
+            verify(ticketPaymentService).makePayment(OTHER_ACCOUNT_ID, 20);
+        }
+
+        @Test
+        void purchaseTickets_failedPaymentReleasesSeats() {
+            when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenReturn(NO_DISCOUNT);
+            doThrow(new IllegalStateException("Declined")).when(ticketPaymentService).makePayment(ACCOUNT_ID, 60);
+
+            List<PurchaseResult> results = underTest.purchaseTickets(List.of(
+                request(ACCOUNT_ID, 1, 0, null),
+                request(ACCOUNT_ID, 2, 0, null)));
+
+            assertThat(results, contains(PurchaseResult.failure(ACCOUNT_ID, "Declined"),
+                                         PurchaseResult.failure(ACCOUNT_ID, "Declined")));
+            verify(seatReservationService).releaseSeat(ACCOUNT_ID, 3);
+            verify(salesRecorder, never()).recordSale(any(), anyInt());
+        }
+
+        @Test
+        void purchaseTickets_emptyBatch() {
+            assertThat(underTest.purchaseTickets(List.of()).isEmpty(), is(true));
+
+            verify(seatReservationService, never()).reserveSeat(anyLong(), anyInt());
+        }
+
+        private TicketPurchaseRequest request(long accountId, int numberOfAdults, int numberOfChildren, String discountCode) {
+            return new TicketPurchaseRequest(accountId,
+                                             new TicketRequest[]{
+                                                 new TicketRequest(TicketRequest.Type.ADULT, numberOfAdults),
+                                                 new TicketRequest(TicketRequest.Type.CHILD, numberOfChildren)
+                                             },
+                                             discountCode);
+        }
+    }
 }
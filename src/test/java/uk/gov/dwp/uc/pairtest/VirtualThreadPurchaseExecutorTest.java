@@ -0,0 +1,107 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.resilience.Bulkhead;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+
+public class VirtualThreadPurchaseExecutorTest {
+
+    private static final int PURCHASES = 2_000;
+    private static final int PAYMENT_LIMIT = 16;
+    private static final TicketPurchaseRequest ONE_ADULT = new TicketPurchaseRequest(
+        1L, new TicketRequest[]{new TicketRequest(ADULT, 1)});
+
+    private final AtomicInteger paymentsInFlight = new AtomicInteger();
+    private final AtomicInteger maxPaymentsInFlight = new AtomicInteger();
+    private final LongAdder seatsReserved = new LongAdder();
+
+    private final TicketPaymentService slowPaymentService = (accountId, totalAmountToPay) -> {
+        maxPaymentsInFlight.accumulateAndGet(paymentsInFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            paymentsInFlight.decrementAndGet();
+        }
+    };
+    private final SeatReservationService seatReservationService = new SeatReservationService() {
+        @Override
+        public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+            seatsReserved.add(totalSeatsToAllocate);
+        }
+
+        @Override
+        public void releaseSeat(long accountId, int totalSeatsToRelease) {
+            seatsReserved.add(-totalSeatsToRelease);
+        }
+    };
+    private final DiscountService discountService = (accountId, discountCode) -> new Discount(0);
+
+    @Test
+    void purchaseTickets_queuesCallsBeyondTheBulkheadLimit() throws Exception {
+        List<CompletableFuture<Void>> purchases = new ArrayList<>();
+        try (VirtualThreadPurchaseExecutor underTest = underTest(Bulkhead.OverflowPolicy.QUEUE)) {
+            for (int i = 0; i < PURCHASES; i++) {
+                purchases.add(underTest.purchaseTickets(ONE_ADULT));
+            }
+            CompletableFuture.allOf(purchases.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        }
+
+        assertThat(seatsReserved.intValue(), is(PURCHASES));
+        assertThat(maxPaymentsInFlight.get(), lessThanOrEqualTo(PAYMENT_LIMIT));
+    }
+
+    @Test
+    void purchaseTickets_rejectsCallsBeyondTheBulkheadLimit() {
+        List<CompletableFuture<Void>> purchases = new ArrayList<>();
+        try (VirtualThreadPurchaseExecutor underTest = underTest(Bulkhead.OverflowPolicy.REJECT)) {
+            for (int i = 0; i < PURCHASES; i++) {
+                purchases.add(underTest.purchaseTickets(ONE_ADULT));
+            }
+        }
+
+        long rejected = purchases.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        assertThat(rejected > 0, is(true));
+        ExecutionException exception = assertThrows(ExecutionException.class, purchases.stream()
+            .filter(CompletableFuture::isCompletedExceptionally)
+            .findFirst()
+            .orElseThrow()::get);
+        assertThat(exception.getCause(), instanceOf(RejectedExecutionException.class));
+        assertThat(maxPaymentsInFlight.get(), lessThanOrEqualTo(PAYMENT_LIMIT));
+    }
+
+    private VirtualThreadPurchaseExecutor underTest(Bulkhead.OverflowPolicy overflowPolicy) {
+        Duration maxQueueWait = Duration.ofSeconds(30);
+        return new VirtualThreadPurchaseExecutor(slowPaymentService,
+                                                 seatReservationService,
+                                                 discountService,
+                                                 new Bulkhead("payment", PAYMENT_LIMIT, overflowPolicy, maxQueueWait),
+                                                 new Bulkhead("seats", 64, overflowPolicy, maxQueueWait),
+                                                 new Bulkhead("discount", 64, overflowPolicy, maxQueueWait));
+    }
+}
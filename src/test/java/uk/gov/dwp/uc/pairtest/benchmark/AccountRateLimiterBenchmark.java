@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.ratelimit.AccountRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Taking tokens for random accounts out of millions already tracked, from one thread and from several at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountRateLimiterBenchmark {
+
+    @Param({"1000000", "5000000"})
+    private int accounts;
+
+    private AccountRateLimiter rateLimiter;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new AccountRateLimiter(10, Duration.ofMillis(1));
+        for (long accountId = 1; accountId <= accounts; accountId++) {
+            rateLimiter.tryAcquire(accountId);
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        return rateLimiter.tryAcquire(ThreadLocalRandom.current().nextLong(1, accounts + 1L));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean tryAcquireConcurrently() {
+        return rateLimiter.tryAcquire(ThreadLocalRandom.current().nextLong(1, accounts + 1L));
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.dwp.uc.pairtest.codec.TicketPurchaseRequestCodec;
+import uk.gov.dwp.uc.pairtest.codec.TicketPurchaseRequestFlyweight;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating and pricing encoded purchases by decoding each into a {@link TicketPurchaseRequest} against reading
+ * them in place through a {@link TicketPurchaseRequestFlyweight}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+
+    @Param({"0", "0.1", "0.5"})
+    private double errorRate;
+
+    @Param({"false", "true"})
+    private boolean direct;
+
+    private final TicketPurchaseRequestFlyweight flyweight = new TicketPurchaseRequestFlyweight();
+    private ByteBuffer buffer;
+    private int[] offsets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        TicketPurchaseRequest[] pool = PurchaseRequests.pool(POOL_SIZE, 3, errorRate);
+        buffer = direct ? ByteBuffer.allocateDirect(POOL_SIZE * 32) : ByteBuffer.allocate(POOL_SIZE * 32);
+        offsets = new int[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            offsets[i] = buffer.position();
+            TicketPurchaseRequestCodec.encode(pool[i], buffer);
+        }
+    }
+
+    @Benchmark
+    public void decodeValidateAndCost(Blackhole blackhole) {
+        TicketPurchaseRequest ticketPurchaseRequest = TicketPurchaseRequestCodec.decode(buffer.position(nextOffset()));
+        try {
+            ticketPurchaseRequest.validate();
+            blackhole.consume(ticketPurchaseRequest.numberOfSeats());
+            blackhole.consume(ticketPurchaseRequest.cost(0.1));
+        } catch (InvalidPurchaseException exception) {
+            blackhole.consume(exception);
+        }
+    }
+
+    @Benchmark
+    public void flyweightValidateAndCost(Blackhole blackhole) {
+        flyweight.wrap(buffer, nextOffset());
+        try {
+            flyweight.validateAgainst(ValidationPolicy.DEFAULT);
+            blackhole.consume(flyweight.numberOfSeats());
+            blackhole.consume(flyweight.cost(0.1));
+        } catch (InvalidPurchaseException exception) {
+            blackhole.consume(exception);
+        }
+    }
+
+    private int nextOffset() {
+        next = (next + 1) & (POOL_SIZE - 1);
+        return offsets[next];
+    }
+}
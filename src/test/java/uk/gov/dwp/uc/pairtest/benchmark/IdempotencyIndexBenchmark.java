@@ -0,0 +1,68 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.idempotency.OffHeapIdempotencyIndex;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claiming and releasing keys and replaying a completed one, with the index filled to its maximum. Larger indexes need
+ * {@code -jvmArgs -XX:MaxDirectMemorySize=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyIndexBenchmark {
+
+    private static final long ACCOUNT_ID = 1L;
+
+    @Param({"1000000", "10000000"})
+    private int maximumKeys;
+
+    private OffHeapIdempotencyIndex index;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        index = new OffHeapIdempotencyIndex(maximumKeys, Duration.ofDays(1));
+        for (int i = 0; i < maximumKeys / 2; i++) {
+            UUID key = new UUID(i, ~i);
+            index.claim(ACCOUNT_ID, key);
+            index.complete(ACCOUNT_ID, key, 1, 20);
+        }
+    }
+
+    /**
+     * Cycles through a quarter of the index's keys, so later passes claim keys released by earlier ones.
+     */
+    @Benchmark
+    public void claimAndRelease() {
+        long i = next++ % (maximumKeys / 4);
+        UUID key = new UUID(~i, i);
+        index.claim(ACCOUNT_ID, key);
+        index.release(ACCOUNT_ID, key);
+    }
+
+    @Benchmark
+    public PurchaseResult replay() {
+        long i = next++ % (maximumKeys / 2);
+        return index.claim(ACCOUNT_ID, new UUID(i, ~i));
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * In-memory stand-ins for the thirdparty services that only count what they are asked to do.
+ */
+final class InMemoryThirdPartyServices implements TicketPaymentService, SeatReservationService, DiscountService {
+
+    private static final Discount DISCOUNT = new Discount(0.1);
+
+    private final LongAdder seatsReserved = new LongAdder();
+    private final LongAdder amountPaid = new LongAdder();
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        amountPaid.add(totalAmountToPay);
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        seatsReserved.add(totalSeatsToAllocate);
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        seatsReserved.add(-totalSeatsToRelease);
+    }
+
+    @Override
+    public Discount getDiscountPercentage(long accountId, String discountCode) throws InvalidDiscountCodeException {
+        if (PurchaseRequests.DISCOUNT_CODE.equals(discountCode)) {
+            return DISCOUNT;
+        }
+        throw new InvalidDiscountCodeException("Invalid discount code.");
+    }
+}
@@ -0,0 +1,76 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.partition.PartitionedTicketService;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases from eight threads through partitions with their own in-memory thirdparty services. Throughput should
+ * grow with the partition count up to the cores available to run the partition threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class PartitionedTicketServiceBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    private int partitions;
+
+    private PartitionedTicketService ticketService;
+    private TicketPurchaseRequest[] pool;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        ticketService = new PartitionedTicketService(partitions, QUEUE_CAPACITY, partition -> {
+            InMemoryThirdPartyServices services = new InMemoryThirdPartyServices();
+            return new TicketServiceImpl(services, services, services);
+        });
+        pool = PurchaseRequests.pool(POOL_SIZE, 3, 0);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        ticketService.close();
+    }
+
+    @Benchmark
+    public boolean purchaseTickets(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        try {
+            ticketService.purchaseTickets(pool[cursor.next]);
+            return true;
+        } catch (InvalidPurchaseException | RejectedExecutionException exception) {
+            return false;
+        }
+    }
+}
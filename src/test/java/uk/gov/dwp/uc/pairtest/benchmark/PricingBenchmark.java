@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.pricing.PricingRules;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+/**
+ * Pricing a purchase from the fixed ticket type costs against the compiled rules engine, with a thousand screening
+ * prices, time-of-day bands and group discounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final LocalTime START_TIME = LocalTime.of(14, 30);
+
+    private TicketPurchaseRequest request;
+    private int[] ticketCounts;
+    private PricingEngine standard;
+    private PricingEngine rules;
+    private long screeningId;
+
+    @Setup
+    public void setUp() {
+        request = new TicketPurchaseRequest(1L, new TicketRequest[]{
+            new TicketRequest(ADULT, 4), new TicketRequest(CHILD, 3), new TicketRequest(INFANT, 1)});
+        ticketCounts = new int[TicketRequest.Type.values().length];
+        for (TicketRequest.Type type : TicketRequest.Type.values()) {
+            ticketCounts[type.ordinal()] = request.numberOfTicketsForType(type);
+        }
+
+        List<PricingRules.ScreeningPrice> screeningPrices = new ArrayList<>();
+        for (long screening = 1; screening <= 1_000; screening++) {
+            screeningPrices.add(new PricingRules.ScreeningPrice(screening, ADULT, 1000 + (int) screening));
+        }
+        standard = new PricingEngine(PricingRules.standard());
+        rules = new PricingEngine(new PricingRules(
+            Map.of(ADULT, 1250, CHILD, 650, INFANT, 0),
+            screeningPrices,
+            List.of(new PricingRules.TimeOfDayAdjustment(LocalTime.of(10, 0), LocalTime.of(17, 0), -2500),
+                    new PricingRules.TimeOfDayAdjustment(LocalTime.of(22, 0), LocalTime.of(2, 0), 1000)),
+            List.of(new PricingRules.GroupDiscount(5, 1000), new PricingRules.GroupDiscount(10, 2000))));
+    }
+
+    /**
+     * A request tallies its cost on construction, so this includes building it.
+     */
+    @Benchmark
+    public int ticketTypeCost() {
+        return new TicketPurchaseRequest(request.getAccountId(), new TicketRequest[]{
+            new TicketRequest(ADULT, 4), new TicketRequest(CHILD, 3), new TicketRequest(INFANT, 1)}).cost();
+    }
+
+    @Benchmark
+    public int standardRules() {
+        return standard.price(screeningId, START_TIME, ticketCounts);
+    }
+
+    @Benchmark
+    public int screeningRules() {
+        screeningId = screeningId % 1_000 + 1;
+        return rules.price(screeningId, START_TIME, ticketCounts);
+    }
+}
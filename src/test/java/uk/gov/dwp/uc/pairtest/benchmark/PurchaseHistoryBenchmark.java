@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.history.OffHeapPurchaseHistory;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+
+/**
+ * Looking up and claiming against the rolling totals of random accounts, with every account having bought tickets.
+ * Larger histories need {@code -jvmArgs -XX:MaxDirectMemorySize=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseHistoryBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+
+    @Param({"1000000", "10000000"})
+    private int accounts;
+
+    private OffHeapPurchaseHistory history;
+    private final long[] accountIds = new long[POOL_SIZE];
+    private final TicketPurchaseRequest[] requests = new TicketPurchaseRequest[POOL_SIZE];
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        history = new OffHeapPurchaseHistory(accounts, 100, Duration.ofDays(1));
+        for (long accountId = 1; accountId <= accounts; accountId++) {
+            history.claim(new TicketPurchaseRequest(accountId, new TicketRequest[]{new TicketRequest(ADULT, 1)}));
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            accountIds[i] = random.nextLong(1, accounts + 1L);
+            requests[i] = new TicketPurchaseRequest(accountIds[i], new TicketRequest[]{new TicketRequest(ADULT, 2)});
+        }
+    }
+
+    @Benchmark
+    public int ticketsInWindow(Cursor cursor) {
+        int i = cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        return history.ticketsInWindow(accountIds[i]);
+    }
+
+    @Benchmark
+    public long claimAndRelease(Cursor cursor) {
+        int i = cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        long claim = history.claim(requests[i]);
+        history.release(requests[i], claim);
+        return claim;
+    }
+}
@@ -0,0 +1,49 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.SplittableRandom;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+/**
+ * Builds pools of purchase requests for the benchmarks so request construction stays out of the measured code.
+ */
+final class PurchaseRequests {
+
+    static final String DISCOUNT_CODE = "DISCOUNT";
+    private static final TicketRequest.Type[] TYPES = {ADULT, CHILD, INFANT};
+
+    private PurchaseRequests() {
+    }
+
+    /**
+     * @param size          number of requests in the pool
+     * @param requestSize   number of {@link TicketRequest} entries in each purchase, one ticket each
+     * @param errorRate     fraction of purchases that fail validation
+     */
+    static TicketPurchaseRequest[] pool(int size, int requestSize, double errorRate) {
+        SplittableRandom random = new SplittableRandom(42);
+        TicketPurchaseRequest[] pool = new TicketPurchaseRequest[size];
+        for (int i = 0; i < size; i++) {
+            TicketRequest[] ticketRequests = ticketRequests(requestSize, random.nextDouble() < errorRate);
+            long accountId = 1 + random.nextInt(1_000);
+            pool[i] = new TicketPurchaseRequest(accountId, ticketRequests, random.nextBoolean() ? DISCOUNT_CODE : null);
+        }
+        return pool;
+    }
+
+    /**
+     * Cycles adult, child and infant tickets, or only child tickets when the purchase should be invalid.
+     */
+    static TicketRequest[] ticketRequests(int requestSize, boolean invalid) {
+        TicketRequest[] ticketRequests = new TicketRequest[requestSize];
+        for (int i = 0; i < requestSize; i++) {
+            ticketRequests[i] = new TicketRequest(invalid ? CHILD : TYPES[i % TYPES.length], 1);
+        }
+        return ticketRequests;
+    }
+}
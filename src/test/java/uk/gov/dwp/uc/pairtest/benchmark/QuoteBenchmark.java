@@ -0,0 +1,79 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.pricing.QuoteService;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.discount.Discount;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+/**
+ * Quoting a discounted price for a random ticket mix, from the quote table and by building a request to validate
+ * and cost. Run with {@code -prof gc} to see the table allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+    private static final Discount DISCOUNT = new Discount(0.1);
+
+    private final QuoteService quoteService = new QuoteService();
+    private final int[] adults = new int[POOL_SIZE];
+    private final int[] children = new int[POOL_SIZE];
+    private final int[] infants = new int[POOL_SIZE];
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            adults[i] = random.nextInt(8);
+            children[i] = random.nextInt(8);
+            infants[i] = random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    public int quoteTable(Cursor cursor) {
+        int i = cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        return quoteService.price(adults[i], children[i], infants[i], DISCOUNT);
+    }
+
+    @Benchmark
+    public int purchaseRequest(Cursor cursor) {
+        int i = cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        TicketPurchaseRequest request = new TicketPurchaseRequest(1L, new TicketRequest[]{
+            new TicketRequest(ADULT, adults[i]),
+            new TicketRequest(CHILD, children[i]),
+            new TicketRequest(INFANT, infants[i])});
+        return Objects.isNull(request.check(ValidationPolicy.DEFAULT)) ? request.cost(DISCOUNT) : -1;
+    }
+}
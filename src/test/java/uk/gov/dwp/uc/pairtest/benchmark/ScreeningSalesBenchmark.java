@@ -0,0 +1,62 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.sales.ScreeningSales;
+import uk.gov.dwp.uc.pairtest.sales.ScreeningSalesSnapshot;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording sales from several threads while a dashboard polls snapshots of the same screening, to show polling
+ * does not slow the purchase path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreeningSalesBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+
+    private final ScreeningSales screeningSales = new ScreeningSales(1L);
+    private final TicketPurchaseRequest[] requests = PurchaseRequests.pool(POOL_SIZE, 4, 0);
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Benchmark
+    public void recordSale(Cursor cursor) {
+        int i = cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        screeningSales.recordSale(requests[i], requests[i].cost());
+    }
+
+    @Benchmark
+    @Group("polled")
+    @GroupThreads(3)
+    public void polledRecordSale(Cursor cursor) {
+        recordSale(cursor);
+    }
+
+    @Benchmark
+    @Group("polled")
+    @GroupThreads(1)
+    public ScreeningSalesSnapshot polledSnapshot() {
+        return screeningSales.snapshot();
+    }
+}
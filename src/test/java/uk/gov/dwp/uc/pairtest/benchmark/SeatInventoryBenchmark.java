@@ -0,0 +1,73 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.exception.SeatsUnavailableException;
+import uk.gov.dwp.uc.pairtest.seatbooking.ScreeningSeatInventory;
+import uk.gov.dwp.uc.pairtest.seatbooking.SeatHolds;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking a sold-out show, booking-then-refunding a show with seats left, and holding seats that are confirmed then
+ * released. Vary the thread count with {@code -t} to check how each scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatInventoryBenchmark {
+
+    private ScreeningSeatInventory soldOut;
+    private ScreeningSeatInventory available;
+    private SeatHolds seatHolds;
+
+    @Setup
+    public void setUp() {
+        soldOut = new ScreeningSeatInventory(500);
+        soldOut.reserveSeat(1L, 500);
+        available = new ScreeningSeatInventory(1_000_000);
+        seatHolds = new SeatHolds(available, Duration.ofMinutes(10), Duration.ofMillis(10));
+    }
+
+    @TearDown
+    public void tearDown() {
+        seatHolds.close();
+    }
+
+    @Benchmark
+    public boolean reserveSoldOut() {
+        try {
+            soldOut.reserveSeat(2L, 2);
+            return true;
+        } catch (SeatsUnavailableException exception) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public void reserveAndRelease() {
+        available.reserveSeat(2L, 2);
+        available.releaseSeat(2L, 2);
+    }
+
+    @Benchmark
+    public boolean holdConfirmAndRelease() {
+        SeatHolds.Hold hold = seatHolds.hold(2L, 2);
+        hold.confirm();
+        return hold.release();
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.seatbooking.SeatMap;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seating a group in a 500 seat auditorium, 20 rows of 25, that is already filled to {@code occupancy} by single
+ * seats taken at random, against a seat-by-seat search of the same house. Each operation seats the group and frees
+ * it again so the house stays as full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatMapBenchmark {
+
+    private static final int ROWS = 20;
+    private static final int SEATS_PER_ROW = 25;
+    private static final long ACCOUNT_ID = 1L;
+
+    @Param({"0.5", "0.9", "0.97"})
+    private double occupancy;
+
+    @Param({"2", "6"})
+    private int groupSize;
+
+    private SeatMap seatMap;
+    private boolean[][] taken;
+
+    @Setup
+    public void setUp() {
+        seatMap = new SeatMap(ROWS, SEATS_PER_ROW);
+        taken = new boolean[ROWS][SEATS_PER_ROW];
+        SplittableRandom random = new SplittableRandom(42);
+        int toTake = (int) (ROWS * SEATS_PER_ROW * occupancy);
+        while (toTake > 0) {
+            int row = random.nextInt(ROWS);
+            int seat = random.nextInt(SEATS_PER_ROW);
+            if (!taken[row][seat]) {
+                taken[row][seat] = true;
+                toTake--;
+            }
+        }
+
+        // Seat everyone a seat at a time, then free the seats that should be free.
+        long[][] accountAt = new long[ROWS][SEATS_PER_ROW];
+        for (long accountId = 2; accountId < 2 + ROWS * SEATS_PER_ROW; accountId++) {
+            SeatMap.SeatBlock block = seatMap.allocate(accountId, 1).get(0);
+            accountAt[block.row()][block.firstSeat()] = accountId;
+        }
+        for (int row = 0; row < ROWS; row++) {
+            for (int seat = 0; seat < SEATS_PER_ROW; seat++) {
+                if (!taken[row][seat]) {
+                    seatMap.releaseSeat(accountAt[row][seat], 1);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int seatMap() {
+        int blocks = seatMap.allocate(ACCOUNT_ID, groupSize).size();
+        seatMap.releaseSeat(ACCOUNT_ID, groupSize);
+        return blocks;
+    }
+
+    /**
+     * Scans every seat of every row, middle row outwards, for the free run nearest the row centre, then takes and
+     * frees it. Does not split groups, so it finds nothing for large groups in a nearly full house.
+     */
+    @Benchmark
+    public int seatBySeat() {
+        int bestRow = -1;
+        int bestSeat = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int offset = 0; offset < ROWS && bestRow < 0; offset++) {
+            int row = ROWS / 2 + (offset % 2 == 0 ? offset / 2 : -(offset / 2 + 1));
+            if (row < 0 || row >= ROWS) {
+                continue;
+            }
+            int run = 0;
+            for (int seat = 0; seat < SEATS_PER_ROW; seat++) {
+                run = taken[row][seat] ? 0 : run + 1;
+                int start = seat - groupSize + 1;
+                int distance = Math.abs(start - (SEATS_PER_ROW - groupSize) / 2);
+                if (run >= groupSize && distance < bestDistance) {
+                    bestRow = row;
+                    bestSeat = start;
+                    bestDistance = distance;
+                }
+            }
+        }
+        if (bestRow < 0) {
+            return -1;
+        }
+        for (int seat = bestSeat; seat < bestSeat + groupSize; seat++) {
+            taken[bestRow][seat] = true;
+        }
+        for (int seat = bestSeat; seat < bestSeat + groupSize; seat++) {
+            taken[bestRow][seat] = false;
+        }
+        return bestRow * SEATS_PER_ROW + bestSeat;
+    }
+}
@@ -0,0 +1,86 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketPurchaseRequestBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+
+    @Param({"1", "3", "20"})
+    private int requestSize;
+
+    @Param({"0", "0.1", "0.5"})
+    private double errorRate;
+
+    private TicketPurchaseRequest[] pool;
+    private TicketRequest[] ticketRequests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pool = PurchaseRequests.pool(POOL_SIZE, requestSize, errorRate);
+        ticketRequests = PurchaseRequests.ticketRequests(requestSize, false);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        try {
+            nextRequest().validate();
+            return true;
+        } catch (InvalidPurchaseException exception) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public InvalidPurchaseException.Reason check() {
+        return nextRequest().check(ValidationPolicy.DEFAULT);
+    }
+
+    @Benchmark
+    public int cost() {
+        return nextRequest().cost(0.1);
+    }
+
+    @Benchmark
+    public int numberOfSeats() {
+        return nextRequest().numberOfSeats();
+    }
+
+    @Benchmark
+    public void constructValidateSeatsAndCost(Blackhole blackhole) {
+        TicketPurchaseRequest ticketPurchaseRequest = new TicketPurchaseRequest(1L, ticketRequests, null);
+        ticketPurchaseRequest.validate();
+        blackhole.consume(ticketPurchaseRequest.numberOfSeats());
+        blackhole.consume(ticketPurchaseRequest.cost(0.1));
+    }
+
+    private TicketPurchaseRequest nextRequest() {
+        next = (next + 1) & (POOL_SIZE - 1);
+        return pool[next];
+    }
+}
@@ -0,0 +1,66 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end purchase against in-memory thirdparty services. Vary the thread count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketServiceBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+
+    @Param({"1", "3", "20"})
+    private int requestSize;
+
+    @Param({"0", "0.1", "0.5"})
+    private double errorRate;
+
+    private TicketService ticketService;
+    private TicketPurchaseRequest[] pool;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        InMemoryThirdPartyServices services = new InMemoryThirdPartyServices();
+        ticketService = new TicketServiceImpl(services, services, services);
+        pool = PurchaseRequests.pool(POOL_SIZE, requestSize, errorRate);
+    }
+
+    @Benchmark
+    public boolean purchaseTickets(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (POOL_SIZE - 1);
+        try {
+            ticketService.purchaseTickets(pool[cursor.next]);
+            return true;
+        } catch (InvalidPurchaseException exception) {
+            return false;
+        }
+    }
+}
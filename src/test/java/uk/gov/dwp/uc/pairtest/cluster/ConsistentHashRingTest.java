@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.cluster.ConsistentHashRing.EMPTY_RING_ERROR;
+import static uk.gov.dwp.uc.pairtest.cluster.ConsistentHashRing.INVALID_VIRTUAL_NODES_ERROR;
+
+public class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final int SCREENINGS = 30_000;
+
+    private final ConsistentHashRing underTest = new ConsistentHashRing(VIRTUAL_NODES)
+        .withNode("node-a")
+        .withNode("node-b")
+        .withNode("node-c");
+
+    @Test
+    void ownerOf_spreadsScreeningsEvenly() {
+        Map<String, Integer> screeningsByNode = new HashMap<>();
+        for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            screeningsByNode.merge(underTest.ownerOf(screeningId), 1, Integer::sum);
+        }
+
+        assertThat(screeningsByNode.size(), is(3));
+        screeningsByNode.values().forEach(screenings ->
+            assertThat(screenings, allOf(greaterThan(SCREENINGS / 3 * 8 / 10), lessThan(SCREENINGS / 3 * 12 / 10))));
+    }
+
+    @Test
+    void withNode_movesOnlyTheNewNodesShareToIt() {
+        ConsistentHashRing grown = underTest.withNode("node-d");
+
+        int moved = 0;
+        for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            String owner = grown.ownerOf(screeningId);
+            if (!owner.equals(underTest.ownerOf(screeningId))) {
+                assertThat(owner, is("node-d"));
+                moved++;
+            }
+        }
+        assertThat(moved, allOf(greaterThan(SCREENINGS / 4 * 8 / 10), lessThan(SCREENINGS / 4 * 12 / 10)));
+    }
+
+    @Test
+    void withoutNode_movesOnlyTheRemovedNodesScreenings() {
+        ConsistentHashRing shrunk = underTest.withoutNode("node-b");
+
+        for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            String owner = underTest.ownerOf(screeningId);
+            if (!owner.equals("node-b")) {
+                assertThat(shrunk.ownerOf(screeningId), is(owner));
+            }
+        }
+        assertThat(shrunk.nodes().contains("node-b"), is(false));
+    }
+
+    @Test
+    void ownerOf_isTheSameForEveryRingWithTheSameNodes() {
+        ConsistentHashRing rebuilt = new ConsistentHashRing(VIRTUAL_NODES).withNode("node-c").withNode("node-a").withNode("node-b");
+
+        for (long screeningId = 0; screeningId < 1_000; screeningId++) {
+            assertThat(rebuilt.ownerOf(screeningId), is(underTest.ownerOf(screeningId)));
+        }
+    }
+
+    @Test
+    void ownerOf_emptyRing() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                                                       () -> new ConsistentHashRing(VIRTUAL_NODES).ownerOf(1L));
+
+        assertThat(exception.getMessage(), is(EMPTY_RING_ERROR));
+    }
+
+    @Test
+    void invalidVirtualNodes() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(0));
+
+        assertThat(exception.getMessage(), is(String.format(INVALID_VIRTUAL_NODES_ERROR, 0)));
+    }
+}
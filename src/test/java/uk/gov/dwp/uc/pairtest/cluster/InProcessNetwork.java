@@ -0,0 +1,146 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.NodeUnavailableException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Stands in for the network between nodes of a cluster running in one process. A call between two nodes waits the
+ * latency each way, and a node answers one call at a time, taking the service time for each, so a node has a fixed
+ * capacity as a real one would. A partition cuts the link between two nodes in both directions, failing calls across
+ * it before they are delivered.
+ * <p>
+ * Each node also adds up the service time of the calls it answers, so throughput can be compared on that simulated
+ * time rather than on the wall clock of a loaded machine.
+ */
+class InProcessNetwork {
+
+    private static final String UNREACHABLE_ERROR = "Node %s cannot reach node %s.";
+
+    private final long latencyNanos;
+    private final long serviceTimeNanos;
+    private final Map<String, LocalInventoryNode> nodes = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> workers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> busyNanos = new ConcurrentHashMap<>();
+    private final Set<Set<String>> partitions = ConcurrentHashMap.newKeySet();
+
+    InProcessNetwork(Duration latency, Duration serviceTime) {
+        this.latencyNanos = latency.toNanos();
+        this.serviceTimeNanos = serviceTime.toNanos();
+    }
+
+    LocalInventoryNode start(String nodeId) {
+        LocalInventoryNode node = new LocalInventoryNode(nodeId);
+        nodes.put(nodeId, node);
+        workers.put(nodeId, new Semaphore(1));
+        busyNanos.put(nodeId, new LongAdder());
+        return node;
+    }
+
+    /**
+     * @return the service time of the node that has answered the most calls, which bounds how fast the network can
+     * answer them all
+     */
+    Duration busiestNodeTime() {
+        return Duration.ofNanos(busyNanos.values().stream().mapToLong(LongAdder::sum).max().orElse(0L));
+    }
+
+    void resetServiceTime() {
+        busyNanos.values().forEach(LongAdder::reset);
+    }
+
+    LocalInventoryNode node(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    NodeTransport transportFrom(String fromNodeId) {
+        return toNodeId -> new RemoteNode(fromNodeId, toNodeId);
+    }
+
+    void partition(String nodeId, String otherNodeId) {
+        partitions.add(Set.of(nodeId, otherNodeId));
+    }
+
+    void heal() {
+        partitions.clear();
+    }
+
+    private <T> T call(String fromNodeId, String toNodeId, Supplier<T> call) {
+        boolean remote = !fromNodeId.equals(toNodeId);
+        if (remote) {
+            LockSupport.parkNanos(latencyNanos);
+            if (partitions.contains(Set.of(fromNodeId, toNodeId))) {
+                throw new NodeUnavailableException(String.format(UNREACHABLE_ERROR, fromNodeId, toNodeId));
+            }
+        }
+        Semaphore worker = workers.get(toNodeId);
+        if (Objects.isNull(worker)) {
+            throw new NodeUnavailableException(String.format(UNREACHABLE_ERROR, fromNodeId, toNodeId));
+        }
+
+        worker.acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos(serviceTimeNanos);
+            busyNanos.get(toNodeId).add(serviceTimeNanos);
+            return call.get();
+        } finally {
+            worker.release();
+            if (remote) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+        }
+    }
+
+    private final class RemoteNode implements InventoryNode {
+
+        private final String fromNodeId;
+        private final String toNodeId;
+
+        private RemoteNode(String fromNodeId, String toNodeId) {
+            this.fromNodeId = fromNodeId;
+            this.toNodeId = toNodeId;
+        }
+
+        @Override
+        public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+            call(fromNodeId, toNodeId, () -> {
+                nodes.get(toNodeId).reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                return null;
+            });
+        }
+
+        @Override
+        public void releaseSeat(long screeningId, long accountId, int totalSeatsToRelease) {
+            call(fromNodeId, toNodeId, () -> {
+                nodes.get(toNodeId).releaseSeat(screeningId, accountId, totalSeatsToRelease);
+                return null;
+            });
+        }
+
+        @Override
+        public void addScreening(ScreeningSeats screeningSeats) {
+            call(fromNodeId, toNodeId, () -> {
+                nodes.get(toNodeId).addScreening(screeningSeats);
+                return null;
+            });
+        }
+
+        @Override
+        public ScreeningSeats handOff(long screeningId) {
+            return call(fromNodeId, toNodeId, () -> nodes.get(toNodeId).handOff(screeningId));
+        }
+
+        @Override
+        public Set<Long> heldScreenings() {
+            return call(fromNodeId, toNodeId, () -> nodes.get(toNodeId).heldScreenings());
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.exception.NodeUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningNotHeldException;
+import uk.gov.dwp.uc.pairtest.exception.SeatsUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.cluster.ClusterMembership.LAST_NODE_ERROR;
+
+public class PartitionedSeatInventoryTest {
+
+    private static final String COORDINATOR = "coordinator";
+    private static final int VIRTUAL_NODES = 64;
+    private static final int SCREENINGS = 50;
+    private static final int CAPACITY = 10;
+    private static final long ACCOUNT_ID = 1L;
+    private static final long OTHER_ACCOUNT_ID = 2L;
+
+    @Test
+    void reserveSeat_isForwardedToTheOwner() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b", "node-c");
+        cluster.inventory("node-a").addScreening(1L, CAPACITY);
+
+        cluster.inventory("node-b").forScreening(1L).reserveSeat(ACCOUNT_ID, 3);
+        cluster.inventory("node-c").forScreening(1L).releaseSeat(ACCOUNT_ID, 1);
+
+        LocalInventoryNode owner = cluster.network.node(cluster.membership.ring().ownerOf(1L));
+        assertThat(owner.remainingSeats(1L), is(8));
+        assertThat(cluster.holders(1L), is(List.of(owner.getNodeId())));
+    }
+
+    @Test
+    void join_movesScreeningsToTheNewNodeWithTheirSeats() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b", "node-c");
+        SeatReservationService[] screenings = cluster.addScreenings("node-a");
+        for (SeatReservationService screening : screenings) {
+            screening.reserveSeat(ACCOUNT_ID, 2);
+        }
+
+        cluster.network.start("node-d");
+        assertThat(cluster.membership.join("node-d"), is(true));
+
+        assertThat(cluster.network.node("node-d").heldScreenings(), is(not(empty())));
+        for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            String owner = cluster.membership.ring().ownerOf(screeningId);
+            assertThat(cluster.holders(screeningId), is(List.of(owner)));
+            assertThat(cluster.network.node(owner).remainingSeats(screeningId), is(CAPACITY - 2));
+            cluster.inventory("node-b").forScreening(screeningId).releaseSeat(ACCOUNT_ID, 2);
+        }
+    }
+
+    @Test
+    void leave_handsOffEveryScreening() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b", "node-c");
+        cluster.addScreenings("node-a");
+
+        assertThat(cluster.membership.leave("node-a"), is(true));
+
+        assertThat(cluster.network.node("node-a").heldScreenings(), is(empty()));
+        for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            assertThat(cluster.holders(screeningId), is(List.of(cluster.membership.ring().ownerOf(screeningId))));
+        }
+    }
+
+    @Test
+    void leave_lastNode() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                                                       () -> cluster.membership.leave("node-a"));
+
+        assertThat(exception.getMessage(), is(String.format(LAST_NODE_ERROR, "node-a")));
+    }
+
+    @Test
+    void reserveSeat_ownerCutOffByPartition() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b");
+        long screeningId = cluster.screeningOwnedBy("node-a");
+        cluster.inventory("node-a").addScreening(screeningId, CAPACITY);
+        SeatReservationService screening = cluster.inventory("node-b").forScreening(screeningId);
+
+        cluster.network.partition("node-a", "node-b");
+        assertThrows(NodeUnavailableException.class, () -> screening.reserveSeat(ACCOUNT_ID, 2));
+        assertThat(cluster.network.node("node-a").remainingSeats(screeningId), is(CAPACITY));
+
+        cluster.network.heal();
+        screening.reserveSeat(ACCOUNT_ID, 2);
+        assertThat(cluster.network.node("node-a").remainingSeats(screeningId), is(CAPACITY - 2));
+    }
+
+    @Test
+    void rebalance_movesScreeningsLeftBehindByAPartition() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b");
+        SeatReservationService[] screenings = cluster.addScreenings("node-a");
+        for (SeatReservationService screening : screenings) {
+            screening.reserveSeat(ACCOUNT_ID, 1);
+        }
+        cluster.network.start("node-c");
+
+        cluster.network.partition(COORDINATOR, "node-a");
+        assertThat(cluster.membership.join("node-c"), is(false));
+        long stranded = cluster.screeningHeldBy("node-a", "node-c");
+        assertThrows(ScreeningNotHeldException.class, () -> screenings[(int) stranded].reserveSeat(ACCOUNT_ID, 1));
+
+        cluster.network.heal();
+        assertThat(cluster.membership.rebalance(), is(true));
+        screenings[(int) stranded].reserveSeat(ACCOUNT_ID, 1);
+        assertThat(cluster.network.node("node-c").remainingSeats(stranded), is(CAPACITY - 2));
+    }
+
+    @Test
+    void rebalance_addsHandOffsTheNewOwnerMissed() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b");
+        SeatReservationService[] screenings = cluster.addScreenings("node-a");
+        for (SeatReservationService screening : screenings) {
+            screening.reserveSeat(ACCOUNT_ID, 3);
+        }
+        cluster.network.start("node-c");
+
+        cluster.network.partition(COORDINATOR, "node-c");
+        assertThat(cluster.membership.join("node-c"), is(false));
+        cluster.network.heal();
+        assertThat(cluster.network.node("node-c").heldScreenings(), is(empty()));
+
+        assertThat(cluster.membership.rebalance(), is(true));
+        for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            String owner = cluster.membership.ring().ownerOf(screeningId);
+            assertThat(cluster.holders(screeningId), is(List.of(owner)));
+            assertThat(cluster.network.node(owner).remainingSeats(screeningId), is(CAPACITY - 3));
+        }
+    }
+
+    @Test
+    void addScreening_refusedWhileAStrandedCopyCannotBeReached() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b");
+        SeatReservationService[] screenings = cluster.addScreenings("node-a");
+        for (SeatReservationService screening : screenings) {
+            screening.reserveSeat(ACCOUNT_ID, 2);
+        }
+        cluster.network.start("node-c");
+        cluster.network.partition(COORDINATOR, "node-a");
+        assertThat(cluster.membership.join("node-c"), is(false));
+        long stranded = cluster.screeningHeldBy("node-a", "node-c");
+        SeatReservationService screening = screenings[(int) stranded];
+
+        assertThrows(NodeUnavailableException.class, () -> cluster.inventory("node-b").addScreening(stranded, CAPACITY));
+        assertThrows(ScreeningNotHeldException.class, () -> screening.reserveSeat(OTHER_ACCOUNT_ID, CAPACITY - 1));
+
+        cluster.network.heal();
+        cluster.inventory("node-b").addScreening(stranded, CAPACITY);
+        assertThat(cluster.holders(stranded), is(List.of("node-a")));
+        assertThat(cluster.membership.rebalance(), is(true));
+        assertThrows(SeatsUnavailableException.class, () -> screening.reserveSeat(OTHER_ACCOUNT_ID, CAPACITY - 1));
+        assertThat(cluster.holders(stranded), is(List.of("node-c")));
+        assertThat(cluster.network.node("node-c").remainingSeats(stranded), is(CAPACITY - 2));
+    }
+
+    @Test
+    void addScreening_ignoredWhileTheScreeningIsInTransit() {
+        Cluster cluster = new Cluster(Duration.ZERO, Duration.ZERO, "node-a", "node-b");
+        SeatReservationService[] screenings = cluster.addScreenings("node-a");
+        for (SeatReservationService screening : screenings) {
+            screening.reserveSeat(ACCOUNT_ID, 2);
+        }
+        cluster.network.start("node-c");
+        cluster.network.partition(COORDINATOR, "node-c");
+        assertThat(cluster.membership.join("node-c"), is(false));
+        cluster.network.heal();
+        long inTransit = cluster.screeningOwnedBy("node-c");
+        SeatReservationService screening = screenings[(int) inTransit];
+
+        cluster.inventory("node-b").addScreening(inTransit, CAPACITY);
+        assertThrows(ScreeningNotHeldException.class, () -> screening.reserveSeat(OTHER_ACCOUNT_ID, CAPACITY - 1));
+
+        assertThat(cluster.membership.rebalance(), is(true));
+        assertThrows(SeatsUnavailableException.class, () -> screening.reserveSeat(OTHER_ACCOUNT_ID, CAPACITY - 1));
+        assertThat(cluster.holders(inTransit), is(List.of("node-c")));
+        assertThat(cluster.network.node("node-c").remainingSeats(inTransit), is(CAPACITY - 2));
+    }
+
+    @Test
+    void throughputScalesWithNodeCount() throws Exception {
+        Duration serviceTime = Duration.ofNanos(10_000);
+
+        Duration oneNode = reserveSeats(new Cluster(Duration.ZERO, serviceTime, "node-a"));
+        Duration fourNodes = reserveSeats(new Cluster(Duration.ZERO, serviceTime,
+                                                      "node-a", "node-b", "node-c", "node-d"));
+
+        assertThat((double) oneNode.toNanos() / fourNodes.toNanos(), is(greaterThan(2.0)));
+    }
+
+    @Test
+    void noSeatIsOversoldWhileNodesJoinLeaveAndArePartitioned() throws Exception {
+        Cluster cluster = new Cluster(Duration.ofNanos(50_000), Duration.ZERO, "node-a", "node-b", "node-c");
+        cluster.addScreenings("node-a");
+        cluster.network.start("node-d");
+        AtomicIntegerArray seatsSold = new AtomicIntegerArray(SCREENINGS);
+        String[] clientNodes = {"node-a", "node-c"};
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int client = 0; client < 8; client++) {
+                SplittableRandom random = new SplittableRandom(client);
+                PartitionedSeatInventory inventory = cluster.inventory(clientNodes[client % clientNodes.length]);
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < 200; attempt++) {
+                        int screeningId = random.nextInt(SCREENINGS);
+                        int seats = random.nextInt(1, 4);
+                        try {
+                            inventory.forScreening(screeningId).reserveSeat(ACCOUNT_ID, seats);
+                            seatsSold.addAndGet(screeningId, seats);
+                        } catch (SeatsUnavailableException | NodeUnavailableException | ScreeningNotHeldException exception) {
+                            // Not reserved anywhere.
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            cluster.membership.join("node-d");
+            cluster.network.partition("node-a", "node-c");
+            cluster.network.partition(COORDINATOR, "node-c");
+            cluster.membership.leave("node-b");
+            cluster.network.heal();
+            for (Future<?> client : clients) {
+                client.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cluster.membership.rebalance(), is(true));
+        for (int screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+            String owner = cluster.membership.ring().ownerOf(screeningId);
+            assertThat(cluster.holders(screeningId), is(List.of(owner)));
+            int remaining = cluster.network.node(owner).remainingSeats(screeningId);
+            assertThat(remaining, is(CAPACITY - seatsSold.get(screeningId)));
+        }
+    }
+
+    /**
+     * @return the service time of the busiest node, once 32 clients spread over the nodes have reserved a seat in each
+     * of 400 screenings
+     */
+    private static Duration reserveSeats(Cluster cluster) throws Exception {
+        int screenings = 400;
+        for (long screeningId = 0; screeningId < screenings; screeningId++) {
+            cluster.inventory("node-a").addScreening(screeningId, CAPACITY);
+        }
+        cluster.network.resetServiceTime();
+        String[] nodeIds = cluster.nodeIds;
+        int clients = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> reservations = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                PartitionedSeatInventory inventory = cluster.inventory(nodeIds[client % nodeIds.length]);
+                int first = client;
+                reservations.add(executor.submit(() -> {
+                    for (int screeningId = first; screeningId < screenings; screeningId += clients) {
+                        inventory.forScreening(screeningId).reserveSeat(ACCOUNT_ID, 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> reservation : reservations) {
+                reservation.get(60, TimeUnit.SECONDS);
+            }
+            return cluster.network.busiestNodeTime();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Cluster {
+
+        private final InProcessNetwork network;
+        private final ClusterMembership membership;
+        private final String[] nodeIds;
+
+        private Cluster(Duration latency, Duration serviceTime, String... nodeIds) {
+            this.network = new InProcessNetwork(latency, serviceTime);
+            this.membership = new ClusterMembership(VIRTUAL_NODES, network.transportFrom(COORDINATOR));
+            this.nodeIds = nodeIds;
+            for (String nodeId : nodeIds) {
+                network.start(nodeId);
+                membership.join(nodeId);
+            }
+        }
+
+        private PartitionedSeatInventory inventory(String nodeId) {
+            return new PartitionedSeatInventory(membership, network.transportFrom(nodeId));
+        }
+
+        private SeatReservationService[] addScreenings(String viaNodeId) {
+            PartitionedSeatInventory inventory = inventory(viaNodeId);
+            SeatReservationService[] screenings = new SeatReservationService[SCREENINGS];
+            for (int screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+                inventory.addScreening(screeningId, CAPACITY);
+                screenings[screeningId] = inventory.forScreening(screeningId);
+            }
+            return screenings;
+        }
+
+        private List<String> holders(long screeningId) {
+            List<String> holders = new ArrayList<>();
+            for (String nodeId : List.of("node-a", "node-b", "node-c", "node-d")) {
+                LocalInventoryNode node = network.node(nodeId);
+                if (node != null && node.heldScreenings().contains(screeningId)) {
+                    holders.add(nodeId);
+                }
+            }
+            return holders;
+        }
+
+        private long screeningOwnedBy(String nodeId) {
+            long screeningId = 0;
+            while (!membership.ring().ownerOf(screeningId).equals(nodeId)) {
+                screeningId++;
+            }
+            return screeningId;
+        }
+
+        /**
+         * @return a screening still held by one node although the ring gives it to another
+         */
+        private long screeningHeldBy(String holderNodeId, String ownerNodeId) {
+            for (long screeningId = 0; screeningId < SCREENINGS; screeningId++) {
+                if (membership.ring().ownerOf(screeningId).equals(ownerNodeId)
+                    && network.node(holderNodeId).heldScreenings().contains(screeningId)) {
+                    return screeningId;
+                }
+            }
+            throw new AssertionError("No screening held by " + holderNodeId + " is owned by " + ownerNodeId);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+public class TicketPurchaseRequestCodecTest {
+
+    @ParameterizedTest(name = "Round trip accountId {0}, {1} adults, {2} children, {3} infants, code {4}, direct {5}")
+    @MethodSource("requests")
+    void roundTrip(long accountId, int adults, int children, int infants, String discountCode, boolean direct) {
+        TicketPurchaseRequest original = request(accountId, adults, children, infants, discountCode);
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(64) : ByteBuffer.allocate(64);
+
+        int written = TicketPurchaseRequestCodec.encode(original, buffer);
+        buffer.flip();
+        TicketPurchaseRequest decoded = TicketPurchaseRequestCodec.decode(buffer);
+
+        assertThat(buffer.position(), is(written));
+        assertThat(decoded.getAccountId(), is(accountId));
+        for (TicketRequest.Type type : TicketRequest.Type.values()) {
+            assertThat(decoded.numberOfTicketsForType(type), is(original.numberOfTicketsForType(type)));
+        }
+        assertThat(decoded.getDiscountCode(), is(original.getDiscountCode()));
+        assertThat(decoded.cost(0.1), is(original.cost(0.1)));
+    }
+
+    private static Stream<Arguments> requests() {
+        return Stream.of(
+            Arguments.of(1L, 1, 0, 0, null, false),
+            Arguments.of(1L, 1, 0, 0, null, true),
+            Arguments.of(Long.MAX_VALUE, 6, 2, 12, "DISCOUNT", false),
+            Arguments.of(123_456_789L, 2, 3, 1, "£5-OFF-🎬", true),
+            Arguments.of(-1L, -3, 0, Integer.MAX_VALUE, "", false),
+            Arguments.of(Long.MIN_VALUE, Integer.MIN_VALUE, 0, 0, null, true)
+        );
+    }
+
+    @Test
+    void roundTrip_idempotencyKey() {
+        UUID idempotencyKey = UUID.randomUUID();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        TicketPurchaseRequestCodec.encode(request(1L, 1, 0, 0, "DISCOUNT", idempotencyKey), buffer);
+        TicketPurchaseRequestCodec.encode(request(2L, 1, 0, 0, null, idempotencyKey), buffer);
+        TicketPurchaseRequestCodec.encode(request(3L, 1, 0, 0, null), buffer);
+        buffer.flip();
+
+        TicketPurchaseRequest withCode = TicketPurchaseRequestCodec.decode(buffer);
+        TicketPurchaseRequest withoutCode = TicketPurchaseRequestCodec.decode(buffer);
+        TicketPurchaseRequest withoutKey = TicketPurchaseRequestCodec.decode(buffer);
+
+        assertThat(withCode.getDiscountCode(), is(Optional.of("DISCOUNT")));
+        assertThat(withCode.getIdempotencyKey(), is(Optional.of(idempotencyKey)));
+        assertThat(withoutCode.getDiscountCode(), is(Optional.empty()));
+        assertThat(withoutCode.getIdempotencyKey(), is(Optional.of(idempotencyKey)));
+        assertThat(withoutKey.getIdempotencyKey(), is(Optional.empty()));
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    @Test
+    void encode_isCompact() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        int written = TicketPurchaseRequestCodec.encode(request(1L, 2, 1, 1, null), buffer);
+
+        assertThat(written, is(5));
+    }
+
+    @Test
+    void encode_consecutiveRequests() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        TicketPurchaseRequestCodec.encode(request(1L, 1, 0, 0, "A"), buffer);
+        TicketPurchaseRequestCodec.encode(request(2L, 2, 0, 0, null), buffer);
+        buffer.flip();
+
+        assertThat(TicketPurchaseRequestCodec.decode(buffer).getAccountId(), is(1L));
+        assertThat(TicketPurchaseRequestCodec.decode(buffer).getAccountId(), is(2L));
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    @Test
+    void encode_bufferTooSmall() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        assertThrows(BufferOverflowException.class,
+                     () -> TicketPurchaseRequestCodec.encode(request(1L, 1, 0, 0, "DISCOUNT"), buffer));
+    }
+
+    static TicketPurchaseRequest request(long accountId, int adults, int children, int infants, String discountCode) {
+        return request(accountId, adults, children, infants, discountCode, null);
+    }
+
+    static TicketPurchaseRequest request(long accountId,
+                                         int adults,
+                                         int children,
+                                         int infants,
+                                         String discountCode,
+                                         UUID idempotencyKey) {
+        return new TicketPurchaseRequest(accountId,
+                                         new TicketRequest[]{
+                                             new TicketRequest(ADULT, adults),
+                                             new TicketRequest(CHILD, children),
+                                             new TicketRequest(INFANT, infants)
+                                         },
+                                         discountCode,
+                                         idempotencyKey);
+    }
+}
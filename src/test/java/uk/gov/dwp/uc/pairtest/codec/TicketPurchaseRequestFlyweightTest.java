@@ -0,0 +1,122 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.codec.TicketPurchaseRequestCodecTest.request;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS;
+
+public class TicketPurchaseRequestFlyweightTest {
+
+    private final TicketPurchaseRequestFlyweight underTest = new TicketPurchaseRequestFlyweight();
+
+    @ParameterizedTest(name = "Validates like the object with accountId {0}, {1} adults, {2} children, {3} infants")
+    @CsvSource({"1, 1, 0, 0",
+                "1, 6, 0, 12",
+                "1, 1, 19, 0",
+                "0, 1, 0, 0",
+                "1, 0, 1, 0",
+                "1, 1, 0, 3",
+                "1, 10, 10, 10",
+                "1, 0, 0, 0",
+                "1, -1, 2, 0"})
+    void validate_matchesObjectPath(long accountId, int adults, int children, int infants) {
+        TicketPurchaseRequest request = request(accountId, adults, children, infants, null);
+        wrap(request);
+
+        InvalidPurchaseException expected = null;
+        try {
+            request.validate();
+        } catch (InvalidPurchaseException exception) {
+            expected = exception;
+        }
+
+        if (Objects.isNull(expected)) {
+            assertDoesNotThrow(() -> underTest.validateAgainst(ValidationPolicy.DEFAULT));
+            assertThat(underTest.numberOfSeats(), is(request.numberOfSeats()));
+            assertThat(underTest.cost(0.25), is(request.cost(0.25)));
+        } else {
+            InvalidPurchaseException actual = assertThrows(InvalidPurchaseException.class,
+                                                           () -> underTest.validateAgainst(ValidationPolicy.DEFAULT));
+            assertThat(actual.getReason(), is(expected.getReason()));
+            assertThat(actual.getMessage(), is(expected.getMessage()));
+        }
+    }
+
+    @Test
+    void validateAgainst_appliesTheGivenPolicy() {
+        wrap(request(1L, 25, 0, 0, null));
+
+        assertDoesNotThrow(() -> underTest.validateAgainst(new ValidationPolicy(30, 1, 2)));
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                                                          () -> underTest.validateAgainst(ValidationPolicy.DEFAULT));
+        assertThat(exception.getReason(), is(TOO_MANY_TICKETS));
+    }
+
+    @Test
+    void discountCode() {
+        wrap(request(1L, 1, 0, 0, "DISCOUNT"));
+
+        assertThat(underTest.hasDiscountCode(), is(true));
+        assertThat(underTest.getDiscountCode(), is("DISCOUNT"));
+    }
+
+    @Test
+    void noDiscountCode() {
+        wrap(request(1L, 1, 0, 0, null));
+
+        assertThat(underTest.hasDiscountCode(), is(false));
+        assertThat(underTest.getDiscountCode(), nullValue());
+    }
+
+    @Test
+    void idempotencyKey() {
+        UUID idempotencyKey = UUID.randomUUID();
+        wrap(TicketPurchaseRequestCodecTest.request(1L, 1, 0, 0, "DISCOUNT", idempotencyKey));
+
+        assertThat(underTest.hasIdempotencyKey(), is(true));
+        assertThat(underTest.getIdempotencyKey(), is(idempotencyKey));
+        assertThat(underTest.getDiscountCode(), is("DISCOUNT"));
+    }
+
+    @Test
+    void noIdempotencyKey() {
+        wrap(request(1L, 1, 0, 0, null));
+
+        assertThat(underTest.hasIdempotencyKey(), is(false));
+        assertThat(underTest.getIdempotencyKey(), nullValue());
+    }
+
+    @Test
+    void wrap_atOffsetLeavesPositionAlone() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(10);
+        int written = TicketPurchaseRequestCodec.encode(request(42L, 2, 0, 0, "X"), buffer);
+
+        underTest.wrap(buffer, 10);
+
+        assertThat(underTest.getAccountId(), is(42L));
+        assertThat(underTest.encodedLength(), is(written));
+        assertThat(buffer.position(), is(10 + written));
+    }
+
+    private void wrap(TicketPurchaseRequest request) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        TicketPurchaseRequestCodec.encode(request, buffer);
+        underTest.wrap(buffer, 0);
+    }
+}
@@ -0,0 +1,114 @@
+package uk.gov.dwp.uc.pairtest.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+
+    private final List<String> expired = new ArrayList<>();
+    private final HierarchicalTimingWheel<String> underTest =
+        new HierarchicalTimingWheel<>(Duration.ofNanos(TICK), 4, 3, 0);
+
+    @Test
+    void advance_expiresOnceDeadlineHasPassed() {
+        underTest.schedule("first", 25);
+        underTest.schedule("second", 40);
+
+        assertThat(underTest.advance(29, expired::add), is(0));
+        assertThat(underTest.advance(30, expired::add), is(1));
+        assertThat(expired, contains("first"));
+        assertThat(underTest.advance(40, expired::add), is(1));
+        assertThat(expired, contains("first", "second"));
+        assertThat(underTest.size(), is(0));
+    }
+
+    @Test
+    void schedule_pastDeadlineExpiresOnNextTick() {
+        underTest.advance(100, expired::add);
+        underTest.schedule("late", 50);
+
+        underTest.advance(109, expired::add);
+        assertThat(expired, empty());
+        underTest.advance(110, expired::add);
+        assertThat(expired, contains("late"));
+    }
+
+    @Test
+    void cancel() {
+        HierarchicalTimingWheel.Timeout<String> timeout = underTest.schedule("cancelled", 500);
+        underTest.schedule("kept", 500);
+
+        assertThat(underTest.cancel(timeout), is(true));
+        assertThat(underTest.cancel(timeout), is(false));
+        underTest.advance(1_000, expired::add);
+
+        assertThat(expired, contains("kept"));
+        assertThat(timeout.isPending(), is(false));
+    }
+
+    @Test
+    void cancel_afterExpiry() {
+        HierarchicalTimingWheel.Timeout<String> timeout = underTest.schedule("expired", 10);
+        underTest.advance(10, expired::add);
+
+        assertThat(underTest.cancel(timeout), is(false));
+    }
+
+    @ParameterizedTest(name = "Expires within a tick of deadlines up to {0} ticks away")
+    @ValueSource(longs = {4, 16, 64, 1_000, 10_000})
+    void advance_cascadesThroughLevels(long maximumTicks) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<long[]> expiries = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = random.nextLong(1, maximumTicks * TICK);
+            underTest.schedule(Long.toString(deadline), deadline);
+        }
+
+        for (long now = 0; now <= (maximumTicks + 1) * TICK; now += 3) {
+            long at = now;
+            underTest.advance(now, task -> expiries.add(new long[]{Long.parseLong(task), at}));
+        }
+
+        assertThat(expiries.size(), is(2_000));
+        for (long[] expiry : expiries) {
+            assertThat(expiry[0] <= expiry[1], is(true));
+            assertThat(expiry[1] - expiry[0], lessThanOrEqualTo(TICK + 3));
+        }
+    }
+
+    @Test
+    void advance_singleLevel() {
+        HierarchicalTimingWheel<String> singleLevel = new HierarchicalTimingWheel<>(Duration.ofNanos(TICK), 4, 1, 0);
+        singleLevel.schedule("far", 200);
+
+        singleLevel.advance(190, expired::add);
+        assertThat(expired, empty());
+        singleLevel.advance(200, expired::add);
+        assertThat(expired, contains("far"));
+    }
+
+    @Test
+    void constructor_wheelSizeNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(Duration.ofNanos(1), 6, 2, 0));
+    }
+
+    @Test
+    void constructor_tooManyLevels() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(Duration.ofNanos(1), 256, 8, 0));
+    }
+}
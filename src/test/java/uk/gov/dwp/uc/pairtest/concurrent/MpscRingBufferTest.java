@@ -0,0 +1,99 @@
+package uk.gov.dwp.uc.pairtest.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MpscRingBufferTest {
+
+    @Test
+    void offerAndPoll_inOrder() {
+        MpscRingBuffer<Integer> underTest = new MpscRingBuffer<>(4);
+
+        underTest.offer(1);
+        underTest.offer(2);
+
+        assertThat(underTest.poll(), is(1));
+        assertThat(underTest.poll(), is(2));
+        assertThat(underTest.poll(), nullValue());
+        assertThat(underTest.isEmpty(), is(true));
+    }
+
+    @Test
+    void offer_full() {
+        MpscRingBuffer<Integer> underTest = new MpscRingBuffer<>(2);
+
+        assertThat(underTest.offer(1), is(true));
+        assertThat(underTest.offer(2), is(true));
+        assertThat(underTest.offer(3), is(false));
+
+        underTest.poll();
+        assertThat(underTest.offer(3), is(true));
+    }
+
+    @Test
+    void drain_upToLimit() {
+        MpscRingBuffer<Integer> underTest = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            underTest.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertThat(underTest.drain(drained::add, 3), is(3));
+        assertThat(drained, contains(0, 1, 2));
+    }
+
+    @ParameterizedTest(name = "Invalid capacity {0}")
+    @ValueSource(ints = {0, -1, 3, 100})
+    void invalidCapacity(int capacity) {
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(capacity));
+    }
+
+    @Test
+    void manyProducers_keepEachProducersOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 25_000;
+        MpscRingBuffer<long[]> underTest = new MpscRingBuffer<>(1024);
+
+        List<CompletableFuture<Void>> producing = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            long id = producer;
+            producing.add(CompletableFuture.runAsync(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {id, i};
+                    while (!underTest.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = underTest.poll();
+            if (Objects.isNull(element)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertThat(element[1], is(nextExpected[(int) element[0]]++));
+            received++;
+        }
+        CompletableFuture.allOf(producing.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertThat(received, is(producers * perProducer));
+    }
+}
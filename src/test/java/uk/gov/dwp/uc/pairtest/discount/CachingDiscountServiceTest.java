@@ -0,0 +1,147 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingDiscountServiceTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final String DISCOUNT_CODE = "DISCOUNT";
+    private static final Discount DISCOUNT = new Discount(0.2);
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    @Mock
+    private DiscountService discountService;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void getDiscountPercentage_cachesDiscount() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(DISCOUNT);
+        CachingDiscountService underTest = underTest(10);
+
+        assertThat(underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE), is(DISCOUNT));
+        assertThat(underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE), is(DISCOUNT));
+
+        verify(discountService, times(1)).getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+        assertThat(underTest.stats(), is(new CachingDiscountService.CacheStats(1, 1, 0)));
+    }
+
+    @Test
+    void getDiscountPercentage_cachesInvalidCode() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenThrow(new InvalidDiscountCodeException("Invalid"));
+        CachingDiscountService underTest = underTest(10);
+
+        assertThrows(InvalidDiscountCodeException.class, () -> underTest.getDiscountPercentage(ACCOUNT_ID, null));
+        InvalidDiscountCodeException exception = assertThrows(InvalidDiscountCodeException.class,
+                                                              () -> underTest.getDiscountPercentage(ACCOUNT_ID, null));
+
+        assertThat(exception.getMessage(), is("Invalid"));
+        verify(discountService, times(1)).getDiscountPercentage(ACCOUNT_ID, null);
+    }
+
+    @Test
+    void getDiscountPercentage_reloadsAfterTimeToLive() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(DISCOUNT);
+        CachingDiscountService underTest = underTest(10);
+
+        underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+        nanoTime.addAndGet(TIME_TO_LIVE.toNanos());
+        underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+
+        verify(discountService, times(2)).getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+    }
+
+    @Test
+    void getDiscountPercentage_evictsLeastRecentlyUsed() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, "A")).thenReturn(DISCOUNT);
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, "B")).thenReturn(DISCOUNT);
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, "C")).thenReturn(DISCOUNT);
+        CachingDiscountService underTest = underTest(2);
+
+        underTest.getDiscountPercentage(ACCOUNT_ID, "A");
+        underTest.getDiscountPercentage(ACCOUNT_ID, "B");
+        underTest.getDiscountPercentage(ACCOUNT_ID, "A");
+        underTest.getDiscountPercentage(ACCOUNT_ID, "C");
+        underTest.getDiscountPercentage(ACCOUNT_ID, "A");
+        underTest.getDiscountPercentage(ACCOUNT_ID, "B");
+
+        verify(discountService, times(1)).getDiscountPercentage(ACCOUNT_ID, "A");
+        verify(discountService, times(2)).getDiscountPercentage(ACCOUNT_ID, "B");
+        assertThat(underTest.stats().evictions(), is(2L));
+    }
+
+    @Test
+    void getDiscountPercentage_stripedCacheKeepsRecentEntriesWithinItsMaximumSize() {
+        when(discountService.getDiscountPercentage(anyLong(), eq(DISCOUNT_CODE))).thenReturn(DISCOUNT);
+        CachingDiscountService underTest = underTest(1024);
+
+        for (long accountId = 0; accountId < 2048; accountId++) {
+            underTest.getDiscountPercentage(accountId, DISCOUNT_CODE);
+        }
+        for (long accountId = 2048 - 256; accountId < 2048; accountId++) {
+            underTest.getDiscountPercentage(accountId, DISCOUNT_CODE);
+        }
+
+        CachingDiscountService.CacheStats stats = underTest.stats();
+        assertThat(stats.hits(), is(256L));
+        assertThat(stats.misses() - stats.evictions(), is(lessThanOrEqualTo(1024L)));
+    }
+
+    @Test
+    void getDiscountPercentage_concurrentMissesLoadOnce() throws Exception {
+        int threads = 8;
+        CountDownLatch allWaiting = new CountDownLatch(threads);
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenAnswer(invocation -> {
+            allWaiting.await(5, TimeUnit.SECONDS);
+            return DISCOUNT;
+        });
+        CachingDiscountService underTest = underTest(10);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        List<Future<Discount>> lookups = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            lookups.add(executor.submit(() -> {
+                allWaiting.countDown();
+                return underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+            }));
+        }
+        for (Future<Discount> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS), is(DISCOUNT));
+        }
+        executor.shutdown();
+
+        verify(discountService, times(1)).getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+    }
+
+    private CachingDiscountService underTest(int maximumSize) {
+        return new CachingDiscountService(discountService, TIME_TO_LIVE, maximumSize, nanoTime::get);
+    }
+}
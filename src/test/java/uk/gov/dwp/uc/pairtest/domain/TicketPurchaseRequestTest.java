@@ -9,6 +9,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
 
 import java.util.stream.Stream;
 
@@ -19,6 +20,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest.INVALID_ACCOUNT_ID_ERROR;
+import static uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest.INVALID_DISCOUNT_ERROR;
 import static uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest.NO_ADULTS_WERE_PRESENT_ERROR;
 import static uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest.NO_TICKETS_ERROR;
 import static uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest.NO_TICKET_REQUEST_RECEIVED;
@@ -29,6 +31,7 @@ import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.NULL_TYPE_ERROR;
 import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
 import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
 import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.INVALID_ACCOUNT_ID;
 
 public class TicketPurchaseRequestTest {
 
@@ -87,6 +90,7 @@ public class TicketPurchaseRequestTest {
                                                                     underTest::validate);
 
             assertThat(actualException.getMessage(), is(expectedException));
+            assertThat(actualException.getReason(), is(INVALID_ACCOUNT_ID));
         }
     }
 
@@ -193,6 +197,48 @@ public class TicketPurchaseRequestTest {
         }
     }
 
+    @Nested
+    class ValidateAgainstPolicy {
+
+        private static final ValidationPolicy POLICY = new ValidationPolicy(30, 0, 1);
+
+        @ParameterizedTest(name = "Policy check of {0} adults, {1} children and {2} infants gives {3}")
+        @CsvSource(value = {"25, 0, 0, null",
+                            "0, 5, 0, null",
+                            "20, 5, 6, TOO_MANY_TICKETS",
+                            "2, 0, 3, TOO_MANY_INFANTS_TO_ADULTS",
+                            "0, 0, 0, NO_TICKETS",
+                            "-1, 2, 0, NEGATIVE_QUANTITY_OF_TICKETS"},
+                   nullValues = "null")
+        void testCheck(int numberOfAdults, int numberOfChildren, int numberOfInfants, InvalidPurchaseException.Reason expectedReason) {
+            TicketPurchaseRequest underTest = new TicketPurchaseRequest(ACCOUNT_ID, createTicketRequests(numberOfAdults,
+                                                                                                           numberOfChildren,
+                                                                                                           numberOfInfants));
+
+            assertThat(underTest.check(POLICY), is(expectedReason));
+        }
+
+        @Test
+        void testCheck_MatchesCounts() {
+            int[] ticketCounts = {0, 5, 1};
+
+            assertThat(TicketPurchaseRequest.checkCounts(ACCOUNT_ID, ticketCounts, POLICY),
+                       is(InvalidPurchaseException.Reason.TOO_MANY_INFANTS_TO_ADULTS));
+            assertThat(TicketPurchaseRequest.checkCounts(0L, ticketCounts, POLICY), is(INVALID_ACCOUNT_ID));
+        }
+
+        @Test
+        void testValidateAgainst_ThrowsWithMessage() {
+            TicketPurchaseRequest underTest = new TicketPurchaseRequest(ACCOUNT_ID, createTicketRequests(31, 0, 0));
+
+            InvalidPurchaseException actual = assertThrows(InvalidPurchaseException.class,
+                                                           () -> underTest.validateAgainst(POLICY));
+
+            assertThat(actual.getReason(), is(InvalidPurchaseException.Reason.TOO_MANY_TICKETS));
+            assertThat(actual.getMessage(), is(String.format(TOO_MANY_TICKETS_ERROR, 31)));
+        }
+    }
+
     @Nested
     class Cost {
 
@@ -205,7 +251,9 @@ public class TicketPurchaseRequestTest {
                     "19, 0, 1, 0, 380",
                     "20, 0, 0, 1, 0",
                     "20, 0, 0, 0.1, 360",
-                    "1, 1, 1, 0.4, 18"})
+                    "1, 1, 1, 0.4, 18",
+                    "0, 1, 0, 0.9, 1",
+                    "1, 0, 0, 0.8, 4"})
         void testCalculateCost(int numberOfAdults, int numberOfChildren, int numberOfInfants, double percentage, int expectedCost) {
             Discount discount = new Discount(percentage);
             TicketRequest[] ticketRequests = createTicketRequests(numberOfAdults,
@@ -217,6 +265,16 @@ public class TicketPurchaseRequestTest {
             assertThat(underTest.cost(discount), is(expectedCost));
         }
 
+        @Test
+        void testCalculateCost_discountOutOfRange() {
+            TicketPurchaseRequest underTest = new TicketPurchaseRequest(ACCOUNT_ID, createTicketRequests(1, 0, 0));
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                                              () -> underTest.cost(new Discount(1.5)));
+
+            assertThat(exception.getMessage(), is(String.format(INVALID_DISCOUNT_ERROR, 15_000)));
+        }
+
         @Test
         void testCalculateCost_LongRequest() {
             TicketPurchaseRequest underTest = new TicketPurchaseRequest(ACCOUNT_ID, MANY_TICKET_REQUESTS);
@@ -54,6 +54,7 @@ public class TicketRequestTest {
                                                               underTest::validateRequest);
 
             assertThat(exception.getMessage(), is(NEGATIVE_QUANTITY_OF_TICKETS_ERROR));
+            assertThat(exception.getReason(), is(InvalidPurchaseException.Reason.NEGATIVE_QUANTITY_OF_TICKETS));
         }
 
         @Test
@@ -64,6 +65,7 @@ public class TicketRequestTest {
                                                               underTest::validateRequest);
 
             assertThat(exception.getMessage(), is(NULL_TYPE_ERROR));
+            assertThat(exception.getReason(), is(InvalidPurchaseException.Reason.NULL_TYPE));
         }
     }
 
@@ -0,0 +1,217 @@
+package uk.gov.dwp.uc.pairtest.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.history.OffHeapPurchaseHistory.FILE_MISMATCH_ERROR;
+import static uk.gov.dwp.uc.pairtest.history.OffHeapPurchaseHistory.INVALID_MAXIMUM_TICKETS_ERROR;
+import static uk.gov.dwp.uc.pairtest.history.OffHeapPurchaseHistory.MAXIMUM_COUNT;
+import static uk.gov.dwp.uc.pairtest.history.PurchaseHistory.REJECTED;
+
+public class OffHeapPurchaseHistoryTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final int MAXIMUM_TICKETS = 10;
+    private static final Duration WINDOW = Duration.ofMinutes(3);
+    private static final long BUCKET_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final AtomicLong now = new AtomicLong();
+    private final OffHeapPurchaseHistory underTest =
+        new OffHeapPurchaseHistory(1_000, MAXIMUM_TICKETS, WINDOW, null, now::get);
+
+    @Test
+    void claim_countsTicketsByType() {
+        assertThat(underTest.claim(request(ACCOUNT_ID, 2, 1, 1)), not(REJECTED));
+        assertThat(underTest.claim(request(ACCOUNT_ID, 1, 0, 0)), not(REJECTED));
+
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(5));
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID, ADULT), is(3));
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID, CHILD), is(1));
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID, INFANT), is(1));
+        assertThat(underTest.ticketsInWindow(2L), is(0));
+    }
+
+    @Test
+    void claim_limitAppliesAcrossPurchases() {
+        underTest.claim(request(ACCOUNT_ID, 6, 0, 0));
+
+        assertThat(underTest.claim(request(ACCOUNT_ID, 4, 1, 0)), is(REJECTED));
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(6));
+        assertThat(underTest.claim(request(ACCOUNT_ID, 4, 0, 0)), not(REJECTED));
+        assertThat(underTest.claim(request(2L, 4, 0, 0)), not(REJECTED));
+    }
+
+    @Test
+    void claim_purchasesCountForAtLeastTheWindow() {
+        now.set(BUCKET_MILLIS - 1);
+        underTest.claim(request(ACCOUNT_ID, 6, 0, 0));
+        now.addAndGet(BUCKET_MILLIS);
+        underTest.claim(request(ACCOUNT_ID, 4, 0, 0));
+
+        now.set(WINDOW.toMillis() + BUCKET_MILLIS - 1);
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(10));
+
+        now.addAndGet(1);
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(4));
+        assertThat(underTest.claim(request(ACCOUNT_ID, 6, 0, 0)), not(REJECTED));
+
+        now.addAndGet(WINDOW.toMillis() + BUCKET_MILLIS);
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(0));
+    }
+
+    @Test
+    void release_takesBackTheTickets() {
+        TicketPurchaseRequest failed = request(ACCOUNT_ID, 4, 2, 1);
+        underTest.claim(request(ACCOUNT_ID, 2, 0, 0));
+        long claim = underTest.claim(failed);
+
+        underTest.release(failed, claim);
+
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(2));
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID, CHILD), is(0));
+    }
+
+    @Test
+    void release_afterTheBucketHasMovedOn() {
+        TicketPurchaseRequest failed = request(ACCOUNT_ID, 4, 0, 0);
+        long claim = underTest.claim(failed);
+        now.addAndGet(BUCKET_MILLIS);
+        underTest.claim(request(ACCOUNT_ID, 1, 0, 0));
+
+        underTest.release(failed, claim);
+
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(1));
+    }
+
+    @Test
+    void release_takesBackFromTheBucketClaimed() {
+        TicketPurchaseRequest failed = request(ACCOUNT_ID, 3, 0, 0);
+        long claim = underTest.claim(failed);
+        now.addAndGet(BUCKET_MILLIS);
+        underTest.claim(request(ACCOUNT_ID, 2, 0, 0));
+
+        underTest.release(failed, claim);
+        now.addAndGet(WINDOW.toMillis());
+
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(2));
+    }
+
+    @Test
+    void release_afterItsBucketHasLeftTheWindow() {
+        TicketPurchaseRequest failed = request(ACCOUNT_ID, 3, 0, 0);
+        long claim = underTest.claim(failed);
+        now.addAndGet(WINDOW.toMillis() + BUCKET_MILLIS);
+        underTest.claim(request(ACCOUNT_ID, 2, 0, 0));
+
+        underTest.release(failed, claim);
+
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(2));
+    }
+
+    @Test
+    void setMaximumTickets_appliesFromTheNextClaim() {
+        underTest.claim(request(ACCOUNT_ID, 6, 0, 0));
+
+        underTest.setMaximumTickets(5);
+        assertThat(underTest.claim(request(ACCOUNT_ID, 1, 0, 0)), is(REJECTED));
+        underTest.setMaximumTickets(12);
+        assertThat(underTest.claim(request(ACCOUNT_ID, 6, 0, 0)), not(REJECTED));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> underTest.setMaximumTickets(0));
+        assertThat(exception.getMessage(), is(String.format(INVALID_MAXIMUM_TICKETS_ERROR, MAXIMUM_COUNT, 0)));
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(12));
+    }
+
+    @Test
+    void release_unknownAccount() {
+        underTest.release(request(ACCOUNT_ID, 1, 0, 0), 0L);
+
+        assertThat(underTest.ticketsInWindow(ACCOUNT_ID), is(0));
+    }
+
+    @Test
+    void claim_expiredAccountsMakeRoomWithoutLosingLiveOnes() {
+        OffHeapPurchaseHistory small = new OffHeapPurchaseHistory(1, MAXIMUM_TICKETS, WINDOW, null, now::get);
+        List<Long> accounts = new ArrayList<>();
+        long accountId = 1L;
+        while (true) {
+            try {
+                small.claim(request(accountId, 1, 0, 0));
+            } catch (RejectedExecutionException exception) {
+                break;
+            }
+            accounts.add(accountId++);
+        }
+        assertThat(accounts.size(), greaterThan(64));
+
+        now.set(WINDOW.toMillis());
+        List<Long> live = new ArrayList<>();
+        for (int i = 0; i < accounts.size(); i += 4) {
+            small.claim(request(accounts.get(i), 1, 0, 0));
+            live.add(accounts.get(i));
+        }
+        now.set(WINDOW.toMillis() + BUCKET_MILLIS);
+
+        for (int i = 0; i < accounts.size() / 2; i++) {
+            assertThat(small.claim(request(accountId++, 1, 0, 0)), not(REJECTED));
+        }
+        for (long liveAccountId : live) {
+            assertThat(small.ticketsInWindow(liveAccountId), is(1));
+        }
+    }
+
+    @Test
+    void mappedHistorySurvivesReopening(@TempDir Path directory) {
+        Path file = directory.resolve("purchase-history");
+        try (OffHeapPurchaseHistory history = new OffHeapPurchaseHistory(1_000, MAXIMUM_TICKETS, WINDOW, file, now::get)) {
+            history.claim(request(ACCOUNT_ID, 3, 1, 0));
+        }
+
+        try (OffHeapPurchaseHistory reopened = new OffHeapPurchaseHistory(1_000, MAXIMUM_TICKETS, WINDOW, file, now::get)) {
+            assertThat(reopened.ticketsInWindow(ACCOUNT_ID), is(4));
+            assertThat(reopened.claim(request(ACCOUNT_ID, 7, 0, 0)), is(REJECTED));
+        }
+    }
+
+    @Test
+    void mappedHistoryMustMatchItsFile(@TempDir Path directory) {
+        Path file = directory.resolve("purchase-history");
+        new OffHeapPurchaseHistory(1_000, MAXIMUM_TICKETS, WINDOW, file, now::get).close();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+            new OffHeapPurchaseHistory(1_000, MAXIMUM_TICKETS, WINDOW.multipliedBy(2), file, now::get));
+
+        assertThat(exception.getMessage(), is(String.format(FILE_MISMATCH_ERROR, file, 32, 2 * BUCKET_MILLIS)));
+    }
+
+    @Test
+    void invalidMaximumTickets() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                                          () -> new OffHeapPurchaseHistory(1_000, 0, WINDOW));
+
+        assertThat(exception.getMessage(), is(String.format(INVALID_MAXIMUM_TICKETS_ERROR, MAXIMUM_COUNT, 0)));
+    }
+
+    private static TicketPurchaseRequest request(long accountId, int adults, int children, int infants) {
+        return new TicketPurchaseRequest(accountId, new TicketRequest[]{
+            new TicketRequest(ADULT, adults), new TicketRequest(CHILD, children), new TicketRequest(INFANT, infants)});
+    }
+}
@@ -0,0 +1,135 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapIdempotencyIndexTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final UUID IDEMPOTENCY_KEY = UUID.fromString("6f1c1b52-3f7e-4b4e-9a0c-8c1f5d2e7a90");
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+
+    private final AtomicLong now = new AtomicLong();
+    private final OffHeapIdempotencyIndex underTest = new OffHeapIdempotencyIndex(1_000, WINDOW, now::get);
+
+    @Test
+    void claim_newKey() {
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), nullValue());
+    }
+
+    @Test
+    void claim_completedKeyReturnsOriginalOutcome() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+        underTest.complete(ACCOUNT_ID, IDEMPOTENCY_KEY, 3, 50);
+
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), is(PurchaseResult.success(ACCOUNT_ID, 3, 50)));
+    }
+
+    @Test
+    void claim_inProgressKeyIsRejected() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+
+        assertThrows(RejectedExecutionException.class, () -> underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    void claim_releasedKeyCanBeClaimedAgain() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+        underTest.release(ACCOUNT_ID, IDEMPOTENCY_KEY);
+
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), nullValue());
+        assertThrows(RejectedExecutionException.class, () -> underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    void claim_keysAreScopedToTheAccount() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+
+        assertThat(underTest.claim(2L, IDEMPOTENCY_KEY), nullValue());
+    }
+
+    @Test
+    void claim_rememberedForOneWindowAfterRotation() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+        underTest.complete(ACCOUNT_ID, IDEMPOTENCY_KEY, 1, 20);
+
+        now.addAndGet(WINDOW.toNanos());
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), is(PurchaseResult.success(ACCOUNT_ID, 1, 20)));
+
+        now.addAndGet(WINDOW.toNanos());
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), nullValue());
+    }
+
+    @Test
+    void claim_forgottenAfterTwoIdleWindows() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+        underTest.complete(ACCOUNT_ID, IDEMPOTENCY_KEY, 1, 20);
+
+        now.addAndGet(2 * WINDOW.toNanos());
+
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), nullValue());
+    }
+
+    @Test
+    void claim_reusesRotatedTables() {
+        for (int window = 0; window < 6; window++) {
+            for (int i = 0; i < 500; i++) {
+                UUID key = new UUID(window, i);
+                assertThat(underTest.claim(ACCOUNT_ID, key), nullValue());
+                underTest.complete(ACCOUNT_ID, key, 1, i);
+            }
+            if (window >= 2) {
+                assertThat(underTest.claim(ACCOUNT_ID, new UUID(window - 2, 7)), nullValue());
+            }
+            assertThat(underTest.claim(ACCOUNT_ID, new UUID(window, 7)), is(PurchaseResult.success(ACCOUNT_ID, 1, 7)));
+            now.addAndGet(WINDOW.toNanos());
+        }
+    }
+
+    @Test
+    void complete_afterRotation() {
+        underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY);
+        now.addAndGet(WINDOW.toNanos());
+        underTest.claim(ACCOUNT_ID, UUID.randomUUID());
+
+        underTest.complete(ACCOUNT_ID, IDEMPOTENCY_KEY, 2, 40);
+
+        assertThat(underTest.claim(ACCOUNT_ID, IDEMPOTENCY_KEY), is(PurchaseResult.success(ACCOUNT_ID, 2, 40)));
+    }
+
+    @Test
+    void claim_manyKeys() {
+        OffHeapIdempotencyIndex index = new OffHeapIdempotencyIndex(100_000, WINDOW, now::get);
+        for (int i = 0; i < 100_000; i++) {
+            UUID key = new UUID(i, i);
+            assertThat(index.claim(ACCOUNT_ID, key), nullValue());
+            index.complete(ACCOUNT_ID, key, 1, i);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(index.claim(ACCOUNT_ID, new UUID(i, i)).amountPaid(), is(i));
+        }
+    }
+
+    @Test
+    void claim_fullIndexIsRejected() {
+        OffHeapIdempotencyIndex index = new OffHeapIdempotencyIndex(1, WINDOW, now::get);
+
+        assertThrows(RejectedExecutionException.class, () -> {
+            for (int i = 0; i < 64 * 16; i++) {
+                index.claim(ACCOUNT_ID, new UUID(0, i));
+            }
+        });
+    }
+}
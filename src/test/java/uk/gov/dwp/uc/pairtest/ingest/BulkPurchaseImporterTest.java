@@ -0,0 +1,242 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.ingest.BulkPurchaseImporter.RESULTS_HEADER;
+
+public class BulkPurchaseImporterTest {
+
+    private static final TicketPaymentService PAYMENTS = (accountId, totalAmountToPay) -> {
+    };
+    private static final SeatReservationService SEATS = new SeatReservationService() {
+        @Override
+        public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        }
+
+        @Override
+        public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        }
+    };
+    private static final DiscountService DISCOUNTS = (accountId, discountCode) -> {
+        if ("HALF".equals(discountCode)) {
+            return new Discount(0.5);
+        }
+        throw new InvalidDiscountCodeException("Invalid discount code.");
+    };
+
+    @TempDir
+    private Path directory;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final RecordingTicketService ticketService = new RecordingTicketService();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void importFile_csv() throws IOException {
+        Path input = write("bookings.csv",
+                           "accountId,adult,child,infant,discountCode",
+                           "1,2,1,1,HALF",
+                           "",
+                           "2,0,1,0",
+                           "three,1,0,0",
+                           "4,1,0,0\r");
+
+        BulkPurchaseImporter.Summary summary = underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+
+        assertThat(summary, is(new BulkPurchaseImporter.Summary(2, 2)));
+        assertThat(Files.readAllLines(results()), contains(
+            RESULTS_HEADER.strip(),
+            "2,SUCCEEDED,3,25,",
+            "4,FAILED,,,No adults were present in request.",
+            "5,FAILED,,,Malformed record.",
+            "6,SUCCEEDED,1,20,"));
+    }
+
+    @Test
+    void importFile_ndjson() throws IOException {
+        Path input = write("bookings.ndjson",
+                           "{\"accountId\":1,\"adult\":1,\"discountCode\":\"HALF\"}",
+                           "{\"accountId\":0,\"adult\":1}");
+
+        BulkPurchaseImporter.Summary summary = underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+
+        assertThat(summary, is(new BulkPurchaseImporter.Summary(1, 1)));
+        assertThat(Files.readAllLines(results()), contains(
+            RESULTS_HEADER.strip(),
+            "1,SUCCEEDED,1,10,",
+            "2,FAILED,,,Invalid accountId: 0."));
+    }
+
+    @Test
+    void importFile_resultsAreInFileOrderAcrossWindowsAndChunks() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int accountId = 1; accountId <= 500; accountId++) {
+            lines.add(accountId % 7 == 0 ? accountId + ",0,1,0" : accountId + ",1,0,0");
+        }
+        Path input = write("bookings.csv", lines.toArray(String[]::new));
+
+        BulkPurchaseImporter.Summary summary = underTest(100, 16).importFile(input, results(), checkpoint());
+
+        assertThat(summary.records(), is(500L));
+        assertThat(summary.failed(), is(71L));
+        List<String> results = Files.readAllLines(results());
+        assertThat(results, hasSize(501));
+        for (int line = 1; line <= 500; line++) {
+            assertThat(results.get(line), startsWith(line + (line % 7 == 0 ? ",FAILED" : ",SUCCEEDED")));
+        }
+        assertThat(ticketService.purchased, hasSize(429));
+    }
+
+    @Test
+    void importFile_resumesFromCheckpoint() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int accountId = 1; accountId <= 200; accountId++) {
+            lines.add(accountId + ",1,0,0");
+        }
+        Path input = write("bookings.csv", lines.toArray(String[]::new));
+        ticketService.failAfter = 120;
+
+        assertThrows(IllegalStateException.class, () -> underTest(100, 16).importFile(input, results(), checkpoint()));
+        ticketService.failAfter = Integer.MAX_VALUE;
+        BulkPurchaseImporter.Summary summary = underTest(100, 16).importFile(input, results(), checkpoint());
+
+        assertThat(summary, is(new BulkPurchaseImporter.Summary(200, 0)));
+        List<String> results = Files.readAllLines(results());
+        assertThat(results, hasSize(201));
+        for (int line = 1; line <= 200; line++) {
+            assertThat(results.get(line), startsWith(line + ",SUCCEEDED"));
+        }
+        assertThat(ticketService.purchased, hasSize(200));
+    }
+
+    @Test
+    void importFile_completedImportIsNotRepeated() throws IOException {
+        Path input = write("bookings.csv", "1,1,0,0");
+        underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+
+        BulkPurchaseImporter.Summary summary = underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+
+        assertThat(summary, is(new BulkPurchaseImporter.Summary(1, 0)));
+        assertThat(ticketService.calls, is(1));
+        assertThat(Files.readAllLines(results()), hasSize(2));
+    }
+
+    @Test
+    void importFile_lineLongerThanWindow() throws IOException {
+        Path input = write("bookings.csv", "1,1,0,0," + "X".repeat(100), "2,1,0,0");
+
+        IllegalStateException exception = assertThrows(
+            IllegalStateException.class, () -> underTest(64, 16).importFile(input, results(), checkpoint()));
+
+        assertThat(exception.getMessage(), is(String.format(BulkPurchaseImporter.LINE_TOO_LONG_ERROR, 0, 64)));
+    }
+
+    @Test
+    void importFile_checkpointForAnotherFile() throws IOException {
+        Path input = write("bookings.csv", "1,1,0,0");
+        underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+        Files.writeString(input, "1,1,0,0\n2,1,0,0\n");
+
+        assertThrows(IllegalStateException.class, () -> underTest(1 << 20, 512).importFile(input, results(), checkpoint()));
+    }
+
+    @Test
+    void importFile_checkpointForAnotherFileOfTheSameSize() throws IOException {
+        Path input = write("bookings.csv", "1,1,0,0");
+        underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+        Files.writeString(input, "2,1,0,0\n");
+
+        IllegalStateException exception = assertThrows(
+            IllegalStateException.class, () -> underTest(1 << 20, 512).importFile(input, results(), checkpoint()));
+
+        assertThat(exception.getMessage(), startsWith("Checkpoint " + checkpoint() + " is for import "));
+    }
+
+    @Test
+    void importFile_anotherFileAtTheSamePathGetsNewIdempotencyKeys() throws IOException {
+        Path input = write("bookings.csv", "1,1,0,0");
+        underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+        Files.delete(checkpoint());
+        Files.writeString(input, "2,1,0,0\n");
+
+        underTest(1 << 20, 512).importFile(input, results(), checkpoint());
+
+        assertThat(ticketService.purchased, hasSize(2));
+    }
+
+    private BulkPurchaseImporter underTest(int windowBytes, int batchSize) {
+        return new BulkPurchaseImporter(ticketService, executor, 3, ValidationPolicies.DEFAULT, windowBytes, batchSize);
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(directory.resolve(name), List.of(lines));
+    }
+
+    private Path results() {
+        return directory.resolve("results.csv");
+    }
+
+    private Path checkpoint() {
+        return directory.resolve("import.checkpoint");
+    }
+
+    /**
+     * Makes purchases, remembering the idempotency key of each, and fails once {@code failAfter} have been made.
+     */
+    private static final class RecordingTicketService implements TicketService {
+
+        private final TicketService ticketService = new TicketServiceImpl(PAYMENTS, SEATS, DISCOUNTS);
+        private final Set<Object> purchased = ConcurrentHashMap.newKeySet();
+        private int failAfter = Integer.MAX_VALUE;
+        private int calls;
+
+        @Override
+        public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) {
+            ticketService.purchaseTickets(ticketPurchaseRequest);
+        }
+
+        @Override
+        public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+            calls++;
+            if (purchased.size() + ticketPurchaseRequests.size() > failAfter) {
+                throw new IllegalStateException("Service unavailable.");
+            }
+            ticketPurchaseRequests.forEach(request -> purchased.add(request.getIdempotencyKey().orElseThrow()));
+            return ticketService.purchaseTickets(ticketPurchaseRequests);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.ingest.RecordFormat.CSV;
+import static uk.gov.dwp.uc.pairtest.ingest.RecordFormat.NDJSON;
+
+public class RecordFormatTest {
+
+    private final RecordFields fields = new RecordFields();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "1,2,1,1|1|2|1|1|",
+        "42, 3 ,0,0 , SUMMER |42|3|0|0|SUMMER",
+        "-5,1,-1,0,|-5|1|-1|0|"})
+    void csv_parse(String line, long accountId, int adults, int children, int infants, String discountCode) {
+        assertThat(parse(CSV, line), is(true));
+
+        assertThat(fields.accountId, is(accountId));
+        assertThat(fields.ticketCounts[ADULT.ordinal()], is(adults));
+        assertThat(fields.ticketCounts[CHILD.ordinal()], is(children));
+        assertThat(fields.ticketCounts[INFANT.ordinal()], is(infants));
+        assertThat(discountCode(line), is(discountCode));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1,2,1", "a,1,1,1", "1,2,1,1,CODE,EXTRA", "1,2,,1", "99999999999999999999,1,0,0", "1,3000000000,0,0"})
+    void csv_malformed(String line) {
+        assertThat(parse(CSV, line), is(false));
+    }
+
+    @Test
+    void csv_header() {
+        assertThat(isHeader(CSV, "accountId,adult,child,infant,discountCode"), is(true));
+        assertThat(isHeader(CSV, "1,1,0,0"), is(false));
+        assertThat(isHeader(CSV, "-1,1,0,0"), is(false));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "{\"accountId\":1,\"adult\":2,\"child\":1,\"infant\":1}|1|2|1|1|",
+        "{ \"discountCode\" : \"SUMMER\", \"accountId\" : 7, \"adult\" : 1 }|7|1|0|0|SUMMER",
+        "{\"accountId\":3,\"infant\":0,\"adult\":4,\"discountCode\":null}|3|4|0|0|"})
+    void ndjson_parse(String line, long accountId, int adults, int children, int infants, String discountCode) {
+        assertThat(parse(NDJSON, line), is(true));
+
+        assertThat(fields.accountId, is(accountId));
+        assertThat(fields.ticketCounts[ADULT.ordinal()], is(adults));
+        assertThat(fields.ticketCounts[CHILD.ordinal()], is(children));
+        assertThat(fields.ticketCounts[INFANT.ordinal()], is(infants));
+        assertThat(discountCode(line), is(discountCode));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"adult\":1}",
+        "{\"accountId\":1,\"senior\":1}",
+        "{\"accountId\":1,\"adult\":1",
+        "{\"accountId\":1,\"discountCode\":\"A\\\"B\"}",
+        "{\"accountId\":1} trailing",
+        "[1,2]"})
+    void ndjson_malformed(String line) {
+        assertThat(parse(NDJSON, line), is(false));
+    }
+
+    @Test
+    void forPath() {
+        assertThat(RecordFormat.forPath(Path.of("bookings.CSV")), is(CSV));
+        assertThat(RecordFormat.forPath(Path.of("bookings.ndjson")), is(NDJSON));
+        assertThat(RecordFormat.forPath(Path.of("bookings.jsonl")), is(NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> RecordFormat.forPath(Path.of("bookings.txt")));
+    }
+
+    private boolean parse(RecordFormat format, String line) {
+        ByteBuffer buffer = buffer(line);
+        return format.parse(buffer, 0, buffer.limit(), fields);
+    }
+
+    private boolean isHeader(RecordFormat format, String line) {
+        ByteBuffer buffer = buffer(line);
+        return format.isHeader(buffer, 0, buffer.limit());
+    }
+
+    private String discountCode(String line) {
+        if (fields.discountCodeLength < 0) {
+            return null;
+        }
+        return new String(line.getBytes(StandardCharsets.UTF_8), fields.discountCodeOffset, fields.discountCodeLength,
+                          StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer buffer(String line) {
+        return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    }
+}
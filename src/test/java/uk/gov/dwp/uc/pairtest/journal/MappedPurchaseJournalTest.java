@@ -0,0 +1,233 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.journal.MappedPurchaseJournal.RECORD_SIZE;
+
+public class MappedPurchaseJournalTest {
+
+    private static final int SEGMENT_SIZE = 4 * RECORD_SIZE;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(5);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_keepsOnlyIncompletePurchases() {
+        try (MappedPurchaseJournal underTest = open()) {
+            long paid = underTest.begin(1L, 2);
+            underTest.seatsReserved(paid);
+            underTest.discountApplied(paid, 40);
+            underTest.paid(paid);
+
+            long failed = underTest.begin(2L, 1);
+            underTest.failed(failed);
+
+            long reserved = underTest.begin(3L, 3);
+            underTest.seatsReserved(reserved);
+
+            long discounted = underTest.begin(4L, 1);
+            underTest.seatsReserved(discounted);
+            underTest.discountApplied(discounted, 16);
+
+            underTest.begin(5L, 4);
+        }
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases(), contains(new IncompletePurchase(3L, 3L, 3, true, -1),
+                                                                 new IncompletePurchase(4L, 4L, 1, true, 16),
+                                                                 new IncompletePurchase(5L, 5L, 4, false, -1)));
+            assertThat(underTest.begin(6L, 1), is(6L));
+        }
+    }
+
+    @Test
+    void replay_spansSegments() throws IOException {
+        try (MappedPurchaseJournal underTest = open()) {
+            for (int i = 0; i < 10; i++) {
+                underTest.begin(i + 1, 1);
+            }
+        }
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases(), hasSize(10));
+        }
+        try (var segments = Files.list(directory)) {
+            assertThat(segments.count(), is(3L));
+        }
+    }
+
+    @Test
+    void replay_stopsAtTornRecord() throws IOException {
+        try (MappedPurchaseJournal underTest = open()) {
+            underTest.begin(1L, 1);
+            underTest.begin(2L, 1);
+        }
+        Path segment = directory.resolve("purchases-0000000000.journal");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 99), RECORD_SIZE + 20);
+        }
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases(), contains(new IncompletePurchase(1L, 1L, 1, false, -1)));
+            underTest.begin(3L, 1);
+        }
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases().stream().map(IncompletePurchase::accountId).toList(),
+                       contains(1L, 3L));
+        }
+    }
+
+    @Test
+    void recover_compensatesAndJournalsFailure() {
+        try (MappedPurchaseJournal underTest = open()) {
+            long purchaseId = underTest.begin(1L, 2);
+            underTest.seatsReserved(purchaseId);
+        }
+
+        List<IncompletePurchase> compensated = new ArrayList<>();
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.recover(compensated::add), is(1));
+            assertThat(underTest.incompletePurchases(), empty());
+        }
+        assertThat(compensated, contains(new IncompletePurchase(1L, 1L, 2, true, -1)));
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases(), empty());
+        }
+    }
+
+    @Test
+    void recover_stopsAtFailedCompensation() {
+        try (MappedPurchaseJournal underTest = open()) {
+            underTest.begin(1L, 1);
+            underTest.begin(2L, 1);
+        }
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThrows(IllegalStateException.class, () -> underTest.recover(purchase -> {
+                throw new IllegalStateException("Unavailable");
+            }));
+            assertThat(underTest.incompletePurchases(), hasSize(2));
+        }
+    }
+
+    @Test
+    void sync_concurrentAppenders() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (MappedPurchaseJournal underTest = new MappedPurchaseJournal(directory, 1024 * RECORD_SIZE, FLUSH_INTERVAL)) {
+            List<Future<?>> appenders = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                appenders.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        long purchaseId = underTest.begin(1L, 1);
+                        underTest.paid(purchaseId);
+                        underTest.sync();
+                    }
+                }));
+            }
+            for (Future<?> appender : appenders) {
+                appender.get();
+            }
+            underTest.begin(2L, 1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (MappedPurchaseJournal underTest = new MappedPurchaseJournal(directory, 1024 * RECORD_SIZE, FLUSH_INTERVAL)) {
+            assertThat(underTest.incompletePurchases(), contains(new IncompletePurchase(1001L, 2L, 1, false, -1)));
+        }
+    }
+
+    @Test
+    void reclaim_deletesSegmentsOnceTheirPurchasesEnd() throws IOException {
+        try (MappedPurchaseJournal underTest = open()) {
+            for (int i = 0; i < 20; i++) {
+                long purchaseId = underTest.begin(i + 1, 1);
+                underTest.paid(purchaseId);
+                underTest.sync();
+            }
+            assertThat(segmentCount(), is(lessThanOrEqualTo(2L)));
+        }
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases(), empty());
+            assertThat(underTest.begin(21L, 1), is(21L));
+        }
+    }
+
+    @Test
+    void reclaim_keepsSegmentsFromTheOldestOpenPurchase() throws IOException {
+        try (MappedPurchaseJournal underTest = open()) {
+            underTest.begin(99L, 2);
+            for (int i = 0; i < 12; i++) {
+                long purchaseId = underTest.begin(i + 1, 1);
+                underTest.failed(purchaseId);
+                underTest.sync();
+            }
+            assertThat(segmentCount(), is(7L));
+        }
+
+        try (MappedPurchaseJournal underTest = open()) {
+            assertThat(underTest.incompletePurchases(), contains(new IncompletePurchase(1L, 99L, 2, false, -1)));
+            assertThat(underTest.recover(purchase -> {
+            }), is(1));
+            assertThat(segmentCount(), is(lessThanOrEqualTo(2L)));
+        }
+    }
+
+    @Test
+    void begin_afterClose() {
+        MappedPurchaseJournal underTest = open();
+        underTest.close();
+
+        assertThrows(IllegalStateException.class, () -> underTest.begin(1L, 1));
+    }
+
+    @Test
+    void constructor_segmentSizeNotMultipleOfRecordSize() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new MappedPurchaseJournal(directory, RECORD_SIZE + 1, FLUSH_INTERVAL));
+    }
+
+    @Test
+    void constructor_segmentSizeChanged() {
+        try (MappedPurchaseJournal underTest = open()) {
+            underTest.begin(1L, 1);
+        }
+
+        assertThrows(IllegalStateException.class,
+                     () -> new MappedPurchaseJournal(directory, 2 * SEGMENT_SIZE, FLUSH_INTERVAL));
+    }
+
+    private long segmentCount() throws IOException {
+        try (var segments = Files.list(directory)) {
+            return segments.count();
+        }
+    }
+
+    private MappedPurchaseJournal open() {
+        return new MappedPurchaseJournal(directory, SEGMENT_SIZE, FLUSH_INTERVAL);
+    }
+}
@@ -0,0 +1,36 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.Map;
+
+/**
+ * Shape of the synthetic traffic.
+ *
+ * @param accounts           accountIds are drawn uniformly from 1 to this
+ * @param maximumTickets     tickets per valid purchase are drawn uniformly from 1 to this
+ * @param ticketTypeMix      relative weight of each ticket type after the first ticket, which is always an adult
+ * @param invalidRatio       fraction of purchases built to fail validation
+ * @param discountCodeMix    relative weight of each discount code, with purchases left over sent without one
+ */
+record LoadProfile(int accounts,
+                   int maximumTickets,
+                   Map<TicketRequest.Type, Double> ticketTypeMix,
+                   double invalidRatio,
+                   Map<String, Double> discountCodeMix) {
+
+    static final String VALID_DISCOUNT_CODE = "SUMMER";
+    static final String INVALID_DISCOUNT_CODE = "EXPIRED";
+
+    static LoadProfile standard() {
+        return new LoadProfile(100_000,
+                               6,
+                               Map.of(TicketRequest.Type.ADULT, 0.5, TicketRequest.Type.CHILD, 0.4, TicketRequest.Type.INFANT, 0.1),
+                               0.02,
+                               Map.of(VALID_DISCOUNT_CODE, 0.2, INVALID_DISCOUNT_CODE, 0.05));
+    }
+
+    LoadProfile withInvalidRatio(double invalidRatio) {
+        return new LoadProfile(accounts, maximumTickets, ticketTypeMix, invalidRatio, discountCodeMix);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs an {@link OpenLoopLoadGenerator} against {@link TicketServiceImpl} and stub thirdparty services, taking
+ * {@code name=value} arguments:
+ * <ul>
+ *     <li>{@code rate}: purchases per second, default 1000</li>
+ *     <li>{@code duration} and {@code reportInterval}: ISO-8601 durations, default PT30S and PT1S</li>
+ *     <li>{@code latency} and {@code jitter}: of each thirdparty call, default PT0.001S and PT0.002S</li>
+ *     <li>{@code invalidRatio}: fraction of invalid purchases, default 0.02</li>
+ *     <li>{@code output}: directory for the results, default target/loadtest</li>
+ *     <li>{@code seed}: for the generated purchases, default 42</li>
+ * </ul>
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            String[] nameAndValue = arg.split("=", 2);
+            arguments.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+        }
+
+        StubThirdPartyServices.Latency latency = new StubThirdPartyServices.Latency(
+            Duration.parse(arguments.getOrDefault("latency", "PT0.001S")),
+            Duration.parse(arguments.getOrDefault("jitter", "PT0.002S")));
+        StubThirdPartyServices services = new StubThirdPartyServices(latency, latency, latency);
+        LoadProfile profile = LoadProfile.standard()
+            .withInvalidRatio(Double.parseDouble(arguments.getOrDefault("invalidRatio", "0.02")));
+        Path output = Path.of(arguments.getOrDefault("output", "target/loadtest"));
+
+        OpenLoopLoadGenerator.Summary summary = new OpenLoopLoadGenerator(
+            new TicketServiceImpl(services, services, services),
+            new PurchaseRequestGenerator(profile, Long.parseLong(arguments.getOrDefault("seed", "42"))),
+            Integer.parseInt(arguments.getOrDefault("rate", "1000")),
+            Duration.parse(arguments.getOrDefault("duration", "PT30S")),
+            Duration.parse(arguments.getOrDefault("reportInterval", "PT1S"))).run(output);
+
+        System.out.printf("Succeeded: %d, failed: %d, p99: %.1f us, max: %.1f us. Results in %s%n",
+                          summary.succeeded(),
+                          summary.failed(),
+                          summary.successLatency().getValueAtPercentile(99) / 1_000.0,
+                          summary.successLatency().getMaxValue() / 1_000.0,
+                          output.toAbsolutePath());
+    }
+}
@@ -0,0 +1,151 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends purchases at a fixed arrival rate whatever the service's response times, each on its own virtual thread, and
+ * measures each from when it was due to be sent rather than when it was. A slow service therefore shows up as
+ * latency, as it would to customers, rather than as a lower send rate (coordinated omission).
+ * <p>
+ * Writes to the output directory:
+ * <ul>
+ *     <li>{@value #HISTOGRAM_LOG}: an HdrHistogram interval log of latencies in nanoseconds, tagged
+ *     {@value #SUCCESS_TAG} and {@value #FAILURE_TAG}</li>
+ *     <li>{@value #THROUGHPUT_CSV}: completions and latency percentiles per interval</li>
+ *     <li>{@value #SUMMARY}: the latency distribution over the whole run</li>
+ * </ul>
+ */
+final class OpenLoopLoadGenerator {
+
+    static final String HISTOGRAM_LOG = "latency.hlog";
+    static final String THROUGHPUT_CSV = "throughput.csv";
+    static final String SUMMARY = "summary.txt";
+    static final String SUCCESS_TAG = "success";
+    static final String FAILURE_TAG = "failure";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final TicketService ticketService;
+    private final PurchaseRequestGenerator generator;
+    private final long arrivalIntervalNanos;
+    private final long durationNanos;
+    private final long reportIntervalNanos;
+
+    private final Recorder successes = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder failures = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram totalSuccesses = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram totalFailures = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram successInterval;
+    private Histogram failureInterval;
+
+    OpenLoopLoadGenerator(TicketService ticketService,
+                          PurchaseRequestGenerator generator,
+                          int requestsPerSecond,
+                          Duration duration,
+                          Duration reportInterval) {
+        this.ticketService = ticketService;
+        this.generator = generator;
+        this.arrivalIntervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        this.durationNanos = duration.toNanos();
+        this.reportIntervalNanos = reportInterval.toNanos();
+    }
+
+    Summary run(Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        try (PrintStream histogramLog = new PrintStream(Files.newOutputStream(outputDirectory.resolve(HISTOGRAM_LOG)));
+             PrintWriter throughput = new PrintWriter(Files.newBufferedWriter(outputDirectory.resolve(THROUGHPUT_CSV)))) {
+            HistogramLogWriter histogramLogWriter = new HistogramLogWriter(histogramLog);
+            long startMillis = System.currentTimeMillis();
+            histogramLogWriter.setBaseTime(startMillis);
+            histogramLogWriter.outputLogFormatVersion();
+            histogramLogWriter.outputStartTime(startMillis);
+            histogramLogWriter.outputLegend();
+            throughput.println("elapsedSeconds,succeeded,failed,perSecond,p50Micros,p99Micros,p999Micros,maxMicros");
+
+            long start = System.nanoTime();
+            long nextReport = start + reportIntervalNanos;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long intended = start; intended - start < durationNanos; intended += arrivalIntervalNanos) {
+                    long now;
+                    while ((now = System.nanoTime()) < intended) {
+                        LockSupport.parkNanos(intended - now);
+                    }
+                    if (now >= nextReport) {
+                        report(histogramLogWriter, throughput, start, startMillis);
+                        nextReport += reportIntervalNanos;
+                    }
+
+                    TicketPurchaseRequest ticketPurchaseRequest = generator.next();
+                    long dueAt = intended;
+                    executor.execute(() -> purchase(ticketPurchaseRequest, dueAt));
+                }
+            }
+            report(histogramLogWriter, throughput, start, startMillis);
+        }
+
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(outputDirectory.resolve(SUMMARY)))) {
+            summary.printf("Succeeded: %d, failed: %d%n%nSuccess latency (microseconds):%n",
+                           totalSuccesses.getTotalCount(), totalFailures.getTotalCount());
+            totalSuccesses.outputPercentileDistribution(summary, NANOS_PER_MICRO);
+        }
+        return new Summary(totalSuccesses.getTotalCount(), totalFailures.getTotalCount(), totalSuccesses.copy());
+    }
+
+    private void purchase(TicketPurchaseRequest ticketPurchaseRequest, long intendedNanos) {
+        try {
+            ticketService.purchaseTickets(ticketPurchaseRequest);
+            successes.recordValue(System.nanoTime() - intendedNanos);
+        } catch (RuntimeException exception) {
+            failures.recordValue(System.nanoTime() - intendedNanos);
+        }
+    }
+
+    private void report(HistogramLogWriter histogramLogWriter, PrintWriter throughput, long startNanos, long startMillis) {
+        successInterval = successes.getIntervalHistogram(successInterval);
+        failureInterval = failures.getIntervalHistogram(failureInterval);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long intervalMillis = TimeUnit.NANOSECONDS.toMillis(reportIntervalNanos);
+        for (Histogram interval : new Histogram[]{successInterval, failureInterval}) {
+            interval.setStartTimeStamp(startMillis + Math.max(0, elapsedMillis - intervalMillis));
+            interval.setEndTimeStamp(startMillis + elapsedMillis);
+        }
+        successInterval.setTag(SUCCESS_TAG);
+        failureInterval.setTag(FAILURE_TAG);
+        histogramLogWriter.outputIntervalHistogram(successInterval);
+        histogramLogWriter.outputIntervalHistogram(failureInterval);
+        totalSuccesses.add(successInterval);
+        totalFailures.add(failureInterval);
+
+        long completed = successInterval.getTotalCount() + failureInterval.getTotalCount();
+        throughput.printf("%.3f,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                          elapsedMillis / 1_000.0,
+                          successInterval.getTotalCount(),
+                          failureInterval.getTotalCount(),
+                          completed * 1_000.0 / Math.max(1, intervalMillis),
+                          successInterval.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                          successInterval.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                          successInterval.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                          successInterval.getMaxValue() / NANOS_PER_MICRO);
+        throughput.flush();
+    }
+
+    record Summary(long succeeded, long failed, Histogram successLatency) {
+    }
+}
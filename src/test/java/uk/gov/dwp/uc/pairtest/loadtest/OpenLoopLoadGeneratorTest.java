@@ -0,0 +1,66 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class OpenLoopLoadGeneratorTest {
+
+    private static final StubThirdPartyServices.Latency LATENCY = new StubThirdPartyServices.Latency(Duration.ofMillis(20), Duration.ZERO);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generator_followsInvalidRatio() {
+        PurchaseRequestGenerator underTest = new PurchaseRequestGenerator(LoadProfile.standard().withInvalidRatio(0.25), 1L);
+
+        int invalid = 0;
+        for (int i = 0; i < 10_000; i++) {
+            TicketPurchaseRequest ticketPurchaseRequest = underTest.next();
+            try {
+                ticketPurchaseRequest.validate();
+            } catch (InvalidPurchaseException exception) {
+                invalid++;
+            }
+        }
+
+        assertThat(invalid, is(both(greaterThan(2_250)).and(lessThan(2_750))));
+    }
+
+    @Test
+    void run_sendsAtFixedRateWhateverTheLatency() throws Exception {
+        StubThirdPartyServices services = new StubThirdPartyServices(LATENCY, LATENCY, LATENCY);
+        OpenLoopLoadGenerator underTest = new OpenLoopLoadGenerator(
+            new TicketServiceImpl(services, services, services),
+            new PurchaseRequestGenerator(LoadProfile.standard(), 1L),
+            500,
+            Duration.ofMillis(500),
+            Duration.ofMillis(100));
+
+        OpenLoopLoadGenerator.Summary summary = underTest.run(directory);
+
+        assertThat(summary.succeeded() + summary.failed(), is(250L));
+        assertThat(summary.successLatency().getMinValue(), greaterThanOrEqualTo(Duration.ofMillis(40).toNanos()));
+        List<String> throughput = Files.readAllLines(directory.resolve(OpenLoopLoadGenerator.THROUGHPUT_CSV));
+        assertThat(throughput.size(), greaterThan(2));
+        assertThat(Files.readString(directory.resolve(OpenLoopLoadGenerator.HISTOGRAM_LOG)).contains(OpenLoopLoadGenerator.SUCCESS_TAG), is(true));
+        assertThat(Files.readAllLines(directory.resolve(OpenLoopLoadGenerator.SUMMARY)), hasSize(greaterThan(1)));
+    }
+}
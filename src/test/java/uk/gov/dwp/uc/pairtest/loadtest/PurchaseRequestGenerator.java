@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+/**
+ * Builds an endless, reproducible stream of purchases following a {@link LoadProfile}. Not thread safe.
+ */
+final class PurchaseRequestGenerator {
+
+    private static final TicketRequest.Type[] TYPES = TicketRequest.Type.values();
+
+    private final LoadProfile profile;
+    private final SplittableRandom random;
+    private final double[] typeThresholds = new double[TYPES.length];
+    private final List<String> discountCodes = new ArrayList<>();
+    private final List<Double> discountCodeThresholds = new ArrayList<>();
+
+    PurchaseRequestGenerator(LoadProfile profile, long seed) {
+        this.profile = profile;
+        this.random = new SplittableRandom(seed);
+
+        double totalWeight = profile.ticketTypeMix().values().stream().mapToDouble(Double::doubleValue).sum();
+        double threshold = 0;
+        for (TicketRequest.Type type : TYPES) {
+            threshold += profile.ticketTypeMix().getOrDefault(type, 0.0) / totalWeight;
+            typeThresholds[type.ordinal()] = threshold;
+        }
+
+        threshold = 0;
+        for (Map.Entry<String, Double> discountCode : profile.discountCodeMix().entrySet()) {
+            threshold += discountCode.getValue();
+            discountCodes.add(discountCode.getKey());
+            discountCodeThresholds.add(threshold);
+        }
+    }
+
+    TicketPurchaseRequest next() {
+        long accountId = 1 + random.nextInt(profile.accounts());
+        String discountCode = discountCode();
+        if (random.nextDouble() < profile.invalidRatio()) {
+            return invalid(accountId, discountCode);
+        }
+
+        int[] ticketCounts = new int[TYPES.length];
+        ticketCounts[ADULT.ordinal()] = 1;
+        int tickets = 1 + random.nextInt(profile.maximumTickets());
+        for (int i = 1; i < tickets; i++) {
+            ticketCounts[type().ordinal()]++;
+        }
+        int excessInfants = ticketCounts[INFANT.ordinal()] - 2 * ticketCounts[ADULT.ordinal()];
+        if (excessInfants > 0) {
+            ticketCounts[INFANT.ordinal()] -= excessInfants;
+            ticketCounts[ADULT.ordinal()] += excessInfants;
+        }
+
+        TicketRequest[] ticketRequests = new TicketRequest[TYPES.length];
+        for (TicketRequest.Type type : TYPES) {
+            ticketRequests[type.ordinal()] = new TicketRequest(type, ticketCounts[type.ordinal()]);
+        }
+        return new TicketPurchaseRequest(accountId, ticketRequests, discountCode);
+    }
+
+    /**
+     * Breaks one of the rules at random: the accountId, adult supervision or the ticket cap.
+     */
+    private TicketPurchaseRequest invalid(long accountId, String discountCode) {
+        return switch (random.nextInt(3)) {
+            case 0 -> new TicketPurchaseRequest(0L, new TicketRequest[]{new TicketRequest(ADULT, 1)}, discountCode);
+            case 1 -> new TicketPurchaseRequest(accountId, new TicketRequest[]{new TicketRequest(CHILD, 2)}, discountCode);
+            default -> new TicketPurchaseRequest(accountId, new TicketRequest[]{new TicketRequest(ADULT, 50)}, discountCode);
+        };
+    }
+
+    private TicketRequest.Type type() {
+        double draw = random.nextDouble();
+        for (TicketRequest.Type type : TYPES) {
+            if (draw < typeThresholds[type.ordinal()]) {
+                return type;
+            }
+        }
+        return ADULT;
+    }
+
+    private String discountCode() {
+        double draw = random.nextDouble();
+        for (int i = 0; i < discountCodes.size(); i++) {
+            if (draw < discountCodeThresholds.get(i)) {
+                return discountCodes.get(i);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Stand-ins for the thirdparty services that take as long to answer as their {@link Latency} says, and otherwise
+ * always succeed. Only {@link LoadProfile#VALID_DISCOUNT_CODE} is a valid discount code.
+ */
+final class StubThirdPartyServices implements TicketPaymentService, SeatReservationService, DiscountService {
+
+    private static final Discount DISCOUNT = new Discount(0.1);
+
+    private final Latency paymentLatency;
+    private final Latency seatReservationLatency;
+    private final Latency discountLatency;
+
+    StubThirdPartyServices(Latency paymentLatency, Latency seatReservationLatency, Latency discountLatency) {
+        this.paymentLatency = paymentLatency;
+        this.seatReservationLatency = seatReservationLatency;
+        this.discountLatency = discountLatency;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        paymentLatency.await();
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        seatReservationLatency.await();
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        seatReservationLatency.await();
+    }
+
+    @Override
+    public Discount getDiscountPercentage(long accountId, String discountCode) throws InvalidDiscountCodeException {
+        discountLatency.await();
+        if (LoadProfile.VALID_DISCOUNT_CODE.equals(discountCode)) {
+            return DISCOUNT;
+        }
+        throw new InvalidDiscountCodeException("Invalid discount code.");
+    }
+
+    /**
+     * A fixed latency plus up to {@code jitter} more, drawn uniformly.
+     */
+    record Latency(Duration base, Duration jitter) {
+
+        static final Latency NONE = new Latency(Duration.ZERO, Duration.ZERO);
+
+        void await() {
+            long nanos = base.toNanos();
+            if (!jitter.isZero()) {
+                nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos());
+            }
+            if (nanos > 0) {
+                LockSupport.parkNanos(nanos);
+            }
+        }
+    }
+}
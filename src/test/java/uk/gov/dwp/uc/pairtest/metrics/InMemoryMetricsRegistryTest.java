@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class InMemoryMetricsRegistryTest {
+
+    private final InMemoryMetricsRegistry underTest = new InMemoryMetricsRegistry();
+
+    @Test
+    void timer_recordsDurations() {
+        MetricsRegistry.Timer timer = underTest.timer("timer");
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i * 1_000L);
+        }
+
+        Histogram snapshot = underTest.timerSnapshot("timer");
+
+        assertThat(snapshot.getTotalCount(), is(100L));
+        assertThat(snapshot.getValueAtPercentile(50) / 1_000, is(50L));
+        assertThat(snapshot.getMaxValue() / 1_000, is(100L));
+    }
+
+    @Test
+    void timer_sameNameIsSameTimer() {
+        assertThat(underTest.timer("timer"), sameInstance(underTest.timer("timer")));
+    }
+
+    @Test
+    void timerSnapshot_isACopy() {
+        underTest.timer("timer").record(1);
+        Histogram snapshot = underTest.timerSnapshot("timer");
+
+        underTest.timer("timer").record(1);
+
+        assertThat(snapshot.getTotalCount(), is(1L));
+    }
+
+    @Test
+    void timerSnapshot_unknownTimerIsEmpty() {
+        assertThat(underTest.timerSnapshot("unknown").getTotalCount(), is(0L));
+    }
+
+    @Test
+    void counter() {
+        underTest.counter("counter").increment();
+        underTest.counter("counter").increment();
+
+        assertThat(underTest.counterValue("counter"), is(2L));
+        assertThat(underTest.counterValue("unknown"), is(0L));
+    }
+}
@@ -0,0 +1,132 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.history.PurchaseHistory;
+import uk.gov.dwp.uc.pairtest.idempotency.IdempotencyIndex;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.sales.SalesRecorder;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+
+import java.util.List;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NO_ADULTS_WERE_PRESENT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.RATE_LIMITED;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS_FOR_ACCOUNT;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedDiscountService.DISCOUNT_FALLBACK_COUNTER;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedDiscountService.DISCOUNT_LOOKUP_TIMER;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedSeatReservationService.SEAT_RESERVATION_TIMER;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketPaymentService.PAYMENT_TIMER;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketService.PURCHASE_TIMER;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketService.VALIDATION_TIMER;
+import static uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketService.invalidPurchaseCounterName;
+
+@ExtendWith(MockitoExtension.class)
+public class InstrumentedTicketServiceTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final String DISCOUNT_CODE = "DISCOUNT";
+
+    @Mock
+    private TicketPaymentService ticketPaymentService;
+    @Mock
+    private SeatReservationService seatReservationService;
+    @Mock
+    private DiscountService discountService;
+    @Mock
+    private TicketService ticketService;
+
+    private final InMemoryMetricsRegistry metricsRegistry = new InMemoryMetricsRegistry();
+    private TicketService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new InstrumentedTicketService(
+            new TicketServiceImpl(new InstrumentedTicketPaymentService(ticketPaymentService, metricsRegistry),
+                                  new InstrumentedSeatReservationService(seatReservationService, metricsRegistry),
+                                  new InstrumentedDiscountService(discountService, metricsRegistry),
+                                  PurchaseJournal.NONE,
+                                  IdempotencyIndex.NONE,
+                                  ValidationPolicies.DEFAULT,
+                                  SalesRecorder.NONE,
+                                  PurchaseHistory.NONE,
+                                  metricsRegistry.timer(VALIDATION_TIMER)),
+            metricsRegistry);
+    }
+
+    @Test
+    void purchaseTickets_timesEachStage() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0));
+
+        underTest.purchaseTickets(request(ADULT, DISCOUNT_CODE));
+
+        assertThat(metricsRegistry.timerSnapshot(VALIDATION_TIMER).getTotalCount(), is(1L));
+        assertThat(metricsRegistry.timerSnapshot(SEAT_RESERVATION_TIMER).getTotalCount(), is(1L));
+        assertThat(metricsRegistry.timerSnapshot(DISCOUNT_LOOKUP_TIMER).getTotalCount(), is(1L));
+        assertThat(metricsRegistry.timerSnapshot(PAYMENT_TIMER).getTotalCount(), is(1L));
+        assertThat(metricsRegistry.timerSnapshot(PURCHASE_TIMER).getTotalCount(), is(1L));
+        assertThat(metricsRegistry.counterValue(DISCOUNT_FALLBACK_COUNTER), is(0L));
+    }
+
+    @Test
+    void purchaseTickets_countsDiscountFallback() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, null)).thenThrow(new InvalidDiscountCodeException("Invalid"));
+
+        underTest.purchaseTickets(request(ADULT, null));
+
+        assertThat(metricsRegistry.counterValue(DISCOUNT_FALLBACK_COUNTER), is(1L));
+    }
+
+    @Test
+    void purchaseTickets_countsInvalidPurchasesByReason() {
+        assertThrows(InvalidPurchaseException.class, () -> underTest.purchaseTickets(request(CHILD, null)));
+        underTest.purchaseTickets(List.of(request(CHILD, null)));
+
+        assertThat(metricsRegistry.counterValue(invalidPurchaseCounterName(NO_ADULTS_WERE_PRESENT)), is(2L));
+        assertThat(metricsRegistry.timerSnapshot(VALIDATION_TIMER).getTotalCount(), is(2L));
+        assertThat(metricsRegistry.timerSnapshot(SEAT_RESERVATION_TIMER).getTotalCount(), is(0L));
+    }
+
+    @Test
+    void purchaseTickets_countsReasonsFoundDownstream() {
+        TicketService instrumented = new InstrumentedTicketService(ticketService, metricsRegistry);
+        TicketPurchaseRequest ticketPurchaseRequest = request(ADULT, null);
+        doThrow(new InvalidPurchaseException(TOO_MANY_TICKETS_FOR_ACCOUNT, "Over limit"))
+            .when(ticketService).purchaseTickets(ticketPurchaseRequest);
+        when(ticketService.purchaseTickets(List.of(ticketPurchaseRequest)))
+            .thenReturn(List.of(PurchaseResult.invalid(ACCOUNT_ID, RATE_LIMITED, "Rate limited")));
+
+        assertThrows(InvalidPurchaseException.class, () -> instrumented.purchaseTickets(ticketPurchaseRequest));
+        instrumented.purchaseTickets(List.of(ticketPurchaseRequest));
+
+        assertThat(metricsRegistry.counterValue(invalidPurchaseCounterName(TOO_MANY_TICKETS_FOR_ACCOUNT)), is(1L));
+        assertThat(metricsRegistry.counterValue(invalidPurchaseCounterName(RATE_LIMITED)), is(1L));
+    }
+
+    private static TicketPurchaseRequest request(TicketRequest.Type type, String discountCode) {
+        return new TicketPurchaseRequest(ACCOUNT_ID, new TicketRequest[]{new TicketRequest(type, 1)}, discountCode);
+    }
+}
@@ -0,0 +1,258 @@
+package uk.gov.dwp.uc.pairtest.partition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.seatbooking.ScreeningSeatInventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NO_ADULTS_WERE_PRESENT;
+import static uk.gov.dwp.uc.pairtest.partition.PartitionedTicketService.CLOSED_ERROR;
+
+public class PartitionedTicketServiceTest {
+
+    private static final int PARTITIONS = 4;
+    private static final TicketPaymentService PAYMENTS = (accountId, totalAmountToPay) -> {
+    };
+    private static final DiscountService NO_DISCOUNT = (accountId, discountCode) -> new Discount(0);
+
+    private final List<PartitionedTicketService> services = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (PartitionedTicketService service : services) {
+            service.close();
+        }
+    }
+
+    @Test
+    void purchaseTickets_sameAccountIsAlwaysMadeByTheSamePartition() {
+        Map<Long, Set<String>> threadsByAccount = new ConcurrentHashMap<>();
+        PartitionedTicketService underTest = underTest(partition -> new RecordingTicketService(threadsByAccount));
+
+        for (int round = 0; round < 10; round++) {
+            for (long accountId = 1; accountId <= 20; accountId++) {
+                underTest.purchaseTickets(adults(accountId, 1));
+            }
+        }
+
+        assertThat(threadsByAccount.size(), is(20));
+        threadsByAccount.values().forEach(threads -> {
+            assertThat(threads, hasSize(1));
+            assertThat(threads.iterator().next(), startsWith("purchase-partition-"));
+        });
+    }
+
+    @Test
+    void purchaseTickets_failureIsThrownToTheCaller() {
+        PartitionedTicketService underTest = underTest(partition -> ticketService(new ScreeningSeatInventory(10)));
+        TicketPurchaseRequest noAdults = new TicketPurchaseRequest(1L, new TicketRequest[]{new TicketRequest(CHILD, 1)});
+
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                                                          () -> underTest.purchaseTickets(noAdults));
+
+        assertThat(exception.getReason(), is(NO_ADULTS_WERE_PRESENT));
+    }
+
+    @Test
+    void purchaseTickets_batchResultsAreInRequestOrder() {
+        PartitionedTicketService underTest = underTest(partition -> ticketService(new ScreeningSeatInventory(100)));
+        List<TicketPurchaseRequest> batch = new ArrayList<>();
+        for (long accountId = 1; accountId <= 12; accountId++) {
+            batch.add(accountId % 3 == 0
+                          ? new TicketPurchaseRequest(accountId, new TicketRequest[]{new TicketRequest(CHILD, 1)})
+                          : adults(accountId, (int) accountId));
+        }
+
+        List<PurchaseResult> results = underTest.purchaseTickets(batch);
+
+        assertThat(results, hasSize(12));
+        for (int i = 0; i < results.size(); i++) {
+            long accountId = i + 1;
+            assertThat(results.get(i).accountId(), is(accountId));
+            assertThat(results.get(i).isSuccessful(), is(accountId % 3 != 0));
+        }
+    }
+
+    @Test
+    void purchaseTickets_concurrentPurchasesDoNotOversellAPartition() throws Exception {
+        int capacity = 50;
+        List<ScreeningSeatInventory> inventories = new ArrayList<>();
+        PartitionedTicketService underTest = underTest(partition -> {
+            ScreeningSeatInventory inventory = new ScreeningSeatInventory(capacity);
+            inventories.add(inventory);
+            return ticketService(inventory);
+        });
+        AtomicInteger seatsSold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> purchases = new ArrayList<>();
+            for (int caller = 0; caller < 8; caller++) {
+                purchases.add(callers.submit(() -> {
+                    start.await();
+                    for (long accountId = 1; accountId <= 100; accountId++) {
+                        try {
+                            underTest.purchaseTickets(adults(accountId, 2));
+                            seatsSold.addAndGet(2);
+                        } catch (RuntimeException soldOut) {
+                            // The partition has no seats left.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> purchase : purchases) {
+                purchase.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        int remainingSeats = 0;
+        for (ScreeningSeatInventory inventory : inventories) {
+            assertThat(inventory.remainingSeats() >= 0, is(true));
+            remainingSeats += inventory.remainingSeats();
+        }
+        assertThat(seatsSold.get() + remainingSeats, is(capacity * PARTITIONS));
+    }
+
+    @Test
+    void purchaseTickets_rejectedOnceClosed() throws InterruptedException {
+        PartitionedTicketService underTest = underTest(partition -> ticketService(new ScreeningSeatInventory(10)));
+        underTest.close();
+
+        RejectedExecutionException exception = assertThrows(RejectedExecutionException.class,
+                                                             () -> underTest.purchaseTickets(adults(1L, 1)));
+
+        assertThat(exception.getMessage(), is(CLOSED_ERROR));
+    }
+
+    @Test
+    void purchaseTickets_racingCloseNeverStrandsAPurchase() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            PartitionedTicketService underTest =
+                new PartitionedTicketService(PARTITIONS, 1024, partition -> ticketService(new ScreeningSeatInventory(1_000)));
+            List<Future<?>> submitters = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                for (int submitter = 0; submitter < 4; submitter++) {
+                    long accountId = submitter + 1L;
+                    submitters.add(executor.submit(() -> {
+                        for (int i = 0; i < 100; i++) {
+                            try {
+                                underTest.purchaseTickets(adults(accountId, 1));
+                            } catch (RejectedExecutionException exception) {
+                                return;
+                            }
+                        }
+                    }));
+                }
+                underTest.close();
+                for (Future<?> submitter : submitters) {
+                    submitter.get(5, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+
+    @Test
+    void purchaseTickets_failedPartitionBatchFailsOnlyItsShare() {
+        PartitionedTicketService underTest = new PartitionedTicketService(
+            PARTITIONS, 64, partition -> partition == 0 ? new FailingBatchTicketService() : ticketService(new ScreeningSeatInventory(10)),
+            TicketPurchaseRequest::getAccountId);
+        services.add(underTest);
+        List<TicketPurchaseRequest> requests = new ArrayList<>();
+        for (long accountId = 1; accountId <= 8; accountId++) {
+            requests.add(adults(accountId, 1));
+        }
+
+        List<PurchaseResult> results = underTest.purchaseTickets(requests);
+
+        assertThat(results, hasSize(8));
+        int failures = 0;
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).accountId(), is(requests.get(i).getAccountId()));
+            if (!results.get(i).isSuccessful()) {
+                assertThat(results.get(i).failureReason(), is(FailingBatchTicketService.FAILURE));
+                failures++;
+            }
+        }
+        assertThat(failures > 0 && failures < 8, is(true));
+    }
+
+    private PartitionedTicketService underTest(IntFunction<TicketService> partitionServices) {
+        PartitionedTicketService underTest = new PartitionedTicketService(PARTITIONS, 64, partitionServices);
+        services.add(underTest);
+        return underTest;
+    }
+
+    private static TicketService ticketService(ScreeningSeatInventory inventory) {
+        return new TicketServiceImpl(PAYMENTS, inventory, NO_DISCOUNT);
+    }
+
+    private static TicketPurchaseRequest adults(long accountId, int numberOfTickets) {
+        return new TicketPurchaseRequest(accountId, new TicketRequest[]{new TicketRequest(ADULT, numberOfTickets)});
+    }
+
+    private static final class FailingBatchTicketService implements TicketService {
+
+        static final String FAILURE = "Partition store is unavailable.";
+
+        @Override
+        public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) {
+            throw new IllegalStateException(FAILURE);
+        }
+
+        @Override
+        public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+            throw new IllegalStateException(FAILURE);
+        }
+    }
+
+    private record RecordingTicketService(Map<Long, Set<String>> threadsByAccount) implements TicketService {
+
+        @Override
+        public void purchaseTickets(TicketPurchaseRequest ticketPurchaseRequest) {
+            threadsByAccount.computeIfAbsent(ticketPurchaseRequest.getAccountId(), accountId -> ConcurrentHashMap.newKeySet())
+                .add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public List<PurchaseResult> purchaseTickets(List<TicketPurchaseRequest> ticketPurchaseRequests) {
+            ticketPurchaseRequests.forEach(this::purchaseTickets);
+            return List.of();
+        }
+    }
+}
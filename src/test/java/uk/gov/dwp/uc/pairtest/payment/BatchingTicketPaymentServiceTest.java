@@ -0,0 +1,155 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BatchingTicketPaymentServiceTest {
+
+    private static final Duration GATEWAY_LATENCY = Duration.ofMillis(2);
+
+    private final StandInGateway gateway = new StandInGateway();
+    private BatchingTicketPaymentService underTest;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        underTest.close();
+        gateway.scheduler.shutdownNow();
+    }
+
+    @Test
+    void makePayment_flushesAfterMaxBatchDelay() {
+        underTest = new BatchingTicketPaymentService(gateway, 256, Duration.ofMillis(5), 4, 1024);
+
+        underTest.makePayment(1L, 20);
+
+        assertThat(gateway.batches.get(), is(1));
+        assertThat(gateway.amountPaid.sum(), is(20L));
+    }
+
+    @Test
+    void makePayment_gatewayFailureReachesCaller() {
+        gateway.failing = true;
+        underTest = new BatchingTicketPaymentService(gateway, 256, Duration.ofMillis(5), 4, 1024);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> underTest.makePayment(1L, 20));
+
+        assertThat(exception.getMessage(), is(StandInGateway.FAILURE));
+    }
+
+    @Test
+    void makePayment_batchesConcurrentPayments() throws Exception {
+        int payments = 20_000;
+        underTest = new BatchingTicketPaymentService(gateway, 256, Duration.ofMillis(5), 4, 32_768);
+
+        long start = System.nanoTime();
+        List<Future<?>> purchases = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < payments; i++) {
+                purchases.add(executor.submit(() -> underTest.makePayment(1L, 1)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Future<?> purchase : purchases) {
+            purchase.get();
+        }
+
+        assertThat(gateway.amountPaid.sum(), is((long) payments));
+        assertThat(gateway.batches.get(), lessThan(payments / 10));
+        assertThat(gateway.maxBatchSize.get(), lessThanOrEqualTo(256));
+        // One gateway call per payment would take payments * 2ms = 40s.
+        assertThat(elapsed, lessThan(GATEWAY_LATENCY.toNanos() * payments / 4));
+    }
+
+    @Test
+    void submitPayment_rejectedWhenClosed() throws Exception {
+        underTest = new BatchingTicketPaymentService(gateway, 256, Duration.ofMillis(5), 4, 1024);
+        underTest.close();
+
+        CompletableFuture<Void> payment = underTest.submitPayment(1L, 20);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, payment::get);
+        assertThat(exception.getCause(), instanceOf(RejectedExecutionException.class));
+    }
+
+    @Test
+    void submitPayment_racingCloseIsAlwaysCompleted() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            BatchingTicketPaymentService paymentService =
+                new BatchingTicketPaymentService(gateway, 256, Duration.ofMillis(1), 4, 1024);
+            List<CompletableFuture<Void>> payments = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                for (int submitter = 0; submitter < 4; submitter++) {
+                    executor.submit(() -> {
+                        for (int i = 0; i < 100; i++) {
+                            CompletableFuture<Void> payment = paymentService.submitPayment(1L, 1);
+                            synchronized (payments) {
+                                payments.add(payment);
+                            }
+                        }
+                    });
+                }
+                paymentService.close();
+            }
+
+            for (CompletableFuture<Void> payment : payments) {
+                try {
+                    payment.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException exception) {
+                    assertThat(exception.getCause(), instanceOf(RejectedExecutionException.class));
+                }
+            }
+        }
+        underTest = new BatchingTicketPaymentService(gateway, 256, Duration.ofMillis(5), 4, 1024);
+    }
+
+    /**
+     * Acknowledges each batch after a fixed latency, however large it is.
+     */
+    private static final class StandInGateway implements BatchPaymentGateway {
+
+        static final String FAILURE = "Gateway refused the batch.";
+
+        private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger maxBatchSize = new AtomicInteger();
+        private final LongAdder amountPaid = new LongAdder();
+        private volatile boolean failing;
+
+        @Override
+        public CompletableFuture<Void> submitBatch(List<Payment> payments) {
+            CompletableFuture<Void> acknowledgement = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                if (failing) {
+                    acknowledgement.completeExceptionally(new IllegalStateException(FAILURE));
+                    return;
+                }
+                batches.incrementAndGet();
+                maxBatchSize.accumulateAndGet(payments.size(), Math::max);
+                payments.forEach(payment -> amountPaid.add(payment.totalAmountToPay()));
+                acknowledgement.complete(null);
+            }, GATEWAY_LATENCY.toNanos(), TimeUnit.NANOSECONDS);
+            return acknowledgement;
+        }
+    }
+}
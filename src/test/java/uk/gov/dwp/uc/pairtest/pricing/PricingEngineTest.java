@@ -0,0 +1,157 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import thirdparty.discount.Discount;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+public class PricingEngineTest {
+
+    private static final long SCREENING_ID = 7L;
+    private static final LocalTime EVENING = LocalTime.of(19, 30);
+    private static final Map<TicketRequest.Type, Integer> BASE_PRICES = Map.of(ADULT, 1250, CHILD, 650, INFANT, 0);
+
+    @ParameterizedTest(name = "Standard price of {0} adults, {1} children and {2} infants matches the ticket types")
+    @CsvSource({"1, 0, 0",
+                "0, 1, 0",
+                "1, 1, 1",
+                "19, 0, 1",
+                "3, 7, 5"})
+    void price_standardRulesMatchTicketTypes(int numberOfAdults, int numberOfChildren, int numberOfInfants) {
+        TicketPurchaseRequest request = new TicketPurchaseRequest(1L, new TicketRequest[]{
+            new TicketRequest(ADULT, numberOfAdults),
+            new TicketRequest(CHILD, numberOfChildren),
+            new TicketRequest(INFANT, numberOfInfants)});
+
+        int price = new PricingEngine(PricingRules.standard()).price(SCREENING_ID, EVENING, request);
+
+        assertThat(price, is(request.cost() * 100));
+    }
+
+    @Test
+    void price_screeningPriceOverridesBasePrice() {
+        PricingEngine underTest = new PricingEngine(new PricingRules(
+            BASE_PRICES, List.of(new PricingRules.ScreeningPrice(SCREENING_ID, ADULT, 1500)), List.of(), List.of()));
+
+        assertThat(underTest.price(SCREENING_ID, EVENING, counts(2, 1, 0)), is(3650));
+        assertThat(underTest.price(8L, EVENING, counts(2, 1, 0)), is(3150));
+    }
+
+    @Test
+    void price_timeOfDayAdjustment() {
+        PricingEngine underTest = new PricingEngine(new PricingRules(BASE_PRICES, List.of(), List.of(
+            new PricingRules.TimeOfDayAdjustment(LocalTime.of(10, 0), LocalTime.of(17, 0), -2500),
+            new PricingRules.TimeOfDayAdjustment(LocalTime.of(22, 0), LocalTime.of(2, 0), 1000)), List.of()));
+
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(10, 0), counts(1, 1, 0)), is(937 + 487));
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(16, 59), counts(1, 0, 0)), is(937));
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(17, 0), counts(1, 0, 0)), is(1250));
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(23, 15), counts(1, 0, 0)), is(1375));
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(1, 59), counts(1, 0, 0)), is(1375));
+    }
+
+    @Test
+    void price_laterTimeOfDayAdjustmentWins() {
+        PricingEngine underTest = new PricingEngine(new PricingRules(BASE_PRICES, List.of(), List.of(
+            new PricingRules.TimeOfDayAdjustment(LocalTime.of(10, 0), LocalTime.of(17, 0), -2500),
+            new PricingRules.TimeOfDayAdjustment(LocalTime.of(12, 0), LocalTime.of(13, 0), -5000)), List.of()));
+
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(12, 30), counts(1, 0, 0)), is(625));
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(13, 0), counts(1, 0, 0)), is(937));
+    }
+
+    @ParameterizedTest(name = "{0} adults pay {1} pence with group discounts")
+    @CsvSource({"1, 1250",
+                "4, 5000",
+                "5, 5625",
+                "9, 10125",
+                "10, 10000",
+                "20, 20000"})
+    void price_groupDiscount(int numberOfAdults, int expectedPrice) {
+        PricingEngine underTest = new PricingEngine(new PricingRules(BASE_PRICES, List.of(), List.of(), List.of(
+            new PricingRules.GroupDiscount(10, 2000),
+            new PricingRules.GroupDiscount(5, 1000))));
+
+        assertThat(underTest.price(SCREENING_ID, EVENING, counts(numberOfAdults, 0, 0)), is(expectedPrice));
+    }
+
+    @Test
+    void price_moreThanAByteOfTimeOfDayAdjustments() {
+        List<PricingRules.TimeOfDayAdjustment> adjustments = new ArrayList<>();
+        for (int minute = 0; minute < 300; minute++) {
+            LocalTime from = LocalTime.MIDNIGHT.plusMinutes(minute);
+            adjustments.add(new PricingRules.TimeOfDayAdjustment(from, from.plusMinutes(1), minute));
+        }
+        PricingEngine underTest = new PricingEngine(new PricingRules(BASE_PRICES, List.of(), adjustments, List.of()));
+
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(4, 59), counts(1, 0, 0)), is(1250 * (10_000 + 299) / 10_000));
+        assertThat(underTest.price(SCREENING_ID, LocalTime.of(5, 0), counts(1, 0, 0)), is(1250));
+    }
+
+    @Test
+    void swap_laterPricesUseNewRules() {
+        PricingEngine underTest = new PricingEngine(PricingRules.standard());
+
+        underTest.swap(new PricingRules(BASE_PRICES, List.of(), List.of(), List.of()));
+
+        assertThat(underTest.price(SCREENING_ID, EVENING, counts(1, 0, 0)), is(1250));
+    }
+
+    @Test
+    void swap_invalidRulesKeepCurrentRules() {
+        PricingEngine underTest = new PricingEngine(PricingRules.standard());
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> underTest.swap(new PricingRules(Map.of(ADULT, 1250), List.of(), List.of(), List.of())));
+        assertThrows(IllegalArgumentException.class, () -> underTest.swap(new PricingRules(
+            BASE_PRICES, List.of(new PricingRules.ScreeningPrice(SCREENING_ID, ADULT, -1)), List.of(), List.of())));
+        assertThrows(IllegalArgumentException.class, () -> underTest.swap(new PricingRules(
+            BASE_PRICES, List.of(), List.of(), List.of(new PricingRules.GroupDiscount(0, 1000)))));
+        assertThrows(IllegalArgumentException.class, () -> underTest.swap(new PricingRules(
+            BASE_PRICES, List.of(), Collections.nCopies(PriceTable.MAXIMUM_ADJUSTMENTS + 1,
+                new PricingRules.TimeOfDayAdjustment(EVENING, EVENING.plusHours(1), 1000)), List.of())));
+
+        assertThat(underTest.price(SCREENING_ID, EVENING, counts(1, 0, 0)), is(2000));
+    }
+
+    @ParameterizedTest(name = "{0} pence with {1} off is {2} pence")
+    @CsvSource({"1000, 0.9, 100",
+                "2000, 0.8, 400",
+                "1999, 0.5, 999",
+                "1250, 0, 1250",
+                "1250, 1, 0"})
+    void discount_isExactToTheBasisPoint(int pence, double percentage, int expectedPence) {
+        assertThat(PricingEngine.discount(pence, new Discount(percentage)), is(expectedPence));
+    }
+
+    @ParameterizedTest(name = "{0} off is rejected")
+    @CsvSource({"-0.1", "1.1"})
+    void discount_outOfRange(double percentage) {
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.discount(1000, new Discount(percentage)));
+    }
+
+    private static int[] counts(int numberOfAdults, int numberOfChildren, int numberOfInfants) {
+        int[] counts = new int[TicketRequest.Type.values().length];
+        counts[ADULT.ordinal()] = numberOfAdults;
+        counts[CHILD.ordinal()] = numberOfChildren;
+        counts[INFANT.ordinal()] = numberOfInfants;
+        return counts;
+    }
+}
@@ -0,0 +1,202 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicies;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import thirdparty.discount.Discount;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NEGATIVE_QUANTITY_OF_TICKETS;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.NO_ADULTS_WERE_PRESENT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.TOO_MANY_TICKETS;
+import static uk.gov.dwp.uc.pairtest.pricing.QuoteService.NOT_PURCHASABLE;
+import static uk.gov.dwp.uc.pairtest.pricing.QuoteTable.TOO_MANY_TICKETS_FOR_TABLE_ERROR;
+
+public class QuoteServiceTest {
+
+    private final QuoteService underTest = new QuoteService();
+
+    @Test
+    void quote_agreesWithPurchaseRequestForEveryMix() {
+        int[] ticketCounts = new int[3];
+        for (int adults = -1; adults <= 22; adults++) {
+            for (int children = -1; children <= 22; children++) {
+                for (int infants = -1; infants <= 22; infants++) {
+                    ticketCounts[ADULT.ordinal()] = adults;
+                    ticketCounts[CHILD.ordinal()] = children;
+                    ticketCounts[INFANT.ordinal()] = infants;
+                    Reason reason = TicketPurchaseRequest.checkCounts(1L, ticketCounts, ValidationPolicy.DEFAULT);
+
+                    assertThat(underTest.check(adults, children, infants), is(reason));
+                    if (Objects.isNull(reason)) {
+                        assertThat(underTest.seats(adults, children, infants), is(TicketPurchaseRequest.numberOfSeats(ticketCounts)));
+                        assertThat(underTest.price(adults, children, infants), is(TicketPurchaseRequest.cost(ticketCounts, 0)));
+                        assertThat(underTest.price(adults, children, infants, new Discount(0.15)),
+                                   is(TicketPurchaseRequest.cost(ticketCounts, 0.15)));
+                    } else {
+                        assertThat(underTest.seats(adults, children, infants), is(NOT_PURCHASABLE));
+                        assertThat(underTest.price(adults, children, infants), is(NOT_PURCHASABLE));
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0} adults, {1} children and {2} infants less {3} cost {4}")
+    @CsvSource({"1, 0, 0, 0.1, 18",
+                "0, 1, 0, 0.9, -1",
+                "1, 1, 0, 0.9, 3",
+                "2, 3, 4, 0.333, 46",
+                "20, 0, 0, 1, 0"})
+    void price_discountIsExact(int adults, int children, int infants, double discount, int price) {
+        assertThat(underTest.price(adults, children, infants, new Discount(discount)), is(price));
+    }
+
+    @ParameterizedTest(name = "{0} adults, {1} children and {2} infants less {3} basis points is rejected")
+    @CsvSource({"1, 0, 0, -1",
+                "1, 0, 0, 10001",
+                "0, 1, 0, 10001"})
+    void price_discountOutOfRange(int adults, int children, int infants, long discountBasisPoints) {
+        assertThrows(IllegalArgumentException.class,
+                     () -> underTest.price(adults, children, infants, discountBasisPoints));
+        assertThrows(IllegalArgumentException.class,
+                     () -> underTest.price(adults, children, infants, new Discount(discountBasisPoints / 10_000.0)));
+    }
+
+    @ParameterizedTest(name = "{0} adults, {1} children and {2} infants break {3}")
+    @CsvSource({"-1, 1, 0, NEGATIVE_QUANTITY_OF_TICKETS",
+                "25, 0, 0, TOO_MANY_TICKETS",
+                "15, 6, 0, TOO_MANY_TICKETS",
+                "0, 2, 0, NO_ADULTS_WERE_PRESENT",
+                "1, 0, 3, TOO_MANY_INFANTS_TO_ADULTS",
+                "0, 0, 0, NO_TICKETS"})
+    void check_invalidMix(int adults, int children, int infants, Reason reason) {
+        assertThat(underTest.check(adults, children, infants), is(reason));
+    }
+
+    @Test
+    void price_forScreeningComesFromPricingEngine() {
+        PricingEngine pricingEngine = new PricingEngine(new PricingRules(
+            Map.of(ADULT, 1250, CHILD, 650, INFANT, 0), List.of(new PricingRules.ScreeningPrice(7L, ADULT, 1500)),
+            List.of(), List.of()));
+        QuoteService underTest = new QuoteService(ValidationPolicies.DEFAULT, pricingEngine);
+
+        assertThat(underTest.price(2, 1, 1, 7L, LocalTime.NOON), is(3650));
+        assertThat(underTest.price(2, 1, 1, 8L, LocalTime.NOON), is(3150));
+        assertThat(underTest.price(0, 1, 0, 7L, LocalTime.NOON), is(NOT_PURCHASABLE));
+        assertThat(underTest.price(30, 0, 0, 7L, LocalTime.NOON), is(NOT_PURCHASABLE));
+    }
+
+    @Test
+    void quote_followsValidationPolicyChanges() {
+        AtomicReference<ValidationPolicy> policy = new AtomicReference<>(ValidationPolicy.DEFAULT);
+        QuoteService underTest = new QuoteService(policy::get);
+        assertThat(underTest.check(25, 0, 0), is(TOO_MANY_TICKETS));
+        assertThat(underTest.check(0, 1, 0), is(NO_ADULTS_WERE_PRESENT));
+
+        policy.set(new ValidationPolicy(30, 0, 2));
+
+        assertThat(underTest.check(25, 0, 0), is(nullValue()));
+        assertThat(underTest.price(0, 1, 0), is(10));
+        assertThat(underTest.check(-1, 0, 0), is(NEGATIVE_QUANTITY_OF_TICKETS));
+    }
+
+    @Test
+    void quote_tableIsBuiltAsPolicyIsPublished() {
+        PublishingPolicies policies = new PublishingPolicies();
+        QuoteService underTest = new QuoteService(policies);
+
+        policies.publish(new ValidationPolicy(30, 0, 2));
+
+        assertThat(underTest.check(25, 0, 0), is(nullValue()));
+        assertThat(underTest.price(0, 1, 0), is(10));
+    }
+
+    @Test
+    void quote_policyTooLargeToTabulateIsRejectedWhenPublished() {
+        PublishingPolicies policies = new PublishingPolicies();
+        QuoteService underTest = new QuoteService(policies);
+
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class, () -> policies.publish(new ValidationPolicy(1_000, 1, 2)));
+
+        assertThat(exception.getMessage(), is(String.format(TOO_MANY_TICKETS_FOR_TABLE_ERROR, 255, 1_000)));
+        assertThat(policies.current(), is(ValidationPolicy.DEFAULT));
+        assertThat(underTest.check(25, 0, 0), is(TOO_MANY_TICKETS));
+        assertThat(underTest.check(1, 0, 0), is(nullValue()));
+    }
+
+    @Test
+    void quote_policyRejectedByAnotherSubscriberIsNeverQuoted() {
+        PublishingPolicies policies = new PublishingPolicies();
+        QuoteService underTest = new QuoteService(policies);
+        policies.subscribe(policy -> {
+            if (policy.minimumAdults() == 0) {
+                throw new IllegalArgumentException("Adults are required.");
+            }
+            return () -> {
+            };
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> policies.publish(new ValidationPolicy(30, 0, 2)));
+
+        assertThat(underTest.check(25, 0, 0), is(TOO_MANY_TICKETS));
+        assertThat(underTest.check(0, 1, 0), is(NO_ADULTS_WERE_PRESENT));
+    }
+
+    @Test
+    void quoteTable_tooManyTicketsToTabulate() {
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class, () -> new QuoteService(() -> new ValidationPolicy(1_000, 1, 2)));
+
+        assertThat(exception.getMessage(), is(String.format(TOO_MANY_TICKETS_FOR_TABLE_ERROR, 255, 1_000)));
+    }
+
+    /**
+     * Prepares every subscriber for each policy, then puts it in force and has them act on it, as a reloading policy
+     * source does.
+     */
+    private static final class PublishingPolicies implements ValidationPolicies {
+
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private ValidationPolicy current = ValidationPolicy.DEFAULT;
+
+        @Override
+        public ValidationPolicy current() {
+            return current;
+        }
+
+        @Override
+        public boolean subscribe(Subscriber subscriber) {
+            subscriber.prepare(current).run();
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        void publish(ValidationPolicy validationPolicy) {
+            List<Runnable> actions = new ArrayList<>();
+            subscribers.forEach(subscriber -> actions.add(subscriber.prepare(validationPolicy)));
+            current = validationPolicy;
+            actions.forEach(Runnable::run);
+        }
+    }
+}
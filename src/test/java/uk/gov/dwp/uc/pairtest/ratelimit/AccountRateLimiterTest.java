@@ -0,0 +1,141 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccountRateLimiterTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final int BURST = 3;
+    private static final Duration REFILL_INTERVAL = Duration.ofSeconds(1);
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AccountRateLimiter underTest = new AccountRateLimiter(BURST, REFILL_INTERVAL, now::get);
+
+    @Test
+    void tryAcquire_allowsBurst() {
+        for (int i = 0; i < BURST; i++) {
+            assertThat(underTest.tryAcquire(ACCOUNT_ID), is(true));
+        }
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(false));
+    }
+
+    @Test
+    void tryAcquire_refillsOneTokenPerInterval() {
+        for (int i = 0; i < BURST; i++) {
+            underTest.tryAcquire(ACCOUNT_ID);
+        }
+
+        now.addAndGet(REFILL_INTERVAL.toNanos() - 1);
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(false));
+        now.incrementAndGet();
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(true));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(false));
+    }
+
+    @Test
+    void tryAcquire_refillsNoMoreThanBurst() {
+        underTest.tryAcquire(ACCOUNT_ID);
+        now.addAndGet(REFILL_INTERVAL.toNanos() * 100);
+
+        for (int i = 0; i < BURST; i++) {
+            assertThat(underTest.tryAcquire(ACCOUNT_ID), is(true));
+        }
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(false));
+    }
+
+    @Test
+    void tryAcquire_bucketsArePerAccount() {
+        for (int i = 0; i < BURST; i++) {
+            underTest.tryAcquire(ACCOUNT_ID);
+        }
+
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(false));
+        assertThat(underTest.tryAcquire(2L), is(true));
+    }
+
+    @Test
+    void tryAcquire_invalidAccountsAreNotLimited() {
+        for (int i = 0; i < BURST * 2; i++) {
+            assertThat(underTest.tryAcquire(0L), is(true));
+        }
+        assertThat(underTest.trackedAccounts(), is(0));
+    }
+
+    @Test
+    void tryAcquire_manyAccountsGrowTheTables() {
+        for (long accountId = 1; accountId <= 200_000; accountId++) {
+            assertThat(underTest.tryAcquire(accountId), is(true));
+        }
+
+        assertThat(underTest.trackedAccounts(), is(200_000));
+        for (long accountId = 1; accountId <= 200_000; accountId++) {
+            underTest.tryAcquire(accountId);
+            underTest.tryAcquire(accountId);
+        }
+        assertThat(underTest.tryAcquire(ACCOUNT_ID), is(false));
+        assertThat(underTest.tryAcquire(200_000L), is(false));
+    }
+
+    @Test
+    void tryAcquire_idleAccountsAreEvicted() {
+        for (long accountId = 1; accountId <= 100_000; accountId++) {
+            underTest.tryAcquire(accountId);
+        }
+        now.addAndGet(REFILL_INTERVAL.toNanos());
+
+        for (long accountId = 100_001; accountId <= 200_000; accountId++) {
+            underTest.tryAcquire(accountId);
+        }
+
+        assertThat(underTest.trackedAccounts(), lessThan(200_000));
+    }
+
+    @Test
+    void tryAcquire_concurrentAcquiresTakeEachTokenOnce() throws Exception {
+        AccountRateLimiter underTest = new AccountRateLimiter(1_000, Duration.ofDays(1));
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < 500; i++) {
+                    if (underTest.tryAcquire(ACCOUNT_ID)) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(acquired.get(), is(1_000));
+    }
+
+    @Test
+    void constructor_burstMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new AccountRateLimiter(0, REFILL_INTERVAL));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
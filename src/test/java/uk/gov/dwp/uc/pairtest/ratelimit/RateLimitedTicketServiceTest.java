@@ -0,0 +1,88 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException.Reason.RATE_LIMITED;
+import static uk.gov.dwp.uc.pairtest.ratelimit.RateLimitedTicketService.RATE_LIMITED_ERROR;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitedTicketServiceTest {
+
+    private static final TicketPurchaseRequest FIRST_ACCOUNT = request(1L);
+    private static final TicketPurchaseRequest SECOND_ACCOUNT = request(2L);
+
+    @Mock
+    private TicketService ticketService;
+
+    private RateLimitedTicketService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new RateLimitedTicketService(ticketService, new AccountRateLimiter(1, Duration.ofDays(1), () -> 0L));
+    }
+
+    @Test
+    void purchaseTickets_withinLimit() {
+        underTest.purchaseTickets(FIRST_ACCOUNT);
+
+        verify(ticketService).purchaseTickets(FIRST_ACCOUNT);
+    }
+
+    @Test
+    void purchaseTickets_overLimitIsRejected() {
+        underTest.purchaseTickets(FIRST_ACCOUNT);
+
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                                                          () -> underTest.purchaseTickets(FIRST_ACCOUNT));
+
+        assertThat(exception.getReason(), is(RATE_LIMITED));
+        assertThat(exception.getMessage(), is(String.format(RATE_LIMITED_ERROR, 1L)));
+        verify(ticketService).purchaseTickets(FIRST_ACCOUNT);
+    }
+
+    @Test
+    void purchaseTickets_batchRejectsRequestsOverLimitInPlace() {
+        PurchaseResult first = PurchaseResult.success(1L, 1, 25);
+        PurchaseResult second = PurchaseResult.success(2L, 1, 25);
+        when(ticketService.purchaseTickets(List.of(FIRST_ACCOUNT, SECOND_ACCOUNT))).thenReturn(List.of(first, second));
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(FIRST_ACCOUNT, FIRST_ACCOUNT, SECOND_ACCOUNT));
+
+        assertThat(results, contains(first, PurchaseResult.invalid(1L, RATE_LIMITED, String.format(RATE_LIMITED_ERROR, 1L)), second));
+    }
+
+    @Test
+    void purchaseTickets_batchEntirelyOverLimit() {
+        underTest.purchaseTickets(FIRST_ACCOUNT);
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(FIRST_ACCOUNT));
+
+        assertThat(results, contains(PurchaseResult.invalid(1L, RATE_LIMITED, String.format(RATE_LIMITED_ERROR, 1L))));
+        verify(ticketService, never()).purchaseTickets(List.of(FIRST_ACCOUNT));
+    }
+
+    private static TicketPurchaseRequest request(long accountId) {
+        return new TicketPurchaseRequest(accountId, new TicketRequest[]{new TicketRequest(ADULT, 1)});
+    }
+}
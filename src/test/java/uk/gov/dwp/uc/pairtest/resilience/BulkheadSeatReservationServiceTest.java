@@ -0,0 +1,53 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkheadSeatReservationServiceTest {
+
+    private static final long ACCOUNT_ID = 1L;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    private final Bulkhead bulkhead = new Bulkhead("seats", 1, Bulkhead.OverflowPolicy.REJECT, Duration.ZERO);
+
+    @Test
+    void releaseSeat_bypassesSaturatedBulkhead() throws Exception {
+        BulkheadSeatReservationService underTest = new BulkheadSeatReservationService(seatReservationService, bulkhead);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> bulkhead.run(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThrows(RejectedExecutionException.class, () -> underTest.reserveSeat(ACCOUNT_ID, 2));
+        underTest.releaseSeat(ACCOUNT_ID, 2);
+
+        verify(seatReservationService, never()).reserveSeat(ACCOUNT_ID, 2);
+        verify(seatReservationService).releaseSeat(ACCOUNT_ID, 2);
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.resilience.Bulkhead.BULKHEAD_FULL_ERROR;
+
+public class BulkheadTest {
+
+    private static final String NAME = "payment";
+
+    @Test
+    void call() {
+        Bulkhead underTest = new Bulkhead(NAME, 1, Bulkhead.OverflowPolicy.REJECT, Duration.ZERO);
+
+        assertThat(underTest.call(() -> 1), is(1));
+        assertThat(underTest.availablePermits(), is(1));
+    }
+
+    @Test
+    void call_releasesPermitWhenCallThrows() {
+        Bulkhead underTest = new Bulkhead(NAME, 1, Bulkhead.OverflowPolicy.REJECT, Duration.ZERO);
+
+        assertThrows(IllegalStateException.class, () -> underTest.run(() -> {
+            throw new IllegalStateException();
+        }));
+
+        assertThat(underTest.availablePermits(), is(1));
+    }
+
+    @Test
+    void reject_whenFull() throws Exception {
+        Bulkhead underTest = new Bulkhead(NAME, 1, Bulkhead.OverflowPolicy.REJECT, Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> inFlight = occupy(underTest, release);
+
+        RejectedExecutionException exception = assertThrows(RejectedExecutionException.class, () -> underTest.call(() -> 1));
+
+        assertThat(exception.getMessage(), is(String.format(BULKHEAD_FULL_ERROR, NAME)));
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void queue_waitsForPermit() throws Exception {
+        Bulkhead underTest = new Bulkhead(NAME, 1, Bulkhead.OverflowPolicy.QUEUE, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> inFlight = occupy(underTest, release);
+
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> underTest.call(() -> 1));
+        release.countDown();
+
+        assertThat(queued.get(5, TimeUnit.SECONDS), is(1));
+        inFlight.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void queue_rejectsAfterMaxWait() throws Exception {
+        Bulkhead underTest = new Bulkhead(NAME, 1, Bulkhead.OverflowPolicy.QUEUE, Duration.ofMillis(10));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> inFlight = occupy(underTest, release);
+
+        assertThrows(RejectedExecutionException.class, () -> underTest.call(() -> 1));
+
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+    }
+
+    private static CompletableFuture<Void> occupy(Bulkhead bulkhead, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> bulkhead.run(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        return inFlight;
+    }
+}
@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import thirdparty.discount.Discount;
+import thirdparty.discount.DiscountService;
+import thirdparty.discount.exception.InvalidDiscountCodeException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.dwp.uc.pairtest.resilience.CircuitBreakerDiscountService.FULL_PRICE;
+
+@ExtendWith(MockitoExtension.class)
+public class CircuitBreakerDiscountServiceTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final String DISCOUNT_CODE = "DISCOUNT";
+
+    @Mock
+    private DiscountService discountService;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(
+        "discount", new CircuitBreaker.Policy(2, Duration.ofMinutes(1), Duration.ofMinutes(1)), CircuitBreaker.Listener.NONE);
+
+    @Test
+    void getDiscountPercentage_openBreakerGoesStraightToFullPrice() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenThrow(new IllegalStateException("Down"));
+        CircuitBreakerDiscountService underTest = new CircuitBreakerDiscountService(discountService, circuitBreaker);
+
+        assertThrows(IllegalStateException.class, () -> underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE));
+        assertThrows(IllegalStateException.class, () -> underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE));
+
+        assertThat(underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE), is(FULL_PRICE));
+        verify(discountService, times(2)).getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+    }
+
+    @Test
+    void getDiscountPercentage_errorsOpenBreaker() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenThrow(new StackOverflowError());
+        CircuitBreakerDiscountService underTest = new CircuitBreakerDiscountService(discountService, circuitBreaker);
+
+        assertThrows(StackOverflowError.class, () -> underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE));
+        assertThrows(StackOverflowError.class, () -> underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE));
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void getDiscountPercentage_invalidCodesDoNotOpenBreaker() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenThrow(new InvalidDiscountCodeException("Invalid"));
+        CircuitBreakerDiscountService underTest = new CircuitBreakerDiscountService(discountService, circuitBreaker);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(InvalidDiscountCodeException.class, () -> underTest.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE));
+        }
+
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void getDiscountPercentage_passesThroughWhileClosed() {
+        when(discountService.getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE)).thenReturn(new Discount(0.2));
+
+        Discount discount = new CircuitBreakerDiscountService(discountService, circuitBreaker)
+            .getDiscountPercentage(ACCOUNT_ID, DISCOUNT_CODE);
+
+        assertThat(discount, is(new Discount(0.2)));
+    }
+}
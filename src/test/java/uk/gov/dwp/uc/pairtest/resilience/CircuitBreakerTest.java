@@ -0,0 +1,117 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.metrics.CircuitBreakerMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.InMemoryMetricsRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.metrics.CircuitBreakerMetrics.rejectedCounterName;
+import static uk.gov.dwp.uc.pairtest.metrics.CircuitBreakerMetrics.transitionCounterName;
+import static uk.gov.dwp.uc.pairtest.resilience.CircuitBreaker.CIRCUIT_OPEN_ERROR;
+
+public class CircuitBreakerTest {
+
+    private static final String NAME = "discount";
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+    private static final CircuitBreaker.Policy POLICY = new CircuitBreaker.Policy(3, OPEN_DURATION, Duration.ofSeconds(1));
+
+    private final AtomicLong now = new AtomicLong(Long.MAX_VALUE - 1_000);
+    private final InMemoryMetricsRegistry metricsRegistry = new InMemoryMetricsRegistry();
+    private final CircuitBreaker underTest = new CircuitBreaker(
+        NAME, POLICY, new CircuitBreakerMetrics(NAME, metricsRegistry), now::get);
+
+    @Test
+    void call_staysClosedBelowThreshold() {
+        fail(2);
+        assertThat(underTest.call(() -> 1), is(1));
+        fail(2);
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void call_opensAfterConsecutiveFailures() {
+        AtomicInteger calls = new AtomicInteger();
+        fail(3);
+
+        RejectedExecutionException exception = assertThrows(RejectedExecutionException.class,
+                                                            () -> underTest.run(calls::incrementAndGet));
+
+        assertThat(exception.getMessage(), is(String.format(CIRCUIT_OPEN_ERROR, NAME)));
+        assertThat(calls.get(), is(0));
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(metricsRegistry.counterValue(transitionCounterName(NAME, CircuitBreaker.State.OPEN)), is(1L));
+        assertThat(metricsRegistry.counterValue(rejectedCounterName(NAME)), is(1L));
+    }
+
+    @Test
+    void call_slowCallsCountAsFailures() {
+        for (int i = 0; i < 3; i++) {
+            underTest.call(() -> now.addAndGet(Duration.ofSeconds(2).toNanos()));
+        }
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void call_trialCallAfterOpenDurationClosesBreaker() {
+        fail(3);
+        now.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertThat(underTest.tryAcquirePermission(), is(false));
+        now.incrementAndGet();
+
+        assertThat(underTest.call(() -> {
+            assertThat(underTest.getState(), is(CircuitBreaker.State.HALF_OPEN));
+            assertThat(underTest.tryAcquirePermission(), is(false));
+            return 1;
+        }), is(1));
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(metricsRegistry.counterValue(transitionCounterName(NAME, CircuitBreaker.State.HALF_OPEN)), is(1L));
+        assertThat(metricsRegistry.counterValue(transitionCounterName(NAME, CircuitBreaker.State.CLOSED)), is(1L));
+    }
+
+    @Test
+    void call_failedTrialCallReopensBreaker() {
+        fail(3);
+        now.addAndGet(OPEN_DURATION.toNanos());
+
+        fail(1);
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(underTest.tryAcquirePermission(), is(false));
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertThat(underTest.tryAcquirePermission(), is(true));
+        assertThat(metricsRegistry.counterValue(transitionCounterName(NAME, CircuitBreaker.State.OPEN)), is(2L));
+    }
+
+    @Test
+    void call_trialCallThrowingErrorReopensBreaker() {
+        fail(3);
+        now.addAndGet(OPEN_DURATION.toNanos());
+
+        assertThrows(StackOverflowError.class, () -> underTest.run(() -> {
+            throw new StackOverflowError();
+        }));
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertThat(underTest.tryAcquirePermission(), is(true));
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(IllegalStateException.class, () -> underTest.run(() -> {
+                throw new IllegalStateException("Down");
+            }));
+        }
+    }
+}
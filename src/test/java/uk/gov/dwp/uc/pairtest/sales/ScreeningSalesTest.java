@@ -0,0 +1,202 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+
+public class ScreeningSalesTest {
+
+    private static final long SCREENING_ID = 7L;
+    private static final TicketPurchaseRequest FAMILY = new TicketPurchaseRequest(1L, new TicketRequest[]{
+        new TicketRequest(ADULT, 2), new TicketRequest(CHILD, 1), new TicketRequest(INFANT, 1)});
+    private static final TicketPurchaseRequest ONE_ADULT = new TicketPurchaseRequest(2L, new TicketRequest[]{
+        new TicketRequest(ADULT, 1)});
+
+    private final AtomicLong now = new AtomicLong();
+    private final ScreeningSales underTest = new ScreeningSales(SCREENING_ID, now::get);
+
+    @Test
+    void snapshot_totalsEverySale() {
+        underTest.recordSale(FAMILY, 40);
+        underTest.recordSale(ONE_ADULT, 20);
+
+        SalesTotals total = underTest.snapshot().total();
+
+        assertThat(total.purchases(), is(2L));
+        assertThat(total.seatsHeld(), is(4L));
+        assertThat(total.revenue(), is(60L));
+        assertThat(total.ticketsSold(ADULT), is(3L));
+        assertThat(total.ticketsSold(CHILD), is(1L));
+        assertThat(total.ticketsSold(INFANT), is(1L));
+        assertThat(total.listRevenue(ADULT), is(60L));
+        assertThat(total.listRevenue(CHILD), is(10L));
+        assertThat(total.listRevenue(INFANT), is(0L));
+    }
+
+    @Test
+    void snapshot_noSales() {
+        ScreeningSalesSnapshot snapshot = underTest.snapshot();
+
+        assertThat(snapshot.screeningId(), is(SCREENING_ID));
+        assertThat(snapshot.total().purchases(), is(0L));
+        assertThat(snapshot.lastHour(), is(snapshot.total()));
+    }
+
+    @Test
+    void snapshot_salesRollOutOfEachWindow() {
+        underTest.recordSale(FAMILY, 50);
+        assertThat(underTest.snapshot().lastMinute(), is(underTest.snapshot().total()));
+
+        advance(TimeUnit.SECONDS, 61);
+        underTest.recordSale(ONE_ADULT, 20);
+        ScreeningSalesSnapshot afterAMinute = underTest.snapshot();
+        assertThat(afterAMinute.lastMinute().purchases(), is(1L));
+        assertThat(afterAMinute.lastMinute().revenue(), is(20L));
+        assertThat(afterAMinute.last15Minutes().purchases(), is(2L));
+
+        advance(TimeUnit.MINUTES, 15);
+        ScreeningSalesSnapshot afterAQuarterHour = underTest.snapshot();
+        assertThat(afterAQuarterHour.lastMinute().purchases(), is(0L));
+        assertThat(afterAQuarterHour.last15Minutes().purchases(), is(0L));
+        assertThat(afterAQuarterHour.lastHour().purchases(), is(2L));
+
+        advance(TimeUnit.MINUTES, 60);
+        ScreeningSalesSnapshot afterAnHour = underTest.snapshot();
+        assertThat(afterAnHour.lastHour().purchases(), is(0L));
+        assertThat(afterAnHour.total().purchases(), is(2L));
+        assertThat(afterAnHour.total().revenue(), is(70L));
+    }
+
+    @Test
+    void snapshot_reusedBucketsForgetEarlierSales() {
+        underTest.recordSale(FAMILY, 50);
+        advance(TimeUnit.MINUTES, 60);
+        underTest.recordSale(ONE_ADULT, 20);
+
+        ScreeningSalesSnapshot snapshot = underTest.snapshot();
+
+        assertThat(snapshot.lastMinute().revenue(), is(20L));
+        assertThat(snapshot.lastHour().revenue(), is(20L));
+        assertThat(snapshot.total().revenue(), is(70L));
+    }
+
+    @Test
+    void snapshot_neverSeesPartOfASale() throws Exception {
+        int writers = 4;
+        int salesPerWriter = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> sales = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                sales.add(executor.submit(() -> {
+                    start.await();
+                    for (int sale = 0; sale < salesPerWriter; sale++) {
+                        underTest.recordSale(FAMILY, 40);
+                    }
+                    return null;
+                }));
+            }
+            Future<Integer> reads = executor.submit(() -> {
+                start.await();
+                int inconsistent = 0;
+                while (writing.get()) {
+                    SalesTotals total = underTest.snapshot().total();
+                    long purchases = total.purchases();
+                    if (total.seatsHeld() != purchases * 3 || total.revenue() != purchases * 40
+                        || total.ticketsSold(INFANT) != purchases) {
+                        inconsistent++;
+                    }
+                }
+                return inconsistent;
+            });
+
+            start.countDown();
+            for (Future<?> sale : sales) {
+                sale.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+
+            assertThat(reads.get(30, TimeUnit.SECONDS), is(0));
+            assertThat(underTest.snapshot().total().purchases(), is((long) writers * salesPerWriter));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void recordSale_growsTheStripesRatherThanWaitForOne() throws Exception {
+        int stripes = underTest.stripeCount();
+        CountDownLatch held = new CountDownLatch(stripes);
+        CountDownLatch release = new CountDownLatch(1);
+        TicketPurchaseRequest holding = new TicketPurchaseRequest(3L, new TicketRequest[]{new TicketRequest(ADULT, 1)}) {
+            @Override
+            public int numberOfSeats() {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.numberOfSeats();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(stripes + 1);
+        try {
+            List<Future<?>> sales = new ArrayList<>();
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                sales.add(executor.submit(() -> underTest.recordSale(holding, 20)));
+            }
+            assertThat(held.await(10, TimeUnit.SECONDS), is(true));
+
+            executor.submit(() -> underTest.recordSale(ONE_ADULT, 20)).get(10, TimeUnit.SECONDS);
+            release.countDown();
+            for (Future<?> sale : sales) {
+                sale.get(10, TimeUnit.SECONDS);
+            }
+
+            assertThat(underTest.stripeCount(), is(stripes * 2));
+            assertThat(underTest.snapshot().total().purchases(), is(stripes + 1L));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void aggregates_snapshotEveryScreeningInOrder() {
+        SalesAggregates aggregates = new SalesAggregates(now::get);
+        aggregates.forScreening(3L).recordSale(ONE_ADULT, 20);
+        aggregates.forScreening(1L).recordSale(FAMILY, 40);
+        aggregates.forScreening(3L).recordSale(ONE_ADULT, 20);
+
+        assertThat(aggregates.forScreening(3L), is(aggregates.forScreening(3L)));
+        assertThat(aggregates.snapshot(3L).total().revenue(), is(40L));
+        assertThat(aggregates.snapshot(2L), is(nullValue()));
+        assertThat(aggregates.snapshot().stream().map(ScreeningSalesSnapshot::screeningId).toList(), contains(1L, 3L));
+    }
+
+    private void advance(TimeUnit unit, long duration) {
+        now.addAndGet(unit.toNanos(duration));
+    }
+}
@@ -0,0 +1,131 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import uk.gov.dwp.uc.pairtest.exception.SeatsUnavailableException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.seatbooking.ScreeningSeatInventory.NOT_ENOUGH_SEATS_ERROR;
+import static uk.gov.dwp.uc.pairtest.seatbooking.ScreeningSeatInventory.NOT_ENOUGH_SEATS_HELD_ERROR;
+
+public class ScreeningSeatInventoryTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final int CAPACITY = 10;
+
+    private final ScreeningSeatInventory underTest = new ScreeningSeatInventory(CAPACITY);
+
+    @Test
+    void reserveSeat() {
+        underTest.reserveSeat(ACCOUNT_ID, 4);
+
+        assertThat(underTest.remainingSeats(), is(6));
+        assertThat(underTest.seatsHeld(ACCOUNT_ID), is(4));
+    }
+
+    @Test
+    void reserveSeat_rejectsOversell() {
+        underTest.reserveSeat(ACCOUNT_ID, 8);
+
+        SeatsUnavailableException exception = assertThrows(SeatsUnavailableException.class,
+                                                           () -> underTest.reserveSeat(ACCOUNT_ID, 3));
+
+        assertThat(exception.getMessage(), is(NOT_ENOUGH_SEATS_ERROR));
+        assertThat(underTest.remainingSeats(), is(2));
+    }
+
+    @ParameterizedTest(name = "Invalid seat count {0}")
+    @ValueSource(ints = {0, -1})
+    void reserveSeat_invalidSeatCount(int seats) {
+        assertThrows(IllegalArgumentException.class, () -> underTest.reserveSeat(ACCOUNT_ID, seats));
+    }
+
+    @Nested
+    class ReleaseSeat {
+
+        @Test
+        void releaseSeat() {
+            underTest.reserveSeat(ACCOUNT_ID, 4);
+
+            underTest.releaseSeat(ACCOUNT_ID, 3);
+
+            assertThat(underTest.remainingSeats(), is(9));
+            assertThat(underTest.seatsHeld(ACCOUNT_ID), is(1));
+        }
+
+        @Test
+        void releaseSeat_moreThanHeld() {
+            underTest.reserveSeat(ACCOUNT_ID, 2);
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                                                           () -> underTest.releaseSeat(ACCOUNT_ID, 3));
+
+            assertThat(exception.getMessage(), is(String.format(NOT_ENOUGH_SEATS_HELD_ERROR, ACCOUNT_ID, 3)));
+            assertThat(underTest.remainingSeats(), is(8));
+        }
+
+        @Test
+        void releaseSeat_unknownAccount() {
+            assertThrows(IllegalStateException.class, () -> underTest.releaseSeat(ACCOUNT_ID, 1));
+        }
+    }
+
+    @Test
+    void reserveAndReleaseSeat_neverOversellUnderContention() throws Exception {
+        int capacity = 500;
+        int threads = 200;
+        ScreeningSeatInventory inventory = new ScreeningSeatInventory(capacity);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Integer>> seatsHeldPerThread = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            long accountId = thread + 1;
+            seatsHeldPerThread.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(accountId);
+                int held = 0;
+                start.await();
+                for (int attempt = 0; attempt < 1_000; attempt++) {
+                    int seats = 1 + random.nextInt(4);
+                    try {
+                        inventory.reserveSeat(accountId, seats);
+                        held += seats;
+                        if (random.nextInt(4) == 0) {
+                            inventory.releaseSeat(accountId, seats);
+                            held -= seats;
+                        }
+                    } catch (SeatsUnavailableException exception) {
+                        // Sold out, keep trying in case another thread releases seats.
+                    }
+                }
+                return held;
+            }));
+        }
+        start.countDown();
+
+        int totalHeld = 0;
+        for (Future<Integer> seatsHeld : seatsHeldPerThread) {
+            totalHeld += seatsHeld.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(totalHeld + inventory.remainingSeats(), is(capacity));
+        for (int thread = 0; thread < threads; thread++) {
+            assertThat(inventory.seatsHeld(thread + 1) >= 0, is(true));
+        }
+    }
+}
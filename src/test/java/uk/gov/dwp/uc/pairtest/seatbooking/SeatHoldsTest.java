@@ -0,0 +1,124 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class SeatHoldsTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final Duration HOLD_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private final AtomicLong now = new AtomicLong();
+    private final ScreeningSeatInventory inventory = new ScreeningSeatInventory(10);
+    private final SeatHolds underTest = new SeatHolds(inventory, HOLD_TIMEOUT, TICK, now::get, false);
+
+    @Test
+    void hold_reservesSeats() {
+        underTest.hold(ACCOUNT_ID, 3);
+
+        assertThat(inventory.remainingSeats(), is(7));
+        assertThat(underTest.pendingHolds(), is(1));
+    }
+
+    @Test
+    void expireStaleHolds_releasesUnconfirmedHolds() {
+        underTest.hold(ACCOUNT_ID, 3);
+        SeatHolds.Hold confirmed = underTest.hold(ACCOUNT_ID, 2);
+        confirmed.confirm();
+
+        now.addAndGet(HOLD_TIMEOUT.toNanos() - 1);
+        assertThat(underTest.expireStaleHolds(), is(0));
+        now.addAndGet(TICK.toNanos());
+        assertThat(underTest.expireStaleHolds(), is(1));
+
+        assertThat(inventory.remainingSeats(), is(8));
+        assertThat(inventory.seatsHeld(ACCOUNT_ID), is(2));
+        assertThat(underTest.pendingHolds(), is(0));
+    }
+
+    @Test
+    void confirm_afterExpiry() {
+        SeatHolds.Hold hold = underTest.hold(ACCOUNT_ID, 3);
+        now.addAndGet(HOLD_TIMEOUT.plus(TICK).toNanos());
+        underTest.expireStaleHolds();
+
+        assertThat(hold.confirm(), is(false));
+        assertThat(hold.release(), is(false));
+        assertThat(inventory.remainingSeats(), is(10));
+    }
+
+    @Test
+    void cancel_releasesUnconfirmedHold() {
+        SeatHolds.Hold hold = underTest.hold(ACCOUNT_ID, 3);
+
+        assertThat(hold.cancel(), is(true));
+        assertThat(hold.cancel(), is(false));
+        assertThat(inventory.remainingSeats(), is(10));
+        assertThat(underTest.pendingHolds(), is(0));
+    }
+
+    @Test
+    void cancel_leavesConfirmedHold() {
+        SeatHolds.Hold hold = underTest.hold(ACCOUNT_ID, 3);
+        hold.confirm();
+
+        assertThat(hold.cancel(), is(false));
+        assertThat(inventory.remainingSeats(), is(7));
+    }
+
+    @Test
+    void release_confirmedHold() {
+        SeatHolds.Hold hold = underTest.hold(ACCOUNT_ID, 3);
+        hold.confirm();
+
+        assertThat(hold.release(), is(true));
+        assertThat(hold.release(), is(false));
+        assertThat(inventory.remainingSeats(), is(10));
+    }
+
+    @Test
+    void holdsWithoutExpiry() {
+        SeatHolds holds = new SeatHolds(inventory);
+        SeatHolds.Hold hold = holds.hold(ACCOUNT_ID, 3);
+
+        assertThat(holds.pendingHolds(), is(0));
+        assertThat(holds.expireStaleHolds(), is(0));
+        assertThat(hold.confirm(), is(true));
+        assertThat(inventory.remainingSeats(), is(7));
+    }
+
+    @Test
+    void expiresOnTick() throws Exception {
+        try (SeatHolds holds = new SeatHolds(inventory, Duration.ofMillis(20), Duration.ofMillis(5))) {
+            holds.hold(ACCOUNT_ID, 3);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (inventory.remainingSeats() != 10 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        assertThat(inventory.remainingSeats(), is(10));
+    }
+
+    @Test
+    void expireStaleHolds_manyHolds() {
+        ScreeningSeatInventory largeInventory = new ScreeningSeatInventory(1_000_000);
+        SeatHolds holds = new SeatHolds(largeInventory, HOLD_TIMEOUT, TICK, now::get, false);
+        for (int i = 0; i < 1_000_000; i++) {
+            now.addAndGet(1_000);
+            holds.hold(i, 1);
+        }
+
+        now.addAndGet(HOLD_TIMEOUT.plus(TICK).toNanos());
+        assertThat(holds.expireStaleHolds(), is(1_000_000));
+        assertThat(largeInventory.remainingSeats(), is(1_000_000));
+    }
+}
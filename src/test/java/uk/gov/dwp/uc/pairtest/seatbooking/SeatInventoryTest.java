@@ -0,0 +1,35 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SeatInventoryTest {
+
+    private static final long SCREENING_ID = 7L;
+
+    private final SeatInventory underTest = new SeatInventory();
+
+    @Test
+    void forScreening() {
+        ScreeningSeatInventory screening = underTest.addScreening(SCREENING_ID, 100);
+
+        assertThat(underTest.forScreening(SCREENING_ID), sameInstance(screening));
+        assertThat(screening.getCapacity(), is(100));
+    }
+
+    @Test
+    void forScreening_unknownScreening() {
+        assertThrows(IllegalArgumentException.class, () -> underTest.forScreening(SCREENING_ID));
+    }
+
+    @Test
+    void addScreening_duplicateScreening() {
+        underTest.addScreening(SCREENING_ID, 100);
+
+        assertThrows(IllegalStateException.class, () -> underTest.addScreening(SCREENING_ID, 100));
+    }
+}
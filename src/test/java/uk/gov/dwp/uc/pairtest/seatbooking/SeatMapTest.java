@@ -0,0 +1,197 @@
+package uk.gov.dwp.uc.pairtest.seatbooking;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketRequest;
+import uk.gov.dwp.uc.pairtest.exception.SeatsUnavailableException;
+import uk.gov.dwp.uc.pairtest.seatbooking.SeatMap.SeatBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketRequest.Type.INFANT;
+import static uk.gov.dwp.uc.pairtest.seatbooking.SeatMap.INVALID_ROW_LENGTH_ERROR;
+import static uk.gov.dwp.uc.pairtest.seatbooking.SeatMap.NOT_ENOUGH_SEATS_ERROR;
+import static uk.gov.dwp.uc.pairtest.seatbooking.SeatMap.NOT_ENOUGH_SEATS_HELD_ERROR;
+
+public class SeatMapTest {
+
+    private static final long ACCOUNT_ID = 1L;
+
+    private final SeatMap underTest = new SeatMap(5, 10);
+
+    @Test
+    void allocate_bestBlockIsCentredInTheMiddleRow() {
+        assertThat(underTest.allocate(ACCOUNT_ID, 4), contains(new SeatBlock(2, 3, 4)));
+
+        assertThat(underTest.remainingSeats(), is(46));
+        assertThat(underTest.seatsHeld(ACCOUNT_ID), is(4));
+    }
+
+    @Test
+    void allocate_movesAwayFromTheMiddleRowWhenItHasNoRoom() {
+        underTest.allocate(ACCOUNT_ID, 4);
+
+        assertThat(underTest.allocate(ACCOUNT_ID, 4), contains(new SeatBlock(1, 3, 4)));
+        assertThat(underTest.allocate(ACCOUNT_ID, 3), contains(new SeatBlock(2, 0, 3)));
+    }
+
+    @Test
+    void allocate_seatsAdultsAndChildrenButNotInfants() {
+        TicketPurchaseRequest family = new TicketPurchaseRequest(ACCOUNT_ID, new TicketRequest[]{
+            new TicketRequest(ADULT, 2), new TicketRequest(CHILD, 1), new TicketRequest(INFANT, 2)});
+
+        assertThat(underTest.allocate(family), contains(new SeatBlock(2, 3, 3)));
+    }
+
+    @Test
+    void allocate_splitsAGroupWithNoBlockBigEnough() {
+        SeatMap underTest = new SeatMap(2, 5);
+        underTest.allocate(2L, 1);
+        underTest.allocate(3L, 5);
+
+        assertThat(underTest.allocate(ACCOUNT_ID, 3), contains(new SeatBlock(0, 0, 2), new SeatBlock(0, 3, 1)));
+        assertThat(underTest.remainingSeats(), is(1));
+    }
+
+    @Test
+    void allocate_rejectsOversell() {
+        underTest.allocate(ACCOUNT_ID, 48);
+
+        SeatsUnavailableException exception = assertThrows(SeatsUnavailableException.class,
+                                                           () -> underTest.allocate(ACCOUNT_ID, 3));
+
+        assertThat(exception.getMessage(), is(NOT_ENOUGH_SEATS_ERROR));
+        assertThat(underTest.remainingSeats(), is(2));
+    }
+
+    @Test
+    void allocate_fullRowOfSixtyFourSeats() {
+        SeatMap underTest = new SeatMap(1, Long.SIZE);
+
+        assertThat(underTest.allocate(ACCOUNT_ID, Long.SIZE), contains(new SeatBlock(0, 0, Long.SIZE)));
+        assertThat(underTest.isTaken(0, Long.SIZE - 1), is(true));
+    }
+
+    @Test
+    void releaseSeat_freesTheMostRecentSeats() {
+        underTest.allocate(ACCOUNT_ID, 4);
+        underTest.allocate(ACCOUNT_ID, 4);
+
+        underTest.releaseSeat(ACCOUNT_ID, 6);
+
+        assertThat(underTest.seatsHeld(ACCOUNT_ID), is(2));
+        assertThat(underTest.remainingSeats(), is(48));
+        assertThat(underTest.isTaken(2, 3), is(true));
+        assertThat(underTest.isTaken(2, 4), is(true));
+        assertThat(underTest.isTaken(2, 5), is(false));
+        assertThat(underTest.isTaken(1, 3), is(false));
+    }
+
+    @Test
+    void releaseSeat_moreThanHeld() {
+        underTest.allocate(ACCOUNT_ID, 2);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                                                       () -> underTest.releaseSeat(ACCOUNT_ID, 3));
+
+        assertThat(exception.getMessage(), is(String.format(NOT_ENOUGH_SEATS_HELD_ERROR, ACCOUNT_ID, 3)));
+        assertThat(underTest.seatsHeld(ACCOUNT_ID), is(2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 65})
+    void invalidRowLength(int rowLength) {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                                          () -> new SeatMap(1, rowLength));
+
+        assertThat(exception.getMessage(), is(String.format(INVALID_ROW_LENGTH_ERROR, rowLength)));
+    }
+
+    @Test
+    void allocate_concurrentGroupsNeverShareASeat() throws Exception {
+        SeatMap underTest = new SeatMap(20, 25);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<SeatBlock>>> buyers = new ArrayList<>();
+            for (int buyer = 0; buyer < 8; buyer++) {
+                int groupSize = buyer % 4 + 1;
+                long accountId = buyer + 1;
+                buyers.add(executor.submit(() -> {
+                    start.await();
+                    List<SeatBlock> blocks = new ArrayList<>();
+                    try {
+                        while (true) {
+                            blocks.addAll(underTest.allocate(accountId, groupSize));
+                        }
+                    } catch (SeatsUnavailableException soldOut) {
+                        return blocks;
+                    }
+                }));
+            }
+            start.countDown();
+
+            boolean[][] seated = new boolean[20][25];
+            int seats = 0;
+            for (Future<List<SeatBlock>> buyer : buyers) {
+                for (SeatBlock block : buyer.get(10, TimeUnit.SECONDS)) {
+                    for (int seat = block.firstSeat(); seat < block.firstSeat() + block.seats(); seat++) {
+                        assertThat(seated[block.row()][seat], is(false));
+                        seated[block.row()][seat] = true;
+                        seats++;
+                    }
+                }
+            }
+            assertThat(seats + underTest.remainingSeats(), is(500));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nested
+    class BitTricks {
+
+        @ParameterizedTest
+        @CsvSource({"0b1111, 4, 0b0001",
+                    "0b1111, 2, 0b0111",
+                    "0b1110111, 3, 0b0010001",
+                    "0b1010101, 2, 0",
+                    "-1, 64, 1"})
+        void blockStarts(String free, int seats, String starts) {
+            assertThat(SeatMap.blockStarts(bits(free), seats), is(bits(starts)));
+        }
+
+        @ParameterizedTest
+        @CsvSource({"0, 0", "0b1, 1", "0b1101110, 3", "-1, 64"})
+        void longestRun(String free, int length) {
+            assertThat(SeatMap.longestRun(bits(free)), is(length));
+        }
+
+        @ParameterizedTest
+        @CsvSource({"0b1000001, 3, 0", "0b1000001, 4, 6", "0b0100100, 4, 5", "0b0001000, 0, 3"})
+        void nearest(String starts, int target, int nearest) {
+            assertThat(SeatMap.nearest(bits(starts), target), is(nearest));
+        }
+
+        private static long bits(String value) {
+            return value.startsWith("0b") ? Long.parseLong(value.substring(2), 2) : Long.parseLong(value);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ValidationPolicyFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void current_readsPolicy() throws IOException {
+        Path file = write(policy(30, 0, 1));
+
+        try (ValidationPolicyFile underTest = new ValidationPolicyFile(file)) {
+            assertThat(underTest.current(), is(new ValidationPolicy(30, 0, 1)));
+        }
+    }
+
+    @Test
+    void current_followsChangesToTheFile() throws Exception {
+        Path file = write(policy(20, 1, 2));
+
+        try (ValidationPolicyFile underTest = new ValidationPolicyFile(file)) {
+            write(policy(40, 1, 2));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (underTest.current().maximumTickets() != 40 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(underTest.current().maximumTickets(), is(40));
+        }
+    }
+
+    @Test
+    void reload_invalidFileKeepsCurrentPolicy() throws IOException {
+        Path file = write(policy(30, 1, 2));
+
+        try (ValidationPolicyFile underTest = new ValidationPolicyFile(file)) {
+            write("maximumTickets=lots\nminimumAdults=1\nmaximumInfantsPerAdult=2\n");
+            assertThat(underTest.reload(), is(false));
+            write(policy(0, 1, 2));
+            assertThat(underTest.reload(), is(false));
+            write("maximumTickets=40\n");
+            assertThat(underTest.reload(), is(false));
+
+            assertThat(underTest.current().maximumTickets(), is(30));
+            assertThat(underTest.reloadFailures(), greaterThanOrEqualTo(3L));
+        }
+    }
+
+    @Test
+    void reload_rejectedBySubscriberKeepsCurrentPolicy() throws IOException {
+        Path file = write(policy(30, 1, 2));
+        List<ValidationPolicy> published = new CopyOnWriteArrayList<>();
+        List<ValidationPolicy> inForce = new CopyOnWriteArrayList<>();
+
+        try (ValidationPolicyFile underTest = new ValidationPolicyFile(file)) {
+            assertThat(underTest.subscribe(policy -> () -> {
+                published.add(policy);
+                inForce.add(underTest.current());
+            }), is(true));
+            assertThat(underTest.subscribe(policy -> {
+                if (policy.maximumTickets() > 100) {
+                    throw new IllegalArgumentException("Too many tickets.");
+                }
+                return () -> {
+                };
+            }), is(true));
+            write(policy(300, 1, 2));
+            assertThat(underTest.reload(), is(false));
+            write(policy(40, 1, 2));
+            assertThat(underTest.reload(), is(true));
+
+            assertThat(published.getFirst(), is(new ValidationPolicy(30, 1, 2)));
+            assertThat(published.getLast(), is(new ValidationPolicy(40, 1, 2)));
+            assertThat(published, not(hasItem(new ValidationPolicy(300, 1, 2))));
+            assertThat(inForce, is(published));
+            assertThat(underTest.current().maximumTickets(), is(40));
+        }
+    }
+
+    @Test
+    void constructor_missingFileFails() {
+        assertThrows(NoSuchFileException.class, () -> new ValidationPolicyFile(directory.resolve("missing.properties")));
+    }
+
+    @Test
+    void constructor_invalidFileFails() throws IOException {
+        Path file = write(policy(20, -1, 2));
+
+        assertThrows(IllegalArgumentException.class, () -> new ValidationPolicyFile(file));
+    }
+
+    private static String policy(int maximumTickets, int minimumAdults, int maximumInfantsPerAdult) {
+        return "maximumTickets=" + maximumTickets + "\nminimumAdults=" + minimumAdults
+            + "\nmaximumInfantsPerAdult=" + maximumInfantsPerAdult + "\n";
+    }
+
+    private Path write(String contents) throws IOException {
+        return Files.writeString(directory.resolve("validation.properties"), contents);
+    }
+}